@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+/**
+ * XML backend.
+ * Parses XML documents into one of the {@link Xml} implementations.
+ * Custom backends are discovered by {@link java.util.ServiceLoader}, so to plug
+ * your own backend, list it in
+ * {@code META-INF/services/com.github.lombrozo.xnav.Backend}.
+ * {@link XnavFactory} picks the backend with the highest score for the workload.
+ *
+ * @since 0.2
+ */
+public interface Backend {
+
+    /**
+     * Unique name of the backend.
+     *
+     * @return Name.
+     */
+    String name();
+
+    /**
+     * How well the backend suits the workload.
+     * Negative score means the backend can't be used for this workload.
+     *
+     * @param workload Expected workload.
+     * @return Score.
+     */
+    int score(Workload workload);
+
+    /**
+     * Parse the XML document.
+     *
+     * @param xml XML document as a string.
+     * @return Parsed XML.
+     */
+    Xml parse(String xml);
+}
@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Characters encoded into UTF-8 bytes of a channel.
+ * Both buffers are allocated once and reused until the end of printing.
+ * This class is not thread-safe.
+ *
+ * @since 0.2
+ */
+final class ByteSink implements Appendable {
+
+    /**
+     * Buffer size.
+     */
+    private static final int SIZE = 8 * 1024;
+
+    /**
+     * Target channel.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * Pending characters.
+     */
+    private final CharBuffer chars;
+
+    /**
+     * Encoded bytes.
+     */
+    private final ByteBuffer bytes;
+
+    /**
+     * UTF-8 encoder.
+     */
+    private final CharsetEncoder encoder;
+
+    /**
+     * Ctor.
+     * @param channel Target channel.
+     */
+    ByteSink(final WritableByteChannel channel) {
+        this.channel = channel;
+        this.chars = CharBuffer.allocate(ByteSink.SIZE);
+        this.bytes = ByteBuffer.allocate(ByteSink.SIZE * 3);
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+        throws IOException {
+        int from = start;
+        while (from < end) {
+            if (!this.chars.hasRemaining()) {
+                this.encode(false);
+            }
+            final int next = Math.min(end, from + this.chars.remaining());
+            if (csq instanceof String) {
+                this.chars.put((String) csq, from, next);
+            } else {
+                for (int idx = from; idx < next; ++idx) {
+                    this.chars.put(csq.charAt(idx));
+                }
+            }
+            from = next;
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(final char chr) throws IOException {
+        if (!this.chars.hasRemaining()) {
+            this.encode(false);
+        }
+        this.chars.put(chr);
+        return this;
+    }
+
+    /**
+     * Encode and write all pending characters.
+     * @throws IOException If fails to write.
+     */
+    void flush() throws IOException {
+        this.encode(true);
+        this.encoder.flush(this.bytes);
+        this.drain();
+        this.encoder.reset();
+    }
+
+    /**
+     * Encode pending characters.
+     * An unpaired high surrogate at the end stays pending until the next call.
+     * @param last Whether there are no more characters.
+     * @throws IOException If fails to write.
+     */
+    private void encode(final boolean last) throws IOException {
+        this.chars.flip();
+        CoderResult result = this.encoder.encode(this.chars, this.bytes, last);
+        while (result.isOverflow()) {
+            this.drain();
+            result = this.encoder.encode(this.chars, this.bytes, last);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        this.chars.compact();
+        this.drain();
+    }
+
+    /**
+     * Write all encoded bytes to the channel.
+     * @throws IOException If fails to write.
+     */
+    private void drain() throws IOException {
+        this.bytes.flip();
+        while (this.bytes.hasRemaining()) {
+            this.channel.write(this.bytes);
+        }
+        this.bytes.clear();
+    }
+}
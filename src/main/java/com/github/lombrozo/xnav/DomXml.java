@@ -23,18 +23,25 @@
  */
 package com.github.lombrozo.xnav;
 
-import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -47,22 +54,23 @@ import org.w3c.dom.NodeList;
  * @since 0.1
  */
 @SuppressWarnings("PMD.TooManyMethods")
-final class DomXml implements Xml {
+final class DomXml implements KindedXml, EditableXml, Printable {
 
     /**
-     * Transformer factory.
+     * Key of the cached structural hash in the node user data.
      */
-    private static final TransformerFactory TFACTORY = TransformerFactory.newInstance();
+    private static final String DIGEST = "xnav.digest";
 
     /**
-     * Actual XML document node.
+     * Origin of the actual XML document node.
      */
-    private final Node inner;
+    private final Origin origin;
 
     /**
-     * Synchronization object.
+     * Lock of the document.
+     * All nodes of the same document share it.
      */
-    private final Object sync;
+    private final Domain sync;
 
     /**
      * Ctor.
@@ -70,16 +78,18 @@ final class DomXml implements Xml {
      * @param xml XML document as a string.
      */
     DomXml(final String xml) {
-        this(new StringNode(xml).toNode());
+        this(new StringNode(xml).toNode(), new Domain(false));
     }
 
     /**
      * Ctor.
+     * The node comes from outside, so it might be changed at any moment
+     * and its structural hashes are never cached.
      *
      * @param node XML document node.
      */
     DomXml(final Node node) {
-        this(node, new Object());
+        this(node, new Domain(true));
     }
 
     /**
@@ -87,160 +97,1165 @@ final class DomXml implements Xml {
      * @param inner Inner node.
      * @param sync Synchronization object.
      */
-    private DomXml(final Node inner, final Object sync) {
-        this.inner = inner;
+    private DomXml(final Node inner, final Domain sync) {
+        this(sync.origin(inner), sync);
+    }
+
+    /**
+     * Constructor.
+     * @param origin Origin of the inner node.
+     * @param sync Synchronization object.
+     */
+    private DomXml(final Origin origin, final Domain sync) {
+        this.origin = origin;
         this.sync = sync;
     }
 
     @Override
     public Xml child(final String element) {
-        synchronized (this.syn()) {
-            final NodeList nodes = this.inner.getChildNodes();
-            final int length = nodes.getLength();
-            Xml res = new Empty();
-            for (int idx = 0; idx < length; ++idx) {
-                final Node child = nodes.item(idx);
-                if (child.getNodeType() == Node.ELEMENT_NODE
-                    && child.getNodeName().equals(element)) {
-                    res = new DomXml(child, this.sync);
-                    break;
+        return this.sync.locked(
+            () -> {
+                final NodeList nodes = this.inner().getChildNodes();
+                final int length = nodes.getLength();
+                Xml res = new Empty();
+                for (int idx = 0; idx < length; ++idx) {
+                    final Node child = nodes.item(idx);
+                    if (child.getNodeType() == Node.ELEMENT_NODE
+                        && child.getNodeName().equals(element)) {
+                        res = new DomXml(child, this.sync);
+                        break;
+                    }
                 }
+                return res;
             }
-            return res;
-        }
+        );
     }
 
     @Override
     public Optional<Xml> attribute(final String name) {
-        synchronized (this.syn()) {
-            final NamedNodeMap attributes = this.inner.getAttributes();
-            final Optional<Xml> result;
-            if (Objects.isNull(attributes)) {
-                result = Optional.empty();
-            } else {
-                final Node item = attributes.getNamedItem(name);
-                if (Objects.nonNull(item)) {
-                    result = Optional.of(new DomXml(item, this.sync));
-                } else {
+        return this.sync.locked(
+            () -> {
+                final NamedNodeMap attributes = this.inner().getAttributes();
+                final Optional<Xml> result;
+                if (Objects.isNull(attributes)) {
                     result = Optional.empty();
+                } else {
+                    final Node item = attributes.getNamedItem(name);
+                    if (Objects.nonNull(item)) {
+                        result = Optional.of(new DomXml(item, this.sync));
+                    } else {
+                        result = Optional.empty();
+                    }
                 }
+                return result;
             }
-            return result;
-        }
+        );
     }
 
     @Override
     public Optional<String> text() {
-        synchronized (this.syn()) {
-            final Optional<String> result;
-            if (this.inner.getNodeType() == Node.DOCUMENT_NODE) {
-                result = Optional.ofNullable(this.inner.getFirstChild().getTextContent());
-            } else if (this.inner.getNodeType() == Node.ATTRIBUTE_NODE) {
-                result = Optional.of(this.inner.getNodeValue());
-            } else {
-                result = Optional.of(this.inner).map(Node::getTextContent);
+        return this.sync.locked(
+            () -> {
+                final Optional<String> result;
+                if (this.inner().getNodeType() == Node.DOCUMENT_NODE) {
+                    result = Optional.ofNullable(this.inner().getFirstChild().getTextContent());
+                } else if (this.inner().getNodeType() == Node.ATTRIBUTE_NODE) {
+                    result = Optional.of(this.inner().getNodeValue());
+                } else {
+                    result = Optional.of(this.inner()).map(Node::getTextContent);
+                }
+                return result;
             }
-            return result;
-        }
+        );
     }
 
     @Override
     public Stream<Xml> children() {
-        synchronized (this.syn()) {
-            final Stream<Xml> result;
-            if (this.inner.getNodeType() == Node.ATTRIBUTE_NODE) {
-                result = Stream.empty();
-            } else {
-                final NodeList nodes = this.inner.getChildNodes();
-                final int length = nodes.getLength();
+        return this.sync.locked(
+            () -> {
+                final Stream<Xml> result;
+                if (this.inner().getNodeType() == Node.ATTRIBUTE_NODE) {
+                    result = Stream.empty();
+                } else {
+                    final NodeList nodes = this.inner().getChildNodes();
+                    final int length = nodes.getLength();
+                    final Stream.Builder<Xml> builder = Stream.builder();
+                    for (int index = 0; index < length; ++index) {
+                        final Node node = nodes.item(index);
+                        if (node != null) {
+                            builder.accept(new DomXml(node, this.sync));
+                        }
+                    }
+                    result = builder.build();
+                }
+                return result;
+            }
+        );
+    }
+
+    @Override
+    public Stream<Xml> attributes() {
+        return this.sync.locked(
+            () -> {
+                final NamedNodeMap attributes = this.inner().getAttributes();
                 final Stream.Builder<Xml> builder = Stream.builder();
-                for (int index = 0; index < length; ++index) {
-                    final Node node = nodes.item(index);
-                    if (node != null) {
-                        builder.accept(new DomXml(node, this.sync));
+                if (attributes != null) {
+                    final int length = attributes.getLength();
+                    for (int idx = 0; idx < length; ++idx) {
+                        builder.accept(new DomXml(attributes.item(idx), this.sync));
                     }
                 }
-                result = builder.build();
+                return builder.build();
             }
-            return result;
-        }
+        );
+    }
+
+    @Override
+    public Xml parent() {
+        return this.sync.locked(
+            () -> {
+                final Node node = this.inner();
+                final Node parent;
+                if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+                    parent = ((Attr) node).getOwnerElement();
+                } else {
+                    parent = node.getParentNode();
+                }
+                return this.wrap(parent);
+            }
+        );
+    }
+
+    @Override
+    public Xml next() {
+        return this.sync.locked(() -> this.wrap(this.inner().getNextSibling()));
+    }
+
+    @Override
+    public Xml previous() {
+        return this.sync.locked(() -> this.wrap(this.inner().getPreviousSibling()));
+    }
+
+    @Override
+    public Kind kind() {
+        return this.sync.locked(
+            () -> {
+                final Kind result;
+                switch (this.inner().getNodeType()) {
+                    case Node.DOCUMENT_NODE:
+                        result = Kind.DOCUMENT;
+                        break;
+                    case Node.ELEMENT_NODE:
+                        result = Kind.ELEMENT;
+                        break;
+                    case Node.ATTRIBUTE_NODE:
+                        result = Kind.ATTRIBUTE;
+                        break;
+                    case Node.TEXT_NODE:
+                        result = Kind.TEXT;
+                        break;
+                    case Node.CDATA_SECTION_NODE:
+                        result = Kind.CDATA;
+                        break;
+                    case Node.COMMENT_NODE:
+                        result = Kind.COMMENT;
+                        break;
+                    case Node.PROCESSING_INSTRUCTION_NODE:
+                        result = Kind.INSTRUCTION;
+                        break;
+                    default:
+                        result = Kind.DOCTYPE;
+                        break;
+                }
+                return result;
+            }
+        );
     }
 
     @Override
     public String name() {
-        synchronized (this.syn()) {
-            return Optional.ofNullable(this.inner).map(Node::getNodeName).orElse("");
+        return this.sync.locked(
+            () -> Optional.ofNullable(this.inner()).map(Node::getNodeName).orElse("")
+        );
+    }
+
+    /**
+     * Get the namespace URI of the node.
+     * Namespace aware DOM knows it already, the others resolve the prefix
+     * by the 'xmlns' declarations.
+     * @return Namespace URI, empty if the node is in no namespace.
+     */
+    @Override
+    public String namespace() {
+        return this.namespace(new HashMap<>(0));
+    }
+
+    /**
+     * Get the namespace URI of the node, resolving prefixes through a cache.
+     * @param known Resolved URIs by element identities and prefixes.
+     * @return Namespace URI, empty if the node is in no namespace.
+     */
+    String namespace(final Map<Object, Map<String, String>> known) {
+        final String uri = this.sync.locked(
+            () -> Optional.ofNullable(this.inner()).map(Node::getNamespaceURI).orElse(null)
+        );
+        final String result;
+        if (uri == null) {
+            result = new Namespace(this, known).uri();
+        } else {
+            result = uri;
         }
+        return result;
     }
 
+    /**
+     * Copy the XML document.
+     * The copy of a whole document shares its nodes with the original until
+     * one of them is about to be changed, only then the nodes are cloned.
+     * Reading the copy never clones anything. While the nodes are shared,
+     * the copy uses the lock of the original.
+     * Nodes inside a document, and nodes that were already exposed and might
+     * be changed by the caller at any moment, are cloned right away.
+     * @return Copy of the document.
+     */
     @Override
     public DomXml copy() {
-        return new DomXml(this.inner.cloneNode(true), this.sync);
+        return this.sync.locked(
+            () -> {
+                final Node node = this.inner();
+                final DomXml result;
+                if (this.sync.exposed() || DomXml.above(node) != null) {
+                    result = new DomXml(node.cloneNode(true), new Domain(false));
+                } else {
+                    result = new DomXml(node, this.sync.share(node));
+                }
+                return result;
+            }
+        );
     }
 
+    @Override
+    public Xml append(final String fragment) {
+        return this.edit(
+            (node, owner) -> {
+                DomXml.element(node);
+                for (final Node child : DomXml.fragment(fragment, node, owner)) {
+                    node.appendChild(child);
+                }
+            }
+        );
+    }
+
+    @Override
+    public Xml replace(final String fragment) {
+        return this.edit(
+            (node, owner) -> {
+                DomXml.editable(node);
+                if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            "Attribute '%s' can't be replaced by a fragment, set its value instead",
+                            node.getNodeName()
+                        )
+                    );
+                }
+                final Node parent = node.getParentNode();
+                for (final Node child : DomXml.fragment(fragment, parent, owner)) {
+                    parent.insertBefore(child, node);
+                }
+                parent.removeChild(node);
+            }
+        );
+    }
+
+    @Override
+    public Xml remove() {
+        return this.edit(
+            (node, owner) -> {
+                DomXml.editable(node);
+                if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+                    ((Attr) node).getOwnerElement().removeAttributeNode((Attr) node);
+                } else if (node.getNodeType() == Node.ELEMENT_NODE
+                    && node.getParentNode().getNodeType() == Node.DOCUMENT_NODE) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            "The root element '%s' can't be removed", node.getNodeName()
+                        )
+                    );
+                } else {
+                    node.getParentNode().removeChild(node);
+                }
+            }
+        );
+    }
+
+    @Override
+    public Xml put(final String name, final String value) {
+        return this.edit(
+            (node, owner) -> {
+                DomXml.element(node);
+                DomXml.attribute((Element) node, name, value);
+            }
+        );
+    }
+
+    /**
+     * Get the actual node.
+     * Since the node might be changed by the caller, the document stops
+     * sharing nodes with its copies and with the document it was copied from.
+     * @return Node.
+     */
     @Override
     public Node node() {
-        return this.inner;
+        this.sync.detach();
+        return this.inner();
     }
 
     @Override
-    public String toString() {
-        synchronized (this.syn()) {
-            try {
-                final Transformer transformer = DomXml.TFACTORY.newTransformer();
-                transformer.setOutputProperty(OutputKeys.VERSION, "1.0");
-                transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-                if (!(this.inner instanceof Document)) {
-                    transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-                }
-                final StringWriter writer = new StringWriter();
-                transformer.transform(new DOMSource(this.inner), new StreamResult(writer));
-                return writer.toString();
-            } catch (final TransformerConfigurationException econf) {
-                throw new IllegalStateException(
-                    String.format(
-                        "Failed to configure Transformer for printing XML to a string: %s", this
-                    ),
-                    econf
-                );
-            } catch (final TransformerException exception) {
-                throw new IllegalStateException(
-                    String.format("Failed to transform XML: %s to a human-readable string", this),
-                    exception
-                );
+    public void print(final Markup markup) {
+        this.sync.run(
+            () -> {
+                final Node top = this.inner();
+                Node current = top;
+                boolean down = true;
+                boolean done = false;
+                while (!done) {
+                    if (down) {
+                        DomXml.enter(current, markup);
+                    } else if (current.getNodeType() == Node.ELEMENT_NODE) {
+                        markup.end(current.getNodeName());
+                    }
+                    if (down && current.getNodeType() != Node.ATTRIBUTE_NODE
+                        && current.getFirstChild() != null) {
+                        current = current.getFirstChild();
+                    } else if (current.equals(top)) {
+                        done = true;
+                    } else if (current.getNextSibling() == null) {
+                        current = current.getParentNode();
+                        down = false;
+                    } else {
+                        current = current.getNextSibling();
+                        down = true;
+                    }
+                }
             }
-        }
+        );
+    }
+
+    @Override
+    public String toString() {
+        return new XmlPrinter().print(this);
     }
 
+    /**
+     * Structural equality.
+     * Hashes are compared first, each under its own lock, so that
+     * different subtrees are rejected without walking them.
+     * @param obj Other object.
+     * @return True if the nodes are structurally equal.
+     */
     @Override
     public boolean equals(final Object obj) {
-        synchronized (this.syn()) {
-            final boolean result;
-            if (this == obj) {
-                result = true;
-            } else if (obj == null || getClass() != obj.getClass()) {
-                result = false;
+        final boolean result;
+        if (this == obj) {
+            result = true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            result = false;
+        } else {
+            final DomXml other = (DomXml) obj;
+            if (this.hashCode() == other.hashCode()) {
+                result = this.sync.locked(() -> DomXml.same(this.inner(), other.inner()));
             } else {
-                final DomXml other = (DomXml) obj;
-                result = this.inner.isEqualNode(other.inner);
+                result = false;
             }
-            return result;
         }
+        return result;
     }
 
+    /**
+     * Structural hash code, consistent with {@link Node#isEqualNode(Node)}.
+     * The hash of every subtree is computed once and kept in the node user
+     * data until the document is exposed for changes by {@link #node()}.
+     * @return Hash code.
+     */
     @Override
     public int hashCode() {
-        synchronized (this.syn()) {
-            return Objects.hashCode(this.inner);
+        return this.sync.locked(() -> DomXml.digest(this.inner(), !this.sync.exposed()));
+    }
+
+    /**
+     * Identity of the node.
+     * Unlike {@link #equals(Object)}, it distinguishes equal subtrees
+     * located in different places of the document.
+     * @return The same object for all wrappers of the same node.
+     */
+    Object identity() {
+        return this.inner();
+    }
+
+    /**
+     * Whether the document still shares its nodes with another one.
+     * @return True if the nodes are shared, so they were not cloned yet.
+     */
+    boolean shared() {
+        return this.sync.shared();
+    }
+
+    /**
+     * Print the node itself, without its children.
+     * Document types are not printed.
+     * @param node Node.
+     * @param markup Markup to print into.
+     */
+    private static void enter(final Node node, final Markup markup) {
+        switch (node.getNodeType()) {
+            case Node.DOCUMENT_NODE:
+                markup.declaration();
+                break;
+            case Node.ELEMENT_NODE:
+                markup.open(node.getNodeName());
+                final NamedNodeMap attributes = node.getAttributes();
+                final int length = attributes.getLength();
+                for (int idx = 0; idx < length; ++idx) {
+                    final Node attr = attributes.item(idx);
+                    markup.attribute(attr.getNodeName(), attr.getNodeValue());
+                }
+                markup.close(!node.hasChildNodes());
+                break;
+            case Node.ATTRIBUTE_NODE:
+                markup.attribute(node.getNodeName(), node.getNodeValue());
+                break;
+            case Node.TEXT_NODE:
+                markup.text(node.getNodeValue());
+                break;
+            case Node.CDATA_SECTION_NODE:
+                markup.cdata(node.getNodeValue());
+                break;
+            case Node.COMMENT_NODE:
+                markup.comment(node.getNodeValue());
+                break;
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                markup.instruction(node.getNodeName(), node.getNodeValue());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Compare nodes by the document order.
+     * @param other Other node of the same document.
+     * @return Negative if this node goes earlier, zero if the nodes are the
+     *  same or belong to different documents.
+     */
+    int order(final DomXml other) {
+        return this.sync.locked(
+            () -> {
+                final short position = this.inner().compareDocumentPosition(other.inner());
+                final int result;
+                if ((position & Node.DOCUMENT_POSITION_DISCONNECTED) != 0 || position == 0) {
+                    result = 0;
+                } else if ((position & Node.DOCUMENT_POSITION_FOLLOWING) != 0) {
+                    result = -1;
+                } else {
+                    result = 1;
+                }
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Structural hash of the node.
+     * The tree is walked with an explicit stack, so documents of any depth
+     * can be hashed.
+     * @param node Node.
+     * @param cache Whether hashes of subtrees might be cached.
+     * @return Hash code.
+     */
+    private static int digest(final Node node, final boolean cache) {
+        Integer result = DomXml.cached(node, cache);
+        final Deque<Digest> stack = new ArrayDeque<>(0);
+        if (result == null) {
+            stack.push(new Digest(node, cache));
+        }
+        while (!stack.isEmpty()) {
+            final Digest top = stack.peek();
+            final Node child = top.next();
+            if (child == null) {
+                stack.pop();
+                final int hash = top.finish();
+                if (stack.isEmpty()) {
+                    result = hash;
+                } else {
+                    stack.peek().add(hash);
+                }
+            } else {
+                final Integer known = DomXml.cached(child, cache);
+                if (known == null) {
+                    stack.push(new Digest(child, cache));
+                } else {
+                    top.add(known);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Structural hash of the node, if it's cached.
+     * @param node Node.
+     * @param cache Whether hashes of subtrees might be cached.
+     * @return Hash code or null.
+     */
+    private static Integer cached(final Node node, final boolean cache) {
+        final Integer result;
+        if (cache) {
+            result = (Integer) node.getUserData(DomXml.DIGEST);
+        } else {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Compare nodes structurally, like {@link Node#isEqualNode(Node)} does.
+     * Both trees are walked together in the document order, without
+     * recursion, so documents of any depth can be compared.
+     * @param first First node.
+     * @param second Second node.
+     * @return True if the nodes are structurally equal.
+     */
+    private static boolean same(final Node first, final Node second) {
+        boolean result = DomXml.alike(first, second);
+        Node left = first;
+        Node right = second;
+        boolean more = result;
+        while (more) {
+            Node lnext = left.getFirstChild();
+            Node rnext = right.getFirstChild();
+            while (lnext == null && rnext == null && left != first) {
+                lnext = left.getNextSibling();
+                rnext = right.getNextSibling();
+                if (lnext == null && rnext == null) {
+                    left = left.getParentNode();
+                    right = right.getParentNode();
+                }
+            }
+            if (lnext == null && rnext == null) {
+                more = false;
+            } else {
+                result = lnext != null && rnext != null && DomXml.alike(lnext, rnext);
+                more = result;
+                left = lnext;
+                right = rnext;
+            }
         }
+        return result;
     }
 
     /**
-     * Synchronize target.
-     * @return Target to synchronize.
+     * Compare nodes without their children.
+     * Attributes are compared regardless of their order.
+     * @param left First node.
+     * @param right Second node.
+     * @return True if the nodes are equal, apart from their children.
      */
-    private Object syn() {
-        return this.sync;
+    private static boolean alike(final Node left, final Node right) {
+        boolean result = left.getNodeType() == right.getNodeType()
+            && Objects.equals(left.getNodeName(), right.getNodeName())
+            && Objects.equals(left.getLocalName(), right.getLocalName())
+            && Objects.equals(left.getNamespaceURI(), right.getNamespaceURI())
+            && Objects.equals(left.getPrefix(), right.getPrefix())
+            && Objects.equals(left.getNodeValue(), right.getNodeValue());
+        final NamedNodeMap first = left.getAttributes();
+        final NamedNodeMap second = right.getAttributes();
+        if (result && first != null) {
+            result = second != null && first.getLength() == second.getLength();
+            for (int idx = 0; result && idx < first.getLength(); ++idx) {
+                final Node attr = first.item(idx);
+                final Node match = second.getNamedItem(attr.getNodeName());
+                result = match != null && match.isEqualNode(attr);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Edit a deep copy of the whole document.
+     * DOM has no flat positions to shift, so the document is cloned, the
+     * same node is found in the clone by its path, and the clone is changed.
+     * The original document stays untouched.
+     * @param change Change of the node in the clone, with the owner document.
+     * @return Root of the changed copy.
+     */
+    private Xml edit(final BiConsumer<Node, Document> change) {
+        return this.sync.locked(
+            () -> {
+                final List<Node> path = new ArrayList<>(0);
+                Node top = this.inner();
+                for (Node up = top; up != null; up = DomXml.above(up)) {
+                    path.add(up);
+                    top = up;
+                }
+                final Node root = top.cloneNode(true);
+                Node target = root;
+                for (int idx = path.size() - 2; idx >= 0; --idx) {
+                    final Node step = path.get(idx);
+                    if (step.getNodeType() == Node.ATTRIBUTE_NODE) {
+                        target = target.getAttributes().getNamedItem(step.getNodeName());
+                    } else {
+                        target = target.getChildNodes().item(DomXml.ordinal(step));
+                    }
+                }
+                final Document owner;
+                if (root.getNodeType() == Node.DOCUMENT_NODE) {
+                    owner = (Document) root;
+                } else {
+                    owner = root.getOwnerDocument();
+                }
+                change.accept(target, owner);
+                return new DomXml(root, new Domain(false));
+            }
+        );
+    }
+
+    /**
+     * Walk a node and its clone together, in the document order.
+     * Attributes of elements are visited right after their elements.
+     * @param first Node.
+     * @param second Clone of the node.
+     * @param action Action for every node and its clone.
+     */
+    private static void twins(final Node first, final Node second,
+        final BiConsumer<Node, Node> action) {
+        Node left = first;
+        Node right = second;
+        while (left != null && right != null) {
+            action.accept(left, right);
+            final NamedNodeMap attributes = left.getAttributes();
+            if (attributes != null) {
+                for (int idx = 0; idx < attributes.getLength(); ++idx) {
+                    final Node attr = attributes.item(idx);
+                    action.accept(attr, right.getAttributes().getNamedItem(attr.getNodeName()));
+                }
+            }
+            Node lnext = left.getFirstChild();
+            Node rnext = right.getFirstChild();
+            while (lnext == null && left != first) {
+                lnext = left.getNextSibling();
+                rnext = right.getNextSibling();
+                if (lnext == null) {
+                    left = left.getParentNode();
+                    right = right.getParentNode();
+                }
+            }
+            left = lnext;
+            right = rnext;
+        }
+    }
+
+    /**
+     * Parent of the node, or the owner element of the attribute.
+     * @param node Node.
+     * @return Parent or null for the top node.
+     */
+    private static Node above(final Node node) {
+        final Node result;
+        if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
+            result = ((Attr) node).getOwnerElement();
+        } else {
+            result = node.getParentNode();
+        }
+        return result;
+    }
+
+    /**
+     * Position of the node among its siblings.
+     * @param node Node.
+     * @return Ordinal number starting from zero.
+     */
+    private static int ordinal(final Node node) {
+        int result = 0;
+        for (Node prev = node.getPreviousSibling(); prev != null;
+            prev = prev.getPreviousSibling()) {
+            result += 1;
+        }
+        return result;
+    }
+
+    /**
+     * Parse an XML fragment into nodes of the document.
+     * The fragment is parsed in a wrapper that declares the namespaces in
+     * scope of the parent, so it may use their prefixes.
+     * @param fragment XML fragment, it may contain several nodes.
+     * @param parent Parent of the new nodes.
+     * @param owner Document to import the nodes into.
+     * @return Imported nodes.
+     */
+    private static List<Node> fragment(final String fragment, final Node parent,
+        final Document owner) {
+        final Node parsed = new StringNode(
+            String.format("<x%s>%s</x>", DomXml.declarations(parent), fragment)
+        ).toNode().getFirstChild();
+        final List<Node> result = new ArrayList<>(0);
+        for (Node child = parsed.getFirstChild(); child != null;
+            child = child.getNextSibling()) {
+            result.add(owner.importNode(child, true));
+        }
+        return result;
+    }
+
+    /**
+     * Namespace declarations in scope of the node, as XML attributes.
+     * The nearest declaration of a prefix hides the outer ones.
+     * @param node Node.
+     * @return Attributes with leading spaces, empty if there are none.
+     */
+    private static String declarations(final Node node) {
+        final Map<String, String> declared = new LinkedHashMap<>(0);
+        for (Node current = node; current != null
+            && current.getNodeType() == Node.ELEMENT_NODE; current = current.getParentNode()) {
+            final NamedNodeMap attrs = current.getAttributes();
+            for (int idx = 0; idx < attrs.getLength(); ++idx) {
+                final Node attr = attrs.item(idx);
+                if (Namespace.declaration(attr.getNodeName())) {
+                    declared.putIfAbsent(attr.getNodeName(), attr.getNodeValue());
+                }
+            }
+        }
+        final StringBuilder result = new StringBuilder(0);
+        declared.forEach(
+            (name, uri) -> result.append(' ').append(name).append("=\"")
+                .append(uri.replace("&", "&amp;").replace("<", "&lt;").replace("\"", "&quot;"))
+                .append('"')
+        );
+        return result.toString();
+    }
+
+    /**
+     * Check that the node can be edited.
+     * @param node Node.
+     */
+    private static void editable(final Node node) {
+        if (node.getNodeType() == Node.DOCUMENT_NODE) {
+            throw new IllegalArgumentException("The document node can't be edited");
+        }
+    }
+
+    /**
+     * Set the attribute of the element.
+     * Elements of namespace aware documents get namespace aware attributes,
+     * just like the parser would create them.
+     * @param element Element.
+     * @param name Attribute name.
+     * @param value Attribute value.
+     */
+    private static void attribute(final Element element, final String name, final String value) {
+        final int colon = name.indexOf(':');
+        final String uri;
+        if (Namespace.declaration(name)) {
+            uri = Namespace.XMLNS;
+        } else if (colon < 0) {
+            uri = null;
+        } else {
+            uri = element.lookupNamespaceURI(name.substring(0, colon));
+        }
+        if (element.getLocalName() == null || colon >= 0 && uri == null) {
+            element.setAttribute(name, value);
+        } else {
+            element.setAttributeNS(uri, name, value);
+        }
+    }
+
+    /**
+     * Check that the node is an element.
+     * @param node Node.
+     */
+    private static void element(final Node node) {
+        if (node.getNodeType() != Node.ELEMENT_NODE) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Only elements can be edited this way, but the node is '%s'",
+                    node.getNodeName()
+                )
+            );
+        }
+    }
+
+    /**
+     * Node of the same document.
+     * @param node DOM node or null.
+     * @return Node or empty node for null.
+     */
+    private Xml wrap(final Node node) {
+        final Xml result;
+        if (node == null) {
+            result = new Empty();
+        } else {
+            result = new DomXml(node, this.sync);
+        }
+        return result;
     }
 
+    /**
+     * Actual XML document node.
+     * @return Node.
+     */
+    private Node inner() {
+        return this.origin.node();
+    }
+
+    /**
+     * Origin of a DOM node.
+     * The node might be replaced by its clone, when the document it belongs
+     * to stops sharing nodes with another document.
+     * @since 0.2
+     */
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private static final class Origin {
+
+        /**
+         * Actual node.
+         */
+        private volatile Node inner;
+
+        /**
+         * Ctor.
+         * @param node Actual node.
+         */
+        Origin(final Node node) {
+            this.inner = node;
+        }
+
+        /**
+         * Get the node.
+         * @return Node.
+         */
+        Node node() {
+            return this.inner;
+        }
+
+        /**
+         * Replace the node with its clone.
+         * @param clone Clone of the node.
+         */
+        void move(final Node clone) {
+            this.inner = clone;
+        }
+    }
+
+    /**
+     * Synchronization domain of a document.
+     * Besides being a lock, it keeps copies that still share nodes with the
+     * document, and, for such a copy, the origins of the shared nodes, so
+     * they can be moved to the clone later.
+     * The lock is a {@link ReentrantLock} rather than a monitor, so threads
+     * waiting for it, virtual ones included, never pin their carriers.
+     * @since 0.2
+     */
+    private static final class Domain {
+
+        /**
+         * Size of a list of references that is never pruned.
+         */
+        private static final int SMALL = 16;
+
+        /**
+         * Lock of the document.
+         * Copies share it with the original, since they share the nodes.
+         */
+        private final ReentrantLock lock;
+
+        /**
+         * Copies that still share nodes with this document.
+         */
+        private final List<WeakReference<Domain>> pending;
+
+        /**
+         * Origins of the shared nodes this document reads.
+         */
+        private final List<WeakReference<Origin>> views;
+
+        /**
+         * Document that owns the shared nodes.
+         * Null if the document owns its nodes.
+         */
+        private Domain owner;
+
+        /**
+         * Top shared node.
+         * Null if the document owns its nodes.
+         */
+        private Node top;
+
+        /**
+         * Whether the document nodes were exposed for changes.
+         */
+        private boolean open;
+
+        /**
+         * Ctor.
+         * @param open Whether the document nodes are exposed for changes.
+         */
+        Domain(final boolean open) {
+            this(new ReentrantLock(), null, null, open);
+        }
+
+        /**
+         * Ctor.
+         * @param lock Lock of the document.
+         * @param owner Document that owns the shared nodes, or null.
+         * @param top Top shared node, or null.
+         * @param open Whether the document nodes are exposed for changes.
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private Domain(final ReentrantLock lock, final Domain owner, final Node top,
+            final boolean open) {
+            this.lock = lock;
+            this.owner = owner;
+            this.top = top;
+            this.open = open;
+            this.pending = new ArrayList<>(0);
+            this.views = new ArrayList<>(0);
+        }
+
+        /**
+         * Compute a value under the lock.
+         * @param action Action.
+         * @param <T> Type of the value.
+         * @return Value.
+         */
+        <T> T locked(final Supplier<T> action) {
+            this.lock.lock();
+            try {
+                return action.get();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Run an action under the lock.
+         * @param action Action.
+         */
+        void run(final Runnable action) {
+            this.lock.lock();
+            try {
+                action.run();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Whether the document nodes might have been changed.
+         * @return True if the nodes were exposed.
+         */
+        boolean exposed() {
+            return this.locked(() -> this.open);
+        }
+
+        /**
+         * Whether the document reads nodes of another document.
+         * @return True if the nodes are shared.
+         */
+        boolean shared() {
+            return this.locked(() -> this.owner != null);
+        }
+
+        /**
+         * Origin of a node of the document.
+         * Origins of shared nodes are remembered, so they can be moved to
+         * the clone later.
+         * @param node Node.
+         * @return Origin.
+         */
+        Origin origin(final Node node) {
+            final Origin result = new Origin(node);
+            this.run(
+                () -> {
+                    if (this.owner != null) {
+                        Domain.remember(this.views, result, origin -> true);
+                    }
+                }
+            );
+            return result;
+        }
+
+        /**
+         * Domain of a copy that shares the nodes with this document.
+         * The copy is registered in the document that owns the nodes.
+         * @param node Top node of the copy.
+         * @return Domain of the copy.
+         */
+        Domain share(final Node node) {
+            return this.locked(
+                () -> {
+                    final Domain source = Optional.ofNullable(this.owner).orElse(this);
+                    final Domain result = new Domain(this.lock, source, node, false);
+                    Domain.remember(
+                        source.pending, result, copy -> copy.owner != null
+                    );
+                    return result;
+                }
+            );
+        }
+
+        /**
+         * Stop sharing nodes with other documents.
+         * Must be called before the document nodes might be changed.
+         */
+        void detach() {
+            this.run(
+                () -> {
+                    this.own();
+                    for (final WeakReference<Domain> reference : this.pending) {
+                        final Domain copy = reference.get();
+                        if (copy != null) {
+                            copy.own();
+                        }
+                    }
+                    this.pending.clear();
+                    this.open = true;
+                }
+            );
+        }
+
+        /**
+         * Clone the shared nodes and move all remembered origins to the clone.
+         */
+        private void own() {
+            if (this.owner != null) {
+                final Map<Node, List<Origin>> moves = new IdentityHashMap<>(0);
+                for (final WeakReference<Origin> reference : this.views) {
+                    final Origin origin = reference.get();
+                    if (origin != null) {
+                        moves.computeIfAbsent(origin.node(), node -> new ArrayList<>(1))
+                            .add(origin);
+                    }
+                }
+                DomXml.twins(
+                    this.top,
+                    this.top.cloneNode(true),
+                    (shared, clone) -> {
+                        final List<Origin> origins = moves.remove(shared);
+                        if (origins != null) {
+                            origins.forEach(origin -> origin.move(clone));
+                        }
+                    }
+                );
+                this.views.clear();
+                this.owner = null;
+                this.top = null;
+            }
+        }
+
+        /**
+         * Remember an object by a weak reference.
+         * Collected and dead objects are dropped every time the list doubles,
+         * so it doesn't grow with every object ever remembered, and adding
+         * stays amortised constant.
+         * @param list List of references.
+         * @param item Object to remember.
+         * @param alive Whether an object is still worth remembering.
+         * @param <T> Type of the objects.
+         */
+        private static <T> void remember(final List<WeakReference<T>> list, final T item,
+            final Predicate<T> alive) {
+            final int size = list.size();
+            if (size >= Domain.SMALL && Integer.bitCount(size) == 1) {
+                list.removeIf(
+                    reference -> {
+                        final T known = reference.get();
+                        return known == null || !alive.test(known);
+                    }
+                );
+            }
+            list.add(new WeakReference<>(item));
+        }
+    }
+
+    /**
+     * Structural hash of one node that is being computed.
+     * The hash starts with the node itself and its attributes, hashes of
+     * the children are added one by one, in their order.
+     * @since 0.2
+     */
+    private static final class Digest {
+
+        /**
+         * Node.
+         */
+        private final Node node;
+
+        /**
+         * Whether the hash might be cached in the node.
+         */
+        private final boolean cache;
+
+        /**
+         * Hash so far.
+         */
+        private int hash;
+
+        /**
+         * Next child to add, null if there are no more.
+         */
+        private Node child;
+
+        /**
+         * Ctor.
+         * @param node Node.
+         * @param cache Whether the hash might be cached in the node.
+         */
+        Digest(final Node node, final boolean cache) {
+            this.node = node;
+            this.cache = cache;
+            int result = 31 * node.getNodeType() + Objects.hashCode(node.getNodeName());
+            result = 31 * result + Objects.hashCode(node.getNodeValue());
+            final NamedNodeMap attributes = node.getAttributes();
+            if (attributes != null) {
+                int attrs = 0;
+                final int length = attributes.getLength();
+                for (int idx = 0; idx < length; ++idx) {
+                    attrs += DomXml.digest(attributes.item(idx), cache);
+                }
+                result = 31 * result + attrs;
+            }
+            this.hash = result;
+            this.child = node.getFirstChild();
+        }
+
+        /**
+         * Take the next child to add.
+         * @return Child or null if there are no more.
+         */
+        Node next() {
+            final Node result = this.child;
+            if (result != null) {
+                this.child = result.getNextSibling();
+            }
+            return result;
+        }
+
+        /**
+         * Add the hash of the next child.
+         * @param digest Hash of the child.
+         */
+        void add(final int digest) {
+            this.hash = 31 * this.hash + digest;
+        }
+
+        /**
+         * Finish the hash and cache it, if possible.
+         * @return Hash code.
+         */
+        int finish() {
+            if (this.cache) {
+                this.node.setUserData(DomXml.DIGEST, this.hash, null);
+            }
+            return this.hash;
+        }
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+/**
+ * XML that can be edited.
+ * Every edit gives a new document and leaves the original one untouched,
+ * so navigators of the original document stay valid.
+ * Documents don't share their structures, so every edit copies the whole
+ * document: the token backend copies its arrays, DOM clones the tree.
+ * An edit saves the parsing of the untouched parts, not their copying,
+ * and its cost grows with the size of the document, not of the edit.
+ * @since 0.2
+ */
+interface EditableXml extends Xml {
+    /**
+     * Append an XML fragment to the children of this element.
+     * @param fragment XML fragment, it may contain several nodes.
+     * @return Document node of the new document.
+     */
+    Xml append(String fragment);
+
+    /**
+     * Replace this node with an XML fragment.
+     * @param fragment XML fragment, it may contain several nodes.
+     * @return Document node of the new document.
+     */
+    Xml replace(String fragment);
+
+    /**
+     * Remove this node with its subtree.
+     * @return Document node of the new document.
+     */
+    Xml remove();
+
+    /**
+     * Set an attribute of this element, adding it if it is missing.
+     * @param name Attribute name.
+     * @param value Attribute value.
+     * @return Document node of the new document.
+     */
+    Xml put(String name, String value);
+}
@@ -64,6 +64,26 @@ final class Empty implements Xml {
         return "";
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return this;
+    }
+
+    @Override
+    public Xml next() {
+        return this;
+    }
+
+    @Override
+    public Xml previous() {
+        return this;
+    }
+
     @Override
     public Xml copy() {
         return this;
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+/**
+ * Short piece of an XML source around a position.
+ * Parsing failures show it instead of the whole document, which might be
+ * megabytes long.
+ *
+ * @since 0.2
+ */
+final class Excerpt {
+
+    /**
+     * Number of characters to show on each side of the position.
+     */
+    private static final int RADIUS = 40;
+
+    /**
+     * Source.
+     */
+    private final CharSequence source;
+
+    /**
+     * Position in the source.
+     */
+    private final int position;
+
+    /**
+     * Ctor.
+     * @param source Source.
+     * @param position Position in the source.
+     */
+    Excerpt(final CharSequence source, final int position) {
+        this.source = source;
+        this.position = position;
+    }
+
+    @Override
+    public String toString() {
+        final int length = this.source.length();
+        final int at = Math.max(0, Math.min(this.position, length));
+        final int from = Math.max(0, at - Excerpt.RADIUS);
+        final int till = Math.min(length, at + Excerpt.RADIUS);
+        final StringBuilder result = new StringBuilder(2 * Excerpt.RADIUS + 6);
+        if (from > 0) {
+            result.append("...");
+        }
+        result.append(this.source, from, till);
+        if (till < length) {
+            result.append("...");
+        }
+        return result.toString();
+    }
+}
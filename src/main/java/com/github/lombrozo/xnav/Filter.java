@@ -81,6 +81,18 @@ public interface Filter extends Predicate<Xml> {
         return xml -> xml.name().equals(name);
     }
 
+    /**
+     * Filter XML nodes by namespace and local name.
+     * Prefixes don't matter: '&lt;a:item xmlns:a="urn:x"/&gt;' and
+     * '&lt;item xmlns="urn:x"/&gt;' both have the name 'item' in 'urn:x'.
+     * @param uri Namespace URI, empty for no namespace.
+     * @param local Local name.
+     * @return Filter.
+     */
+    static Filter withName(final String uri, final String local) {
+        return new NameTest(uri, local);
+    }
+
     /**
      * Filter XML nodes by attribute.
      * @param name Name of the attribute.
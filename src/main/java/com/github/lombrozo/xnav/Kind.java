@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+/**
+ * Kind of XML node.
+ * @since 0.2
+ */
+enum Kind {
+
+    /**
+     * Document.
+     */
+    DOCUMENT("#document"),
+
+    /**
+     * Element.
+     */
+    ELEMENT(""),
+
+    /**
+     * Attribute.
+     */
+    ATTRIBUTE(""),
+
+    /**
+     * Text.
+     */
+    TEXT("#text"),
+
+    /**
+     * CDATA section.
+     */
+    CDATA("#cdata-section"),
+
+    /**
+     * Comment.
+     */
+    COMMENT("#comment"),
+
+    /**
+     * Processing instruction.
+     */
+    INSTRUCTION(""),
+
+    /**
+     * Document type declaration.
+     * Only DOM keeps it.
+     */
+    DOCTYPE("");
+
+    /**
+     * Name of the nodes of this kind.
+     */
+    private final String label;
+
+    /**
+     * Ctor.
+     * @param label Name of the nodes of this kind.
+     */
+    Kind(final String label) {
+        this.label = label;
+    }
+
+    /**
+     * Name of the nodes of this kind.
+     * @return Name or empty string if nodes have their own names.
+     */
+    String label() {
+        return this.label;
+    }
+
+    /**
+     * Kind of the node.
+     * Nodes that don't know their kind are recognized by their names.
+     * Attributes are never met among children, so they aren't recognized.
+     * @param xml Node.
+     * @return Kind.
+     */
+    static Kind of(final Xml xml) {
+        final Kind result;
+        if (xml instanceof KindedXml) {
+            result = ((KindedXml) xml).kind();
+        } else {
+            result = Kind.named(xml.name());
+        }
+        return result;
+    }
+
+    /**
+     * Kind of the node by its name.
+     * @param name Node name.
+     * @return Kind.
+     */
+    private static Kind named(final String name) {
+        Kind result = Kind.ELEMENT;
+        for (final Kind kind : Kind.values()) {
+            if (!kind.label.isEmpty() && kind.label.equals(name)) {
+                result = kind;
+                break;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+/**
+ * Lazy backend.
+ * Read-only, it pre-scans only the boundaries of elements and tokenizes
+ * each element the first time navigation enters it. Suits shallow
+ * navigation over large documents, where most of the document is never
+ * visited.
+ *
+ * @since 0.2
+ */
+final class LazyBackend implements Backend {
+
+    @Override
+    public String name() {
+        return "lazy";
+    }
+
+    @Override
+    public int score(final Workload workload) {
+        final int result;
+        if (workload.dom()) {
+            result = -1;
+        } else if (workload.queries() == Workload.Queries.SHALLOW) {
+            result = 100;
+        } else {
+            result = 5;
+        }
+        return result;
+    }
+
+    @Override
+    public Xml parse(final String xml) {
+        return new LazyXml(xml);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lazily tokenized XML document.
+ * Only the boundaries of elements are known after {@link LazyScanner}.
+ * The level of an element, that is its attributes and direct children, is
+ * tokenized by {@link TokenParser} the first time navigation enters it,
+ * while the contents of child elements are jumped over. So the regions that
+ * are never visited are never tokenized.
+ * This class is thread-safe.
+ * @since 0.2
+ */
+final class LazyDoc {
+
+    /**
+     * Original XML document.
+     */
+    private final String source;
+
+    /**
+     * Offsets of start tags, -1 for the document.
+     */
+    private final int[] starts;
+
+    /**
+     * Offsets right after start tags.
+     */
+    private final int[] tags;
+
+    /**
+     * Offsets right after end tags.
+     */
+    private final int[] ends;
+
+    /**
+     * Parent elements, -1 for the document.
+     */
+    private final int[] parents;
+
+    /**
+     * Tokenized levels.
+     * A level is tokenized on the first request, the race is benign since
+     * the level is always the same.
+     */
+    private final AtomicReferenceArray<TokenDoc> levels;
+
+    /**
+     * Ctor.
+     * @param source Original XML document.
+     * @param starts Offsets of start tags, -1 for the document.
+     * @param tags Offsets right after start tags.
+     * @param ends Offsets right after end tags.
+     * @param parents Parent elements, -1 for the document.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+    LazyDoc(final String source, final int[] starts, final int[] tags, final int[] ends,
+        final int[] parents) {
+        this.source = source;
+        this.starts = starts;
+        this.tags = tags;
+        this.ends = ends;
+        this.parents = parents;
+        this.levels = new AtomicReferenceArray<>(starts.length);
+    }
+
+    /**
+     * Tokenized level of the element.
+     * For the document it contains the prolog and the root element,
+     * for an element it contains the element itself, right after the
+     * document token, with attributes and direct children.
+     * Child elements look empty there.
+     * @param element Element index, zero for the document.
+     * @return Token index of the level.
+     */
+    TokenDoc level(final int element) {
+        TokenDoc result = this.levels.get(element);
+        if (result == null) {
+            final TokenParser parser = new TokenParser(this.source, this::jump);
+            if (element == 0) {
+                result = parser.parse();
+            } else {
+                result = parser.level(this.starts[element]);
+            }
+            this.levels.set(element, result);
+        }
+        return result;
+    }
+
+    /**
+     * Fully tokenized subtree of the element.
+     * It is not kept, so texts and printing of large subtrees cost a parse.
+     * @param element Element index, zero for the document.
+     * @return Token index, the element goes right after the document token.
+     */
+    TokenDoc full(final int element) {
+        final TokenDoc result;
+        if (element == 0) {
+            result = new TokenParser(this.source).parse();
+        } else {
+            result = new TokenParser(
+                this.source.substring(this.starts[element], this.ends[element])
+            ).parse();
+        }
+        return result;
+    }
+
+    /**
+     * Element that starts at the offset.
+     * @param offset Offset of the start tag.
+     * @return Element index.
+     */
+    int element(final int offset) {
+        return Arrays.binarySearch(this.starts, offset);
+    }
+
+    /**
+     * Offset of the start tag.
+     * @param element Element index.
+     * @return Offset.
+     */
+    int start(final int element) {
+        return this.starts[element];
+    }
+
+    /**
+     * Offset right after the start tag.
+     * @param element Element index.
+     * @return Offset.
+     */
+    int tag(final int element) {
+        return this.tags[element];
+    }
+
+    /**
+     * Offset right after the end tag.
+     * @param element Element index.
+     * @return Offset.
+     */
+    int end(final int element) {
+        return this.ends[element];
+    }
+
+    /**
+     * First element after the subtree of the element.
+     * @param element Element index.
+     * @return Element index, or the number of elements if there are none.
+     */
+    int after(final int element) {
+        final int found = Arrays.binarySearch(this.starts, this.ends[element]);
+        final int result;
+        if (found < 0) {
+            result = -found - 1;
+        } else {
+            result = found;
+        }
+        return result;
+    }
+
+    /**
+     * Number of elements, including the document.
+     * @return Number of elements.
+     */
+    int size() {
+        return this.starts.length;
+    }
+
+    /**
+     * Parent element.
+     * @param element Element index.
+     * @return Parent index, zero for the document.
+     */
+    int parent(final int element) {
+        return this.parents[element];
+    }
+
+    /**
+     * End of the element by its start.
+     * @param start Offset of the start tag.
+     * @return Offset right after the end tag.
+     */
+    private int jump(final int start) {
+        return this.ends[this.element(start)];
+    }
+}
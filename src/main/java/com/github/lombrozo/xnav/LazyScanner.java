@@ -0,0 +1,305 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.Arrays;
+
+/**
+ * Structural pre-scan of an XML document.
+ * Finds only the boundaries of elements: where each element starts, where
+ * its start tag and its end tag end and what its parent is. Names, attributes and texts are
+ * not tokenized, comments, CDATA sections and instructions are just skipped,
+ * so the scan is much cheaper than the full parsing by {@link TokenParser}.
+ * This class is not thread-safe, use a new instance for each document.
+ * @since 0.2
+ */
+final class LazyScanner {
+
+    /**
+     * Initial capacity of the arrays.
+     */
+    private static final int CAPACITY = 64;
+
+    /**
+     * XML document as a string.
+     */
+    private final String xml;
+
+    /**
+     * Current position in the source.
+     */
+    private int pos;
+
+    /**
+     * Number of elements, including the document.
+     */
+    private int size;
+
+    /**
+     * Offsets of start tags.
+     */
+    private int[] starts;
+
+    /**
+     * Offsets right after start tags.
+     */
+    private int[] tags;
+
+    /**
+     * Offsets right after end tags.
+     */
+    private int[] ends;
+
+    /**
+     * Parent elements.
+     */
+    private int[] parents;
+
+    /**
+     * Ctor.
+     * @param xml XML document as a string.
+     */
+    LazyScanner(final String xml) {
+        this.xml = xml;
+        this.starts = new int[LazyScanner.CAPACITY];
+        this.tags = new int[LazyScanner.CAPACITY];
+        this.ends = new int[LazyScanner.CAPACITY];
+        this.parents = new int[LazyScanner.CAPACITY];
+    }
+
+    /**
+     * Scan the document.
+     * @return Lazy document.
+     * @throws IllegalArgumentException If elements are not balanced.
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    LazyDoc scan() {
+        this.add(-1, -1);
+        this.ends[0] = this.xml.length();
+        int[] stack = new int[LazyScanner.CAPACITY];
+        int depth = 0;
+        boolean root = false;
+        for (int open = this.xml.indexOf('<'); open != -1; open = this.xml.indexOf('<', this.pos)) {
+            this.pos = open;
+            if (this.xml.startsWith("</", open)) {
+                if (depth == 0) {
+                    throw this.failure("end tag has no start tag");
+                }
+                this.close(stack[depth - 1]);
+                depth -= 1;
+            } else if (this.xml.startsWith("<!--", open)) {
+                this.after("-->", open + 4);
+            } else if (this.xml.startsWith("<![CDATA[", open)) {
+                this.after("]]>", open + 9);
+            } else if (this.xml.startsWith("<?", open)) {
+                this.after("?>", open + 2);
+            } else if (this.xml.startsWith("<!", open)) {
+                this.doctype();
+            } else {
+                if (depth == 0 && root) {
+                    throw this.failure("content is not allowed outside of the root element");
+                }
+                final int parent;
+                if (depth == 0) {
+                    parent = 0;
+                } else {
+                    parent = stack[depth - 1];
+                }
+                final int element = this.add(open, parent);
+                this.tag(element);
+                if (this.ends[element] == -1) {
+                    if (depth == stack.length) {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth] = element;
+                    depth += 1;
+                }
+                root = true;
+            }
+        }
+        if (depth > 0) {
+            throw this.failure(
+                String.format("element '%s' is not closed", this.name(stack[depth - 1]))
+            );
+        }
+        if (!root) {
+            throw this.failure("root element is missing");
+        }
+        return new LazyDoc(
+            this.xml,
+            Arrays.copyOf(this.starts, this.size),
+            Arrays.copyOf(this.tags, this.size),
+            Arrays.copyOf(this.ends, this.size),
+            Arrays.copyOf(this.parents, this.size)
+        );
+    }
+
+    /**
+     * Skip a start tag.
+     * Quoted attribute values are skipped as a whole, since they may
+     * contain '>'. If the tag is self-closing, the element end is set.
+     * @param element Element index.
+     */
+    private void tag(final int element) {
+        this.pos += 1;
+        while (this.ends[element] == -1) {
+            if (this.pos >= this.xml.length()) {
+                throw this.failure("start tag is not closed");
+            }
+            final char current = this.xml.charAt(this.pos);
+            if (current == '"' || current == '\'') {
+                final int quote = this.xml.indexOf(current, this.pos + 1);
+                if (quote == -1) {
+                    throw this.failure("attribute value is not closed");
+                }
+                this.pos = quote + 1;
+            } else if (current == '>') {
+                this.pos += 1;
+                this.tags[element] = this.pos;
+                if (this.xml.charAt(this.pos - 2) == '/') {
+                    this.ends[element] = this.pos;
+                }
+                break;
+            } else {
+                this.pos += 1;
+            }
+        }
+    }
+
+    /**
+     * Skip an end tag and check that it matches the start tag.
+     * @param element Element that is being closed.
+     */
+    private void close(final int element) {
+        final int name = this.starts[element] + 1;
+        final int length = this.length(name);
+        final int begin = this.pos + 2;
+        final int end = begin + length;
+        if (!this.xml.regionMatches(begin, this.xml, name, length) || end >= this.xml.length()
+            || this.xml.charAt(end) != '>' && !Character.isWhitespace(this.xml.charAt(end))) {
+            throw this.failure(
+                String.format("end tag doesn't match start tag '%s'", this.name(element))
+            );
+        }
+        this.after(">", end);
+        this.ends[element] = this.pos;
+    }
+
+    /**
+     * Skip everything up to and including the delimiter.
+     * @param delimiter Delimiter.
+     * @param from Offset to search the delimiter from.
+     */
+    private void after(final String delimiter, final int from) {
+        final int found = this.xml.indexOf(delimiter, from);
+        if (found == -1) {
+            throw this.failure(String.format("'%s' is expected", delimiter));
+        }
+        this.pos = found + delimiter.length();
+    }
+
+    /**
+     * Skip a document type declaration.
+     * Internal subset is skipped as well.
+     */
+    private void doctype() {
+        int nested = 0;
+        while (this.pos < this.xml.length()) {
+            final char current = this.xml.charAt(this.pos);
+            this.pos += 1;
+            if (current == '[') {
+                nested += 1;
+            } else if (current == ']') {
+                nested -= 1;
+            } else if (current == '>' && nested == 0) {
+                return;
+            }
+        }
+        throw this.failure("document type declaration is not closed");
+    }
+
+    /**
+     * Name of the element.
+     * @param element Element index.
+     * @return Name.
+     */
+    private String name(final int element) {
+        final int begin = this.starts[element] + 1;
+        return this.xml.substring(begin, begin + this.length(begin));
+    }
+
+    /**
+     * Length of the name.
+     * @param begin Offset of the name.
+     * @return Number of characters in the name.
+     */
+    private int length(final int begin) {
+        int end = begin;
+        while (end < this.xml.length()) {
+            final char current = this.xml.charAt(end);
+            if (Character.isWhitespace(current) || current == '>' || current == '/') {
+                break;
+            }
+            end += 1;
+        }
+        return end - begin;
+    }
+
+    /**
+     * Add a new element.
+     * @param start Offset of the start tag.
+     * @param parent Parent element.
+     * @return Element index.
+     */
+    private int add(final int start, final int parent) {
+        if (this.size == this.starts.length) {
+            final int capacity = this.size * 2;
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.tags = Arrays.copyOf(this.tags, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.parents = Arrays.copyOf(this.parents, capacity);
+        }
+        final int index = this.size;
+        this.starts[index] = start;
+        this.tags[index] = start;
+        this.ends[index] = -1;
+        this.parents[index] = parent;
+        this.size += 1;
+        return index;
+    }
+
+    /**
+     * Create a parsing failure at the current position.
+     * @param reason Reason of the failure.
+     * @return Exception.
+     */
+    private IllegalArgumentException failure(final String reason) {
+        return new IllegalArgumentException(
+            String.format(
+                "Failed to parse XML at position %d, %s, near '%s'",
+                this.pos, reason, new Excerpt(this.xml, this.pos)
+            )
+        );
+    }
+}
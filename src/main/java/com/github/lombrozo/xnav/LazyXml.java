@@ -0,0 +1,292 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.w3c.dom.Node;
+
+/**
+ * Lazy implementation of XML.
+ * A node is a token of one {@link LazyDoc} level: elements are tokens of
+ * their own levels, other nodes are tokens of the levels of their parents.
+ * Positions are offsets in the document, so they keep the document order
+ * without tokenizing what lies between nodes.
+ * This class is immutable and thread-safe.
+ *
+ * @since 0.2
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+final class LazyXml implements OrderedXml, KindedXml, TextualXml, Printable {
+
+    /**
+     * Lazy document.
+     */
+    private final LazyDoc doc;
+
+    /**
+     * Element whose level contains the token, zero for the document.
+     */
+    private final int owner;
+
+    /**
+     * Token of the level.
+     */
+    private final int token;
+
+    /**
+     * Ctor.
+     *
+     * @param xml XML document as a string.
+     */
+    LazyXml(final String xml) {
+        this(new LazyScanner(xml).scan(), 0, 0);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param doc Lazy document.
+     * @param owner Element whose level contains the token.
+     * @param token Token of the level.
+     */
+    LazyXml(final LazyDoc doc, final int owner, final int token) {
+        this.doc = doc;
+        this.owner = owner;
+        this.token = token;
+    }
+
+    @Override
+    public Xml child(final String element) {
+        return this.at(this.owner, this.level().child(this.token, element));
+    }
+
+    @Override
+    public Stream<Xml> attributes() {
+        return IntStream.rangeClosed(
+            this.token + 1, this.token + this.level().attributes(this.token)
+        ).mapToObj(attr -> new LazyXml(this.doc, this.owner, attr));
+    }
+
+    @Override
+    public Xml parent() {
+        final Xml result;
+        if (this.self()) {
+            final int parent = this.doc.parent(this.owner);
+            if (parent == 0) {
+                result = new LazyXml(this.doc, 0, 0);
+            } else {
+                result = new LazyXml(this.doc, parent, 1);
+            }
+        } else {
+            result = this.at(this.owner, this.level().parent(this.token));
+        }
+        return result;
+    }
+
+    @Override
+    public Xml next() {
+        return this.sibling(TokenDoc::next);
+    }
+
+    @Override
+    public Xml previous() {
+        return this.sibling(TokenDoc::previous);
+    }
+
+    @Override
+    public Optional<Xml> attribute(final String name) {
+        final int attr = this.level().attribute(this.token, name);
+        final Optional<Xml> result;
+        if (attr == -1) {
+            result = Optional.empty();
+        } else {
+            result = Optional.of(new LazyXml(this.doc, this.owner, attr));
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<String> text() {
+        return this.full().text();
+    }
+
+    @Override
+    public CharSequence chars() {
+        return this.full().chars();
+    }
+
+    @Override
+    public Stream<Xml> children() {
+        final TokenDoc level = this.level();
+        return Stream.iterate(level.first(this.token), child -> child != -1, level::next)
+            .map(child -> this.at(this.owner, child));
+    }
+
+    @Override
+    public String name() {
+        return this.level().name(this.token);
+    }
+
+    @Override
+    public Xml copy() {
+        return this;
+    }
+
+    @Override
+    public Node node() {
+        return this.level().node(this.token);
+    }
+
+    @Override
+    public Kind kind() {
+        return this.level().kind(this.token);
+    }
+
+    @Override
+    public int position() {
+        return this.level().offset(this.token) + 1;
+    }
+
+    @Override
+    public void print(final Markup markup) {
+        this.full().print(markup);
+    }
+
+    @Override
+    public String toString() {
+        return new XmlPrinter().print(this);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        final boolean result;
+        if (this == obj) {
+            result = true;
+        } else if (obj == null || this.getClass() != obj.getClass()) {
+            result = false;
+        } else {
+            final LazyXml other = (LazyXml) obj;
+            result = this.doc == other.doc && this.owner == other.owner
+                && this.token == other.token
+                || this.full().equals(other.full());
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.full().hashCode();
+    }
+
+    /**
+     * Level that contains the token.
+     * @return Token index of the level.
+     */
+    private TokenDoc level() {
+        return this.doc.level(this.owner);
+    }
+
+    /**
+     * Whether the node is the element that owns the level.
+     * @return True for elements.
+     */
+    private boolean self() {
+        return this.owner != 0 && this.token == 1;
+    }
+
+    /**
+     * Fully tokenized node.
+     * Elements and the document are tokenized with their subtrees,
+     * other nodes are complete in their levels already.
+     * @return Token node.
+     */
+    private TokenXml full() {
+        final TokenXml result;
+        if (this.self()) {
+            result = new TokenXml(this.doc.full(this.owner), 1);
+        } else if (this.owner == 0 && this.token == 0) {
+            result = new TokenXml(this.doc.full(0), 0);
+        } else {
+            result = new TokenXml(this.level(), this.token);
+        }
+        return result;
+    }
+
+    /**
+     * Sibling of the node.
+     * Siblings of an element are found in the level of its parent.
+     * @param step How to get the sibling token in a level.
+     * @return Sibling or empty node.
+     */
+    private Xml sibling(final Sibling step) {
+        final Xml result;
+        if (this.self()) {
+            final int parent = this.doc.parent(this.owner);
+            final TokenDoc level = this.doc.level(parent);
+            result = this.at(
+                parent, step.apply(level, level.token(this.doc.start(this.owner)))
+            );
+        } else {
+            result = this.at(this.owner, step.apply(this.level(), this.token));
+        }
+        return result;
+    }
+
+    /**
+     * Node by the token of a level.
+     * Elements are moved to their own levels.
+     * @param level Element whose level contains the token.
+     * @param tok Token of the level or -1.
+     * @return Node or empty node for -1.
+     */
+    private Xml at(final int level, final int tok) {
+        final Xml result;
+        final TokenDoc tokens = this.doc.level(level);
+        if (tok == -1) {
+            result = new Empty();
+        } else if (tokens.kind(tok) == Kind.ELEMENT && (level == 0 || tok != 1)) {
+            result = new LazyXml(this.doc, this.doc.element(tokens.offset(tok)), 1);
+        } else {
+            result = new LazyXml(this.doc, level, tok);
+        }
+        return result;
+    }
+
+    /**
+     * Step to a sibling inside a level.
+     * @since 0.2
+     */
+    @FunctionalInterface
+    private interface Sibling {
+        /**
+         * Sibling token.
+         * @param level Token index of the level.
+         * @param tok Token.
+         * @return Sibling token or -1.
+         */
+        int apply(TokenDoc level, int tok);
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+
+/**
+ * Streaming XML markup writer.
+ * Escapes texts and attribute values and optionally indents elements.
+ * When indentation is on, whitespace-only texts are dropped and elements
+ * with text inside are printed in one line.
+ * This class is not thread-safe.
+ *
+ * @since 0.2
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+final class Markup {
+
+    /**
+     * XML declaration.
+     */
+    private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+    /**
+     * Output.
+     */
+    private final Appendable out;
+
+    /**
+     * Number of spaces per level, zero means no indentation.
+     */
+    private final int indent;
+
+    /**
+     * Current depth.
+     */
+    private int depth;
+
+    /**
+     * Whether a start tag is not closed yet.
+     */
+    private boolean tag;
+
+    /**
+     * Whether the last printed node is a text.
+     */
+    private boolean text;
+
+    /**
+     * Whether anything has been printed.
+     */
+    private boolean started;
+
+    /**
+     * Ctor.
+     * @param out Output.
+     * @param indent Number of spaces per level, zero means no indentation.
+     */
+    Markup(final Appendable out, final int indent) {
+        this.out = out;
+        this.indent = indent;
+    }
+
+    /**
+     * Whether the output is indented.
+     * If not, backends may print their original source as is.
+     * @return True if indented.
+     */
+    boolean pretty() {
+        return this.indent > 0;
+    }
+
+    /**
+     * Print XML declaration.
+     */
+    void declaration() {
+        this.write(Markup.DECLARATION);
+        this.started = true;
+    }
+
+    /**
+     * Open a start tag.
+     * @param name Element name.
+     */
+    void open(final CharSequence name) {
+        this.newline();
+        this.write("<");
+        this.write(name);
+        this.tag = true;
+        this.started = true;
+        this.text = false;
+    }
+
+    /**
+     * Print an attribute.
+     * Outside a start tag the attribute is printed alone.
+     * @param name Attribute name.
+     * @param value Attribute value.
+     */
+    void attribute(final CharSequence name, final CharSequence value) {
+        if (this.tag) {
+            this.write(" ");
+        }
+        this.write(name);
+        this.write("=\"");
+        this.escape(value, true);
+        this.write("\"");
+        this.started = true;
+    }
+
+    /**
+     * Close the start tag.
+     * @param empty Whether the element has no children.
+     */
+    void close(final boolean empty) {
+        if (empty) {
+            this.write("/>");
+        } else {
+            this.write(">");
+            ++this.depth;
+        }
+        this.tag = false;
+    }
+
+    /**
+     * Print an end tag.
+     * @param name Element name.
+     */
+    void end(final CharSequence name) {
+        --this.depth;
+        this.newline();
+        this.write("</");
+        this.write(name);
+        this.write(">");
+        this.text = false;
+    }
+
+    /**
+     * Print a text.
+     * @param value Unescaped text.
+     */
+    void text(final CharSequence value) {
+        if (!this.pretty() || !Markup.blank(value)) {
+            this.escape(value, false);
+            this.text = true;
+            this.started = true;
+        }
+    }
+
+    /**
+     * Print a CDATA section.
+     * @param value Section content.
+     */
+    void cdata(final CharSequence value) {
+        this.write("<![CDATA[");
+        this.write(value);
+        this.write("]]>");
+        this.text = true;
+        this.started = true;
+    }
+
+    /**
+     * Print a comment.
+     * @param value Comment content.
+     */
+    void comment(final CharSequence value) {
+        this.newline();
+        this.write("<!--");
+        this.write(value);
+        this.write("-->");
+        this.started = true;
+    }
+
+    /**
+     * Print a processing instruction.
+     * @param target Instruction target.
+     * @param data Instruction data.
+     */
+    void instruction(final CharSequence target, final CharSequence data) {
+        this.newline();
+        this.write("<?");
+        this.write(target);
+        if (data.length() > 0) {
+            this.write(" ");
+            this.write(data);
+        }
+        this.write("?>");
+        this.started = true;
+    }
+
+    /**
+     * Print a slice of already valid markup as is.
+     * @param source Source.
+     * @param start Start index, inclusive.
+     * @param end End index, exclusive.
+     */
+    void raw(final CharSequence source, final int start, final int end) {
+        this.write(source, start, end);
+        this.started = true;
+    }
+
+    /**
+     * Start a new indented line if needed.
+     * Nothing is indented inside elements with text.
+     */
+    private void newline() {
+        if (this.pretty() && this.started && !this.text) {
+            this.write("\n");
+            for (int idx = this.depth * this.indent; idx > 0; --idx) {
+                this.write(" ");
+            }
+        }
+    }
+
+    /**
+     * Print escaped characters.
+     * Characters are printed in runs between the ones to escape.
+     * @param value Characters.
+     * @param attr Whether it is an attribute value.
+     */
+    private void escape(final CharSequence value, final boolean attr) {
+        final int length = value.length();
+        int start = 0;
+        for (int idx = 0; idx < length; ++idx) {
+            final String entity = Markup.entity(value.charAt(idx), attr);
+            if (entity != null) {
+                this.write(value, start, idx);
+                this.write(entity);
+                start = idx + 1;
+            }
+        }
+        this.write(value, start, length);
+    }
+
+    /**
+     * Write characters.
+     * @param chars Characters.
+     */
+    private void write(final CharSequence chars) {
+        this.write(chars, 0, chars.length());
+    }
+
+    /**
+     * Write characters.
+     * @param chars Characters.
+     * @param start Start index, inclusive.
+     * @param end End index, exclusive.
+     */
+    private void write(final CharSequence chars, final int start, final int end) {
+        if (start < end) {
+            try {
+                this.out.append(chars, start, end);
+            } catch (final IOException exception) {
+                throw new IllegalStateException("Failed to print XML", exception);
+            }
+        }
+    }
+
+    /**
+     * Entity for a character.
+     * @param chr Character.
+     * @param attr Whether it is an attribute value.
+     * @return Entity or null if the character is printed as is.
+     */
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    private static String entity(final char chr, final boolean attr) {
+        final String result;
+        switch (chr) {
+            case '&':
+                result = "&amp;";
+                break;
+            case '<':
+                result = "&lt;";
+                break;
+            case '>':
+                result = "&gt;";
+                break;
+            case '\r':
+                result = "&#13;";
+                break;
+            case '"':
+                result = Markup.only(attr, "&quot;");
+                break;
+            case '\n':
+                result = Markup.only(attr, "&#10;");
+                break;
+            case '\t':
+                result = Markup.only(attr, "&#9;");
+                break;
+            default:
+                result = null;
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Entity that is used in attribute values only.
+     * @param attr Whether it is an attribute value.
+     * @param entity Entity.
+     * @return Entity or null.
+     */
+    private static String only(final boolean attr, final String entity) {
+        final String result;
+        if (attr) {
+            result = entity;
+        } else {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Check whether the text consists of whitespaces only.
+     * @param value Text.
+     * @return True if blank.
+     */
+    private static boolean blank(final CharSequence value) {
+        boolean result = true;
+        for (int idx = 0; idx < value.length(); ++idx) {
+            if (!Character.isWhitespace(value.charAt(idx))) {
+                result = false;
+                break;
+            }
+        }
+        return result;
+    }
+}
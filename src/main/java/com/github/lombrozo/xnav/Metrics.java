@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+/**
+ * Metrics of parsing and querying.
+ * Implementations are discovered by {@link java.util.ServiceLoader}, so to
+ * collect metrics, for example with a Micrometer binder, list your class in
+ * {@code META-INF/services/com.github.lombrozo.xnav.Metrics}.
+ * If there are no implementations, nothing is measured at all.
+ * Implementations must be thread-safe.
+ *
+ * @since 0.2
+ */
+public interface Metrics {
+
+    /**
+     * A document was parsed.
+     *
+     * @param backend Name of the backend.
+     * @param size Document size in characters.
+     * @param nanos Parsing time in nanoseconds.
+     */
+    void parsed(String backend, long size, long nanos);
+
+    /**
+     * A query was evaluated.
+     * Lazy queries are reported when all their nodes are consumed.
+     *
+     * @param expression XPath expression.
+     * @param found Number of found nodes.
+     * @param nanos Evaluation time in nanoseconds.
+     */
+    void queried(String expression, long found, long nanos);
+
+    /**
+     * A query was looked up in the result cache of a document.
+     * Only documents with a cache, see {@link XnavDocument#cached(int)},
+     * report it.
+     *
+     * @param expression XPath expression.
+     * @param hit Whether the result was in the cache.
+     */
+    default void cached(final String expression, final boolean hit) {
+        // nothing by default
+    }
+}
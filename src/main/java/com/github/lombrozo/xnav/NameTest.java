@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Namespace aware name test.
+ * The prefix is resolved once, when the test is made, so a node is
+ * checked by its namespace URI and local name only. Only elements and
+ * attributes have names in namespaces, other nodes never match. On the token backend
+ * both are compared in place, without creating strings.
+ * This class is immutable and thread-safe.
+ * @since 0.2
+ */
+final class NameTest implements Filter, TokenChain.Condition {
+
+    /**
+     * Namespace URI.
+     */
+    private final String uri;
+
+    /**
+     * Local name, or '*' for any name in the namespace.
+     */
+    private final String local;
+
+    /**
+     * Ctor.
+     * @param uri Namespace URI, empty for no namespace.
+     * @param local Local name, or '*' for any name in the namespace.
+     */
+    NameTest(final String uri, final String local) {
+        this.uri = uri;
+        this.local = local;
+    }
+
+    @Override
+    public boolean test(final Xml xml) {
+        return this.test(xml, new HashMap<>(0));
+    }
+
+    @Override
+    public boolean test(final TokenDoc doc, final int token) {
+        final boolean result;
+        if (this.any()) {
+            result = this.uri.equals(doc.namespace(token));
+        } else {
+            result = doc.named(token, this.uri, this.local);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{%s}%s", this.uri, this.local);
+    }
+
+    /**
+     * Name test for one evaluation.
+     * Prefixes of the checked nodes are resolved through a shared cache,
+     * so siblings and descendants don't walk the same ancestors again.
+     * @return Stateful filter, not thread-safe.
+     */
+    Filter scoped() {
+        final Map<Object, Map<String, String>> known = new HashMap<>(0);
+        return xml -> this.test(xml, known);
+    }
+
+    /**
+     * Check the node.
+     * @param xml Node.
+     * @param known Resolved URIs by element identities and prefixes.
+     * @return True if the node has the name.
+     */
+    private boolean test(final Xml xml, final Map<Object, Map<String, String>> known) {
+        final Kind kind = Kind.of(xml);
+        final boolean result;
+        if (kind != Kind.ELEMENT && kind != Kind.ATTRIBUTE) {
+            result = false;
+        } else if (xml instanceof TokenXml && !this.any()) {
+            result = ((TokenXml) xml).named(this.uri, this.local);
+        } else if (!this.any() && !this.local.equals(xml.local())) {
+            result = false;
+        } else if (xml instanceof TokenXml) {
+            result = this.uri.equals(xml.namespace());
+        } else if (xml instanceof DomXml) {
+            result = this.uri.equals(((DomXml) xml).namespace(known));
+        } else {
+            result = this.uri.equals(new Namespace(xml, known).uri());
+        }
+        return result;
+    }
+
+    /**
+     * Whether any local name matches.
+     * @return True for '*'.
+     */
+    private boolean any() {
+        return "*".equals(this.local);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Namespace of an XML node.
+ * The prefix of the node name is resolved by walking up from the node to
+ * the nearest 'xmlns' declaration of it, so it works for any backend,
+ * including DOM documents parsed without namespace awareness.
+ * Resolved prefixes are remembered for every element on the way, so
+ * namespaces that share a cache don't walk the same ancestors twice.
+ * This class is not thread-safe if the cache is shared.
+ * @since 0.2
+ */
+final class Namespace {
+
+    /**
+     * Namespace of the 'xml' prefix, it's never declared.
+     */
+    static final String XML = "http://www.w3.org/XML/1998/namespace";
+
+    /**
+     * Namespace of the 'xmlns' declarations.
+     */
+    static final String XMLNS = "http://www.w3.org/2000/xmlns/";
+
+    /**
+     * XML node.
+     */
+    private final Xml xml;
+
+    /**
+     * Resolved URIs by element identities and prefixes.
+     */
+    private final Map<Object, Map<String, String>> known;
+
+    /**
+     * Ctor.
+     * @param xml XML node.
+     */
+    Namespace(final Xml xml) {
+        this(xml, new HashMap<>(0));
+    }
+
+    /**
+     * Ctor.
+     * @param xml XML node.
+     * @param known Resolved URIs by element identities and prefixes.
+     */
+    Namespace(final Xml xml, final Map<Object, Map<String, String>> known) {
+        this.xml = xml;
+        this.known = known;
+    }
+
+    /**
+     * Namespace URI of the node.
+     * @return URI, empty if the node is in no namespace.
+     */
+    String uri() {
+        final String name = this.xml.name();
+        final Kind kind = Kind.of(this.xml);
+        final int colon = name.indexOf(':');
+        final String result;
+        if (kind == Kind.ATTRIBUTE && Namespace.declaration(name)) {
+            result = Namespace.XMLNS;
+        } else if (kind == Kind.ATTRIBUTE && colon >= 0) {
+            result = this.resolve(this.xml.parent(), name.substring(0, colon));
+        } else if (kind == Kind.ELEMENT && !(this.xml instanceof Empty)) {
+            result = this.resolve(this.xml, name.substring(0, Math.max(colon, 0)));
+        } else {
+            result = "";
+        }
+        return result;
+    }
+
+    /**
+     * Check whether the attribute declares a namespace.
+     * @param name Attribute name.
+     * @return True for 'xmlns' and 'xmlns:prefix'.
+     */
+    static boolean declaration(final String name) {
+        return "xmlns".equals(name) || name.startsWith("xmlns:");
+    }
+
+    /**
+     * Resolve the prefix by the declarations of the element and its ancestors.
+     * @param element Element where the prefix is used.
+     * @param prefix Prefix, empty for the default namespace.
+     * @return URI, empty if the prefix is not declared.
+     */
+    private String resolve(final Xml element, final String prefix) {
+        String result = "";
+        if ("xml".equals(prefix)) {
+            result = Namespace.XML;
+        } else {
+            final String attr;
+            if (prefix.isEmpty()) {
+                attr = "xmlns";
+            } else {
+                attr = String.format("xmlns:%s", prefix);
+            }
+            final List<Map<String, String>> walked = new ArrayList<>(1);
+            for (Xml node = element; !(node instanceof Empty) && Kind.of(node) == Kind.ELEMENT;
+                node = node.parent()) {
+                final Map<String, String> scope = this.known.computeIfAbsent(
+                    Xpath.identity(node), key -> new HashMap<>(1)
+                );
+                String uri = scope.get(prefix);
+                if (uri == null) {
+                    uri = node.attribute(attr).flatMap(Xml::text).orElse(null);
+                    walked.add(scope);
+                }
+                if (uri != null) {
+                    result = uri;
+                    break;
+                }
+            }
+            for (final Map<String, String> scope : walked) {
+                scope.put(prefix, result);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+/**
+ * Parallel token backend.
+ * The same token index as {@link TokenBackend}, but very large documents
+ * are parsed by {@link ParallelParser} on all the cores. Like the token
+ * backend, it's chosen only for documents above the threshold.
+ *
+ * @since 0.2
+ */
+final class ParallelBackend implements Backend {
+
+    /**
+     * Size starting from which parsing in parallel pays off, in characters.
+     */
+    private static final long HUGE = 8L * 1024 * 1024;
+
+    @Override
+    public String name() {
+        return "parallel";
+    }
+
+    @Override
+    public int score(final Workload workload) {
+        final int result;
+        if (workload.dom() || !workload.large() || workload.size() < ParallelBackend.HUGE) {
+            result = -1;
+        } else {
+            result = 70;
+        }
+        return result;
+    }
+
+    @Override
+    public Xml parse(final String xml) {
+        return new TokenXml(new ParallelParser(xml).parse(), 0);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel token parser.
+ * A quick scan by {@link LazyScanner} finds the element that holds the bulk
+ * of the document, descending from the root while a single child dominates,
+ * like '/program/objects' in XMIR. Its content is split into chunks at the
+ * boundaries of its children, the chunks are parsed into separate token
+ * segments on a {@link ForkJoinPool}, and then stitched into one
+ * {@link TokenDoc} with the rest of the document.
+ * The result is the same as the one of {@link TokenParser}.
+ * This class is immutable and thread-safe.
+ * @since 0.2
+ */
+final class ParallelParser {
+
+    /**
+     * Default minimal size of a chunk in characters.
+     */
+    private static final int CHUNK = 256 * 1024;
+
+    /**
+     * XML document as a string.
+     */
+    private final String xml;
+
+    /**
+     * Pool to parse chunks in.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Minimal size of a chunk in characters.
+     */
+    private final int chunk;
+
+    /**
+     * Ctor.
+     * @param xml XML document as a string.
+     */
+    ParallelParser(final String xml) {
+        this(xml, ForkJoinPool.commonPool(), ParallelParser.CHUNK);
+    }
+
+    /**
+     * Ctor.
+     * @param xml XML document as a string.
+     * @param pool Pool to parse chunks in.
+     * @param chunk Minimal size of a chunk in characters.
+     */
+    ParallelParser(final String xml, final ForkJoinPool pool, final int chunk) {
+        this.xml = xml;
+        this.pool = pool;
+        this.chunk = chunk;
+    }
+
+    /**
+     * Parse the document.
+     * @return Token index of the document.
+     * @throws IllegalArgumentException If the XML is malformed.
+     */
+    TokenDoc parse() {
+        final LazyDoc skeleton = new LazyScanner(this.xml).scan();
+        final int element = ParallelParser.bulk(skeleton);
+        final List<Integer> bounds = this.bounds(skeleton, element);
+        final TokenDoc result;
+        if (bounds.size() < 3) {
+            result = new TokenParser(this.xml).parse();
+        } else {
+            final int start = skeleton.start(element);
+            final ForkJoinTask<TokenDoc> frame = this.pool.submit(
+                () -> new TokenParser(this.xml).frame(start, bounds.get(bounds.size() - 1))
+            );
+            final List<TokenDoc> chunks = this.pool.submit(
+                () -> IntStream.range(0, bounds.size() - 1)
+                    .parallel()
+                    .mapToObj(idx -> this.chunk(bounds.get(idx), bounds.get(idx + 1)))
+                    .collect(Collectors.toList())
+            ).join();
+            final TokenDoc outer = frame.join();
+            result = outer.stitch(outer.token(start), chunks);
+        }
+        return result;
+    }
+
+    /**
+     * Number of chunks the content of the document is parsed in.
+     * @return Number of chunks, one if the document is parsed serially.
+     */
+    int chunks() {
+        final LazyDoc skeleton = new LazyScanner(this.xml).scan();
+        return Math.max(1, this.bounds(skeleton, ParallelParser.bulk(skeleton)).size() - 1);
+    }
+
+    /**
+     * Parse a chunk of the content.
+     * @param from Start offset of the chunk.
+     * @param to End offset of the chunk, exclusive.
+     * @return Token segment of the chunk.
+     */
+    private TokenDoc chunk(final int from, final int to) {
+        return new TokenParser(this.xml).forest(from, to);
+    }
+
+    /**
+     * Offsets that split the content of the element into chunks.
+     * The first offset is the start of the content, the last one is the
+     * start of the end tag, the others are starts of child elements.
+     * @param skeleton Element boundaries.
+     * @param element Element to split.
+     * @return Offsets, fewer than three if the element is not worth splitting.
+     */
+    private List<Integer> bounds(final LazyDoc skeleton, final int element) {
+        final List<Integer> result = new ArrayList<>(0);
+        final int end = skeleton.end(element);
+        if (skeleton.tag(element) < end) {
+            final int content = skeleton.tag(element);
+            final int resume = this.xml.lastIndexOf("</", end - 1);
+            final int size = Math.max(
+                this.chunk, (resume - content) / (this.pool.getParallelism() * 4)
+            );
+            result.add(content);
+            for (int child = element + 1; child < skeleton.size()
+                && skeleton.start(child) < end; child = skeleton.after(child)) {
+                if (skeleton.start(child) - result.get(result.size() - 1) >= size) {
+                    result.add(skeleton.start(child));
+                }
+            }
+            result.add(resume);
+        }
+        return result;
+    }
+
+    /**
+     * Element that holds the bulk of the document.
+     * @param skeleton Element boundaries.
+     * @return Element index.
+     */
+    private static int bulk(final LazyDoc skeleton) {
+        int result = 1;
+        boolean deeper = true;
+        while (deeper) {
+            final int whole = skeleton.end(result) - skeleton.start(result);
+            int largest = -1;
+            int max = 0;
+            for (int child = result + 1; child < skeleton.size()
+                && skeleton.start(child) < skeleton.end(result); child = skeleton.after(child)) {
+                final int size = skeleton.end(child) - skeleton.start(child);
+                if (size > max) {
+                    max = size;
+                    largest = child;
+                }
+            }
+            deeper = largest != -1 && max > whole / 10 * 9;
+            if (deeper) {
+                result = largest;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Measurements of one step of an XPath plan.
+ * Counters are shared by all the evaluations of the step, even if they run
+ * in different threads, while each evaluation keeps its own {@link Meter}.
+ * Allocated memory is taken from the JVM per thread, so it's approximate
+ * and it's zero if the JVM doesn't support it.
+ * This class is thread-safe.
+ * @since 0.2
+ */
+final class Probe {
+
+    /**
+     * Threads of the JVM.
+     */
+    private static final java.lang.management.ThreadMXBean THREADS =
+        ManagementFactory.getThreadMXBean();
+
+    /**
+     * Step as written in the plan.
+     */
+    private final String step;
+
+    /**
+     * Nodes that went into the step.
+     */
+    private final LongAdder visited;
+
+    /**
+     * Nodes that went out of the step.
+     */
+    private final LongAdder emitted;
+
+    /**
+     * Bytes allocated by the step.
+     */
+    private final LongAdder allocated;
+
+    /**
+     * Nanoseconds spent in the step.
+     */
+    private final LongAdder elapsed;
+
+    /**
+     * Ctor.
+     * @param step Step as written in the plan.
+     */
+    Probe(final String step) {
+        this.step = step;
+        this.visited = new LongAdder();
+        this.emitted = new LongAdder();
+        this.allocated = new LongAdder();
+        this.elapsed = new LongAdder();
+    }
+
+    /**
+     * Start a new evaluation of the step.
+     * @return Meter of the evaluation.
+     */
+    Meter meter() {
+        return new Meter();
+    }
+
+    /**
+     * Current measurements.
+     * @return Profile of the step.
+     */
+    QueryProfile.Step snapshot() {
+        return new QueryProfile.Step(
+            this.step,
+            this.visited.sum(),
+            this.emitted.sum(),
+            this.allocated.sum(),
+            this.elapsed.sum()
+        );
+    }
+
+    /**
+     * Bytes allocated by the current thread so far.
+     * @return Bytes or zero if the JVM doesn't count them.
+     */
+    private static long bytes() {
+        final long result;
+        if (Probe.THREADS instanceof ThreadMXBean
+            && ((ThreadMXBean) Probe.THREADS).isThreadAllocatedMemoryEnabled()) {
+            result = ((ThreadMXBean) Probe.THREADS).getThreadAllocatedBytes(
+                Thread.currentThread().getId()
+            );
+        } else {
+            result = 0L;
+        }
+        return result;
+    }
+
+    /**
+     * Meter of one evaluation of the step.
+     * The clock runs only while the step itself works: it's paused when the
+     * step pulls a node from the previous step and when it hands a node over
+     * to the next one.
+     * This class is not thread-safe, since a stream is consumed by one
+     * thread at a time.
+     * @since 0.2
+     */
+    final class Meter {
+
+        /**
+         * When the clock was started.
+         */
+        private long since;
+
+        /**
+         * Allocated bytes when the clock was started.
+         */
+        private long bytes;
+
+        /**
+         * Whether the clock runs.
+         */
+        private boolean running;
+
+        /**
+         * Measure nodes that go into the step.
+         * @param xml Nodes from the previous step.
+         * @return The same nodes.
+         */
+        Stream<Xml> input(final Stream<Xml> xml) {
+            final Spliterator<Xml> source = xml.spliterator();
+            return StreamSupport.stream(
+                new Spliterators.AbstractSpliterator<Xml>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL
+                ) {
+                    @Override
+                    public boolean tryAdvance(final Consumer<? super Xml> action) {
+                        final boolean was = Meter.this.running;
+                        Meter.this.stop();
+                        final boolean result = source.tryAdvance(
+                            node -> {
+                                Probe.this.visited.increment();
+                                Meter.this.start(was);
+                                action.accept(node);
+                                Meter.this.stop();
+                            }
+                        );
+                        Meter.this.start(was);
+                        return result;
+                    }
+                },
+                false
+            );
+        }
+
+        /**
+         * Measure nodes that go out of the step.
+         * @param xml Nodes of the step.
+         * @return The same nodes.
+         */
+        Stream<Xml> output(final Stream<Xml> xml) {
+            final Spliterator<Xml> source = xml.spliterator();
+            return StreamSupport.stream(
+                new Spliterators.AbstractSpliterator<Xml>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL
+                ) {
+                    @Override
+                    public boolean tryAdvance(final Consumer<? super Xml> action) {
+                        Meter.this.start(true);
+                        final boolean result = source.tryAdvance(
+                            node -> {
+                                Probe.this.emitted.increment();
+                                Meter.this.stop();
+                                action.accept(node);
+                                Meter.this.start(true);
+                            }
+                        );
+                        Meter.this.stop();
+                        return result;
+                    }
+                },
+                false
+            );
+        }
+
+        /**
+         * Start the clock.
+         * @param run Whether to start it.
+         */
+        private void start(final boolean run) {
+            if (run && !this.running) {
+                this.running = true;
+                this.since = System.nanoTime();
+                this.bytes = Probe.bytes();
+            }
+        }
+
+        /**
+         * Stop the clock and record the measurements.
+         */
+        private void stop() {
+            if (this.running) {
+                this.running = false;
+                Probe.this.elapsed.add(System.nanoTime() - this.since);
+                Probe.this.allocated.add(Probe.bytes() - this.bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Cache of query results of one document.
+ * Results are kept as token positions by the expression and the context
+ * token, so cached results don't hold navigators. Lookups never lock: each
+ * result only marks itself as used. New results are placed in a ring
+ * under a lock, and when the cache is full, a hand goes around the ring,
+ * clearing the marks, until it finds a result that wasn't used since the
+ * hand passed it last time, which is evicted. This is the CLOCK
+ * approximation of LRU: every mark is cleared once, so an eviction takes
+ * amortised constant time. Documents are never changed, edits give new
+ * documents with their own empty caches, so results never go stale.
+ * Hits and misses are counted and reported to {@link Metrics}.
+ * This class is thread-safe.
+ *
+ * @since 0.2
+ */
+final class QueryCache {
+
+    /**
+     * Disabled cache.
+     */
+    static final QueryCache NONE = new QueryCache(0);
+
+    /**
+     * Maximum number of results.
+     */
+    private final int size;
+
+    /**
+     * Results by their keys.
+     */
+    private final Map<Key, Entry> results;
+
+    /**
+     * Keys of the results, in the order they were placed.
+     */
+    private final Key[] ring;
+
+    /**
+     * Lock of the ring.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * Number of the occupied places of the ring.
+     */
+    private int taken;
+
+    /**
+     * Position of the hand in the ring.
+     */
+    private int hand;
+
+    /**
+     * Number of hits.
+     */
+    private final LongAdder hits;
+
+    /**
+     * Number of misses.
+     */
+    private final LongAdder misses;
+
+    /**
+     * Ctor.
+     * @param size Maximum number of results, zero disables the cache.
+     */
+    QueryCache(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException(
+                String.format("Cache size can't be negative, but was %d", size)
+            );
+        }
+        this.size = size;
+        this.results = new ConcurrentHashMap<>(0);
+        this.ring = new Key[size];
+        this.lock = new ReentrantLock();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Whether results are cached at all.
+     * @return True if the cache is enabled.
+     */
+    boolean enabled() {
+        return this.size > 0;
+    }
+
+    /**
+     * Empty cache of the same size.
+     * @return New cache.
+     */
+    QueryCache fresh() {
+        final QueryCache result;
+        if (this.enabled()) {
+            result = new QueryCache(this.size);
+        } else {
+            result = this;
+        }
+        return result;
+    }
+
+    /**
+     * Positions found by the expression from the context token.
+     * Concurrent misses of the same query are evaluated independently,
+     * their results are the same.
+     * @param expression XPath expression.
+     * @param token Context token.
+     * @param evaluate Evaluation of the query in case of a miss.
+     * @return Positions of the found tokens.
+     */
+    int[] positions(final String expression, final int token, final Supplier<int[]> evaluate) {
+        return this.find(expression, token).orElseGet(
+            () -> {
+                final int[] found = evaluate.get();
+                if (this.enabled()) {
+                    this.place(new Key(expression, token), new Entry(found));
+                }
+                return found;
+            }
+        );
+    }
+
+    /**
+     * Positions found by the expression from the context token, if they
+     * are cached.
+     * A miss is counted, but nothing is evaluated, so queries that don't
+     * need all the nodes, like counting, may answer it in their own way.
+     * @param expression XPath expression.
+     * @param token Context token.
+     * @return Positions of the found tokens or empty.
+     */
+    Optional<int[]> find(final String expression, final int token) {
+        final Entry entry = this.results.get(new Key(expression, token));
+        new Telemetry().cached(expression, entry != null);
+        final Optional<int[]> result;
+        if (entry == null) {
+            this.misses.increment();
+            result = Optional.empty();
+        } else {
+            this.hits.increment();
+            entry.touch();
+            result = Optional.of(entry.positions);
+        }
+        return result;
+    }
+
+    /**
+     * Number of queries answered by the cache.
+     * @return Hits.
+     */
+    long hits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Number of queries evaluated since they were not cached.
+     * @return Misses.
+     */
+    long misses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Place a new result into the ring, evicting a result if it's full.
+     * A result that another thread placed meanwhile is kept.
+     * @param key Key of the result.
+     * @param entry Result.
+     */
+    private void place(final Key key, final Entry entry) {
+        this.lock.lock();
+        try {
+            if (this.results.putIfAbsent(key, entry) == null) {
+                if (this.taken < this.ring.length) {
+                    this.ring[this.taken] = key;
+                    this.taken += 1;
+                } else {
+                    while (this.results.get(this.ring[this.hand]).spare()) {
+                        this.hand = (this.hand + 1) % this.ring.length;
+                    }
+                    this.results.remove(this.ring[this.hand]);
+                    this.ring[this.hand] = key;
+                    this.hand = (this.hand + 1) % this.ring.length;
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Key of a result.
+     * @since 0.2
+     */
+    @EqualsAndHashCode
+    private static final class Key {
+
+        /**
+         * XPath expression.
+         */
+        private final String expression;
+
+        /**
+         * Context token.
+         */
+        private final int token;
+
+        /**
+         * Ctor.
+         * @param expression XPath expression.
+         * @param token Context token.
+         */
+        Key(final String expression, final int token) {
+            this.expression = expression;
+            this.token = token;
+        }
+    }
+
+    /**
+     * Cached result with the mark of its use.
+     * @since 0.2
+     */
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private static final class Entry {
+
+        /**
+         * Positions of the found tokens.
+         */
+        private final int[] positions;
+
+        /**
+         * Whether the result was used since the hand passed it.
+         */
+        private volatile boolean used;
+
+        /**
+         * Ctor.
+         * @param positions Positions of the found tokens.
+         */
+        Entry(final int[] positions) {
+            this.positions = positions;
+        }
+
+        /**
+         * Remember the use of the result.
+         */
+        void touch() {
+            this.used = true;
+        }
+
+        /**
+         * Give the result a second chance if it was used.
+         * The mark is cleared, so the next time the hand comes, the result
+         * is evicted unless it's used again.
+         * @return True if the result was used and must be kept.
+         */
+        boolean spare() {
+            final boolean result = this.used;
+            this.used = false;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Profile of an XPath evaluation.
+ * It shows how many nodes each step of the plan took and returned, and how
+ * much time and memory the step itself spent, so it's easy to see which
+ * steps dominate the query.
+ * Steps go in the order they were parsed: nested steps go first.
+ * This class is immutable and thread-safe.
+ *
+ * @since 0.2
+ */
+@ToString
+@EqualsAndHashCode
+public final class QueryProfile {
+
+    /**
+     * XPath expression.
+     */
+    private final String path;
+
+    /**
+     * Number of found nodes.
+     */
+    private final long found;
+
+    /**
+     * Total evaluation time in nanoseconds.
+     */
+    private final long elapsed;
+
+    /**
+     * Profiles of the steps.
+     */
+    private final List<Step> steps;
+
+    /**
+     * Ctor.
+     * @param path XPath expression.
+     * @param found Number of found nodes.
+     * @param elapsed Total evaluation time in nanoseconds.
+     * @param steps Profiles of the steps.
+     */
+    QueryProfile(final String path, final long found, final long elapsed, final List<Step> steps) {
+        this.path = path;
+        this.found = found;
+        this.elapsed = elapsed;
+        this.steps = List.copyOf(steps);
+    }
+
+    /**
+     * XPath expression.
+     * @return Expression.
+     */
+    public String path() {
+        return this.path;
+    }
+
+    /**
+     * Number of found nodes.
+     * @return Number of nodes.
+     */
+    public long found() {
+        return this.found;
+    }
+
+    /**
+     * Total evaluation time.
+     * @return Nanoseconds.
+     */
+    public long nanos() {
+        return this.elapsed;
+    }
+
+    /**
+     * Profiles of the steps.
+     * @return Steps.
+     */
+    public List<Step> steps() {
+        return this.steps;
+    }
+
+    /**
+     * Profile of one step of the plan.
+     * This class is immutable and thread-safe.
+     *
+     * @since 0.2
+     */
+    @ToString
+    @EqualsAndHashCode
+    public static final class Step {
+
+        /**
+         * Step as written in the plan.
+         */
+        private final String name;
+
+        /**
+         * Nodes that went into the step.
+         */
+        private final long visited;
+
+        /**
+         * Nodes that went out of the step.
+         */
+        private final long emitted;
+
+        /**
+         * Approximate number of bytes allocated by the step.
+         */
+        private final long allocated;
+
+        /**
+         * Nanoseconds spent in the step.
+         */
+        private final long elapsed;
+
+        /**
+         * Ctor.
+         * @param name Step as written in the plan.
+         * @param visited Nodes that went into the step.
+         * @param emitted Nodes that went out of the step.
+         * @param allocated Approximate number of bytes allocated by the step.
+         * @param elapsed Nanoseconds spent in the step.
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Step(final String name, final long visited, final long emitted,
+            final long allocated, final long elapsed) {
+            this.name = name;
+            this.visited = visited;
+            this.emitted = emitted;
+            this.allocated = allocated;
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * Step as written in the plan.
+         * @return Step.
+         */
+        public String name() {
+            return this.name;
+        }
+
+        /**
+         * Nodes that went into the step, in all its evaluations.
+         * @return Number of nodes.
+         */
+        public long visited() {
+            return this.visited;
+        }
+
+        /**
+         * Nodes that went out of the step, in all its evaluations.
+         * @return Number of nodes.
+         */
+        public long emitted() {
+            return this.emitted;
+        }
+
+        /**
+         * Approximate number of bytes allocated by the step.
+         * @return Bytes, zero if the JVM doesn't count them.
+         */
+        public long allocated() {
+            return this.allocated;
+        }
+
+        /**
+         * Time spent in the step.
+         * @return Nanoseconds.
+         */
+        public long nanos() {
+            return this.elapsed;
+        }
+    }
+}
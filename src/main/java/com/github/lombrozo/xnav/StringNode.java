@@ -27,10 +27,17 @@ package com.github.lombrozo.xnav;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import org.w3c.dom.Node;
+import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 /**
  * XML as a string.
@@ -40,8 +47,45 @@ final class StringNode {
 
     /**
      * Document factory.
+     * It is namespace aware, so DOM nodes know their namespace URIs and
+     * local names.
      */
-    private static final DocumentBuilderFactory DFACTORY = DocumentBuilderFactory.newInstance();
+    private static final DocumentBuilderFactory DFACTORY = StringNode.factory(true);
+
+    /**
+     * Document factory for documents with undeclared prefixes.
+     */
+    private static final DocumentBuilderFactory PLAIN = StringNode.factory(false);
+
+    /**
+     * Inputs known to use undeclared prefixes.
+     * They are parsed without namespaces right away, the next time.
+     */
+    private static final Map<String, Boolean> UNBOUND = Collections.synchronizedMap(
+        new WeakHashMap<>(0)
+    );
+
+    /**
+     * Error handler that reports nothing to the console.
+     * Fatal errors stop the parsing, others are ignored, like without
+     * a validation they don't happen anyway.
+     */
+    private static final ErrorHandler SILENT = new ErrorHandler() {
+        @Override
+        public void warning(final SAXParseException exception) {
+            // nothing to report
+        }
+
+        @Override
+        public void error(final SAXParseException exception) {
+            // nothing to report
+        }
+
+        @Override
+        public void fatalError(final SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+    };
 
     /**
      * XML as a string.
@@ -58,17 +102,88 @@ final class StringNode {
 
     /**
      * Converts XML string to XML node.
+     * Documents that use undeclared prefixes, like '&lt;x:root/&gt;', are
+     * not namespace well-formed, they are parsed without namespaces.
+     * Other malformed documents are parsed only once.
      * @return XML node.
      */
     Node toNode() {
+        Node result;
         try {
-            return StringNode.DFACTORY.newDocumentBuilder()
-                .parse(new ByteArrayInputStream(this.xml.getBytes(StandardCharsets.UTF_8)));
-        } catch (final SAXException | IOException | ParserConfigurationException exception) {
+            if (StringNode.UNBOUND.containsKey(this.xml)) {
+                result = this.parse(StringNode.PLAIN);
+            } else {
+                result = this.parse(StringNode.DFACTORY);
+            }
+        } catch (final SAXException exception) {
+            if (!StringNode.unbound(exception)) {
+                throw this.failure(exception);
+            }
+            try {
+                result = this.parse(StringNode.PLAIN);
+            } catch (final SAXException ignored) {
+                throw this.failure(exception);
+            }
+            StringNode.UNBOUND.put(this.xml, true);
+        }
+        return result;
+    }
+
+    /**
+     * Parse the XML by the factory.
+     * @param factory Document factory.
+     * @return XML node.
+     * @throws SAXException If the XML is malformed.
+     */
+    private Node parse(final DocumentBuilderFactory factory) throws SAXException {
+        try {
+            final DocumentBuilder builder = factory.newDocumentBuilder();
+            builder.setErrorHandler(StringNode.SILENT);
+            return builder.parse(
+                new ByteArrayInputStream(this.xml.getBytes(StandardCharsets.UTF_8))
+            );
+        } catch (final IOException | ParserConfigurationException exception) {
             throw new IllegalArgumentException(
                 String.format("Failed to parse XML: %s", this.xml),
                 exception
             );
         }
     }
+
+    /**
+     * Failure of parsing.
+     * @param cause Cause.
+     * @return Exception to throw.
+     */
+    private IllegalArgumentException failure(final SAXException cause) {
+        return new IllegalArgumentException(
+            String.format("Failed to parse XML: %s", cause.getMessage()),
+            cause
+        );
+    }
+
+    /**
+     * Whether the parsing failed because of an undeclared prefix.
+     * The messages are in English, see {@link #factory(boolean)}.
+     * @param exception Failure.
+     * @return True if a prefix is not bound.
+     */
+    private static boolean unbound(final SAXException exception) {
+        final String message = exception.getMessage();
+        return message != null && message.contains("is not bound");
+    }
+
+    /**
+     * Document factory.
+     * Messages are asked in English, so the reason of a failure can be
+     * told from the message, whatever the default locale is.
+     * @param aware Whether it is namespace aware.
+     * @return Factory.
+     */
+    private static DocumentBuilderFactory factory(final boolean aware) {
+        final DocumentBuilderFactory result = DocumentBuilderFactory.newInstance();
+        result.setNamespaceAware(aware);
+        result.setAttribute("http://apache.org/xml/properties/locale", Locale.ROOT);
+        return result;
+    }
 }
@@ -0,0 +1,293 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import jdk.jfr.EventType;
+
+/**
+ * Instrumentation of parsing and querying.
+ * It emits {@link XnavParse} and {@link XnavQuery} JFR events and reports
+ * to all the {@link Metrics} found by {@link ServiceLoader}.
+ * If JFR events are disabled and there are no metrics, the work is done
+ * as is, without clocks, wrappers and events. Events are created only
+ * when a recording has them enabled.
+ * This class is immutable and thread-safe.
+ * @since 0.2
+ */
+final class Telemetry {
+
+    /**
+     * Metrics found by the service loader.
+     */
+    private static final List<Metrics> ALL = Telemetry.discover();
+
+    /**
+     * Type of the parsing event.
+     */
+    private static final EventType PARSE = EventType.getEventType(XnavParse.class);
+
+    /**
+     * Type of the query event.
+     */
+    private static final EventType QUERY = EventType.getEventType(XnavQuery.class);
+
+    /**
+     * Metrics to report to.
+     */
+    private final List<Metrics> metrics;
+
+    /**
+     * Ctor.
+     */
+    Telemetry() {
+        this(Telemetry.ALL);
+    }
+
+    /**
+     * Ctor.
+     * @param metrics Metrics to report to.
+     */
+    Telemetry(final List<Metrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Parse a document and measure it.
+     * @param backend Backend.
+     * @param xml XML document as a string.
+     * @return Parsed XML.
+     */
+    Xml parse(final Backend backend, final String xml) {
+        final boolean recorded = Telemetry.PARSE.isEnabled();
+        final Xml result;
+        if (this.metrics.isEmpty() && !recorded) {
+            result = backend.parse(xml);
+        } else {
+            final XnavParse event;
+            if (recorded) {
+                event = new XnavParse();
+                event.begin();
+            } else {
+                event = null;
+            }
+            final long start = System.nanoTime();
+            result = backend.parse(xml);
+            final long nanos = System.nanoTime() - start;
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.backend = backend.name();
+                    event.size = xml.length();
+                    event.commit();
+                }
+            }
+            for (final Metrics metric : this.metrics) {
+                metric.parsed(backend.name(), xml.length(), nanos);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count nodes and measure it.
+     * @param expression XPath expression.
+     * @param root Document the expression is evaluated against.
+     * @param count Counting.
+     * @return Number of nodes.
+     */
+    long count(final String expression, final Xml root, final LongSupplier count) {
+        final long result;
+        if (this.metrics.isEmpty() && !Telemetry.QUERY.isEnabled()) {
+            result = count.getAsLong();
+        } else {
+            final XnavQuery event = Telemetry.query();
+            final long start = System.nanoTime();
+            result = count.getAsLong();
+            this.queried(event, expression, root, result, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Measure lazy evaluation of nodes.
+     * The clock starts when the first node is requested and stops when the
+     * nodes are over, so queries that are not consumed to the end are not
+     * reported.
+     * @param expression XPath expression.
+     * @param root Document the expression is evaluated against.
+     * @param nodes Found nodes.
+     * @return The same nodes.
+     */
+    Stream<Xml> nodes(final String expression, final Xml root, final Stream<Xml> nodes) {
+        final Stream<Xml> result;
+        if (this.metrics.isEmpty() && !Telemetry.QUERY.isEnabled()) {
+            result = nodes;
+        } else {
+            final Spliterator<Xml> source = nodes.spliterator();
+            result = StreamSupport.stream(
+                new Spliterators.AbstractSpliterator<Xml>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL
+                ) {
+                    /**
+                     * JFR event, null if it's not recorded.
+                     */
+                    private XnavQuery event;
+
+                    /**
+                     * When the first node was requested.
+                     */
+                    private long start;
+
+                    /**
+                     * Number of found nodes.
+                     */
+                    private long found;
+
+                    /**
+                     * Whether the clock runs.
+                     */
+                    private boolean running;
+
+                    /**
+                     * Whether the query is reported.
+                     */
+                    private boolean reported;
+
+                    @Override
+                    public boolean tryAdvance(final Consumer<? super Xml> action) {
+                        if (!this.running && !this.reported) {
+                            this.event = Telemetry.query();
+                            this.start = System.nanoTime();
+                            this.running = true;
+                        }
+                        final boolean more = source.tryAdvance(action);
+                        if (more) {
+                            ++this.found;
+                        } else if (this.running) {
+                            Telemetry.this.queried(
+                                this.event, expression, root, this.found,
+                                System.nanoTime() - this.start
+                            );
+                            this.running = false;
+                            this.reported = true;
+                        }
+                        return more;
+                    }
+                },
+                false
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Report a lookup in a query result cache.
+     * @param expression XPath expression.
+     * @param hit Whether the result was in the cache.
+     */
+    void cached(final String expression, final boolean hit) {
+        for (final Metrics metric : this.metrics) {
+            metric.cached(expression, hit);
+        }
+    }
+
+    /**
+     * Report an evaluated query.
+     * @param event JFR event that has begun, or null if it's not recorded.
+     * @param expression XPath expression.
+     * @param root Document the expression is evaluated against.
+     * @param found Number of found nodes.
+     * @param nanos Evaluation time.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private void queried(final XnavQuery event, final String expression, final Xml root,
+        final long found, final long nanos) {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.expression = expression;
+                event.backend = Telemetry.backend(root);
+                event.found = found;
+                event.commit();
+            }
+        }
+        for (final Metrics metric : this.metrics) {
+            metric.queried(expression, found, nanos);
+        }
+    }
+
+    /**
+     * Begin a query event, if it's recorded.
+     * @return Event that has begun, or null.
+     */
+    private static XnavQuery query() {
+        final XnavQuery result;
+        if (Telemetry.QUERY.isEnabled()) {
+            result = new XnavQuery();
+            result.begin();
+        } else {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Name of the backend the document was parsed with.
+     * @param root Document.
+     * @return Backend name, or the class name for other implementations.
+     */
+    private static String backend(final Xml root) {
+        final String result;
+        if (root instanceof DomXml) {
+            result = new DomBackend().name();
+        } else if (root instanceof TokenXml) {
+            result = new TokenBackend().name();
+        } else if (root instanceof LazyXml) {
+            result = new LazyBackend().name();
+        } else {
+            result = root.getClass().getSimpleName();
+        }
+        return result;
+    }
+
+    /**
+     * Discover all available metrics.
+     * @return Metrics.
+     */
+    private static List<Metrics> discover() {
+        final List<Metrics> all = new ArrayList<>(0);
+        ServiceLoader.load(Metrics.class).forEach(all::add);
+        return Collections.unmodifiableList(all);
+    }
+}
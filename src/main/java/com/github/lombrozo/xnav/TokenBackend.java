@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+/**
+ * Token backend.
+ * Read-only and lock-free, it parses and navigates much faster than DOM,
+ * but DOM nodes are built on demand by reparsing source slices.
+ *
+ * @since 0.2
+ */
+final class TokenBackend implements Backend {
+
+    @Override
+    public String name() {
+        return "token";
+    }
+
+    @Override
+    public int score(final Workload workload) {
+        int result = 0;
+        if (workload.dom()) {
+            result = -1;
+        } else {
+            if (workload.large()) {
+                result += 20;
+            }
+            if (workload.threads() > 1) {
+                result += 20;
+            }
+            if (workload.queries() == Workload.Queries.RECURSIVE) {
+                result += 20;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Xml parse(final String xml) {
+        return new TokenXml(xml);
+    }
+}
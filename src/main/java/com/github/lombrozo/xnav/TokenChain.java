@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.function.IntPredicate;
+
+/**
+ * XPath step compiled for the token index.
+ * Every step passes the tokens it selects right to the next step, so a
+ * compiled path is a chain of loops over the token arrays with name checks
+ * and predicates inlined, without streams and navigators in between.
+ * Tokens reach the sink in the document order. The sink stops the walk
+ * by returning false, so a query that needs only the first nodes doesn't
+ * go through the whole document.
+ *
+ * @since 0.2
+ */
+interface TokenChain {
+
+    /**
+     * Select tokens from the context token.
+     *
+     * @param doc Token index.
+     * @param token Context token.
+     * @param sink Where to pass the selected tokens, false from it stops
+     *  the walk.
+     * @return False if the walk was stopped by the sink.
+     */
+    boolean visit(TokenDoc doc, int token, IntPredicate sink);
+
+    /**
+     * Predicate compiled for the token index.
+     *
+     * @since 0.2
+     */
+    interface Condition {
+
+        /**
+         * Check the token.
+         *
+         * @param doc Token index.
+         * @param token Token.
+         * @return True if the token matches.
+         */
+        boolean test(TokenDoc doc, int token);
+    }
+}
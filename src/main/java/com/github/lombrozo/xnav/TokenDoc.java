@@ -0,0 +1,1629 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Token index of an XML document.
+ * The idea is borrowed from VTD-XML: the document is kept as the original
+ * string and a set of flat arrays with offsets into it. Each node is just an
+ * index in these arrays, so navigation never clones navigators and never
+ * allocates anything except the returned values.
+ * This class is immutable and thread-safe.
+ * @since 0.2
+ */
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.UseVarargs"})
+final class TokenDoc {
+
+    /**
+     * Original XML document.
+     */
+    private final String source;
+
+    /**
+     * Token kinds.
+     */
+    private final Kind[] kinds;
+
+    /**
+     * Name offsets.
+     */
+    private final int[] names;
+
+    /**
+     * Name lengths.
+     */
+    private final int[] lengths;
+
+    /**
+     * Value start offsets.
+     * For elements it is the start of the start tag.
+     */
+    private final int[] starts;
+
+    /**
+     * Value end offsets.
+     * For elements it is the end of the end tag.
+     */
+    private final int[] ends;
+
+    /**
+     * Parent tokens.
+     */
+    private final int[] parents;
+
+    /**
+     * First child tokens.
+     */
+    private final int[] firsts;
+
+    /**
+     * Next sibling tokens.
+     */
+    private final int[] nexts;
+
+    /**
+     * Previous sibling tokens.
+     */
+    private final int[] prevs;
+
+    /**
+     * Subtree ends.
+     * Index of the first token after the subtree.
+     */
+    private final int[] skips;
+
+    /**
+     * Structural hashes of subtrees.
+     * Computed once, right after parsing.
+     */
+    private final int[] hashes;
+
+    /**
+     * Positions of elements by their names, in the document order.
+     * Built on the first request, the race is benign since the
+     * index is always the same.
+     */
+    private volatile Map<String, int[]> index;
+
+    /**
+     * Namespace URIs of elements and attributes, empty for other tokens.
+     * Built on the first request, the race is benign since the
+     * table is always the same.
+     */
+    private volatile String[] spaces;
+
+    /**
+     * Cache of query results.
+     * Edits give documents with their own empty caches.
+     */
+    private final QueryCache cache;
+
+    /**
+     * Ctor.
+     * @param source Original XML document.
+     * @param kinds Token kinds.
+     * @param names Name offsets.
+     * @param lengths Name lengths.
+     * @param starts Value start offsets.
+     * @param ends Value end offsets.
+     * @param parents Parent tokens.
+     * @param firsts First child tokens.
+     * @param nexts Next sibling tokens.
+     * @param prevs Previous sibling tokens.
+     * @param skips Subtree ends.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    @SuppressWarnings({
+        "PMD.ArrayIsStoredDirectly",
+        "PMD.ConstructorOnlyInitializesOrCallOtherConstructors"
+    })
+    TokenDoc(final String source, final Kind[] kinds, final int[] names, final int[] lengths,
+        final int[] starts, final int[] ends, final int[] parents, final int[] firsts,
+        final int[] nexts, final int[] prevs, final int[] skips) {
+        this(
+            source, kinds, names, lengths, starts, ends, parents, firsts, nexts, prevs, skips,
+            new int[kinds.length], QueryCache.NONE
+        );
+        this.digest();
+    }
+
+    /**
+     * Ctor with already computed hashes.
+     * @param source Original XML document.
+     * @param kinds Token kinds.
+     * @param names Name offsets.
+     * @param lengths Name lengths.
+     * @param starts Value start offsets.
+     * @param ends Value end offsets.
+     * @param parents Parent tokens.
+     * @param firsts First child tokens.
+     * @param nexts Next sibling tokens.
+     * @param prevs Previous sibling tokens.
+     * @param skips Subtree ends.
+     * @param hashes Structural hashes of subtrees.
+     * @param cache Cache of query results.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly")
+    private TokenDoc(final String source, final Kind[] kinds, final int[] names,
+        final int[] lengths, final int[] starts, final int[] ends, final int[] parents,
+        final int[] firsts, final int[] nexts, final int[] prevs, final int[] skips,
+        final int[] hashes, final QueryCache cache) {
+        this.source = source;
+        this.kinds = kinds;
+        this.names = names;
+        this.lengths = lengths;
+        this.starts = starts;
+        this.ends = ends;
+        this.parents = parents;
+        this.firsts = firsts;
+        this.nexts = nexts;
+        this.prevs = prevs;
+        this.skips = skips;
+        this.hashes = hashes;
+        this.cache = cache;
+    }
+
+    /**
+     * Kind of the token.
+     * @param token Token index.
+     * @return Kind.
+     */
+    Kind kind(final int token) {
+        return this.kinds[token];
+    }
+
+    /**
+     * First child of the token.
+     * Attributes are not children.
+     * @param token Token index.
+     * @return First child or -1.
+     */
+    int first(final int token) {
+        return this.firsts[token];
+    }
+
+    /**
+     * Next sibling of the token.
+     * @param token Token index.
+     * @return Next sibling or -1.
+     */
+    int next(final int token) {
+        return this.nexts[token];
+    }
+
+    /**
+     * Number of attributes of the token.
+     * Attributes go right after their element.
+     * @param token Token index.
+     * @return Number of attributes, zero for non-elements.
+     */
+    int attributes(final int token) {
+        int result = 0;
+        if (this.kinds[token] == Kind.ELEMENT) {
+            while (this.isAttribute(token + result + 1)) {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Previous sibling of the token.
+     * @param token Token index.
+     * @return Previous sibling or -1.
+     */
+    int previous(final int token) {
+        return this.prevs[token];
+    }
+
+    /**
+     * Parent of the token.
+     * The parent of an attribute is its element.
+     * @param token Token index.
+     * @return Parent or -1 for the document.
+     */
+    int parent(final int token) {
+        return this.parents[token];
+    }
+
+    /**
+     * Name of the token.
+     * @param token Token index.
+     * @return Name.
+     */
+    String name(final int token) {
+        final String result;
+        final Kind kind = this.kinds[token];
+        if (kind == Kind.ELEMENT || kind == Kind.ATTRIBUTE || kind == Kind.INSTRUCTION) {
+            result = this.source.substring(
+                this.names[token], this.names[token] + this.lengths[token]
+            );
+        } else {
+            result = kind.label();
+        }
+        return result;
+    }
+
+    /**
+     * Check the name of the token without creating a string.
+     * @param token Token index.
+     * @param name Expected name.
+     * @return True if the token has this name.
+     */
+    boolean named(final int token, final String name) {
+        return this.lengths[token] == name.length()
+            && this.source.regionMatches(this.names[token], name, 0, name.length());
+    }
+
+    /**
+     * Check the namespace and the local name of the token without
+     * creating strings.
+     * @param token Token index.
+     * @param uri Expected namespace URI.
+     * @param local Expected local name.
+     * @return True if the token has this name in this namespace.
+     */
+    boolean named(final int token, final String uri, final String local) {
+        final int start = this.names[token];
+        final int shift = this.lengths[token] - local.length();
+        return (shift == 0 || shift > 0 && this.source.charAt(start + shift - 1) == ':')
+            && this.source.regionMatches(start + shift, local, 0, local.length())
+            && uri.equals(this.spaces()[token]);
+    }
+
+    /**
+     * Namespace URI of the token.
+     * @param token Token index.
+     * @return URI, empty if the token is in no namespace.
+     */
+    String namespace(final int token) {
+        return this.spaces()[token];
+    }
+
+    /**
+     * Check the value of the attribute without creating a string.
+     * @param token Attribute token index.
+     * @param value Expected decoded value.
+     * @return True if the attribute has this value.
+     */
+    boolean valued(final int token, final String value) {
+        final int start = this.starts[token];
+        final int end = this.ends[token];
+        final boolean result;
+        if (this.plain(start, end, true) < end) {
+            result = value.contentEquals(this.value(token));
+        } else {
+            result = end - start == value.length()
+                && this.source.regionMatches(start, value, 0, value.length());
+        }
+        return result;
+    }
+
+    /**
+     * Find the first child element with the name.
+     * @param token Parent token index.
+     * @param name Element name.
+     * @return Child index or -1.
+     */
+    int child(final int token, final String name) {
+        int result = -1;
+        for (int child = this.firsts[token]; child != -1; child = this.nexts[child]) {
+            if (this.kinds[child] == Kind.ELEMENT && this.named(child, name)) {
+                result = child;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count descendant elements with the name.
+     * Descendants of a token occupy a contiguous range right after it,
+     * so the count is the distance between two binary searches in the
+     * name index.
+     * @param token Token index.
+     * @param name Element name.
+     * @return Number of descendant elements with the name.
+     */
+    int descendants(final int token, final String name) {
+        final int[] positions = this.index().get(name);
+        final int result;
+        if (positions == null) {
+            result = 0;
+        } else {
+            result = TokenDoc.insertion(positions, this.skips[token])
+                - TokenDoc.insertion(positions, token + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Find an attribute with the name.
+     * Attributes always follow their element in the token array.
+     * @param token Element token index.
+     * @param name Attribute name.
+     * @return Attribute index or -1.
+     */
+    int attribute(final int token, final String name) {
+        int result = -1;
+        for (int attr = token + 1; this.isAttribute(attr); ++attr) {
+            if (this.named(attr, name)) {
+                result = attr;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Text of the token.
+     * For elements, it's the concatenation of all the nested texts.
+     * @param token Token index.
+     * @return Text.
+     */
+    Optional<String> text(final int token) {
+        final Optional<String> result;
+        final Kind kind = this.kinds[token];
+        if (kind == Kind.DOCUMENT) {
+            result = this.text(this.firsts[token]);
+        } else if (kind == Kind.ELEMENT) {
+            final int first = this.firsts[token];
+            if (first == -1) {
+                result = Optional.of("");
+            } else if (this.nexts[first] == -1 && this.kinds[first] == Kind.TEXT) {
+                result = Optional.of(this.value(first));
+            } else {
+                final StringBuilder text = new StringBuilder(0);
+                for (int next = token + 1; next < this.skips[token]; ++next) {
+                    final Kind nested = this.kinds[next];
+                    if (nested == Kind.TEXT || nested == Kind.CDATA) {
+                        text.append(this.value(next));
+                    }
+                }
+                result = Optional.of(text.toString());
+            }
+        } else {
+            result = Optional.of(this.value(token));
+        }
+        return result;
+    }
+
+    /**
+     * Convert the token to a DOM node.
+     * The DOM node is built from the source slice, so it's rather slow.
+     * @param token Token index.
+     * @return DOM node.
+     */
+    Node node(final int token) {
+        final Node result;
+        switch (this.kinds[token]) {
+            case DOCUMENT:
+                result = new StringNode(this.source).toNode();
+                break;
+            case ELEMENT:
+                result = ((Document) new StringNode(
+                    this.source.substring(this.starts[token], this.ends[token])
+                ).toNode())
+                    .getDocumentElement();
+                break;
+            case ATTRIBUTE:
+                result = ((Element) this.node(this.parents[token]))
+                    .getAttributeNode(this.name(token));
+                break;
+            default:
+                result = this.node(this.parents[token]).getChildNodes()
+                    .item(this.ordinal(token));
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Print the token as XML.
+     * Without indentation, nodes are printed as the original source slices.
+     * @param token Token index.
+     * @param markup Markup to print into.
+     */
+    void print(final int token, final Markup markup) {
+        if (markup.pretty()) {
+            this.walk(token, markup);
+        } else if (this.kinds[token] == Kind.DOCUMENT) {
+            markup.declaration();
+            for (int child = this.firsts[token]; child != -1; child = this.nexts[child]) {
+                this.slice(child, markup);
+            }
+        } else {
+            this.slice(token, markup);
+        }
+    }
+
+    /**
+     * Compare two tokens structurally.
+     * Attributes are compared regardless of their order.
+     * Both subtrees are walked together in the document order, without
+     * recursion, so documents of any depth can be compared.
+     * @param token Token index.
+     * @param other Other document.
+     * @param that Token index in the other document.
+     * @return True if the tokens are structurally equal.
+     */
+    boolean same(final int token, final TokenDoc other, final int that) {
+        boolean result = this.alike(token, other, that);
+        int left = token;
+        int right = that;
+        boolean more = result;
+        while (more) {
+            int lnext = this.firsts[left];
+            int rnext = other.firsts[right];
+            while (lnext == -1 && rnext == -1 && left != token) {
+                lnext = this.nexts[left];
+                rnext = other.nexts[right];
+                if (lnext == -1 && rnext == -1) {
+                    left = this.parents[left];
+                    right = other.parents[right];
+                }
+            }
+            if (lnext == -1 && rnext == -1) {
+                more = false;
+            } else {
+                result = lnext != -1 && rnext != -1 && this.alike(lnext, other, rnext);
+                more = result;
+                left = lnext;
+                right = rnext;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Structural hash code of the token.
+     * It is consistent with {@link #same(int, TokenDoc, int)} and takes O(1).
+     * @param token Token index.
+     * @return Hash code.
+     */
+    int hash(final int token) {
+        return this.hashes[token];
+    }
+
+    /**
+     * The same index with the name index and the namespaces built.
+     * After that, the index has no lazy parts, so threads that share it
+     * only read it.
+     * @return This index.
+     */
+    TokenDoc indexed() {
+        this.index();
+        this.spaces();
+        return this;
+    }
+
+    /**
+     * The same index with a cache of query results.
+     * @param queries Maximum number of cached results, zero for no cache.
+     * @return New index that shares the arrays with this one.
+     */
+    TokenDoc cached(final int queries) {
+        final TokenDoc result = new TokenDoc(
+            this.source, this.kinds, this.names, this.lengths, this.starts, this.ends,
+            this.parents, this.firsts, this.nexts, this.prevs, this.skips, this.hashes,
+            new QueryCache(queries)
+        );
+        result.index = this.index;
+        result.spaces = this.spaces;
+        return result;
+    }
+
+    /**
+     * Cache of query results.
+     * @return Cache, disabled unless the document was made by {@link #cached(int)}.
+     */
+    QueryCache cache() {
+        return this.cache;
+    }
+
+    /**
+     * Offset of the token in the original document.
+     * Offsets grow in the document order, just like token indexes.
+     * @param token Token index.
+     * @return Offset of the first character of the token, -1 for the document.
+     */
+    int offset(final int token) {
+        final int result;
+        if (this.kinds[token] == Kind.DOCUMENT) {
+            result = -1;
+        } else {
+            result = this.head(token);
+        }
+        return result;
+    }
+
+    /**
+     * Token that starts at the offset.
+     * @param offset Offset of the first character of the token.
+     * @return Token index or -1 if no token starts there.
+     */
+    int token(final int offset) {
+        int low = 0;
+        int high = this.kinds.length - 1;
+        int result = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int current = this.offset(mid);
+            if (current < offset) {
+                low = mid + 1;
+            } else if (current > offset) {
+                high = mid - 1;
+            } else {
+                result = mid;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Text of the token as a character sequence.
+     * If the text needs no decoding, it's a view of the original document,
+     * so nothing is copied.
+     * @param token Token index.
+     * @return Text.
+     */
+    CharSequence chars(final int token) {
+        final CharSequence result;
+        final Kind kind = this.kinds[token];
+        final int start = this.starts[token];
+        final int end = this.ends[token];
+        if (kind == Kind.ELEMENT && this.firsts[token] == -1) {
+            result = "";
+        } else if (kind == Kind.ELEMENT && this.nexts[this.firsts[token]] == -1
+            && this.kinds[this.firsts[token]] == Kind.TEXT) {
+            result = this.chars(this.firsts[token]);
+        } else if (kind == Kind.ELEMENT || kind == Kind.DOCUMENT) {
+            result = this.text(token).orElse("");
+        } else if (kind == Kind.TEXT && this.plain(start, end, false) < end
+            || kind == Kind.ATTRIBUTE && this.plain(start, end, true) < end) {
+            result = this.value(token);
+        } else {
+            result = CharBuffer.wrap(this.source, start, end);
+        }
+        return result;
+    }
+
+    /**
+     * Document with the parsed ranges put into the element as its content.
+     * This document is a frame where the element looks empty, the ranges
+     * are parsed separately and go one after another, see
+     * {@link TokenParser#frame(int, int)} and {@link TokenParser#forest(int, int)}.
+     * All of them share the same source, so only token indexes are shifted,
+     * and only the hashes of the element and its ancestors are computed again.
+     * @param element Element index.
+     * @param chunks Parsed ranges of the element content, in the document order.
+     * @return New document.
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    TokenDoc stitch(final int element, final List<TokenDoc> chunks) {
+        final int at = this.skips[element];
+        int added = 0;
+        for (final TokenDoc chunk : chunks) {
+            added += chunk.kinds.length - 1;
+        }
+        final int size = this.kinds.length + added;
+        final Kind[] knds = new Kind[size];
+        final int[] nms = new int[size];
+        final int[] lens = new int[size];
+        final int[] strts = new int[size];
+        final int[] nds = new int[size];
+        final int[] prnts = new int[size];
+        final int[] frsts = new int[size];
+        final int[] nxts = new int[size];
+        final int[] prvs = new int[size];
+        final int[] skps = new int[size];
+        final int[] hshs = new int[size];
+        for (int old = 0; old < this.kinds.length; ++old) {
+            final int tok = TokenDoc.moved(old, at, added);
+            knds[tok] = this.kinds[old];
+            nms[tok] = this.names[old];
+            lens[tok] = this.lengths[old];
+            strts[tok] = this.starts[old];
+            nds[tok] = this.ends[old];
+            prnts[tok] = TokenDoc.moved(this.parents[old], at, added);
+            frsts[tok] = TokenDoc.moved(this.firsts[old], at, added);
+            nxts[tok] = TokenDoc.moved(this.nexts[old], at, added);
+            prvs[tok] = TokenDoc.moved(this.prevs[old], at, added);
+            skps[tok] = this.skips[old];
+            if (this.skips[old] > at
+                || this.skips[old] == at && this.kinds[old] != Kind.ATTRIBUTE) {
+                skps[tok] += added;
+            }
+            hshs[tok] = this.hashes[old];
+        }
+        int base = at;
+        int last = -1;
+        for (final TokenDoc chunk : chunks) {
+            final int shift = base - 1;
+            for (int own = 1; own < chunk.kinds.length; ++own) {
+                final int tok = own + shift;
+                knds[tok] = chunk.kinds[own];
+                nms[tok] = chunk.names[own];
+                lens[tok] = chunk.lengths[own];
+                strts[tok] = chunk.starts[own];
+                nds[tok] = chunk.ends[own];
+                if (chunk.parents[own] == 0) {
+                    prnts[tok] = element;
+                } else {
+                    prnts[tok] = chunk.parents[own] + shift;
+                }
+                frsts[tok] = TokenDoc.moved(chunk.firsts[own], 1, shift);
+                nxts[tok] = TokenDoc.moved(chunk.nexts[own], 1, shift);
+                prvs[tok] = TokenDoc.moved(chunk.prevs[own], 1, shift);
+                skps[tok] = chunk.skips[own] + shift;
+                hshs[tok] = chunk.hashes[own];
+            }
+            for (int top = chunk.firsts[0]; top != -1; top = chunk.nexts[top]) {
+                final int tok = top + shift;
+                if (chunk.prevs[top] == -1) {
+                    if (last == -1) {
+                        frsts[element] = tok;
+                    } else {
+                        nxts[last] = tok;
+                        prvs[tok] = last;
+                    }
+                }
+                last = tok;
+            }
+            base += chunk.kinds.length - 1;
+        }
+        final TokenDoc result = new TokenDoc(
+            this.source, knds, nms, lens, strts, nds, prnts, frsts, nxts, prvs, skps, hshs,
+            this.cache.fresh()
+        );
+        for (int anc = element; anc != -1; anc = prnts[anc]) {
+            result.digest(anc);
+        }
+        return result;
+    }
+
+    /**
+     * Document without the node and its subtree.
+     * @param token Token index.
+     * @return New document.
+     */
+    TokenDoc remove(final int token) {
+        this.editable(token);
+        if (this.kinds[token] == Kind.ELEMENT && this.parents[token] == 0) {
+            throw new IllegalArgumentException(
+                String.format("The root element '%s' can't be removed", this.name(token))
+            );
+        }
+        int from = this.head(token);
+        if (this.kinds[token] == Kind.ATTRIBUTE) {
+            while (Character.isWhitespace(this.source.charAt(from - 1))) {
+                from -= 1;
+            }
+        }
+        return this.splice(
+            from, this.tail(token), "", token, this.skips[token], this.parents[token],
+            TokenDoc.fragment(""), 0
+        );
+    }
+
+    /**
+     * Document with the node replaced by an XML fragment.
+     * @param token Token index.
+     * @param fragment XML fragment, it may contain several nodes.
+     * @return New document.
+     */
+    TokenDoc replace(final int token, final String fragment) {
+        this.editable(token);
+        if (this.kinds[token] == Kind.ATTRIBUTE) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Attribute '%s' can't be replaced by a fragment, set its value instead",
+                    this.name(token)
+                )
+            );
+        }
+        final TokenDoc piece = TokenDoc.fragment(fragment);
+        if (this.parents[token] == 0 && piece.roots() != this.roots(token)) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "The document must have exactly one root element, but '%s' breaks it",
+                    fragment
+                )
+            );
+        }
+        final int from = this.head(token);
+        return this.splice(
+            from, this.tail(token), fragment, token, this.skips[token], this.parents[token],
+            piece, from - 3
+        );
+    }
+
+    /**
+     * Document with an XML fragment appended to the children of the element.
+     * @param token Element index.
+     * @param fragment XML fragment, it may contain several nodes.
+     * @return New document.
+     */
+    TokenDoc append(final int token, final String fragment) {
+        this.element(token);
+        final TokenDoc piece = TokenDoc.fragment(fragment);
+        final int end = this.ends[token];
+        final TokenDoc result;
+        if (this.source.charAt(end - 2) == '/') {
+            result = this.splice(
+                end - 2, end, String.format(">%s</%s>", fragment, this.name(token)),
+                this.skips[token], this.skips[token], token, piece, end - 2 + 1 - 3
+            );
+        } else {
+            final int close = this.source.lastIndexOf("</", end - 1);
+            result = this.splice(
+                close, close, fragment, this.skips[token], this.skips[token], token, piece,
+                close - 3
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Document with the attribute of the element set to the value.
+     * The attribute is added if the element doesn't have it yet.
+     * @param token Element index.
+     * @param name Attribute name.
+     * @param value Attribute value, it is escaped.
+     * @return New document.
+     */
+    TokenDoc put(final int token, final String name, final String value) {
+        this.element(token);
+        final String text = String.format("%s=\"%s\"", name, TokenDoc.escape(value));
+        final TokenDoc piece = new TokenParser(String.format("<x %s/>", text)).parse();
+        if (piece.kinds.length != 3 || !name.equals(piece.name(2))) {
+            throw new IllegalArgumentException(
+                String.format("Invalid attribute name '%s'", name)
+            );
+        }
+        final int attr = this.attribute(token, name);
+        final TokenDoc result;
+        if (attr == -1) {
+            final int from = this.names[token] + this.lengths[token];
+            result = this.splice(
+                from, from, String.format(" %s", text), token + 1, token + 1, token, piece,
+                from + 1 - 3
+            );
+        } else {
+            final int from = this.names[attr];
+            result = this.splice(
+                from, this.ends[attr] + 1, text, attr, attr + 1, token, piece, from - 3
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Decoded value of a leaf token.
+     * @param token Token index.
+     * @return Value.
+     */
+    private String value(final int token) {
+        final String result;
+        final Kind kind = this.kinds[token];
+        if (kind == Kind.TEXT) {
+            result = this.decode(this.starts[token], this.ends[token], false);
+        } else if (kind == Kind.ATTRIBUTE) {
+            result = this.decode(this.starts[token], this.ends[token], true);
+        } else {
+            result = this.source.substring(this.starts[token], this.ends[token]);
+        }
+        return result;
+    }
+
+    /**
+     * Print the original source slice of the token.
+     * @param token Token index.
+     * @param markup Markup to print into.
+     */
+    private void slice(final int token, final Markup markup) {
+        markup.raw(this.source, this.head(token), this.tail(token));
+    }
+
+    /**
+     * Start of the original source slice of the token.
+     * @param token Token index.
+     * @return Offset of the first character.
+     */
+    private int head(final int token) {
+        final int result;
+        switch (this.kinds[token]) {
+            case ELEMENT:
+            case TEXT:
+                result = this.starts[token];
+                break;
+            case ATTRIBUTE:
+                result = this.names[token];
+                break;
+            case COMMENT:
+                result = this.starts[token] - 4;
+                break;
+            case CDATA:
+                result = this.starts[token] - 9;
+                break;
+            default:
+                result = this.names[token] - 2;
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * End of the original source slice of the token.
+     * @param token Token index.
+     * @return Offset after the last character.
+     */
+    private int tail(final int token) {
+        final int result;
+        switch (this.kinds[token]) {
+            case ELEMENT:
+            case TEXT:
+                result = this.ends[token];
+                break;
+            case ATTRIBUTE:
+                result = this.ends[token] + 1;
+                break;
+            case COMMENT:
+            case CDATA:
+                result = this.ends[token] + 3;
+                break;
+            default:
+                result = this.ends[token] + 2;
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Splice the document.
+     * The source range is replaced by the text and the token range is
+     * replaced by the tokens of the piece, all positions after the edit are
+     * shifted. Nothing is tokenized again, and only the hashes of the
+     * ancestors are recomputed. The arrays and the source are still copied
+     * as a whole, since documents never share them, so an edit is a linear
+     * copy of the document plus the parsing of the piece.
+     * The name index is built again on the first request.
+     * @param from Start of the replaced source range.
+     * @param to End of the replaced source range.
+     * @param text Text to put instead of the range.
+     * @param first First replaced token.
+     * @param last Token after the last replaced one.
+     * @param parent Parent of the replaced tokens.
+     * @param piece Parsed piece, its own tokens start from the third one.
+     * @param shift Offset of the piece source in the new source.
+     * @return New document.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     * @checkstyle ExecutableStatementCountCheck (100 lines)
+     */
+    @SuppressWarnings({"PMD.ExcessiveMethodLength", "PMD.CognitiveComplexity"})
+    private TokenDoc splice(final int from, final int to, final String text, final int first,
+        final int last, final int parent, final TokenDoc piece, final int shift) {
+        final int added = piece.kinds.length - 2;
+        final int delta = added - (last - first);
+        final int offset = text.length() - (to - from);
+        final int size = this.kinds.length + delta;
+        final Kind[] kinds = new Kind[size];
+        final int[] nms = new int[size];
+        final int[] lens = new int[size];
+        final int[] strts = new int[size];
+        final int[] nds = new int[size];
+        final int[] prnts = new int[size];
+        final int[] frsts = new int[size];
+        final int[] nxts = new int[size];
+        final int[] prvs = new int[size];
+        final int[] skps = new int[size];
+        final int[] hshs = new int[size];
+        for (int old = 0; old < this.kinds.length; ++old) {
+            if (old >= first && old < last) {
+                continue;
+            }
+            final int tok = TokenDoc.moved(old, first, delta);
+            kinds[tok] = this.kinds[old];
+            lens[tok] = this.lengths[old];
+            nms[tok] = this.names[old];
+            if (this.lengths[old] > 0 && this.names[old] >= to) {
+                nms[tok] += offset;
+            }
+            strts[tok] = this.starts[old];
+            if (this.starts[old] >= to) {
+                strts[tok] += offset;
+            }
+            nds[tok] = this.ends[old];
+            if (this.ends[old] > from) {
+                nds[tok] += offset;
+            }
+            prnts[tok] = TokenDoc.moved(this.parents[old], first, delta);
+            frsts[tok] = TokenDoc.moved(this.firsts[old], first, delta);
+            nxts[tok] = TokenDoc.moved(this.nexts[old], first, delta);
+            prvs[tok] = TokenDoc.moved(this.prevs[old], first, delta);
+            skps[tok] = this.skips[old];
+            if (this.skips[old] > first) {
+                skps[tok] += delta;
+            }
+            hshs[tok] = this.hashes[old];
+        }
+        for (int own = 2; own < piece.kinds.length; ++own) {
+            final int tok = own - 2 + first;
+            kinds[tok] = piece.kinds[own];
+            lens[tok] = piece.lengths[own];
+            if (piece.lengths[own] > 0) {
+                nms[tok] = piece.names[own] + shift;
+            }
+            strts[tok] = piece.starts[own] + shift;
+            nds[tok] = piece.ends[own] + shift;
+            if (piece.parents[own] == 1) {
+                prnts[tok] = parent;
+            } else {
+                prnts[tok] = piece.parents[own] - 2 + first;
+            }
+            frsts[tok] = TokenDoc.moved(piece.firsts[own], 2, first - 2);
+            nxts[tok] = TokenDoc.moved(piece.nexts[own], 2, first - 2);
+            prvs[tok] = TokenDoc.moved(piece.prevs[own], 2, first - 2);
+            skps[tok] = piece.skips[own] - 2 + first;
+            hshs[tok] = piece.hashes[own];
+        }
+        if (first == last) {
+            for (int anc = parent; anc != -1; anc = this.parents[anc]) {
+                if (this.skips[anc] == first) {
+                    skps[anc] += delta;
+                }
+            }
+        }
+        if (piece.kinds.length > 2 && piece.kinds[2] != Kind.ATTRIBUTE
+            || first < last && this.kinds[first] != Kind.ATTRIBUTE) {
+            final int prev;
+            final int next;
+            if (first < last) {
+                prev = this.prevs[first];
+                next = TokenDoc.moved(this.nexts[first], first, delta);
+            } else {
+                prev = this.last(parent, first);
+                next = -1;
+            }
+            final int head = TokenDoc.moved(piece.firsts[1], 2, first - 2);
+            int tail = head;
+            while (tail != -1 && nxts[tail] != -1) {
+                tail = nxts[tail];
+            }
+            final int left;
+            final int right;
+            if (head == -1) {
+                left = next;
+                right = prev;
+            } else {
+                left = head;
+                right = tail;
+                prvs[head] = prev;
+                nxts[tail] = next;
+            }
+            if (prev == -1) {
+                frsts[parent] = left;
+            } else {
+                nxts[prev] = left;
+            }
+            if (next != -1) {
+                prvs[next] = right;
+            }
+        }
+        final TokenDoc result = new TokenDoc(
+            new StringBuilder(this.source.length() + offset)
+                .append(this.source, 0, from)
+                .append(text)
+                .append(this.source, to, this.source.length())
+                .toString(),
+            kinds, nms, lens, strts, nds, prnts, frsts, nxts, prvs, skps, hshs,
+            this.cache.fresh()
+        );
+        for (int anc = parent; anc != -1; anc = prnts[anc]) {
+            result.digest(anc);
+        }
+        return result;
+    }
+
+    /**
+     * Last child of the element before the token.
+     * @param parent Element index.
+     * @param token Token right after the subtree of the element.
+     * @return Last child index or -1 if there are no children.
+     */
+    private int last(final int parent, final int token) {
+        int result = -1;
+        if (this.firsts[parent] != -1) {
+            result = token - 1;
+            while (this.parents[result] != parent) {
+                result = this.parents[result];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of root elements among the top-level nodes of a fragment.
+     * @return Number of elements.
+     */
+    private int roots() {
+        int result = 0;
+        for (int child = this.firsts[1]; child != -1; child = this.nexts[child]) {
+            if (this.kinds[child] == Kind.ELEMENT) {
+                result += 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of root elements the token represents.
+     * @param token Token index.
+     * @return One for an element, zero otherwise.
+     */
+    private int roots(final int token) {
+        final int result;
+        if (this.kinds[token] == Kind.ELEMENT) {
+            result = 1;
+        } else {
+            result = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Check that the token can be edited.
+     * @param token Token index.
+     */
+    private void editable(final int token) {
+        if (this.kinds[token] == Kind.DOCUMENT) {
+            throw new IllegalArgumentException("The document node can't be edited");
+        }
+    }
+
+    /**
+     * Check that the token is an element.
+     * @param token Token index.
+     */
+    private void element(final int token) {
+        if (this.kinds[token] != Kind.ELEMENT) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Only elements can be edited this way, but the node is %s",
+                    this.kinds[token]
+                )
+            );
+        }
+    }
+
+    /**
+     * Parse an XML fragment.
+     * The fragment is wrapped into an element, so its own tokens start
+     * from the third one and its source starts from the third character.
+     * @param fragment XML fragment.
+     * @return Parsed fragment.
+     */
+    private static TokenDoc fragment(final String fragment) {
+        return new TokenParser(String.format("<x>%s</x>", fragment)).parse();
+    }
+
+    /**
+     * Token index after the tokens have been shifted.
+     * @param token Old token index or -1.
+     * @param first First shifted token.
+     * @param delta Shift.
+     * @return New token index.
+     */
+    private static int moved(final int token, final int first, final int delta) {
+        final int result;
+        if (token < first) {
+            result = token;
+        } else {
+            result = token + delta;
+        }
+        return result;
+    }
+
+    /**
+     * Escape an attribute value.
+     * @param value Raw value.
+     * @return Escaped value.
+     */
+    private static String escape(final String value) {
+        final StringBuilder result = new StringBuilder(value.length());
+        for (int idx = 0; idx < value.length(); ++idx) {
+            final char current = value.charAt(idx);
+            if (current == '&') {
+                result.append("&amp;");
+            } else if (current == '<') {
+                result.append("&lt;");
+            } else if (current == '"') {
+                result.append("&quot;");
+            } else if (current == '\n' || current == '\t' || current == '\r') {
+                result.append("&#").append((int) current).append(';');
+            } else {
+                result.append(current);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Print the subtree node by node.
+     * The walk is iterative, so deep documents don't overflow the stack.
+     * @param token Token index.
+     * @param markup Markup to print into.
+     */
+    private void walk(final int token, final Markup markup) {
+        int current = token;
+        boolean down = true;
+        boolean done = false;
+        while (!done) {
+            if (down) {
+                this.enter(current, markup);
+            } else if (this.kinds[current] == Kind.ELEMENT) {
+                markup.end(this.name(current));
+            }
+            if (down && this.kinds[current] != Kind.ATTRIBUTE && this.firsts[current] != -1) {
+                current = this.firsts[current];
+            } else if (current == token) {
+                done = true;
+            } else if (this.nexts[current] == -1) {
+                current = this.parents[current];
+                down = false;
+            } else {
+                current = this.nexts[current];
+                down = true;
+            }
+        }
+    }
+
+    /**
+     * Print the token itself, without its children.
+     * @param token Token index.
+     * @param markup Markup to print into.
+     */
+    private void enter(final int token, final Markup markup) {
+        switch (this.kinds[token]) {
+            case DOCUMENT:
+                markup.declaration();
+                break;
+            case ELEMENT:
+                markup.open(this.name(token));
+                for (int attr = token + 1; this.isAttribute(attr); ++attr) {
+                    markup.attribute(this.name(attr), this.value(attr));
+                }
+                markup.close(this.firsts[token] == -1);
+                break;
+            case ATTRIBUTE:
+                markup.attribute(this.name(token), this.value(token));
+                break;
+            case TEXT:
+                markup.text(this.value(token));
+                break;
+            case CDATA:
+                markup.cdata(this.value(token));
+                break;
+            case COMMENT:
+                markup.comment(this.value(token));
+                break;
+            default:
+                markup.instruction(this.name(token), this.value(token));
+                break;
+        }
+    }
+
+    /**
+     * Name index of elements.
+     * @return Positions of elements by their names.
+     */
+    private Map<String, int[]> index() {
+        Map<String, int[]> result = this.index;
+        if (result == null) {
+            final Map<String, Integer> counts = new HashMap<>(0);
+            for (int token = 0; token < this.kinds.length; ++token) {
+                if (this.kinds[token] == Kind.ELEMENT) {
+                    counts.merge(this.name(token), 1, Integer::sum);
+                }
+            }
+            result = new HashMap<>(counts.size());
+            final Map<String, Integer> filled = new HashMap<>(counts.size());
+            for (int token = 0; token < this.kinds.length; ++token) {
+                if (this.kinds[token] == Kind.ELEMENT) {
+                    final String name = this.name(token);
+                    final int idx = filled.merge(name, 1, Integer::sum) - 1;
+                    result.computeIfAbsent(name, key -> new int[counts.get(key)])[idx] = token;
+                }
+            }
+            this.index = result;
+        }
+        return result;
+    }
+
+    /**
+     * Namespaces of all tokens.
+     * Tokens go in the document order, so the declarations in scope of
+     * every element are known by the time it's reached. Elements without
+     * declarations share the scope of their parents.
+     * @return Namespace URIs by tokens.
+     */
+    @SuppressWarnings("unchecked")
+    private String[] spaces() {
+        String[] result = this.spaces;
+        if (result == null) {
+            result = new String[this.kinds.length];
+            final Map<String, String>[] scopes = new Map[this.kinds.length];
+            for (int token = 0; token < this.kinds.length; ++token) {
+                final Kind kind = this.kinds[token];
+                final Map<String, String> outer;
+                if (this.parents[token] == -1) {
+                    outer = Map.of("xml", Namespace.XML);
+                } else {
+                    outer = scopes[this.parents[token]];
+                }
+                if (kind == Kind.ELEMENT) {
+                    scopes[token] = this.scope(token, outer);
+                    result[token] = scopes[token].getOrDefault(this.prefix(token), "");
+                } else if (kind == Kind.ATTRIBUTE && Namespace.declaration(this.name(token))) {
+                    result[token] = Namespace.XMLNS;
+                } else if (kind == Kind.ATTRIBUTE && this.prefix(token).isEmpty()) {
+                    result[token] = "";
+                } else if (kind == Kind.ATTRIBUTE) {
+                    result[token] = outer.getOrDefault(this.prefix(token), "");
+                } else {
+                    scopes[token] = outer;
+                    result[token] = "";
+                }
+            }
+            this.spaces = result;
+        }
+        return result;
+    }
+
+    /**
+     * Namespace declarations in scope of the element.
+     * @param token Element token.
+     * @param outer Declarations in scope of the parent.
+     * @return Declarations by prefixes, the default namespace has an empty prefix.
+     */
+    private Map<String, String> scope(final int token, final Map<String, String> outer) {
+        Map<String, String> result = outer;
+        for (int attr = token + 1; this.isAttribute(attr); ++attr) {
+            final String name = this.name(attr);
+            if (Namespace.declaration(name)) {
+                if (result == outer) {
+                    result = new HashMap<>(outer);
+                }
+                result.put(name.replaceFirst("^xmlns:?", ""), this.value(attr));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prefix of the token name.
+     * @param token Token index.
+     * @return Prefix, empty if the name has none.
+     */
+    private String prefix(final int token) {
+        final int start = this.names[token];
+        final int end = start + this.lengths[token];
+        String result = "";
+        for (int idx = start; idx < end; ++idx) {
+            if (this.source.charAt(idx) == ':') {
+                result = this.source.substring(start, idx);
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compute structural hashes of all subtrees.
+     * Children always go after their parents, so a single backward pass
+     * is enough to compute every hash from already computed ones.
+     * Attributes are summed up, since their order doesn't matter.
+     */
+    private void digest() {
+        for (int token = this.kinds.length - 1; token >= 0; --token) {
+            this.digest(token);
+        }
+    }
+
+    /**
+     * Compute the structural hash of one subtree.
+     * Hashes of its attributes and children must be already computed.
+     * @param token Token index.
+     */
+    private void digest(final int token) {
+        final Kind kind = this.kinds[token];
+        int result = 31 * kind.ordinal() + this.nameHash(token);
+        if (kind == Kind.ELEMENT || kind == Kind.DOCUMENT) {
+            int attrs = 0;
+            for (int attr = token + 1; this.isAttribute(attr); ++attr) {
+                attrs += this.hashes[attr];
+            }
+            result = 31 * result + attrs;
+            for (int child = this.firsts[token]; child != -1; child = this.nexts[child]) {
+                result = 31 * result + this.hashes[child];
+            }
+        } else {
+            result = 31 * result + this.valueHash(token);
+        }
+        this.hashes[token] = result;
+    }
+
+    /**
+     * Insertion point of the token in sorted positions.
+     * @param positions Sorted positions.
+     * @param token Token index.
+     * @return Number of positions less than the token.
+     */
+    private static int insertion(final int[] positions, final int token) {
+        final int found = Arrays.binarySearch(positions, token);
+        final int result;
+        if (found < 0) {
+            result = -found - 1;
+        } else {
+            result = found;
+        }
+        return result;
+    }
+
+    /**
+     * Hash of the token name without creating a string.
+     * @param token Token index.
+     * @return Hash of the name, the same as {@link String#hashCode()}.
+     */
+    private int nameHash(final int token) {
+        int result = 0;
+        final int end = this.names[token] + this.lengths[token];
+        for (int idx = this.names[token]; idx < end; ++idx) {
+            result = 31 * result + this.source.charAt(idx);
+        }
+        return result;
+    }
+
+    /**
+     * Hash of the decoded token value.
+     * The string is created only if the value has to be decoded.
+     * @param token Token index.
+     * @return Hash of the value, the same as {@link String#hashCode()}.
+     */
+    private int valueHash(final int token) {
+        final int start = this.starts[token];
+        final int end = this.ends[token];
+        final Kind kind = this.kinds[token];
+        boolean plain = true;
+        if (kind == Kind.TEXT || kind == Kind.ATTRIBUTE) {
+            for (int idx = start; idx < end; ++idx) {
+                final char current = this.source.charAt(idx);
+                if (current == '&' || current == '\r' || current == '\n' || current == '\t') {
+                    plain = false;
+                    break;
+                }
+            }
+        }
+        int result = 0;
+        if (plain) {
+            for (int idx = start; idx < end; ++idx) {
+                result = 31 * result + this.source.charAt(idx);
+            }
+        } else {
+            result = this.value(token).hashCode();
+        }
+        return result;
+    }
+
+    /**
+     * Compare attributes of two elements regardless of their order.
+     * @param token Element index.
+     * @param other Other document.
+     * @param that Element index in the other document.
+     * @return True if attributes are equal.
+     */
+    private boolean attributes(final int token, final TokenDoc other, final int that) {
+        int count = 0;
+        boolean result = true;
+        for (int attr = token + 1; result && this.isAttribute(attr); ++attr) {
+            final int found = other.attribute(that, this.name(attr));
+            result = found != -1 && this.value(attr).equals(other.value(found));
+            count += 1;
+        }
+        int total = 0;
+        for (int attr = that + 1; other.isAttribute(attr); ++attr) {
+            total += 1;
+        }
+        return result && count == total;
+    }
+
+    /**
+     * Compare two tokens without their children.
+     * @param token Token index.
+     * @param other Other document.
+     * @param that Token index in the other document.
+     * @return True if the tokens are equal, apart from their children.
+     */
+    private boolean alike(final int token, final TokenDoc other, final int that) {
+        final boolean result;
+        final Kind kind = this.kinds[token];
+        if (this.hashes[token] != other.hashes[that] || kind != other.kinds[that]) {
+            result = false;
+        } else if (kind == Kind.DOCUMENT) {
+            result = true;
+        } else if (kind == Kind.ELEMENT) {
+            result = this.name(token).equals(other.name(that))
+                && this.attributes(token, other, that);
+        } else {
+            result = this.name(token).equals(other.name(that))
+                && this.value(token).equals(other.value(that));
+        }
+        return result;
+    }
+
+    /**
+     * Check if the token is an attribute.
+     * @param token Token index.
+     * @return True if it's an attribute.
+     */
+    private boolean isAttribute(final int token) {
+        return token < this.kinds.length && this.kinds[token] == Kind.ATTRIBUTE;
+    }
+
+    /**
+     * Position of the token among its siblings.
+     * @param token Token index.
+     * @return Ordinal number starting from zero.
+     */
+    private int ordinal(final int token) {
+        int result = 0;
+        for (int child = this.firsts[this.parents[token]]; child != token;
+            child = this.nexts[child]) {
+            result += 1;
+        }
+        return result;
+    }
+
+    /**
+     * Decode entities and normalize line ends.
+     * @param start Start offset.
+     * @param end End offset.
+     * @param attr Whether it's an attribute value.
+     * @return Decoded string.
+     */
+    private String decode(final int start, final int end, final boolean attr) {
+        final int plain = this.plain(start, end, attr);
+        final String result;
+        if (plain == end) {
+            result = this.source.substring(start, end);
+        } else {
+            final StringBuilder text = new StringBuilder(end - start);
+            text.append(this.source, start, plain);
+            int idx = plain;
+            while (idx < end) {
+                final char current = this.source.charAt(idx);
+                if (current == '&') {
+                    idx = this.entity(idx, end, text);
+                } else if (current == '\r') {
+                    text.append(TokenDoc.space('\n', attr));
+                    if (idx + 1 < end && this.source.charAt(idx + 1) == '\n') {
+                        idx += 1;
+                    }
+                    idx += 1;
+                } else {
+                    text.append(TokenDoc.space(current, attr));
+                    idx += 1;
+                }
+            }
+            result = text.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Find the first character that needs decoding.
+     * @param start Start offset.
+     * @param end End offset.
+     * @param attr Whether it's an attribute value.
+     * @return Offset of the character or the end offset.
+     */
+    private int plain(final int start, final int end, final boolean attr) {
+        int result = start;
+        while (result < end) {
+            final char current = this.source.charAt(result);
+            if (current == '&' || current == '\r' || attr && (current == '\n' || current == '\t')) {
+                break;
+            }
+            result += 1;
+        }
+        return result;
+    }
+
+    /**
+     * Decode an entity reference.
+     * Unknown entities are kept as is.
+     * @param start Offset of the '&amp;' character.
+     * @param end End of the decoded range.
+     * @param text Where to write decoded text.
+     * @return Offset right after the entity.
+     */
+    private int entity(final int start, final int end, final StringBuilder text) {
+        final int semicolon = this.source.indexOf(';', start);
+        final int result;
+        if (semicolon == -1 || semicolon >= end) {
+            text.append('&');
+            result = start + 1;
+        } else {
+            final String name = this.source.substring(start + 1, semicolon);
+            if ("lt".equals(name)) {
+                text.append('<');
+            } else if ("gt".equals(name)) {
+                text.append('>');
+            } else if ("amp".equals(name)) {
+                text.append('&');
+            } else if ("quot".equals(name)) {
+                text.append('"');
+            } else if ("apos".equals(name)) {
+                text.append('\'');
+            } else if (name.startsWith("#x")) {
+                text.appendCodePoint(Integer.parseInt(name.substring(2), 16));
+            } else if (name.startsWith("#")) {
+                text.appendCodePoint(Integer.parseInt(name.substring(1)));
+            } else {
+                text.append(this.source, start, semicolon + 1);
+            }
+            result = semicolon + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Normalize whitespace in attribute values.
+     * @param current Current character.
+     * @param attr Whether it's an attribute value.
+     * @return Normalized character.
+     */
+    private static char space(final char current, final boolean attr) {
+        final char result;
+        if (attr && (current == '\n' || current == '\t')) {
+            result = ' ';
+        } else {
+            result = current;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,734 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Token parser.
+ * Scans an XML string once and builds a flat {@link TokenDoc} index.
+ * Tokens are stored in document order: every element is followed by its
+ * attributes and then by its children. The parser never creates objects
+ * per node, it only writes offsets into the source string to int arrays.
+ * This class is not thread-safe, use a new instance for each document.
+ * @since 0.2
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+final class TokenParser {
+
+    /**
+     * Initial capacity of the token arrays.
+     */
+    private static final int CAPACITY = 64;
+
+    /**
+     * Names of references that don't need declarations.
+     */
+    private static final Pattern REFERENCE = Pattern.compile(
+        "lt|gt|amp|quot|apos|#[0-9]+|#x[0-9a-fA-F]+"
+    );
+
+    /**
+     * XML document as a string.
+     */
+    private final String xml;
+
+    /**
+     * Ends of elements by their starts.
+     * If it is set, contents of elements are skipped, see {@link #level(int)}.
+     */
+    private final IntUnaryOperator jump;
+
+    /**
+     * Offset of the start tag of the element whose content is skipped, or -1.
+     */
+    private int hole;
+
+    /**
+     * Offset of the end tag of the element whose content is skipped.
+     */
+    private int resume;
+
+    /**
+     * Current position in the source.
+     */
+    private int pos;
+
+    /**
+     * Number of tokens.
+     */
+    private int size;
+
+    /**
+     * Token kinds.
+     */
+    private Kind[] kinds;
+
+    /**
+     * Name offsets.
+     */
+    private int[] names;
+
+    /**
+     * Name lengths.
+     */
+    private int[] lengths;
+
+    /**
+     * Value start offsets.
+     */
+    private int[] starts;
+
+    /**
+     * Value end offsets.
+     */
+    private int[] ends;
+
+    /**
+     * Parent tokens.
+     */
+    private int[] parents;
+
+    /**
+     * First child tokens.
+     */
+    private int[] firsts;
+
+    /**
+     * Next sibling tokens.
+     */
+    private int[] nexts;
+
+    /**
+     * Previous sibling tokens.
+     */
+    private int[] prevs;
+
+    /**
+     * Last child tokens.
+     * Used only during parsing to append siblings in O(1).
+     */
+    private int[] lasts;
+
+    /**
+     * Subtree ends.
+     * Index of the first token after the subtree.
+     */
+    private int[] skips;
+
+    /**
+     * Ctor.
+     * @param xml XML document as a string.
+     */
+    TokenParser(final String xml) {
+        this(xml, null);
+    }
+
+    /**
+     * Ctor.
+     * @param xml XML document as a string.
+     * @param jump Ends of elements by their starts, or null to parse everything.
+     */
+    TokenParser(final String xml, final IntUnaryOperator jump) {
+        this.xml = xml;
+        this.jump = jump;
+        this.hole = -1;
+        this.kinds = new Kind[TokenParser.CAPACITY];
+        this.names = new int[TokenParser.CAPACITY];
+        this.lengths = new int[TokenParser.CAPACITY];
+        this.starts = new int[TokenParser.CAPACITY];
+        this.ends = new int[TokenParser.CAPACITY];
+        this.parents = new int[TokenParser.CAPACITY];
+        this.firsts = new int[TokenParser.CAPACITY];
+        this.nexts = new int[TokenParser.CAPACITY];
+        this.prevs = new int[TokenParser.CAPACITY];
+        this.lasts = new int[TokenParser.CAPACITY];
+        this.skips = new int[TokenParser.CAPACITY];
+    }
+
+    /**
+     * Parse the document.
+     * @return Token index of the document.
+     * @throws IllegalArgumentException If the XML is malformed.
+     */
+    TokenDoc parse() {
+        this.token(Kind.DOCUMENT, -1, 0, 0, 0, this.xml.length());
+        if (this.xml.startsWith("\uFEFF")) {
+            this.pos = 1;
+        }
+        if (this.declaration()) {
+            this.pos = this.find("?>") + 2;
+        }
+        boolean root = false;
+        while (true) {
+            this.spaces();
+            if (this.eof()) {
+                break;
+            }
+            if (this.xml.startsWith("<!--", this.pos)) {
+                this.comment(0);
+            } else if (this.xml.startsWith("<!DOCTYPE", this.pos)) {
+                this.doctype();
+            } else if (this.xml.startsWith("<?", this.pos)) {
+                this.instruction(0);
+            } else if (!root && this.xml.charAt(this.pos) == '<') {
+                this.element(0, this.jump == null);
+                root = true;
+            } else {
+                throw this.failure("content is not allowed outside of the root element");
+            }
+        }
+        if (!root) {
+            throw this.failure("root element is missing");
+        }
+        return this.doc();
+    }
+
+    /**
+     * Parse one level of the document.
+     * The element is parsed with its attributes and its direct children,
+     * but only names of child elements are parsed, their attributes and
+     * contents are skipped by the jump, so they look empty. Offsets stay
+     * absolute.
+     * @param start Offset of the element start tag.
+     * @return Token index with the document token and the element right after it.
+     * @throws IllegalArgumentException If the XML is malformed.
+     */
+    TokenDoc level(final int start) {
+        this.token(Kind.DOCUMENT, -1, 0, 0, start, -1);
+        this.pos = start;
+        this.element(0, true);
+        this.ends[0] = this.ends[1];
+        return this.doc();
+    }
+
+    /**
+     * Parse the document without the content of one element.
+     * The element is parsed with its attributes, but it looks empty,
+     * the content is parsed separately by {@link #forest(int, int)}.
+     * @param start Offset of the element start tag.
+     * @param end Offset of the element end tag.
+     * @return Token index of the document.
+     * @throws IllegalArgumentException If the XML is malformed.
+     */
+    TokenDoc frame(final int start, final int end) {
+        this.hole = start;
+        this.resume = end;
+        return this.parse();
+    }
+
+    /**
+     * Parse a range of sibling nodes.
+     * The range must start and end at node boundaries. Offsets stay absolute.
+     * @param from Offset of the first node.
+     * @param to Offset after the last node.
+     * @return Token index with a document token that is the parent of all the nodes.
+     * @throws IllegalArgumentException If the XML is malformed.
+     */
+    TokenDoc forest(final int from, final int to) {
+        this.token(Kind.DOCUMENT, -1, 0, 0, from, to);
+        this.pos = from;
+        while (this.pos < to) {
+            if (this.xml.charAt(this.pos) != '<') {
+                this.text(0);
+            } else if (this.xml.startsWith("</", this.pos)) {
+                throw this.failure("end tag has no start tag");
+            } else if (this.xml.startsWith("<!--", this.pos)) {
+                this.comment(0);
+            } else if (this.xml.startsWith("<![CDATA[", this.pos)) {
+                this.cdata(0);
+            } else if (this.xml.startsWith("<?", this.pos)) {
+                this.instruction(0);
+            } else {
+                this.element(0, true);
+            }
+        }
+        return this.doc();
+    }
+
+    /**
+     * Token index of everything parsed so far.
+     * @return Token index.
+     */
+    private TokenDoc doc() {
+        this.skips[0] = this.size;
+        return new TokenDoc(
+            this.xml,
+            Arrays.copyOf(this.kinds, this.size),
+            Arrays.copyOf(this.names, this.size),
+            Arrays.copyOf(this.lengths, this.size),
+            Arrays.copyOf(this.starts, this.size),
+            Arrays.copyOf(this.ends, this.size),
+            Arrays.copyOf(this.parents, this.size),
+            Arrays.copyOf(this.firsts, this.size),
+            Arrays.copyOf(this.nexts, this.size),
+            Arrays.copyOf(this.prevs, this.size),
+            Arrays.copyOf(this.skips, this.size)
+        );
+    }
+
+    /**
+     * Parse an element with all its content.
+     * We use an explicit stack instead of recursion to handle deep documents.
+     * @param parent Parent token.
+     * @param open Whether the content of the element is parsed even if there is a jump.
+     */
+    private void element(final int parent, final boolean open) {
+        int[] stack = new int[TokenParser.CAPACITY];
+        int depth = 0;
+        final int root = this.start(parent);
+        if (this.ends[root] == -1 && open) {
+            stack[depth] = root;
+            depth += 1;
+        } else if (this.ends[root] == -1) {
+            this.skip(root);
+        }
+        while (depth > 0) {
+            final int top = stack[depth - 1];
+            if (this.eof()) {
+                throw this.failure(
+                    String.format("element '%s' is not closed", this.name(top))
+                );
+            }
+            if (this.xml.charAt(this.pos) != '<') {
+                this.text(top);
+            } else if (this.xml.startsWith("</", this.pos)) {
+                this.end(top);
+                depth -= 1;
+            } else if (this.xml.startsWith("<!--", this.pos)) {
+                this.comment(top);
+            } else if (this.xml.startsWith("<![CDATA[", this.pos)) {
+                this.cdata(top);
+            } else if (this.xml.startsWith("<?", this.pos)) {
+                this.instruction(top);
+            } else {
+                if (this.jump == null) {
+                    final int child = this.start(top);
+                    if (this.ends[child] == -1) {
+                        if (depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth * 2);
+                        }
+                        stack[depth] = child;
+                        depth += 1;
+                    }
+                } else {
+                    this.skip(this.named(top));
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse only the name of a child element.
+     * Its attributes and content are left to its own level.
+     * @param parent Parent token.
+     * @return Element token.
+     */
+    private int named(final int parent) {
+        final int begin = this.pos;
+        this.pos += 1;
+        final int name = this.pos;
+        this.skipName();
+        return this.token(Kind.ELEMENT, parent, name, this.pos - name, begin, -1);
+    }
+
+    /**
+     * Skip the content of the element by the jump.
+     * @param element Element token.
+     */
+    private void skip(final int element) {
+        this.pos = this.jump.applyAsInt(this.starts[element]);
+        this.ends[element] = this.pos;
+        this.skips[element] = this.size;
+    }
+
+    /**
+     * Parse a start tag with attributes.
+     * If the tag is self-closing, the element end is set immediately.
+     * @param parent Parent token.
+     * @return Element token.
+     */
+    private int start(final int parent) {
+        final int begin = this.pos;
+        this.pos += 1;
+        final int name = this.pos;
+        this.skipName();
+        final int element = this.token(
+            Kind.ELEMENT, parent, name, this.pos - name, begin, -1
+        );
+        while (true) {
+            this.spaces();
+            if (this.eof()) {
+                throw this.failure("start tag is not closed");
+            }
+            final char current = this.xml.charAt(this.pos);
+            if (current == '>') {
+                this.pos += 1;
+                break;
+            }
+            if (current == '/') {
+                this.expect("/>");
+                this.ends[element] = this.pos;
+                this.skips[element] = this.size;
+                break;
+            }
+            this.attribute(element);
+        }
+        if (begin == this.hole && this.ends[element] == -1) {
+            this.pos = this.resume;
+        }
+        return element;
+    }
+
+    /**
+     * Parse an attribute.
+     * @param element Element token.
+     */
+    private void attribute(final int element) {
+        final int name = this.pos;
+        this.skipName();
+        final int length = this.pos - name;
+        for (int other = element + 1; other < this.size; ++other) {
+            if (this.lengths[other] == length
+                && this.xml.regionMatches(this.names[other], this.xml, name, length)) {
+                this.pos = name;
+                throw this.failure(
+                    String.format("attribute '%s' is duplicated", this.name(other))
+                );
+            }
+        }
+        this.spaces();
+        this.expect("=");
+        this.spaces();
+        if (this.eof()) {
+            throw this.failure("attribute value is missing");
+        }
+        final char quote = this.xml.charAt(this.pos);
+        if (quote != '"' && quote != '\'') {
+            throw this.failure("attribute value must be quoted");
+        }
+        final int begin = this.pos + 1;
+        final int end = this.xml.indexOf(quote, begin);
+        if (end == -1) {
+            throw this.failure("attribute value is not closed");
+        }
+        final int less = this.xml.indexOf('<', begin);
+        if (less != -1 && less < end) {
+            throw this.failure("attribute value must not contain '<'");
+        }
+        this.references(begin, end);
+        this.token(Kind.ATTRIBUTE, element, name, length, begin, end);
+        this.pos = end + 1;
+    }
+
+    /**
+     * Parse an end tag.
+     * @param element Element token that is being closed.
+     */
+    private void end(final int element) {
+        this.pos += 2;
+        final int name = this.pos;
+        this.skipName();
+        final int length = this.pos - name;
+        if (length != this.lengths[element]
+            || !this.xml.regionMatches(name, this.xml, this.names[element], length)) {
+            throw this.failure(
+                String.format(
+                    "end tag '%s' doesn't match start tag '%s'",
+                    this.xml.substring(name, this.pos),
+                    this.name(element)
+                )
+            );
+        }
+        this.spaces();
+        this.expect(">");
+        this.ends[element] = this.pos;
+        this.skips[element] = this.size;
+    }
+
+    /**
+     * Parse a text.
+     * @param parent Parent token.
+     */
+    private void text(final int parent) {
+        final int begin = this.pos;
+        int end = this.xml.indexOf('<', begin);
+        if (end == -1) {
+            end = this.xml.length();
+        }
+        this.references(begin, end);
+        this.token(Kind.TEXT, parent, 0, 0, begin, end);
+        this.pos = end;
+    }
+
+    /**
+     * Parse a comment.
+     * @param parent Parent token.
+     */
+    private void comment(final int parent) {
+        final int begin = this.pos + 4;
+        this.pos = begin;
+        final int end = this.find("-->");
+        this.token(Kind.COMMENT, parent, 0, 0, begin, end);
+        this.pos = end + 3;
+    }
+
+    /**
+     * Parse a CDATA section.
+     * @param parent Parent token.
+     */
+    private void cdata(final int parent) {
+        final int begin = this.pos + 9;
+        this.pos = begin;
+        final int end = this.find("]]>");
+        this.token(Kind.CDATA, parent, 0, 0, begin, end);
+        this.pos = end + 3;
+    }
+
+    /**
+     * Parse a processing instruction.
+     * @param parent Parent token.
+     */
+    private void instruction(final int parent) {
+        this.pos += 2;
+        final int name = this.pos;
+        this.skipName();
+        final int length = this.pos - name;
+        if (length == 3 && this.xml.regionMatches(true, name, "xml", 0, 3)) {
+            this.pos = name;
+            throw this.failure("processing instruction target 'xml' is reserved");
+        }
+        this.spaces();
+        final int begin = this.pos;
+        final int end = this.find("?>");
+        this.token(Kind.INSTRUCTION, parent, name, length, begin, end);
+        this.pos = end + 2;
+    }
+
+    /**
+     * Skip a document type declaration.
+     * Internal subset is skipped as well. Entities declared there can't be
+     * expanded, so such documents are rejected rather than read wrong.
+     */
+    private void doctype() {
+        int nested = 0;
+        while (!this.eof()) {
+            final char current = this.xml.charAt(this.pos);
+            if (nested > 0 && this.xml.startsWith("<!ENTITY", this.pos)) {
+                throw this.failure("entity declarations are not supported, use DOM");
+            }
+            this.pos += 1;
+            if (current == '[') {
+                nested += 1;
+            } else if (current == ']') {
+                nested -= 1;
+            } else if (current == '>' && nested == 0) {
+                return;
+            }
+        }
+        throw this.failure("document type declaration is not closed");
+    }
+
+    /**
+     * Add a new token.
+     * @param kind Token kind.
+     * @param parent Parent token.
+     * @param name Name offset.
+     * @param length Name length.
+     * @param start Value start offset.
+     * @param end Value end offset.
+     * @return Token index.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private int token(final Kind kind, final int parent, final int name,
+        final int length, final int start, final int end) {
+        if (this.size == this.kinds.length) {
+            this.grow();
+        }
+        final int index = this.size;
+        this.kinds[index] = kind;
+        this.names[index] = name;
+        this.lengths[index] = length;
+        this.starts[index] = start;
+        this.ends[index] = end;
+        this.parents[index] = parent;
+        this.firsts[index] = -1;
+        this.nexts[index] = -1;
+        this.prevs[index] = -1;
+        this.lasts[index] = -1;
+        this.skips[index] = index + 1;
+        if (parent != -1 && kind != Kind.ATTRIBUTE) {
+            if (this.firsts[parent] == -1) {
+                this.firsts[parent] = index;
+            } else {
+                this.nexts[this.lasts[parent]] = index;
+                this.prevs[index] = this.lasts[parent];
+            }
+            this.lasts[parent] = index;
+        }
+        this.size += 1;
+        return index;
+    }
+
+    /**
+     * Grow all the token arrays twice.
+     */
+    private void grow() {
+        final int capacity = this.kinds.length * 2;
+        this.kinds = Arrays.copyOf(this.kinds, capacity);
+        this.names = Arrays.copyOf(this.names, capacity);
+        this.lengths = Arrays.copyOf(this.lengths, capacity);
+        this.starts = Arrays.copyOf(this.starts, capacity);
+        this.ends = Arrays.copyOf(this.ends, capacity);
+        this.parents = Arrays.copyOf(this.parents, capacity);
+        this.firsts = Arrays.copyOf(this.firsts, capacity);
+        this.nexts = Arrays.copyOf(this.nexts, capacity);
+        this.prevs = Arrays.copyOf(this.prevs, capacity);
+        this.lasts = Arrays.copyOf(this.lasts, capacity);
+        this.skips = Arrays.copyOf(this.skips, capacity);
+    }
+
+    /**
+     * Skip a name.
+     * @throws IllegalArgumentException If the name is empty.
+     */
+    private void skipName() {
+        final int begin = this.pos;
+        while (!this.eof()) {
+            final char current = this.xml.charAt(this.pos);
+            if (Character.isWhitespace(current) || current == '>' || current == '/'
+                || current == '=' || current == '?' || current == '<') {
+                break;
+            }
+            this.pos += 1;
+        }
+        if (begin == this.pos) {
+            throw this.failure("name is expected");
+        }
+    }
+
+    /**
+     * Skip whitespaces.
+     */
+    private void spaces() {
+        while (!this.eof() && Character.isWhitespace(this.xml.charAt(this.pos))) {
+            this.pos += 1;
+        }
+    }
+
+    /**
+     * Expect the exact text at the current position and skip it.
+     * @param text Expected text.
+     */
+    private void expect(final String text) {
+        if (!this.xml.startsWith(text, this.pos)) {
+            throw this.failure(String.format("'%s' is expected", text));
+        }
+        this.pos += text.length();
+    }
+
+    /**
+     * Check whether the document starts with the XML declaration.
+     * Instructions like '&lt;?xml-stylesheet?&gt;' are not the declaration.
+     * @return True if it does.
+     */
+    private boolean declaration() {
+        final int after = this.pos + 5;
+        return this.xml.startsWith("<?xml", this.pos) && after < this.xml.length()
+            && (Character.isWhitespace(this.xml.charAt(after))
+            || this.xml.startsWith("?>", after));
+    }
+
+    /**
+     * Check that every reference in the range doesn't need a declaration.
+     * Predefined entities and character references are the only ones
+     * allowed, since there is no DTD to declare others.
+     * @param begin Start offset.
+     * @param end End offset.
+     */
+    private void references(final int begin, final int end) {
+        int idx = begin;
+        while (idx < end) {
+            if (this.xml.charAt(idx) == '&') {
+                final int semicolon = this.xml.indexOf(';', idx);
+                if (semicolon == -1 || semicolon >= end
+                    || !TokenParser.REFERENCE.matcher(
+                        this.xml.subSequence(idx + 1, semicolon)
+                    ).matches()) {
+                    this.pos = idx;
+                    throw this.failure("entity reference is not declared or not terminated");
+                }
+                idx = semicolon;
+            }
+            idx += 1;
+        }
+    }
+
+    /**
+     * Find the text starting from the current position.
+     * @param text Text to find.
+     * @return Offset of the text.
+     */
+    private int find(final String text) {
+        final int found = this.xml.indexOf(text, this.pos);
+        if (found == -1) {
+            throw this.failure(String.format("'%s' is expected", text));
+        }
+        return found;
+    }
+
+    /**
+     * Name of the token.
+     * @param token Token index.
+     * @return Name.
+     */
+    private String name(final int token) {
+        return this.xml.substring(this.names[token], this.names[token] + this.lengths[token]);
+    }
+
+    /**
+     * Check if the end of the source is reached.
+     * @return True if the end is reached.
+     */
+    private boolean eof() {
+        return this.pos >= this.xml.length();
+    }
+
+    /**
+     * Create a parsing failure.
+     * @param reason Reason of the failure.
+     * @return Exception to throw.
+     */
+    private IllegalArgumentException failure(final String reason) {
+        return new IllegalArgumentException(
+            String.format(
+                "Failed to parse XML at position %d, %s, near '%s'",
+                this.pos, reason, new Excerpt(this.xml, this.pos)
+            )
+        );
+    }
+}
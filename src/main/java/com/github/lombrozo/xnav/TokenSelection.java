@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+
+/**
+ * Tokens selected by a compiled XPath, walked on demand.
+ * A compiled chain pushes tokens, so it can't be paused. Instead, the
+ * walk stops as soon as the next batch of tokens is found and starts over
+ * for the following batch, skipping the tokens that were already given
+ * away. Batches grow twice every time, so the first token costs one short
+ * walk and all of them cost a few full walks at most. Bulk traversal,
+ * like counting, takes everything in one walk.
+ * This class is not thread-safe.
+ *
+ * @since 0.2
+ */
+final class TokenSelection extends Spliterators.AbstractIntSpliterator {
+
+    /**
+     * Token index.
+     */
+    private final TokenDoc doc;
+
+    /**
+     * Context token.
+     */
+    private final int token;
+
+    /**
+     * Compiled XPath.
+     */
+    private final TokenChain chain;
+
+    /**
+     * Tokens of the current batch.
+     */
+    private int[] batch;
+
+    /**
+     * Number of tokens in the current batch.
+     */
+    private int size;
+
+    /**
+     * Position of the next token in the current batch.
+     */
+    private int cursor;
+
+    /**
+     * Last token that was put into a batch, -1 if none.
+     */
+    private int last;
+
+    /**
+     * Whether the chain was walked to the end.
+     */
+    private boolean done;
+
+    /**
+     * Ctor.
+     * @param doc Token index.
+     * @param token Context token.
+     * @param chain Compiled XPath.
+     */
+    TokenSelection(final TokenDoc doc, final int token, final TokenChain chain) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        this.doc = doc;
+        this.token = token;
+        this.chain = chain;
+        this.batch = new int[0];
+        this.last = -1;
+    }
+
+    @Override
+    public boolean tryAdvance(final IntConsumer action) {
+        if (this.cursor == this.size && !this.done) {
+            this.refill();
+        }
+        final boolean result = this.cursor < this.size;
+        if (result) {
+            action.accept(this.batch[this.cursor]);
+            ++this.cursor;
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachRemaining(final IntConsumer action) {
+        while (this.cursor < this.size) {
+            action.accept(this.batch[this.cursor]);
+            ++this.cursor;
+        }
+        if (!this.done) {
+            final int after = this.last;
+            this.chain.visit(
+                this.doc, this.token,
+                tok -> {
+                    if (tok > after) {
+                        action.accept(tok);
+                    }
+                    return true;
+                }
+            );
+            this.done = true;
+        }
+    }
+
+    /**
+     * Walk the chain again for the next batch of tokens.
+     */
+    private void refill() {
+        final int after = this.last;
+        final int[] next = new int[Math.max(1, this.batch.length * 2)];
+        this.size = 0;
+        this.cursor = 0;
+        this.batch = next;
+        this.done = this.chain.visit(
+            this.doc, this.token,
+            tok -> {
+                if (tok > after) {
+                    next[this.size] = tok;
+                    ++this.size;
+                }
+                return this.size < next.length;
+            }
+        );
+        if (this.size > 0) {
+            this.last = next[this.size - 1];
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.w3c.dom.Node;
+
+/**
+ * Token implementation of XML.
+ * A node is just a pair of the {@link TokenDoc} index and a token number,
+ * all siblings and children are taken from the token arrays directly.
+ * XML abstraction over an XML document.
+ * This class is immutable and thread-safe.
+ *
+ * @since 0.2
+ */
+final class TokenXml implements OrderedXml, KindedXml, CountedXml, TextualXml,
+    EditableXml, Printable {
+
+    /**
+     * Token index of the document.
+     */
+    private final TokenDoc doc;
+
+    /**
+     * Token number.
+     */
+    private final int token;
+
+    /**
+     * Ctor.
+     *
+     * @param xml XML document as a string.
+     */
+    TokenXml(final String xml) {
+        this(new TokenParser(xml).parse(), 0);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param doc Token index of the document.
+     * @param token Token number.
+     */
+    TokenXml(final TokenDoc doc, final int token) {
+        this.doc = doc;
+        this.token = token;
+    }
+
+    @Override
+    public Xml child(final String element) {
+        final int child = this.doc.child(this.token, element);
+        final Xml result;
+        if (child == -1) {
+            result = new Empty();
+        } else {
+            result = new TokenXml(this.doc, child);
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Xml> attributes() {
+        return IntStream.rangeClosed(this.token + 1, this.token + this.doc.attributes(this.token))
+            .mapToObj(attr -> new TokenXml(this.doc, attr));
+    }
+
+    @Override
+    public Xml parent() {
+        return this.at(this.doc.parent(this.token));
+    }
+
+    @Override
+    public Xml next() {
+        return this.at(this.doc.next(this.token));
+    }
+
+    @Override
+    public Xml previous() {
+        return this.at(this.doc.previous(this.token));
+    }
+
+    @Override
+    public Optional<Xml> attribute(final String name) {
+        final int attr = this.doc.attribute(this.token, name);
+        final Optional<Xml> result;
+        if (attr == -1) {
+            result = Optional.empty();
+        } else {
+            result = Optional.of(new TokenXml(this.doc, attr));
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<String> text() {
+        return this.doc.text(this.token);
+    }
+
+    @Override
+    public CharSequence chars() {
+        return this.doc.chars(this.token);
+    }
+
+    @Override
+    public Stream<Xml> children() {
+        return Stream.iterate(this.doc.first(this.token), child -> child != -1, this.doc::next)
+            .map(child -> new TokenXml(this.doc, child));
+    }
+
+    @Override
+    public String name() {
+        return this.doc.name(this.token);
+    }
+
+    @Override
+    public String namespace() {
+        return this.doc.namespace(this.token);
+    }
+
+    @Override
+    public Xml copy() {
+        return this;
+    }
+
+    @Override
+    public Node node() {
+        return this.doc.node(this.token);
+    }
+
+    /**
+     * Node of the same document.
+     * @param other Token index or -1.
+     * @return Node or empty node for -1.
+     */
+    private Xml at(final int other) {
+        final Xml result;
+        if (other == -1) {
+            result = new Empty();
+        } else {
+            result = new TokenXml(this.doc, other);
+        }
+        return result;
+    }
+
+    @Override
+    public Kind kind() {
+        return this.doc.kind(this.token);
+    }
+
+    @Override
+    public long descendants(final String name) {
+        return this.doc.descendants(this.token, name);
+    }
+
+    @Override
+    public Xml append(final String fragment) {
+        return new TokenXml(this.doc.append(this.token, fragment), 0);
+    }
+
+    @Override
+    public Xml replace(final String fragment) {
+        return new TokenXml(this.doc.replace(this.token, fragment), 0);
+    }
+
+    @Override
+    public Xml remove() {
+        return new TokenXml(this.doc.remove(this.token), 0);
+    }
+
+    @Override
+    public Xml put(final String name, final String value) {
+        return new TokenXml(this.doc.put(this.token, name, value), 0);
+    }
+
+    /**
+     * Nodes selected by a compiled XPath from this node.
+     * The chain is walked lazily, so the first node is found without
+     * going through the whole document.
+     * @param chain Compiled XPath.
+     * @return Nodes in the document order.
+     */
+    Stream<Xml> select(final TokenChain chain) {
+        return StreamSupport.intStream(new TokenSelection(this.doc, this.token, chain), false)
+            .mapToObj(tok -> new TokenXml(this.doc, tok));
+    }
+
+    /**
+     * Nodes found by a query from this node, through the result cache
+     * of the document, if it has one.
+     * @param expression XPath expression.
+     * @param found Evaluation of the query.
+     * @return Nodes in the document order.
+     */
+    Stream<Xml> cached(final String expression, final Supplier<Stream<Xml>> found) {
+        final QueryCache cache = this.doc.cache();
+        final Stream<Xml> result;
+        if (cache.enabled()) {
+            result = IntStream.of(
+                cache.positions(
+                    expression,
+                    this.token,
+                    () -> found.get().mapToInt(node -> ((OrderedXml) node).position()).toArray()
+                )
+            ).mapToObj(tok -> new TokenXml(this.doc, tok));
+        } else {
+            result = found.get();
+        }
+        return result;
+    }
+
+    /**
+     * Positions found by the expression from this node, if they are cached.
+     * Nothing is evaluated on a miss.
+     * @param expression XPath expression.
+     * @return Positions of the found tokens or empty.
+     */
+    Optional<int[]> hit(final String expression) {
+        return this.doc.cache().find(expression, this.token);
+    }
+
+    /**
+     * Check the namespace and the local name without creating strings.
+     * @param uri Namespace URI.
+     * @param local Local name.
+     * @return True if the node has this name in this namespace.
+     */
+    boolean named(final String uri, final String local) {
+        return this.doc.named(this.token, uri, local);
+    }
+
+    /**
+     * Whether the document caches query results.
+     * @return True if it does.
+     */
+    boolean caching() {
+        return this.doc.cache().enabled();
+    }
+
+    @Override
+    public int position() {
+        return this.token;
+    }
+
+    @Override
+    public void print(final Markup markup) {
+        this.doc.print(this.token, markup);
+    }
+
+    @Override
+    public String toString() {
+        return new XmlPrinter().print(this);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        final boolean result;
+        if (this == obj) {
+            result = true;
+        } else if (obj == null || this.getClass() != obj.getClass()) {
+            result = false;
+        } else {
+            final TokenXml other = (TokenXml) obj;
+            result = this.doc == other.doc && this.token == other.token
+                || this.doc.same(this.token, other.doc, other.token);
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.doc.hash(this.token);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+/**
+ * Text value of an XML node.
+ * It reads the text of {@link TextualXml} nodes without copying and
+ * parses numbers right from it, as XPath number() does: surrounding
+ * whitespaces are ignored.
+ * This class is thread-safe.
+ * @since 0.2
+ */
+final class Value {
+
+    /**
+     * XML node.
+     */
+    private final Xml xml;
+
+    /**
+     * Ctor.
+     * @param xml XML node.
+     */
+    Value(final Xml xml) {
+        this.xml = xml;
+    }
+
+    /**
+     * Text of the node.
+     * @return Text, empty if the node has no text.
+     */
+    CharSequence chars() {
+        final CharSequence result;
+        if (this.xml instanceof TextualXml) {
+            result = ((TextualXml) this.xml).chars();
+        } else {
+            result = this.xml.text().orElse("");
+        }
+        return result;
+    }
+
+    /**
+     * Text of the node as an int.
+     * @return Number.
+     */
+    int asInt() {
+        final CharSequence text = this.chars();
+        final int start = Value.start(text);
+        final int end = Value.end(text, start);
+        try {
+            return Integer.parseInt(text, start, end, 10);
+        } catch (final NumberFormatException ex) {
+            throw new IllegalStateException(
+                String.format("Can't convert '%s' to int", text), ex
+            );
+        }
+    }
+
+    /**
+     * Text of the node as a long.
+     * @return Number.
+     */
+    long asLong() {
+        final CharSequence text = this.chars();
+        final int start = Value.start(text);
+        final int end = Value.end(text, start);
+        try {
+            return Long.parseLong(text, start, end, 10);
+        } catch (final NumberFormatException ex) {
+            throw new IllegalStateException(
+                String.format("Can't convert '%s' to long", text), ex
+            );
+        }
+    }
+
+    /**
+     * Text of the node as a double.
+     * Like XPath number(), it accepts only an optional minus and digits with
+     * an optional decimal point, so 'NaN', 'Infinity', exponents and hex
+     * numbers, which Java would parse, are not numbers here.
+     * @return Number, NaN if the text is not a number.
+     */
+    double asDouble() {
+        final CharSequence text = this.chars();
+        final int start = Value.start(text);
+        final int end = Value.end(text, start);
+        final double result;
+        if (Value.number(text, start, end)) {
+            result = Double.parseDouble(text.subSequence(start, end).toString());
+        } else {
+            result = Double.NaN;
+        }
+        return result;
+    }
+
+    /**
+     * Whether the text is a number by the XPath grammar.
+     * @param text Text.
+     * @param start Start of the number.
+     * @param end End of the number, exclusive.
+     * @return True if it's an optional minus followed by digits with an
+     *  optional fraction, or by a fraction alone.
+     */
+    private static boolean number(final CharSequence text, final int start, final int end) {
+        int pos = start;
+        if (pos < end && text.charAt(pos) == '-') {
+            ++pos;
+        }
+        int digits = 0;
+        while (pos < end && Value.digit(text.charAt(pos))) {
+            ++pos;
+            ++digits;
+        }
+        if (pos < end && text.charAt(pos) == '.') {
+            ++pos;
+            while (pos < end && Value.digit(text.charAt(pos))) {
+                ++pos;
+                ++digits;
+            }
+        }
+        return digits > 0 && pos == end;
+    }
+
+    /**
+     * Whether the character is an ASCII digit.
+     * @param chr Character.
+     * @return True if it's a digit.
+     */
+    private static boolean digit(final char chr) {
+        return chr >= '0' && chr <= '9';
+    }
+
+    /**
+     * First non-whitespace character.
+     * @param text Text.
+     * @return Offset.
+     */
+    private static int start(final CharSequence text) {
+        int result = 0;
+        while (result < text.length() && Character.isWhitespace(text.charAt(result))) {
+            ++result;
+        }
+        return result;
+    }
+
+    /**
+     * End of the text without trailing whitespaces.
+     * @param text Text.
+     * @param start First non-whitespace character.
+     * @return Offset right after the last non-whitespace character.
+     */
+    private static int end(final CharSequence text, final int start) {
+        int result = text.length();
+        while (result > start && Character.isWhitespace(text.charAt(result - 1))) {
+            --result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Expected workload of a document.
+ * Describes how the document is going to be used, so {@link XnavFactory}
+ * could choose the most suitable {@link Backend}.
+ *
+ * @since 0.2
+ */
+@ToString
+@EqualsAndHashCode
+public final class Workload {
+
+    /**
+     * Document size in characters.
+     */
+    private final long size;
+
+    /**
+     * Size starting from which the document is considered large.
+     */
+    private final long threshold;
+
+    /**
+     * Whether the document is used through DOM.
+     */
+    private final boolean interop;
+
+    /**
+     * Number of threads that query the document.
+     */
+    private final int concurrency;
+
+    /**
+     * Expected query mix.
+     */
+    private final Queries mix;
+
+    /**
+     * Ctor.
+     *
+     * @param size Document size in characters.
+     * @param threshold Size starting from which the document is considered large.
+     * @param interop Whether the document is used through DOM.
+     * @param concurrency Number of threads that query the document.
+     * @param mix Expected query mix.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Workload(final long size, final long threshold, final boolean interop,
+        final int concurrency, final Queries mix) {
+        this.size = size;
+        this.threshold = threshold;
+        this.interop = interop;
+        this.concurrency = concurrency;
+        this.mix = mix;
+    }
+
+    /**
+     * Document size.
+     *
+     * @return Size in characters.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Whether the document is large.
+     *
+     * @return True if the size reaches the threshold.
+     */
+    public boolean large() {
+        return this.size >= this.threshold;
+    }
+
+    /**
+     * Whether the document is read or modified through DOM nodes.
+     *
+     * @return True if DOM interop is required.
+     */
+    public boolean dom() {
+        return this.interop;
+    }
+
+    /**
+     * Number of threads that query the document.
+     *
+     * @return Number of threads.
+     */
+    public int threads() {
+        return this.concurrency;
+    }
+
+    /**
+     * Expected query mix.
+     *
+     * @return Query mix.
+     */
+    public Queries queries() {
+        return this.mix;
+    }
+
+    /**
+     * Query mix.
+     *
+     * @since 0.2
+     */
+    public enum Queries {
+
+        /**
+         * Mostly element and attribute navigation.
+         */
+        NAVIGATION,
+
+        /**
+         * Mostly XPath queries with child steps and predicates.
+         */
+        XPATH,
+
+        /**
+         * Mostly XPath queries that scan the whole document, like '//o'.
+         */
+        RECURSIVE,
+
+        /**
+         * Navigation that visits only a small part of the document,
+         * like '/program/@name'.
+         */
+        SHALLOW
+    }
+}
@@ -73,6 +73,57 @@ public interface Xml {
      */
     String name();
 
+    /**
+     * Get the local part of the node name, without the namespace prefix.
+     *
+     * @return Local name.
+     */
+    default String local() {
+        final String name = this.name();
+        return name.substring(name.indexOf(':') + 1);
+    }
+
+    /**
+     * Get the namespace URI of the node.
+     * The prefix of the name is resolved by the 'xmlns' declarations of
+     * the node and its ancestors. Attributes without a prefix are in no
+     * namespace.
+     *
+     * @return Namespace URI, empty if the node is in no namespace.
+     */
+    default String namespace() {
+        return new Namespace(this).uri();
+    }
+
+    /**
+     * Get all attributes of the current node.
+     *
+     * @return Attributes, empty for nodes other than elements.
+     */
+    Stream<Xml> attributes();
+
+    /**
+     * Get the parent node.
+     * The parent of an attribute is its element.
+     *
+     * @return Parent or empty node for the document.
+     */
+    Xml parent();
+
+    /**
+     * Get the next sibling node.
+     *
+     * @return Next sibling or empty node if it is the last one.
+     */
+    Xml next();
+
+    /**
+     * Get the previous sibling node.
+     *
+     * @return Previous sibling or empty node if it is the first one.
+     */
+    Xml previous();
+
     /**
      * Copy the XML document.
      *
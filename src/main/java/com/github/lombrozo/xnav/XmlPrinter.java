@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Streaming XML printer.
+ * Prints any {@link Xml} subtree without creating a DOM transformer.
+ * Backends that keep the original document print slices of it as is,
+ * unless the output is indented.
+ * Bytes are always written in UTF-8.
+ * This class is immutable and thread-safe.
+ *
+ * @since 0.2
+ */
+@ToString
+@EqualsAndHashCode
+public final class XmlPrinter {
+
+    /**
+     * Number of spaces per level, zero means no indentation.
+     */
+    private final int indent;
+
+    /**
+     * Ctor.
+     * Prints XML without indentation.
+     */
+    public XmlPrinter() {
+        this(0);
+    }
+
+    /**
+     * Ctor.
+     * @param indent Number of spaces per level, zero means no indentation.
+     */
+    public XmlPrinter(final int indent) {
+        if (indent < 0) {
+            throw new IllegalArgumentException(
+                String.format("Indent can't be negative, but %d given", indent)
+            );
+        }
+        this.indent = indent;
+    }
+
+    /**
+     * Print XML into a string.
+     * @param xml XML to print.
+     * @return XML string.
+     */
+    public String print(final Xml xml) {
+        final StringBuilder out = new StringBuilder(64);
+        this.print(xml, out);
+        return out.toString();
+    }
+
+    /**
+     * Print XML into an appendable.
+     * @param xml XML to print.
+     * @param out Output.
+     */
+    public void print(final Xml xml, final Appendable out) {
+        final Markup markup = new Markup(out, this.indent);
+        if (xml instanceof Printable) {
+            ((Printable) xml).print(markup);
+        } else {
+            final String str = xml.toString();
+            markup.raw(str, 0, str.length());
+        }
+    }
+
+    /**
+     * Print XML into an output stream.
+     * The stream is neither flushed nor closed.
+     * @param xml XML to print.
+     * @param out Output stream.
+     */
+    public void print(final Xml xml, final OutputStream out) {
+        this.print(xml, Channels.newChannel(out));
+    }
+
+    /**
+     * Print XML into a byte channel.
+     * The channel is not closed.
+     * @param xml XML to print.
+     * @param out Byte channel.
+     */
+    public void print(final Xml xml, final WritableByteChannel out) {
+        final ByteSink sink = new ByteSink(out);
+        this.print(xml, sink);
+        try {
+            sink.flush();
+        } catch (final IOException exception) {
+            throw new IllegalStateException("Failed to print XML", exception);
+        }
+    }
+}
@@ -24,11 +24,15 @@
 package com.github.lombrozo.xnav;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.EqualsAndHashCode;
@@ -47,18 +51,32 @@ import org.w3c.dom.Node;
 @SuppressWarnings("PMD.TooManyMethods")
 public final class Xnav {
 
+    /**
+     * Valid namespace prefix.
+     */
+    private static final Pattern PREFIX = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_-]*");
+
     /**
      * Actual XML document node.
      */
     private final Xml xml;
 
+    /**
+     * Namespace URIs by prefixes for XPath expressions.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<String, String> prefixes;
+
     /**
      * Constructor.
+     * The document is parsed into DOM, use {@link XnavFactory} for
+     * other backends.
      *
      * @param file XML document file.
      */
     public Xnav(final Path file) {
-        this(Xnav.from(file));
+        this(new XnavFactory().backend("dom").xml(file));
     }
 
     /**
@@ -67,16 +85,18 @@ public final class Xnav {
      * @param file XML document file.
      */
     public Xnav(final File file) {
-        this(Xnav.from(file.toPath()));
+        this(file.toPath());
     }
 
     /**
      * Ctor.
+     * The document is parsed into DOM, use {@link XnavFactory} for
+     * other backends.
      *
      * @param join XML document as a string.
      */
     public Xnav(final String... join) {
-        this(new DomXml(String.join("\n", join)));
+        this(new XnavFactory().backend("dom").xml(String.join("\n", join)));
     }
 
     /**
@@ -94,7 +114,46 @@ public final class Xnav {
      * @param xml XML document node.
      */
     public Xnav(final Xml xml) {
+        this(xml, Map.of());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param xml XML document node.
+     * @param prefixes Namespace URIs by prefixes for XPath expressions.
+     */
+    private Xnav(final Xml xml, final Map<String, String> prefixes) {
         this.xml = xml;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Bind a namespace prefix for XPath expressions.
+     * Names with bound prefixes, like 'p:item', '@p:id' or 'p:*', match
+     * nodes by their namespace URIs and local names, whatever prefixes the
+     * document uses. Names without prefixes and with unbound prefixes are
+     * compared as written. The binding is kept by all navigators made from
+     * this one.
+     *
+     * @param prefix Prefix.
+     * @param uri Namespace URI.
+     * @return Navigator for the same node with the binding.
+     */
+    public Xnav bind(final String prefix, final String uri) {
+        if (!Xnav.PREFIX.matcher(prefix).matches()) {
+            throw new IllegalArgumentException(
+                String.format("'%s' is not a valid namespace prefix", prefix)
+            );
+        }
+        if (uri.isEmpty()) {
+            throw new IllegalArgumentException(
+                String.format("Prefix '%s' can't be bound to an empty namespace", prefix)
+            );
+        }
+        final Map<String, String> bound = new HashMap<>(this.prefixes);
+        bound.put(prefix, uri);
+        return new Xnav(this.xml, Collections.unmodifiableMap(bound));
     }
 
     /**
@@ -104,7 +163,34 @@ public final class Xnav {
      * @return Navigator for the child.
      */
     public Xnav element(final String name) {
-        return new Xnav(this.xml.child(name));
+        return this.with(this.xml.child(name));
+    }
+
+    /**
+     * Get the parent node.
+     *
+     * @return Navigator for the parent.
+     */
+    public Xnav parent() {
+        return this.with(this.xml.parent());
+    }
+
+    /**
+     * Get the next sibling node.
+     *
+     * @return Navigator for the next sibling.
+     */
+    public Xnav next() {
+        return this.with(this.xml.next());
+    }
+
+    /**
+     * Get the previous sibling node.
+     *
+     * @return Navigator for the previous sibling.
+     */
+    public Xnav previous() {
+        return this.with(this.xml.previous());
     }
 
     /**
@@ -114,7 +200,7 @@ public final class Xnav {
      * @return Stream of navigators for the children.
      */
     public Stream<Xnav> elements(final Filter... filters) {
-        return this.xml.children().filter(Filter.all(filters)).map(Xnav::new);
+        return this.xml.children().filter(Filter.all(filters)).map(this::with);
     }
 
     /**
@@ -127,7 +213,7 @@ public final class Xnav {
     public Stream<Xnav> strict(final int number) {
         final List<Xml> collect = this.xml.children().collect(Collectors.toList());
         if (collect.size() == number) {
-            return collect.stream().map(Xnav::new);
+            return collect.stream().map(this::with);
         } else {
             throw new IllegalStateException(
                 String.format(
@@ -141,21 +227,25 @@ public final class Xnav {
 
     /**
      * Get strictly N nodes by XPath expression.
+     * The evaluation stops at the first node after N, the nodes are counted
+     * only to report an error.
      * @param path XPath expression.
      * @param number Number of child nodes to get.
      * @return Stream of navigators for the children.
      */
     public Stream<Xnav> strict(final String path, final int number) {
-        final List<Xnav> all = this.path(path).collect(Collectors.toList());
+        final List<Xnav> all = this.path(path).limit(number + 1L).collect(Collectors.toList());
         if (all.size() == number) {
             return all.stream();
         } else {
+            final long found;
+            if (all.size() > number) {
+                found = this.count(path);
+            } else {
+                found = all.size();
+            }
             throw new IllegalStateException(
-                String.format(
-                    "Expected %d child nodes, but found %d",
-                    number,
-                    all.size()
-                )
+                String.format("Expected %d child nodes, but found %d", number, found)
             );
         }
     }
@@ -185,7 +275,7 @@ public final class Xnav {
      * @return Navigator for the attribute.
      */
     public Xnav attribute(final String name) {
-        return new Xnav(this.xml.attribute(name).orElseGet(Empty::new));
+        return this.with(this.xml.attribute(name).orElseGet(Empty::new));
     }
 
     /**
@@ -195,16 +285,173 @@ public final class Xnav {
      * @return Stream of navigators for the nodes.
      */
     public Stream<Xnav> path(final String path) {
-        return new Xpath(this.xml, path).nodes().map(Xnav::new);
+        return this.xpath(path).nodes().map(this::with);
+    }
+
+    /**
+     * Get texts of nodes by XPath expression.
+     * Navigators are not created, nodes without text give empty strings.
+     *
+     * @param path XPath expression.
+     * @return Texts of the nodes in the document order.
+     */
+    public List<String> strings(final String path) {
+        return this.texts(path).map(CharSequence::toString).collect(Collectors.toList());
+    }
+
+    /**
+     * Get texts of nodes by XPath expression without copying them.
+     * On the token backend the texts are views of the original document,
+     * convert them to strings if you need to keep them.
+     *
+     * @param path XPath expression.
+     * @return Texts of the nodes in the document order.
+     */
+    public Stream<CharSequence> texts(final String path) {
+        return this.xpath(path).nodes().map(node -> new Value(node).chars());
+    }
+
+    /**
+     * Get texts of nodes by XPath expression as ints.
+     *
+     * @param path XPath expression.
+     * @return Numbers in the document order.
+     * @throws IllegalStateException If a text is not an int.
+     */
+    public int[] ints(final String path) {
+        return this.xpath(path).nodes().mapToInt(node -> new Value(node).asInt())
+            .toArray();
+    }
+
+    /**
+     * Get texts of nodes by XPath expression as longs.
+     *
+     * @param path XPath expression.
+     * @return Numbers in the document order.
+     * @throws IllegalStateException If a text is not a long.
+     */
+    public long[] longs(final String path) {
+        return this.xpath(path).nodes().mapToLong(node -> new Value(node).asLong())
+            .toArray();
+    }
+
+    /**
+     * Get texts of nodes by XPath expression as doubles.
+     * Texts are converted as XPath number() does it, so a text that is not
+     * an XPath number, like 'Infinity' or '1e3', gives NaN.
+     *
+     * @param path XPath expression.
+     * @return Numbers in the document order.
+     */
+    public double[] doubles(final String path) {
+        return this.xpath(path).nodes()
+            .mapToDouble(node -> new Value(node).asDouble())
+            .toArray();
+    }
+
+    /**
+     * Check whether there is at least one node by XPath expression.
+     * The evaluation stops at the first node found.
+     *
+     * @param path XPath expression.
+     * @return True if there is a node.
+     */
+    public boolean exists(final String path) {
+        return this.xpath(path).exists();
+    }
+
+    /**
+     * Count nodes by XPath expression.
+     * Nodes are counted without creating navigators, and recursive
+     * searches by name, like '//item', are answered by the index of the
+     * token backend. A top-level 'count(...)' gives the number it
+     * evaluates to.
+     *
+     * @param path XPath expression.
+     * @return Number of nodes.
+     */
+    public long count(final String path) {
+        return this.xpath(path).count();
+    }
+
+    /**
+     * Count nodes by XPath expression, but not more than the limit.
+     * The evaluation stops as soon as the limit is reached.
+     *
+     * @param path XPath expression.
+     * @param limit Maximum number of nodes to count.
+     * @return Number of nodes, at most the limit.
+     */
+    public long count(final String path, final long limit) {
+        return this.xpath(path).nodes().limit(limit).count();
+    }
+
+    /**
+     * Evaluate XPath expression and measure every step of it.
+     *
+     * @param path XPath expression.
+     * @return Profile of the evaluation.
+     */
+    public QueryProfile profile(final String path) {
+        return this.xpath(path).profile();
+    }
+
+    /**
+     * Append an XML fragment to the children of the element found by XPath.
+     * The document is not parsed again, only the fragment is, and the
+     * original document stays untouched. The new document is a copy of the
+     * whole original one, so this and the other edits take time linear in
+     * the size of the document.
+     *
+     * @param path XPath expression that finds exactly one element.
+     * @param fragment XML fragment, it may contain several nodes.
+     * @return Navigator for the document node of the new document.
+     */
+    public Xnav insert(final String path, final String fragment) {
+        return this.with(this.editable(path).append(fragment));
+    }
+
+    /**
+     * Replace the node found by XPath with an XML fragment.
+     *
+     * @param path XPath expression that finds exactly one node.
+     * @param fragment XML fragment, it may contain several nodes.
+     * @return Navigator for the document node of the new document.
+     */
+    public Xnav replace(final String path, final String fragment) {
+        return this.with(this.editable(path).replace(fragment));
+    }
+
+    /**
+     * Remove the node found by XPath with its subtree.
+     *
+     * @param path XPath expression that finds exactly one node.
+     * @return Navigator for the document node of the new document.
+     */
+    public Xnav remove(final String path) {
+        return this.with(this.editable(path).remove());
+    }
+
+    /**
+     * Set an attribute of the element found by XPath.
+     *
+     * @param path XPath expression that finds exactly one element.
+     * @param name Attribute name.
+     * @param value Attribute value.
+     * @return Navigator for the document node of the new document.
+     */
+    public Xnav set(final String path, final String name, final String value) {
+        return this.with(this.editable(path).put(name, value));
     }
 
     /**
      * Make a deep copy of the navigator.
+     * Immutable backends share the structure, DOM is copied on write.
      *
      * @return Deep copy of the navigator.
      */
     public Xnav copy() {
-        return new Xnav(this.xml.copy());
+        return this.with(this.xml.copy());
     }
 
     /**
@@ -216,6 +463,36 @@ public final class Xnav {
         return this.xml.text();
     }
 
+    /**
+     * Print the current node with its subtree.
+     *
+     * @param printer Printer.
+     * @param out Output.
+     */
+    public void print(final XmlPrinter printer, final Appendable out) {
+        printer.print(this.xml, out);
+    }
+
+    /**
+     * Print the current node with its subtree in UTF-8.
+     *
+     * @param printer Printer.
+     * @param out Output stream, it is neither flushed nor closed.
+     */
+    public void print(final XmlPrinter printer, final OutputStream out) {
+        printer.print(this.xml, out);
+    }
+
+    /**
+     * Print the current node with its subtree in UTF-8.
+     *
+     * @param printer Printer.
+     * @param out Byte channel, it is not closed.
+     */
+    public void print(final XmlPrinter printer, final WritableByteChannel out) {
+        printer.print(this.xml, out);
+    }
+
     /**
      * Get current node.
      *
@@ -226,19 +503,39 @@ public final class Xnav {
     }
 
     /**
-     * Get the XML document from the file.
+     * Navigator for another node with the same bindings.
      *
-     * @param file XML file.
-     * @return XML document.
+     * @param other Node.
+     * @return Navigator.
      */
-    private static Xml from(final Path file) {
-        try {
-            return new DomXml(Files.readString(file));
-        } catch (final IOException exception) {
-            throw new IllegalStateException(
-                String.format("Failed to read file '%s'", file),
-                exception
+    private Xnav with(final Xml other) {
+        return new Xnav(other, this.prefixes);
+    }
+
+    /**
+     * XPath expression from the current node with the bindings.
+     *
+     * @param path XPath expression.
+     * @return XPath.
+     */
+    private Xpath xpath(final String path) {
+        return new Xpath(this.xml, path, this.prefixes);
+    }
+
+    /**
+     * Single node to edit.
+     *
+     * @param path XPath expression.
+     * @return Editable node.
+     * @throws UnsupportedOperationException If the backend can't edit.
+     */
+    private EditableXml editable(final String path) {
+        final Xml node = this.one(path).xml;
+        if (!(node instanceof EditableXml)) {
+            throw new UnsupportedOperationException(
+                String.format("%s doesn't support editing", node.getClass().getSimpleName())
             );
         }
+        return (EditableXml) node;
     }
 }
@@ -0,0 +1,578 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builder of XML documents.
+ * Nodes are appended one by one straight into the flat token arrays of
+ * the token backend, the XML text is written along, so neither DOM nor
+ * parsing is involved. Each call takes amortized O(1) time.
+ * The document can be navigated and queried at any moment by
+ * {@link #xnav()}, elements that are still open are closed in the snapshot.
+ * Names are checked only once and interned.
+ * This class is not thread-safe, use a new instance for each document.
+ *
+ * <p>Usage:</p>
+ * <pre>{@code
+ * Xnav xnav = new XnavBuilder()
+ *     .open("order").attribute("id", "1")
+ *     .open("item").text("Book").close()
+ *     .close()
+ *     .xnav();
+ * }</pre>
+ *
+ * @since 0.2
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class XnavBuilder {
+
+    /**
+     * Initial capacity of the token arrays.
+     */
+    private static final int CAPACITY = 64;
+
+    /**
+     * XML text of the document.
+     */
+    private final StringBuilder source;
+
+    /**
+     * Interned names.
+     */
+    private final Map<String, String> interned;
+
+    /**
+     * Number of tokens.
+     */
+    private int size;
+
+    /**
+     * Token kinds.
+     */
+    private Kind[] kinds;
+
+    /**
+     * Name offsets.
+     */
+    private int[] names;
+
+    /**
+     * Name lengths.
+     */
+    private int[] lengths;
+
+    /**
+     * Value start offsets.
+     */
+    private int[] starts;
+
+    /**
+     * Value end offsets.
+     */
+    private int[] ends;
+
+    /**
+     * Parent tokens.
+     */
+    private int[] parents;
+
+    /**
+     * First child tokens.
+     */
+    private int[] firsts;
+
+    /**
+     * Next sibling tokens.
+     */
+    private int[] nexts;
+
+    /**
+     * Previous sibling tokens.
+     */
+    private int[] prevs;
+
+    /**
+     * Last child tokens.
+     */
+    private int[] lasts;
+
+    /**
+     * Subtree ends.
+     */
+    private int[] skips;
+
+    /**
+     * Open elements, the innermost is the last one.
+     */
+    private int[] stack;
+
+    /**
+     * Number of open elements.
+     */
+    private int depth;
+
+    /**
+     * Whether the start tag of the innermost element is not closed yet.
+     */
+    private boolean tag;
+
+    /**
+     * Whether the root element has been opened.
+     */
+    private boolean root;
+
+    /**
+     * Ctor.
+     */
+    public XnavBuilder() {
+        this.source = new StringBuilder(XnavBuilder.CAPACITY);
+        this.interned = new HashMap<>(0);
+        this.kinds = new Kind[XnavBuilder.CAPACITY];
+        this.names = new int[XnavBuilder.CAPACITY];
+        this.lengths = new int[XnavBuilder.CAPACITY];
+        this.starts = new int[XnavBuilder.CAPACITY];
+        this.ends = new int[XnavBuilder.CAPACITY];
+        this.parents = new int[XnavBuilder.CAPACITY];
+        this.firsts = new int[XnavBuilder.CAPACITY];
+        this.nexts = new int[XnavBuilder.CAPACITY];
+        this.prevs = new int[XnavBuilder.CAPACITY];
+        this.lasts = new int[XnavBuilder.CAPACITY];
+        this.skips = new int[XnavBuilder.CAPACITY];
+        this.stack = new int[XnavBuilder.CAPACITY];
+        this.token(Kind.DOCUMENT, -1, 0, 0, 0, 0);
+    }
+
+    /**
+     * Open an element.
+     * @param name Element name.
+     * @return This builder.
+     * @throws IllegalStateException If the root element is already closed.
+     */
+    public XnavBuilder open(final String name) {
+        if (this.depth == 0 && this.root) {
+            throw new IllegalStateException(
+                String.format("Element '%s' can't be the second root element", name)
+            );
+        }
+        final String interned = this.intern(name);
+        final int parent = this.current();
+        this.finish();
+        final int begin = this.source.length();
+        this.source.append('<');
+        final int offset = this.source.length();
+        this.source.append(interned);
+        final int element = this.token(
+            Kind.ELEMENT, parent, offset, interned.length(), begin, -1
+        );
+        if (this.depth == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, this.depth * 2);
+        }
+        this.stack[this.depth] = element;
+        this.depth += 1;
+        this.tag = true;
+        this.root = true;
+        return this;
+    }
+
+    /**
+     * Add an attribute to the element that has just been opened.
+     * @param name Attribute name.
+     * @param value Attribute value, it is escaped.
+     * @return This builder.
+     * @throws IllegalStateException If the element already has children.
+     * @throws IllegalArgumentException If the element already has the attribute.
+     */
+    public XnavBuilder attribute(final String name, final String value) {
+        if (!this.tag) {
+            throw new IllegalStateException(
+                String.format(
+                    "Attribute '%s' must go right after the start tag of its element", name
+                )
+            );
+        }
+        final String interned = this.intern(name);
+        final int element = this.stack[this.depth - 1];
+        for (int attr = element + 1; attr < this.size; ++attr) {
+            if (interned.contentEquals(
+                this.source.subSequence(this.names[attr], this.names[attr] + this.lengths[attr])
+            )) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "Attribute '%s' is already set on the element '%s'",
+                        name,
+                        this.source.substring(
+                            this.names[element], this.names[element] + this.lengths[element]
+                        )
+                    )
+                );
+            }
+        }
+        this.source.append(' ');
+        final int offset = this.source.length();
+        this.source.append(interned).append("=\"");
+        final int begin = this.source.length();
+        XnavBuilder.escape(value, true, this.source);
+        final int end = this.source.length();
+        this.source.append('"');
+        this.token(Kind.ATTRIBUTE, this.current(), offset, interned.length(), begin, end);
+        return this;
+    }
+
+    /**
+     * Add a text to the current element.
+     * Adjacent texts are merged, as a parser would see them.
+     * @param text Text, it is escaped.
+     * @return This builder.
+     * @throws IllegalStateException If there is no open element.
+     */
+    public XnavBuilder text(final String text) {
+        if (this.depth == 0) {
+            throw new IllegalStateException("Text is not allowed outside of the root element");
+        }
+        if (!text.isEmpty()) {
+            final int parent = this.current();
+            this.finish();
+            final int last = this.lasts[parent];
+            if (last != -1 && last == this.size - 1 && this.kinds[last] == Kind.TEXT) {
+                XnavBuilder.escape(text, false, this.source);
+                this.ends[last] = this.source.length();
+            } else {
+                final int begin = this.source.length();
+                XnavBuilder.escape(text, false, this.source);
+                this.token(Kind.TEXT, parent, 0, 0, begin, this.source.length());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a CDATA section to the current element.
+     * @param text Text of the section.
+     * @return This builder.
+     * @throws IllegalArgumentException If the text contains ']]>'.
+     */
+    public XnavBuilder cdata(final String text) {
+        if (this.depth == 0) {
+            throw new IllegalStateException("CDATA is not allowed outside of the root element");
+        }
+        return this.leaf(Kind.CDATA, "<![CDATA[", text, "]]>");
+    }
+
+    /**
+     * Add a comment.
+     * @param text Text of the comment.
+     * @return This builder.
+     * @throws IllegalArgumentException If the text contains '--' or ends with '-'.
+     */
+    public XnavBuilder comment(final String text) {
+        if (text.endsWith("-")) {
+            throw new IllegalArgumentException(
+                String.format("Text '%s' of %s must not end with '-'", text, Kind.COMMENT)
+            );
+        }
+        return this.leaf(Kind.COMMENT, "<!--", text, "--");
+    }
+
+    /**
+     * Add a processing instruction.
+     * @param target Target of the instruction.
+     * @param data Data of the instruction.
+     * @return This builder.
+     * @throws IllegalArgumentException If the target is 'xml' in any case,
+     *  or the data contains '?>'.
+     */
+    public XnavBuilder instruction(final String target, final String data) {
+        final String interned = this.intern(target);
+        if ("xml".equalsIgnoreCase(interned)) {
+            throw new IllegalArgumentException(
+                String.format("Instruction target '%s' is reserved", target)
+            );
+        }
+        if (data.contains("?>")) {
+            throw new IllegalArgumentException(
+                String.format("Instruction data '%s' must not contain '?>'", data)
+            );
+        }
+        final int parent = this.current();
+        this.finish();
+        this.source.append("<?");
+        final int offset = this.source.length();
+        this.source.append(interned).append(' ');
+        final int begin = this.source.length();
+        this.source.append(data);
+        final int end = this.source.length();
+        this.source.append("?>");
+        this.token(Kind.INSTRUCTION, parent, offset, interned.length(), begin, end);
+        return this;
+    }
+
+    /**
+     * Close the current element.
+     * @return This builder.
+     * @throws IllegalStateException If there is no open element.
+     */
+    public XnavBuilder close() {
+        if (this.depth == 0) {
+            throw new IllegalStateException("There is no open element to close");
+        }
+        final int element = this.stack[this.depth - 1];
+        if (this.tag) {
+            this.source.append("/>");
+            this.tag = false;
+        } else {
+            final int name = this.names[element];
+            this.source.append("</")
+                .append(this.source, name, name + this.lengths[element])
+                .append('>');
+        }
+        this.ends[element] = this.source.length();
+        this.skips[element] = this.size;
+        this.depth -= 1;
+        return this;
+    }
+
+    /**
+     * Navigator over the document built so far.
+     * Open elements are closed in the snapshot only, the builder can be used
+     * further and doesn't affect navigators that were already taken.
+     * @return Navigator for the document node.
+     * @throws IllegalStateException If there is no root element yet.
+     */
+    public Xnav xnav() {
+        if (!this.root) {
+            throw new IllegalStateException("The document has no root element yet");
+        }
+        final StringBuilder xml = new StringBuilder(this.source.length() + this.depth * 16)
+            .append(this.source);
+        final int[] nds = Arrays.copyOf(this.ends, this.size);
+        final int[] skps = Arrays.copyOf(this.skips, this.size);
+        for (int idx = this.depth - 1; idx >= 0; --idx) {
+            final int element = this.stack[idx];
+            if (this.tag && idx == this.depth - 1) {
+                xml.append("/>");
+            } else {
+                xml.append("</")
+                    .append(xml, this.names[element], this.names[element] + this.lengths[element])
+                    .append('>');
+            }
+            nds[element] = xml.length();
+            skps[element] = this.size;
+        }
+        nds[0] = xml.length();
+        skps[0] = this.size;
+        return new Xnav(
+            new TokenXml(
+                new TokenDoc(
+                    xml.toString(),
+                    Arrays.copyOf(this.kinds, this.size),
+                    Arrays.copyOf(this.names, this.size),
+                    Arrays.copyOf(this.lengths, this.size),
+                    Arrays.copyOf(this.starts, this.size),
+                    nds,
+                    Arrays.copyOf(this.parents, this.size),
+                    Arrays.copyOf(this.firsts, this.size),
+                    Arrays.copyOf(this.nexts, this.size),
+                    Arrays.copyOf(this.prevs, this.size),
+                    skps
+                ),
+                0
+            )
+        );
+    }
+
+    @Override
+    public String toString() {
+        return this.source.toString();
+    }
+
+    /**
+     * Add a leaf node with a delimited text.
+     * @param kind Kind of the node.
+     * @param open Opening delimiter.
+     * @param text Text of the node.
+     * @param forbidden Sequence that must not appear in the text.
+     * @return This builder.
+     */
+    private XnavBuilder leaf(final Kind kind, final String open, final String text,
+        final String forbidden) {
+        if (text.contains(forbidden)) {
+            throw new IllegalArgumentException(
+                String.format("Text '%s' of %s must not contain '%s'", text, kind, forbidden)
+            );
+        }
+        final int parent = this.current();
+        this.finish();
+        this.source.append(open);
+        final int begin = this.source.length();
+        this.source.append(text);
+        final int end = this.source.length();
+        if (kind == Kind.CDATA) {
+            this.source.append("]]>");
+        } else {
+            this.source.append("-->");
+        }
+        this.token(kind, parent, 0, 0, begin, end);
+        return this;
+    }
+
+    /**
+     * Current parent, the innermost open element or the document.
+     * @return Token index.
+     */
+    private int current() {
+        final int result;
+        if (this.depth == 0) {
+            result = 0;
+        } else {
+            result = this.stack[this.depth - 1];
+        }
+        return result;
+    }
+
+    /**
+     * Close the start tag of the innermost element if it is still open.
+     */
+    private void finish() {
+        if (this.tag) {
+            this.source.append('>');
+            this.tag = false;
+        }
+    }
+
+    /**
+     * Check the name once and intern it.
+     * @param name Name.
+     * @return Interned name.
+     * @throws IllegalArgumentException If the name is not valid.
+     */
+    private String intern(final String name) {
+        String result = this.interned.get(name);
+        if (result == null) {
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Name must not be empty");
+            }
+            for (int idx = 0; idx < name.length(); ++idx) {
+                final char current = name.charAt(idx);
+                if (Character.isWhitespace(current) || "<>/=?&\"'!".indexOf(current) != -1) {
+                    throw new IllegalArgumentException(
+                        String.format("Name '%s' has illegal character '%c'", name, current)
+                    );
+                }
+            }
+            result = name;
+            this.interned.put(name, result);
+        }
+        return result;
+    }
+
+    /**
+     * Add a new token.
+     * @param kind Token kind.
+     * @param parent Parent token.
+     * @param name Name offset.
+     * @param length Name length.
+     * @param start Value start offset.
+     * @param end Value end offset.
+     * @return Token index.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private int token(final Kind kind, final int parent, final int name,
+        final int length, final int start, final int end) {
+        if (this.size == this.kinds.length) {
+            this.grow();
+        }
+        final int index = this.size;
+        this.kinds[index] = kind;
+        this.names[index] = name;
+        this.lengths[index] = length;
+        this.starts[index] = start;
+        this.ends[index] = end;
+        this.parents[index] = parent;
+        this.firsts[index] = -1;
+        this.nexts[index] = -1;
+        this.prevs[index] = -1;
+        this.lasts[index] = -1;
+        this.skips[index] = index + 1;
+        if (parent != -1 && kind != Kind.ATTRIBUTE) {
+            if (this.firsts[parent] == -1) {
+                this.firsts[parent] = index;
+            } else {
+                this.nexts[this.lasts[parent]] = index;
+                this.prevs[index] = this.lasts[parent];
+            }
+            this.lasts[parent] = index;
+        }
+        this.size += 1;
+        return index;
+    }
+
+    /**
+     * Grow all the token arrays twice.
+     */
+    private void grow() {
+        final int capacity = this.kinds.length * 2;
+        this.kinds = Arrays.copyOf(this.kinds, capacity);
+        this.names = Arrays.copyOf(this.names, capacity);
+        this.lengths = Arrays.copyOf(this.lengths, capacity);
+        this.starts = Arrays.copyOf(this.starts, capacity);
+        this.ends = Arrays.copyOf(this.ends, capacity);
+        this.parents = Arrays.copyOf(this.parents, capacity);
+        this.firsts = Arrays.copyOf(this.firsts, capacity);
+        this.nexts = Arrays.copyOf(this.nexts, capacity);
+        this.prevs = Arrays.copyOf(this.prevs, capacity);
+        this.lasts = Arrays.copyOf(this.lasts, capacity);
+        this.skips = Arrays.copyOf(this.skips, capacity);
+    }
+
+    /**
+     * Escape a text or an attribute value.
+     * @param text Raw text.
+     * @param attr Whether it's an attribute value.
+     * @param out Where to write the escaped text.
+     */
+    private static void escape(final String text, final boolean attr, final StringBuilder out) {
+        for (int idx = 0; idx < text.length(); ++idx) {
+            final char current = text.charAt(idx);
+            if (current == '&') {
+                out.append("&amp;");
+            } else if (current == '<') {
+                out.append("&lt;");
+            } else if (current == '>') {
+                out.append("&gt;");
+            } else if (attr && current == '"') {
+                out.append("&quot;");
+            } else if (attr && (current == '\n' || current == '\t' || current == '\r')) {
+                out.append("&#").append((int) current).append(';');
+            } else if (current == '\r') {
+                out.append("&#13;");
+            } else {
+                out.append(current);
+            }
+        }
+    }
+}
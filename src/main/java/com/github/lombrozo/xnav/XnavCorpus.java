@@ -0,0 +1,444 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Corpus of XML files queried by the same XPath expressions.
+ * Files are parsed and queried by a pool of workers, each file is dropped
+ * right after its queries, so only one document per worker is kept in
+ * memory. Expressions are parsed once and shared by all the workers.
+ * Results go through a bounded window: when the consumer is slow, the
+ * workers wait, so the memory stays bounded for any number of files.
+ * Results come in the order the files are done, not in the file order.
+ * Close the stream if it's not read to the end, to stop the workers.
+ * This class is immutable and thread-safe.
+ *
+ * @since 0.2
+ */
+public final class XnavCorpus {
+
+    /**
+     * Default number of results waiting for the consumer.
+     */
+    private static final int WINDOW = 1024;
+
+    /**
+     * Marker of the end of results.
+     */
+    private static final Result END = new Result(Path.of(""), "", List.of());
+
+    /**
+     * Files to query.
+     */
+    private final List<Path> files;
+
+    /**
+     * Factory that parses files.
+     */
+    private final XnavFactory factory;
+
+    /**
+     * Number of workers.
+     */
+    private final int threads;
+
+    /**
+     * Number of results waiting for the consumer.
+     */
+    private final int window;
+
+    /**
+     * Ctor.
+     *
+     * @param files Files to query.
+     */
+    public XnavCorpus(final List<Path> files) {
+        this(
+            files,
+            new XnavFactory(),
+            Runtime.getRuntime().availableProcessors(),
+            XnavCorpus.WINDOW
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param files Files to query.
+     * @param factory Factory that parses files.
+     * @param threads Number of workers.
+     * @param window Number of results waiting for the consumer.
+     */
+    private XnavCorpus(final List<Path> files, final XnavFactory factory, final int threads,
+        final int window) {
+        this.files = List.copyOf(files);
+        this.factory = factory;
+        this.threads = threads;
+        this.window = window;
+    }
+
+    /**
+     * All XML files of the directory and its subdirectories.
+     *
+     * @param directory Directory.
+     * @return Corpus.
+     * @throws IllegalStateException If the directory can't be read.
+     */
+    public static XnavCorpus of(final Path directory) {
+        try (Stream<Path> all = Files.walk(directory)) {
+            return new XnavCorpus(
+                all.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(".xml"))
+                    .sorted()
+                    .collect(Collectors.toList())
+            );
+        } catch (final IOException exception) {
+            throw new IllegalStateException(
+                String.format("Failed to list files in '%s'", directory),
+                exception
+            );
+        }
+    }
+
+    /**
+     * Parse files with the factory.
+     *
+     * @param other Factory.
+     * @return New corpus.
+     */
+    public XnavCorpus factory(final XnavFactory other) {
+        return new XnavCorpus(this.files, other, this.threads, this.window);
+    }
+
+    /**
+     * Query files with that many workers.
+     *
+     * @param number Number of workers.
+     * @return New corpus.
+     */
+    public XnavCorpus threads(final int number) {
+        if (number < 1) {
+            throw new IllegalArgumentException(
+                String.format("Number of threads must be positive, but was %d", number)
+            );
+        }
+        return new XnavCorpus(this.files, this.factory, number, this.window);
+    }
+
+    /**
+     * Keep at most that many results waiting for the consumer.
+     *
+     * @param results Number of results.
+     * @return New corpus.
+     */
+    public XnavCorpus window(final int results) {
+        if (results < 1) {
+            throw new IllegalArgumentException(
+                String.format("Window must be positive, but was %d", results)
+            );
+        }
+        return new XnavCorpus(this.files, this.factory, this.threads, results);
+    }
+
+    /**
+     * Evaluate the expressions over every file.
+     * There is one result per file and expression, even if nothing is found.
+     *
+     * @param xpaths XPath expressions.
+     * @return Results, the stream has to be closed if it's not read to the end.
+     * @throws IllegalStateException While reading, if a file can't be queried.
+     */
+    public Stream<Result> query(final String... xpaths) {
+        final List<Xpath> plans = Arrays.stream(xpaths)
+            .map(xpath -> new Xpath(new Empty(), xpath))
+            .collect(Collectors.toList());
+        return new Run(List.of(xpaths), plans).stream();
+    }
+
+    /**
+     * Result of one expression over one file.
+     * This class is immutable and thread-safe.
+     *
+     * @since 0.2
+     */
+    @ToString
+    @EqualsAndHashCode
+    public static final class Result {
+
+        /**
+         * File.
+         */
+        private final Path path;
+
+        /**
+         * XPath expression.
+         */
+        private final String expression;
+
+        /**
+         * Texts of the found nodes.
+         */
+        private final List<String> texts;
+
+        /**
+         * Ctor.
+         * @param path File.
+         * @param expression XPath expression.
+         * @param texts Texts of the found nodes.
+         */
+        Result(final Path path, final String expression, final List<String> texts) {
+            this.path = path;
+            this.expression = expression;
+            this.texts = texts;
+        }
+
+        /**
+         * File.
+         * @return Path to the file.
+         */
+        public Path file() {
+            return this.path;
+        }
+
+        /**
+         * XPath expression.
+         * @return Expression.
+         */
+        public String xpath() {
+            return this.expression;
+        }
+
+        /**
+         * Texts of the found nodes in the document order.
+         * Nodes without text give empty strings.
+         * @return Texts.
+         */
+        public List<String> values() {
+            return this.texts;
+        }
+    }
+
+    /**
+     * One evaluation over the corpus.
+     * Workers take files one by one and put results into the queue,
+     * the last worker puts the end marker.
+     *
+     * @since 0.2
+     */
+    private final class Run implements Iterator<Result> {
+
+        /**
+         * XPath expressions.
+         */
+        private final List<String> xpaths;
+
+        /**
+         * Parsed expressions.
+         */
+        private final List<Xpath> plans;
+
+        /**
+         * Results waiting for the consumer.
+         */
+        private final BlockingQueue<Result> queue;
+
+        /**
+         * Index of the next file to take.
+         */
+        private final AtomicInteger cursor;
+
+        /**
+         * Number of running workers.
+         */
+        private final AtomicInteger alive;
+
+        /**
+         * The first failure.
+         */
+        private final AtomicReference<RuntimeException> failure;
+
+        /**
+         * Workers.
+         */
+        private final ExecutorService pool;
+
+        /**
+         * Result taken from the queue, but not returned yet.
+         */
+        private Result ahead;
+
+        /**
+         * Ctor.
+         * @param xpaths XPath expressions.
+         * @param plans Parsed expressions.
+         */
+        Run(final List<String> xpaths, final List<Xpath> plans) {
+            this.xpaths = xpaths;
+            this.plans = plans;
+            this.queue = new ArrayBlockingQueue<>(XnavCorpus.this.window);
+            this.cursor = new AtomicInteger(0);
+            this.alive = new AtomicInteger(XnavCorpus.this.threads);
+            this.failure = new AtomicReference<>();
+            this.pool = Executors.newFixedThreadPool(
+                XnavCorpus.this.threads,
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "xnav-corpus");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+        }
+
+        /**
+         * Start the workers.
+         * @return Results.
+         */
+        Stream<Result> stream() {
+            for (int idx = 0; idx < XnavCorpus.this.threads; ++idx) {
+                this.pool.execute(this::work);
+            }
+            return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.NONNULL), false
+            ).onClose(this.pool::shutdownNow);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.ahead == null) {
+                try {
+                    this.ahead = this.queue.take();
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    this.pool.shutdownNow();
+                    throw new IllegalStateException(
+                        "Interrupted while waiting for results", exception
+                    );
+                }
+            }
+            final boolean result = this.ahead != XnavCorpus.END;
+            if (!result) {
+                this.pool.shutdown();
+                final RuntimeException failed = this.failure.get();
+                if (failed != null) {
+                    throw failed;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Result next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("There are no more results");
+            }
+            final Result result = this.ahead;
+            this.ahead = null;
+            return result;
+        }
+
+        /**
+         * Query files until they are over.
+         * Any failure, errors included, is recorded, stops all the workers
+         * and is thrown to the consumer, so results are never silently cut.
+         */
+        @SuppressWarnings("PMD.AvoidCatchingThrowable")
+        private void work() {
+            final List<Path> files = XnavCorpus.this.files;
+            Path file = null;
+            try {
+                for (int idx = this.cursor.getAndIncrement(); idx < files.size()
+                    && this.failure.get() == null; idx = this.cursor.getAndIncrement()) {
+                    file = files.get(idx);
+                    this.query(file);
+                }
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Throwable exception) {
+                this.failure.compareAndSet(
+                    null,
+                    new IllegalStateException(
+                        String.format("Failed to query file '%s'", file), exception
+                    )
+                );
+            } finally {
+                this.finish();
+            }
+        }
+
+        /**
+         * Query one file.
+         * @param file File.
+         * @throws InterruptedException If the stream is closed.
+         */
+        private void query(final Path file) throws InterruptedException {
+            final Xml xml = XnavCorpus.this.factory.xml(file);
+            for (int idx = 0; idx < this.plans.size(); ++idx) {
+                this.queue.put(
+                    new Result(
+                        file,
+                        this.xpaths.get(idx),
+                        this.plans.get(idx).with(xml).nodes()
+                            .map(node -> new Value(node).chars().toString())
+                            .collect(Collectors.toList())
+                    )
+                );
+            }
+        }
+
+        /**
+         * Stop the worker, the last one puts the end marker.
+         */
+        private void finish() {
+            if (this.alive.decrementAndGet() == 0) {
+                try {
+                    this.queue.put(XnavCorpus.END);
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
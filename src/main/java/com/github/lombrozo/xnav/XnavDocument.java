@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * XML document parsed once and shared between threads.
+ * The document is parsed into the token index, and the name index for
+ * recursive searches and the namespaces of the nodes, which are otherwise
+ * built on the first request, are built right away. So the parsed tokens
+ * and both indexes are only read after construction. Navigators made by
+ * {@link #xnav()} are views that hold only a reference to the document and
+ * a token number: make as many of them as needed, one per thread or one per
+ * request, they never contend.
+ * A document made by {@link #cached(int)} also keeps the results of recent
+ * queries. That cache is written by the queries themselves, through a
+ * concurrent map that is read without locks.
+ * Edits give new documents, which build their indexes lazily, on the first
+ * request, and publish them through volatile fields.
+ * This class is thread-safe.
+ *
+ * @since 0.2
+ */
+public final class XnavDocument {
+
+    /**
+     * Token index of the document.
+     */
+    private final TokenDoc doc;
+
+    /**
+     * Ctor.
+     *
+     * @param xml XML document as a string.
+     */
+    public XnavDocument(final String xml) {
+        this(new TokenParser(xml).parse());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param file XML document file.
+     */
+    public XnavDocument(final Path file) {
+        this(XnavDocument.read(file));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param doc Token index of the document.
+     */
+    XnavDocument(final TokenDoc doc) {
+        this.doc = doc.indexed();
+    }
+
+    /**
+     * New navigator for the document node.
+     *
+     * @return Navigator.
+     */
+    public Xnav xnav() {
+        return new Xnav(new TokenXml(this.doc, 0));
+    }
+
+    /**
+     * The same document with a cache of query results.
+     * Results of XPath queries made through its navigators are kept as
+     * token positions by the expression and the context node, and roughly
+     * the least recently used ones are evicted when there are more than the
+     * given number of them. Lookups never lock. Counting and existence
+     * checks use cached results, but don't evaluate all the nodes just to
+     * cache them. Edits of the document give new documents with their
+     * own empty caches, so cached results are never stale.
+     *
+     * @param queries Maximum number of cached results.
+     * @return Document with the cache.
+     */
+    public XnavDocument cached(final int queries) {
+        return new XnavDocument(this.doc.cached(queries));
+    }
+
+    /**
+     * Number of queries answered by the cache.
+     *
+     * @return Cache hits, zero if there is no cache.
+     */
+    public long hits() {
+        return this.doc.cache().hits();
+    }
+
+    /**
+     * Number of queries evaluated since they were not in the cache.
+     *
+     * @return Cache misses, zero if there is no cache.
+     */
+    public long misses() {
+        return this.doc.cache().misses();
+    }
+
+    /**
+     * Read and parse a file.
+     *
+     * @param file XML document file.
+     * @return Token index.
+     */
+    private static TokenDoc read(final Path file) {
+        try {
+            return new TokenParser(Files.readString(file)).parse();
+        } catch (final IOException exception) {
+            throw new IllegalStateException(
+                String.format("Failed to read file '%s'", file),
+                exception
+            );
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Factory of navigators.
+ * Picks the {@link Backend} that suits the expected {@link Workload} best.
+ * By default, every document is parsed into DOM, whatever its size, since
+ * the other backends don't expand DTD entities and don't give live DOM
+ * nodes. Documents larger than the threshold, set by
+ * {@link #threshold(long)}, are parsed into the token index.
+ * Backends found by {@link ServiceLoader} take part in the choice as well.
+ * This class is immutable and thread-safe.
+ *
+ * @since 0.2
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class XnavFactory {
+
+    /**
+     * Default size threshold in characters, no document reaches it.
+     */
+    private static final long THRESHOLD = Long.MAX_VALUE;
+
+    /**
+     * All available backends.
+     * Built-in backends go first, so they win in case of equal scores.
+     */
+    private static final List<Backend> AVAILABLE = XnavFactory.discover();
+
+    /**
+     * Backends to choose from.
+     */
+    private final List<Backend> backends;
+
+    /**
+     * Name of the forced backend.
+     * Empty string means automatic choice.
+     */
+    private final String forced;
+
+    /**
+     * Size starting from which the document is considered large.
+     */
+    private final long limit;
+
+    /**
+     * Whether the document is used through DOM.
+     */
+    private final boolean interop;
+
+    /**
+     * Number of threads that query the document.
+     */
+    private final int concurrency;
+
+    /**
+     * Expected query mix.
+     */
+    private final Workload.Queries mix;
+
+    /**
+     * Ctor.
+     */
+    public XnavFactory() {
+        this(XnavFactory.AVAILABLE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param backends Backends to choose from.
+     */
+    XnavFactory(final List<Backend> backends) {
+        this(backends, "", XnavFactory.THRESHOLD, false, 1, Workload.Queries.NAVIGATION);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param backends Backends to choose from.
+     * @param forced Name of the forced backend.
+     * @param limit Size starting from which the document is considered large.
+     * @param interop Whether the document is used through DOM.
+     * @param concurrency Number of threads that query the document.
+     * @param mix Expected query mix.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private XnavFactory(final List<Backend> backends, final String forced, final long limit,
+        final boolean interop, final int concurrency, final Workload.Queries mix) {
+        this.backends = backends;
+        this.forced = forced;
+        this.limit = limit;
+        this.interop = interop;
+        this.concurrency = concurrency;
+        this.mix = mix;
+    }
+
+    /**
+     * Use the backend with the name regardless of the workload.
+     *
+     * @param name Backend name, like "dom" or "token".
+     * @return New factory.
+     */
+    public XnavFactory backend(final String name) {
+        return new XnavFactory(
+            this.backends, name, this.limit, this.interop, this.concurrency, this.mix
+        );
+    }
+
+    /**
+     * Set the size starting from which documents are considered large.
+     * Large documents go to the token index, unless DOM interop is
+     * required. There is no such size by default.
+     *
+     * @param chars Size in characters.
+     * @return New factory.
+     */
+    public XnavFactory threshold(final long chars) {
+        return new XnavFactory(
+            this.backends, this.forced, chars, this.interop, this.concurrency, this.mix
+        );
+    }
+
+    /**
+     * Declare whether documents are read or modified through DOM nodes.
+     *
+     * @param required True if DOM interop is required.
+     * @return New factory.
+     */
+    public XnavFactory dom(final boolean required) {
+        return new XnavFactory(
+            this.backends, this.forced, this.limit, required, this.concurrency, this.mix
+        );
+    }
+
+    /**
+     * Declare how many threads query the same document.
+     *
+     * @param number Number of threads.
+     * @return New factory.
+     */
+    public XnavFactory threads(final int number) {
+        return new XnavFactory(
+            this.backends, this.forced, this.limit, this.interop, number, this.mix
+        );
+    }
+
+    /**
+     * Declare the expected query mix.
+     *
+     * @param queries Query mix.
+     * @return New factory.
+     */
+    public XnavFactory queries(final Workload.Queries queries) {
+        return new XnavFactory(
+            this.backends, this.forced, this.limit, this.interop, this.concurrency, queries
+        );
+    }
+
+    /**
+     * Create a navigator for the XML document.
+     *
+     * @param xml XML document as a string.
+     * @return Navigator.
+     */
+    public Xnav xnav(final String xml) {
+        return new Xnav(this.xml(xml));
+    }
+
+    /**
+     * Create a navigator for the XML file.
+     *
+     * @param file XML file.
+     * @return Navigator.
+     */
+    public Xnav xnav(final Path file) {
+        return new Xnav(this.xml(file));
+    }
+
+    /**
+     * Name of the backend that is going to be used for a document.
+     *
+     * @param size Document size in characters.
+     * @return Backend name.
+     */
+    public String choice(final long size) {
+        return this.choose(size).name();
+    }
+
+    /**
+     * Parse the XML document with the most suitable backend.
+     *
+     * @param xml XML document as a string.
+     * @return Parsed XML.
+     */
+    Xml xml(final String xml) {
+        return new Telemetry().parse(this.choose(xml.length()), xml);
+    }
+
+    /**
+     * Parse the XML file with the most suitable backend.
+     *
+     * @param file XML file.
+     * @return Parsed XML.
+     */
+    Xml xml(final Path file) {
+        try {
+            return this.xml(Files.readString(file));
+        } catch (final IOException exception) {
+            throw new IllegalStateException(
+                String.format("Failed to read file '%s'", file),
+                exception
+            );
+        }
+    }
+
+    /**
+     * Choose the backend.
+     *
+     * @param size Document size in characters.
+     * @return Backend.
+     */
+    private Backend choose(final long size) {
+        final Backend result;
+        if (this.forced.isEmpty()) {
+            final Workload workload = new Workload(
+                size, this.limit, this.interop, this.concurrency, this.mix
+            );
+            Backend best = null;
+            int max = -1;
+            for (final Backend backend : this.backends) {
+                final int score = backend.score(workload);
+                if (score > max) {
+                    best = backend;
+                    max = score;
+                }
+            }
+            if (best == null) {
+                throw new IllegalStateException(
+                    String.format("There is no backend for the workload %s", workload)
+                );
+            }
+            result = best;
+        } else {
+            result = this.backends.stream()
+                .filter(backend -> backend.name().equals(this.forced))
+                .findFirst()
+                .orElseThrow(
+                    () -> new IllegalArgumentException(
+                        String.format("Unknown backend '%s'", this.forced)
+                    )
+                );
+        }
+        return result;
+    }
+
+    /**
+     * Discover all available backends.
+     *
+     * @return Built-in backends followed by plugged ones.
+     */
+    private static List<Backend> discover() {
+        final List<Backend> all = new ArrayList<>(0);
+        all.add(new DomBackend());
+        all.add(new TokenBackend());
+        all.add(new LazyBackend());
+        all.add(new ParallelBackend());
+        ServiceLoader.load(Backend.class).forEach(all::add);
+        return Collections.unmodifiableList(all);
+    }
+}
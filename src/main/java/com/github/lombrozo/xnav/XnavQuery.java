@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of evaluating an XPath expression.
+ * @since 0.2
+ * @checkstyle VisibilityModifierCheck (40 lines)
+ */
+@Name("com.github.lombrozo.xnav.XnavQuery")
+@Label("Xnav Query")
+@Category("Xnav")
+@Description("XPath expression evaluated by Xnav")
+@SuppressWarnings("PMD.DataClass")
+final class XnavQuery extends Event {
+
+    /**
+     * XPath expression.
+     */
+    @Label("Expression")
+    String expression;
+
+    /**
+     * Name of the backend the document was parsed with.
+     */
+    @Label("Backend")
+    String backend;
+
+    /**
+     * Number of found nodes.
+     */
+    @Label("Found")
+    @Description("Number of nodes the expression found")
+    long found;
+}
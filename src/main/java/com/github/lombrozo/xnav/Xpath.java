@@ -27,18 +27,35 @@ package com.github.lombrozo.xnav;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -57,6 +74,46 @@ import lombok.ToString;
 @SuppressWarnings({"PMD.GodClass", "PMD.TooManyMethods"})
 final class Xpath {
 
+    /**
+     * Step that does nothing.
+     */
+    private static final XpathNode IDENTITY = x -> x;
+
+    /**
+     * Compiled step that passes the token to the sink.
+     */
+    private static final TokenChain END = (doc, token, sink) -> sink.test(token);
+
+    /**
+     * Number of evaluations after which an expression is compiled.
+     * Zero turns the compilation off.
+     */
+    private static final int COMPILE = Integer.getInteger("xnav.xpath.compile", 100);
+
+    /**
+     * Maximum number of expressions to keep parsed.
+     */
+    private static final int KEPT = 1024;
+
+    /**
+     * Parsed expressions by their text.
+     */
+    private static final Map<String, Tier> TIERS = new ConcurrentHashMap<>(0);
+
+    /**
+     * Tokens that start a step.
+     */
+    private static final Set<Type> STEPS = EnumSet.of(
+        Type.NAME, Type.STAR, Type.AT, Type.DOT, Type.DDOT
+    );
+
+    /**
+     * Node type tests.
+     */
+    private static final Set<String> TYPES = Set.of(
+        "node", "text", "comment", "processing-instruction"
+    );
+
     /**
      * Where to start.
      */
@@ -68,6 +125,16 @@ final class Xpath {
      */
     private final String path;
 
+    /**
+     * Namespace URIs by prefixes used in the path.
+     */
+    private final Map<String, String> prefixes;
+
+    /**
+     * Parsed expression.
+     */
+    private final Tier tier;
+
     /**
      * Constructor.
      *
@@ -75,8 +142,47 @@ final class Xpath {
      * @param path The reduced version of the XPath.
      */
     Xpath(final Xml root, final String path) {
+        this(root, path, Map.of());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param root The root XML document.
+     * @param path The reduced version of the XPath.
+     * @param prefixes Namespace URIs by prefixes used in the path.
+     */
+    Xpath(final Xml root, final String path, final Map<String, String> prefixes) {
+        this(root, path, prefixes, Xpath.tier(path, prefixes));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param root The root XML document.
+     * @param path The reduced version of the XPath.
+     * @param prefixes Namespace URIs by prefixes used in the path.
+     * @param tier Parsed expression.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Xpath(final Xml root, final String path, final Map<String, String> prefixes,
+        final Tier tier) {
         this.root = root;
         this.path = path;
+        this.prefixes = prefixes;
+        this.tier = tier;
+    }
+
+    /**
+     * The same XPath over another node.
+     * The expression is not parsed again, so one instance may be
+     * evaluated over many documents.
+     *
+     * @param other Where to start.
+     * @return XPath over the node.
+     */
+    Xpath with(final Xml other) {
+        return new Xpath(other, this.path, this.prefixes, this.tier);
     }
 
     /**
@@ -85,24 +191,264 @@ final class Xpath {
      * @return The nodes that match the XPath.
      */
     Stream<Xml> nodes() {
-        final XpathNode xpath = new XPathParser(new XPathLexer(this.path).tokens())
-            .parsePath();
-        synchronized (this.sync()) {
-            return xpath.nodes(Stream.of(this.root));
+        return new Telemetry().nodes(this.path, this.root, this.found());
+    }
+
+    /**
+     * Count nodes that match the XPath.
+     * Nodes are counted without collecting them, and recursive name
+     * searches are answered by the index if the backend has one.
+     * Documents with a query cache count the cached nodes if they are
+     * there, a miss is counted as usual and isn't cached.
+     * A top-level 'count(...)' gives the number it evaluates to.
+     *
+     * @return Number of nodes.
+     */
+    long count() {
+        return new Telemetry().count(
+            this.path,
+            this.root,
+            () -> {
+                final long result;
+                final Optional<int[]> hit = this.hit();
+                if (hit.isPresent()) {
+                    result = hit.get().length;
+                } else if (this.tier.plan instanceof Total) {
+                    result = this.tier.plan.count(Stream.of(this.root));
+                } else {
+                    final Optional<TokenChain> chain = this.chain();
+                    result = chain.map(
+                        compiled -> ((TokenXml) this.root).select(compiled).count()
+                    ).orElseGet(() -> this.tier.plan.count(Stream.of(this.root)));
+                }
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Check whether any node matches the XPath.
+     * The evaluation stops at the first node found, so the result isn't
+     * cached, though a cached one is used.
+     *
+     * @return True if there is a node.
+     */
+    boolean exists() {
+        final boolean result;
+        final Optional<int[]> hit = this.hit();
+        if (hit.isPresent()) {
+            result = hit.get().length > 0;
+        } else if (this.tier.plan instanceof Total) {
+            result = this.count() > 0;
+        } else {
+            result = new Telemetry().nodes(this.path, this.root, this.evaluated())
+                .findFirst()
+                .isPresent();
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate the XPath and measure every step of it.
+     * Unions of recursive paths are not merged into one walk here,
+     * so each of them can be measured separately.
+     *
+     * @return Profile of the evaluation.
+     */
+    QueryProfile profile() {
+        final List<Probe> probes = new ArrayList<>(0);
+        final XpathNode xpath = new XPathParser(
+            new XPathLexer(this.path).tokens(),
+            node -> {
+                final Probe probe = new Probe(node.toString());
+                probes.add(probe);
+                return new Profiled(node, probe);
+            },
+            this.prefixes
+        ).parseTop();
+        final long start = System.nanoTime();
+        final long found = xpath.count(Stream.of(this.root));
+        return new QueryProfile(
+            this.path,
+            found,
+            System.nanoTime() - start,
+            probes.stream().map(Probe::snapshot).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Whether the expression is compiled for the token index.
+     *
+     * @return True if it's compiled.
+     */
+    boolean compiled() {
+        return this.tier.compiled.isPresent();
+    }
+
+    /**
+     * Nodes that match the XPath, from the query cache of the document
+     * if it has one.
+     *
+     * @return The nodes in the document order.
+     */
+    private Stream<Xml> found() {
+        final Stream<Xml> result;
+        if (this.root instanceof TokenXml) {
+            result = ((TokenXml) this.root).cached(
+                Xpath.key(this.path, this.prefixes), this::evaluated
+            );
+        } else {
+            result = this.evaluated();
+        }
+        return result;
+    }
+
+    /**
+     * Positions cached for the XPath, if the document has a query cache
+     * and they are there.
+     * Nothing is evaluated and cached on a miss.
+     *
+     * @return Positions of the found nodes or empty.
+     */
+    private Optional<int[]> hit() {
+        final Optional<int[]> result;
+        if (this.root instanceof TokenXml && ((TokenXml) this.root).caching()) {
+            result = ((TokenXml) this.root).hit(Xpath.key(this.path, this.prefixes));
+        } else {
+            result = Optional.empty();
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate the XPath, compiled if possible.
+     *
+     * @return The nodes in the document order.
+     */
+    private Stream<Xml> evaluated() {
+        final Optional<TokenChain> chain = this.chain();
+        final Stream<Xml> result;
+        if (chain.isPresent()) {
+            result = ((TokenXml) this.root).select(chain.get());
+        } else {
+            result = this.tier.plan.nodes(Stream.of(this.root));
+        }
+        return result;
+    }
+
+    /**
+     * Compiled expression, if the root is a token node and the
+     * expression is hot enough and consists of compilable steps.
+     *
+     * @return Compiled expression or empty.
+     */
+    private Optional<TokenChain> chain() {
+        final Optional<TokenChain> result;
+        if (this.root instanceof TokenXml) {
+            result = this.tier.chain();
+        } else {
+            result = Optional.empty();
+        }
+        return result;
+    }
+
+    /**
+     * Parsed expression, shared by all evaluations of the same text
+     * with the same prefixes.
+     * Only a limited number of expressions is kept, the rest are parsed
+     * every time and never compiled.
+     *
+     * @param path XPath expression.
+     * @param prefixes Namespace URIs by prefixes used in the path.
+     * @return Parsed expression.
+     */
+    private static Tier tier(final String path, final Map<String, String> prefixes) {
+        final String key = Xpath.key(path, prefixes);
+        Tier result = Xpath.TIERS.get(key);
+        if (result == null) {
+            result = new Tier(
+                new XPathParser(new XPathLexer(path).tokens(), prefixes).parseTop()
+            );
+            if (Xpath.TIERS.size() < Xpath.KEPT) {
+                final Tier existing = Xpath.TIERS.putIfAbsent(key, result);
+                if (existing != null) {
+                    result = existing;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Text that identifies the parsed expression.
+     * Prefixes are resolved at parsing, so the same path with other
+     * bindings is another expression.
+     *
+     * @param path XPath expression.
+     * @param prefixes Namespace URIs by prefixes used in the path.
+     * @return The path itself if there are no prefixes.
+     */
+    private static String key(final String path, final Map<String, String> prefixes) {
+        final String result;
+        if (prefixes.isEmpty()) {
+            result = path;
+        } else {
+            result = String.format("%s %s", new TreeMap<>(prefixes), path);
         }
+        return result;
     }
 
     /**
-     * Synchronize on the root.
-     * @return Root object.
-     * @todo #54:90min Remove the synchronization from the Xpath class.
-     *  Currently we synchronize on the root object to make the class thread-safe.
-     *  This is too broad and we should find a better way to make the class thread-safe.
-     *  This issue makes lot's of methods in the class synchronized and it's not efficient.
-     *  We have already added many unit tests to cover this issue.
+     * Parsed expression with the number of its evaluations.
+     * It's interpreted at first, and when it's evaluated often enough it's
+     * compiled into a {@link TokenChain}, if all its steps support that:
+     * child steps by name, by namespace and local name, or '*', attribute
+     * steps, and predicates that check attributes, combined with 'and' and
+     * 'or'.
+     *
+     * @since 0.2
      */
-    private Object sync() {
-        return this.root;
+    @SuppressWarnings("PMD.AvoidUsingVolatile")
+    private static final class Tier {
+
+        /**
+         * Interpreted plan.
+         */
+        private final XpathNode plan;
+
+        /**
+         * Number of evaluations, it stops growing after the compilation.
+         */
+        private final AtomicInteger uses;
+
+        /**
+         * Compiled plan, empty until it's compiled or if it can't be.
+         */
+        private volatile Optional<TokenChain> compiled;
+
+        /**
+         * Constructor.
+         *
+         * @param plan Interpreted plan.
+         */
+        private Tier(final XpathNode plan) {
+            this.plan = plan;
+            this.uses = new AtomicInteger(0);
+            this.compiled = Optional.empty();
+        }
+
+        /**
+         * Count the evaluation and get the compiled plan.
+         *
+         * @return Compiled plan or empty.
+         */
+        Optional<TokenChain> chain() {
+            if (this.uses.get() < Xpath.COMPILE
+                && this.uses.incrementAndGet() == Xpath.COMPILE) {
+                this.compiled = this.plan.chain(Xpath.END);
+            }
+            return this.compiled;
+        }
     }
 
     /**
@@ -122,14 +468,65 @@ final class Xpath {
          */
         private int pos;
 
+        /**
+         * Wrapper of every step of the plan.
+         */
+        private final UnaryOperator<XpathNode> wrap;
+
+        /**
+         * Namespace URIs by prefixes.
+         */
+        private final Map<String, String> prefixes;
+
+        /**
+         * Constructor.
+         *
+         * @param tokens Tokens.
+         * @param prefixes Namespace URIs by prefixes.
+         */
+        private XPathParser(final Stream<Token> tokens, final Map<String, String> prefixes) {
+            this(tokens, UnaryOperator.identity(), prefixes);
+        }
+
         /**
          * Constructor.
          *
          * @param tokens Tokens.
+         * @param wrap Wrapper of every step of the plan.
+         * @param prefixes Namespace URIs by prefixes.
          */
-        private XPathParser(final Stream<Token> tokens) {
+        private XPathParser(final Stream<Token> tokens, final UnaryOperator<XpathNode> wrap,
+            final Map<String, String> prefixes) {
             this.tokens = tokens.collect(Collectors.toList());
             this.pos = 0;
+            this.wrap = wrap;
+            this.prefixes = prefixes;
+        }
+
+        /**
+         * Parse the whole expression.
+         * It's either a union of paths or a single 'count(...)' call.
+         *
+         * @return Parsed expression.
+         */
+        XpathNode parseTop() {
+            final XpathNode result;
+            if (this.tokens.size() > 1 && this.peek().type == Type.NAME
+                && "count".equals(this.peek().text)
+                && this.tokens.get(this.pos + 1).type == Type.LPAREN) {
+                this.consume(Type.NAME);
+                this.consume(Type.LPAREN);
+                result = new Total(this.parseUnion());
+                this.consume(Type.RPAREN);
+                if (!this.eof()) {
+                    throw new IllegalStateException(
+                        String.format("Unexpected %s after 'count()'", this.peek())
+                    );
+                }
+            } else {
+                result = this.parseUnion();
+            }
+            return result;
         }
 
         /**
@@ -138,19 +535,21 @@ final class Xpath {
          * @return Relative path.
          */
         XpathNode parsePath() {
-            XpathNode step = x -> x;
+            XpathNode step = Xpath.IDENTITY;
             while (!this.eof()) {
                 final Token current = this.peek();
                 if (current.type == Type.SLASH) {
                     this.consume(Type.SLASH);
-                    step = new Sequence(step, this.parseStep());
-                } else if (current.type == Type.NAME) {
-                    step = new Sequence(step, this.parseStep());
+                    step = Sequence.of(step, this.wrap.apply(this.parseStep()));
+                } else if (Xpath.STEPS.contains(current.type)) {
+                    step = Sequence.of(step, this.wrap.apply(this.parseStep()));
                 } else if (current.type == Type.DSLASH) {
                     this.consume(Type.DSLASH);
-                    step = new Sequence(step, new RecursivePath(this.parsePath()));
+                    step = Sequence.of(
+                        step, this.wrap.apply(new RecursivePath(this.parsePath()))
+                    );
                 } else if (current.type == Type.LPAREN) {
-                    step = new Sequence(step, this.parseParenthesizedPath());
+                    step = Sequence.of(step, this.parseParenthesizedPath());
                 } else {
                     break;
                 }
@@ -158,6 +557,37 @@ final class Xpath {
             return step;
         }
 
+        /**
+         * Parse the union of paths, like 'a | b'.
+         * Unions of recursive paths are evaluated as one recursive path
+         * over the union of their subpaths, so the tree is walked once.
+         *
+         * @return Union or a single path.
+         */
+        XpathNode parseUnion() {
+            final List<XpathNode> branches = new ArrayList<>(1);
+            branches.add(this.parsePath());
+            while (!this.eof() && this.peek().type == Type.PIPE) {
+                this.consume(Type.PIPE);
+                branches.add(this.parsePath());
+            }
+            final XpathNode result;
+            if (branches.size() == 1) {
+                result = branches.get(0);
+            } else if (branches.stream().allMatch(RecursivePath.class::isInstance)) {
+                result = new RecursivePath(
+                    new Union(
+                        branches.stream()
+                            .map(branch -> ((RecursivePath) branch).subpath)
+                            .collect(Collectors.toList())
+                    )
+                );
+            } else {
+                result = this.wrap.apply(new Union(branches));
+            }
+            return result;
+        }
+
         /**
          * Parse the path in parentheses.
          *
@@ -165,7 +595,7 @@ final class Xpath {
          */
         private XpathNode parseParenthesizedPath() {
             this.consume(Type.LPAREN);
-            final XpathNode step = this.parsePath();
+            final XpathNode step = this.parseUnion();
             this.consume(Type.RPAREN);
             return this.parsePredicate(step);
         }
@@ -176,7 +606,34 @@ final class Xpath {
          * @return Step with a predicate.
          */
         private XpathNode parsePredicatedStep() {
-            return this.parsePredicate(new Step(this.consume().lexeme()));
+            final String name = this.consume().lexeme();
+            final XpathNode step;
+            if (this.tested(name)) {
+                step = new Step(name, this.test(name, Kind.ELEMENT));
+            } else {
+                step = new Step(name);
+            }
+            return this.parseScopedPredicate(step);
+        }
+
+        /**
+         * Parse predicates of a child step.
+         * Like predicates of steps with an explicit axis, they are applied
+         * to the children of each context node separately, so 'book[1]' is
+         * the first book of every parent, the same as 'child::book[1]'.
+         *
+         * @param step Child step.
+         * @return Step with predicates.
+         */
+        private XpathNode parseScopedPredicate(final XpathNode step) {
+            final XpathNode predicated = this.parsePredicate(step);
+            final XpathNode result;
+            if (predicated == step) {
+                result = step;
+            } else {
+                result = new Scoped(predicated);
+            }
+            return result;
         }
 
         /**
@@ -209,11 +666,33 @@ final class Xpath {
         private XpathNode parseStep() {
             final XpathNode result;
             final Token current = this.peek();
-            if (current.type == Type.NAME) {
+            if (current.type == Type.NAME && this.axis()) {
+                result = this.parseAxisStep();
+            } else if (current.type == Type.NAME && !this.function()) {
                 result = this.parsePredicatedStep();
-            } else if (current.type == Type.AT) {
+            } else if (current.type == Type.NAME || current.type == Type.STAR) {
+                final String label = this.parseNodeTest();
+                result = this.parseScopedPredicate(
+                    new Step(label, this.test(label, Kind.ELEMENT))
+                );
+            } else if (current.type == Type.AT && this.tokens.get(this.pos + 1).type == Type.NAME
+                && !this.function(this.pos + 1)
+                && !this.tested(this.tokens.get(this.pos + 1).text)) {
                 this.consume(Type.AT);
                 result = new Attribute(this.consume().text);
+            } else if (current.type == Type.AT) {
+                this.consume(Type.AT);
+                final String label = this.parseNodeTest();
+                result = new AxisStep(
+                    Axis.ATTRIBUTE, label, this.test(label, Kind.ATTRIBUTE),
+                    this.parsePredicate(Xpath.IDENTITY)
+                );
+            } else if (current.type == Type.DOT) {
+                this.consume(Type.DOT);
+                result = new AxisStep(Axis.SELF, "node()", Filter.all(), Xpath.IDENTITY);
+            } else if (current.type == Type.DDOT) {
+                this.consume(Type.DDOT);
+                result = new AxisStep(Axis.PARENT, "node()", Filter.all(), Xpath.IDENTITY);
             } else {
                 throw new IllegalStateException(
                     String.format("Expected one more step, but got %s", current)
@@ -222,6 +701,124 @@ final class Xpath {
             return result;
         }
 
+        /**
+         * Parse the step with an explicit axis, like 'ancestor::name'.
+         * Predicates of the step are applied to the nodes of each context
+         * node separately, in the axis order.
+         *
+         * @return Step.
+         */
+        private XpathNode parseAxisStep() {
+            final Axis axis = Axis.of(this.consume(Type.NAME).text);
+            this.consume(Type.DCOLON);
+            final String label = this.parseNodeTest();
+            final Kind principal;
+            if (axis == Axis.ATTRIBUTE) {
+                principal = Kind.ATTRIBUTE;
+            } else {
+                principal = Kind.ELEMENT;
+            }
+            return new AxisStep(
+                axis, label, this.test(label, principal), this.parsePredicate(Xpath.IDENTITY)
+            );
+        }
+
+        /**
+         * Node test by its label.
+         * Names with bound prefixes are resolved to their namespaces right
+         * here, other names are compared as written.
+         *
+         * @param label Node test as written in the XPath.
+         * @param principal Principal node kind of the axis.
+         * @return Node test.
+         */
+        private Filter test(final String label, final Kind principal) {
+            final Filter result;
+            if (this.bound(label)) {
+                final int colon = label.indexOf(':');
+                result = new NameTest(
+                    this.prefixes.get(label.substring(0, colon)), label.substring(colon + 1)
+                );
+            } else {
+                result = Xpath.test(label, principal);
+            }
+            return result;
+        }
+
+        /**
+         * Check whether the name has a bound prefix.
+         * Names with unbound prefixes are compared as written, just like
+         * names without prefixes, for documents that don't declare them.
+         *
+         * @param name Name as written in the XPath.
+         * @return True if the prefix is bound.
+         */
+        private boolean bound(final String name) {
+            final int colon = name.indexOf(':');
+            return colon > 0 && this.prefixes.containsKey(name.substring(0, colon));
+        }
+
+        /**
+         * Check whether the name needs a node test, not just a comparison.
+         * These are names with bound prefixes and wildcards with any prefix.
+         *
+         * @param name Name as written in the XPath.
+         * @return True if the name needs a node test.
+         */
+        private boolean tested(final String name) {
+            return this.bound(name) || name.endsWith(":*");
+        }
+
+        /**
+         * Parse the node test: a name, '*', or a node type like 'text()'.
+         *
+         * @return Node test as written in the XPath.
+         */
+        private String parseNodeTest() {
+            final String result;
+            if (this.peek().type == Type.STAR) {
+                result = this.consume(Type.STAR).text;
+            } else if (this.function()) {
+                final String name = this.consume(Type.NAME).text;
+                this.consume(Type.LPAREN);
+                this.consume(Type.RPAREN);
+                result = String.format("%s()", name);
+            } else {
+                result = this.consume(Type.NAME).text;
+            }
+            return result;
+        }
+
+        /**
+         * Check whether the current name is followed by '('.
+         *
+         * @return True if it looks like a function or a node type.
+         */
+        private boolean function() {
+            return this.function(this.pos);
+        }
+
+        /**
+         * Check whether the name at the position is followed by '('.
+         *
+         * @param position Position of the name.
+         * @return True if it looks like a function or a node type.
+         */
+        private boolean function(final int position) {
+            return position + 1 < this.tokens.size()
+                && this.tokens.get(position + 1).type == Type.LPAREN;
+        }
+
+        /**
+         * Check whether the next step has an explicit axis.
+         *
+         * @return True if the name is followed by '::'.
+         */
+        private boolean axis() {
+            return this.pos + 1 < this.tokens.size()
+                && this.tokens.get(this.pos + 1).type == Type.DCOLON;
+        }
+
         /**
          * Parse the expression.
          *
@@ -264,6 +861,9 @@ final class Xpath {
                 result = this.parseAttributeExpression();
             } else if (current.type == Type.NAME) {
                 result = this.parseNamedClause();
+            } else if (current.type == Type.DOT || current.type == Type.DDOT
+                || current.type == Type.STAR) {
+                result = new SubpathExpression(this.parsePath());
             } else if (current.type == Type.LPAREN) {
                 this.consume(Type.LPAREN);
                 final XpathFunction expr = this.parseExpression();
@@ -290,13 +890,16 @@ final class Xpath {
             final XpathFunction result;
             if (this.peek().type == Type.NAME) {
                 final Type next = this.tokens.get(this.pos + 1).type;
-                if (next == Type.LPAREN) {
+                if (next == Type.LPAREN && Xpath.TYPES.contains(this.peek().text)
+                    && !"text".equals(this.peek().text)) {
+                    result = new SubpathExpression(this.parsePath());
+                } else if (next == Type.LPAREN) {
                     result = this.parseFunction();
                 } else if (next == Type.EQUALS) {
                     final SubpathTextExpression path = new SubpathTextExpression(this.parsePath());
                     result = this.parseEqExpression(path);
                 } else {
-                    result = new SubpathExpression(this.parsePath());
+                    result = new SubpathExpression(this.parseUnion());
                 }
             } else {
                 throw new IllegalStateException(
@@ -334,6 +937,24 @@ final class Xpath {
                 final XpathFunction arg = this.parseExpression();
                 this.consume(Type.RPAREN);
                 function = new NormalizeSpace(arg);
+            } else if ("count".equals(name)) {
+                this.consume(Type.LPAREN);
+                final XpathNode arg = this.parseUnion();
+                this.consume(Type.RPAREN);
+                function = new Count(arg);
+            } else if ("boolean".equals(name)) {
+                this.consume(Type.LPAREN);
+                final XpathFunction arg = this.parseExpression();
+                this.consume(Type.RPAREN);
+                function = new Bool(arg);
+            } else if ("local-name".equals(name) || "namespace-uri".equals(name)) {
+                this.consume(Type.LPAREN);
+                XpathNode arg = Xpath.IDENTITY;
+                if (this.peek().type != Type.RPAREN) {
+                    arg = this.parseUnion();
+                }
+                this.consume(Type.RPAREN);
+                function = new NameFunction(name, arg);
             } else if ("starts-with".equals(name)) {
                 this.consume(Type.LPAREN);
                 final XpathFunction arg1 = this.parseExpression();
@@ -428,7 +1049,21 @@ final class Xpath {
         private XpathFunction parseAttributeExpression() {
             final Token name = this.consume(Type.NAME);
             final XpathFunction result;
-            if (this.eof() || this.tokens.get(this.pos).type != Type.EQUALS) {
+            if (this.tested(name.text)) {
+                final XpathNode attr = new AxisStep(
+                    Axis.ATTRIBUTE, name.text, this.test(name.text, Kind.ATTRIBUTE),
+                    Xpath.IDENTITY
+                );
+                if (this.eof() || this.tokens.get(this.pos).type != Type.EQUALS) {
+                    result = new SubpathExpression(attr);
+                } else {
+                    this.consume(Type.EQUALS);
+                    result = new EqualityExpression(
+                        new SubpathTextExpression(attr),
+                        new LiteralString(this.consume(Type.VALUE).text)
+                    );
+                }
+            } else if (this.eof() || this.tokens.get(this.pos).type != Type.EQUALS) {
                 result = new AttributeValueExpression(name.text);
             } else {
                 this.consume(Type.EQUALS);
@@ -492,6 +1127,53 @@ final class Xpath {
         }
     }
 
+    /**
+     * Name functions: 'local-name()' and 'namespace-uri()'.
+     * Without an argument they take the context node, otherwise the first
+     * node of the argument. Without nodes the result is empty.
+     *
+     * @since 0.2
+     */
+    private static final class NameFunction implements XpathFunction {
+
+        /**
+         * Function name.
+         */
+        private final String name;
+
+        /**
+         * Argument.
+         */
+        private final XpathNode arg;
+
+        /**
+         * Constructor.
+         *
+         * @param name Function name.
+         * @param arg Argument.
+         */
+        private NameFunction(final String name, final XpathNode arg) {
+            this.name = name;
+            this.arg = arg;
+        }
+
+        @Override
+        public Object execute(final Xml xml) {
+            final Function<Xml, String> part;
+            if ("local-name".equals(this.name)) {
+                part = Xml::local;
+            } else {
+                part = Xml::namespace;
+            }
+            return this.arg.nodes(Stream.of(xml)).findFirst().map(part).orElse("");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(%s)", this.name, this.arg);
+        }
+    }
+
     /**
      * Starts-with function implementation.
      *
@@ -546,6 +1228,26 @@ final class Xpath {
          * @return XML nodes that match the XPath.
          */
         Stream<Xml> nodes(Stream<Xml> xml);
+
+        /**
+         * Count nodes that match the XPath.
+         *
+         * @param xml The XML document.
+         * @return Number of nodes.
+         */
+        default long count(final Stream<Xml> xml) {
+            return this.nodes(xml).count();
+        }
+
+        /**
+         * Compile the step for the token index.
+         *
+         * @param next Compiled steps that follow this one.
+         * @return Compiled steps, or empty if the step can't be compiled.
+         */
+        default Optional<TokenChain> chain(final TokenChain next) {
+            return Optional.empty();
+        }
     }
 
     /**
@@ -581,6 +1283,152 @@ final class Xpath {
         public Stream<Xml> nodes(final Stream<Xml> xml) {
             return this.next.nodes(this.first.nodes(xml));
         }
+
+        @Override
+        public long count(final Stream<Xml> xml) {
+            return this.next.count(this.first.nodes(xml));
+        }
+
+        @Override
+        public Optional<TokenChain> chain(final TokenChain then) {
+            return this.next.chain(then).flatMap(this.first::chain);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s/%s", this.first, this.next);
+        }
+
+        /**
+         * Sequence of two steps.
+         *
+         * @param first First step.
+         * @param next Next step.
+         * @return Sequence or the next step if the first one does nothing.
+         */
+        private static XpathNode of(final XpathNode first, final XpathNode next) {
+            final XpathNode result;
+            if (first == Xpath.IDENTITY) {
+                result = next;
+            } else {
+                result = new Sequence(first, next);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Union of paths.
+     * Results of all branches are merged by the document order and
+     * every node is returned only once.
+     *
+     * @since 0.2
+     */
+    private static final class Union implements XpathNode {
+
+        /**
+         * Branches.
+         */
+        private final List<XpathNode> branches;
+
+        /**
+         * Constructor.
+         *
+         * @param branches Branches.
+         */
+        private Union(final List<XpathNode> branches) {
+            this.branches = branches;
+        }
+
+        @Override
+        public Stream<Xml> nodes(final Stream<Xml> xml) {
+            final List<Xml> context = xml.collect(Collectors.toList());
+            final List<Iterator<Xml>> found = this.branches.stream()
+                .map(branch -> branch.nodes(context.stream()).iterator())
+                .collect(Collectors.toList());
+            return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                    new Merged(found), Spliterator.ORDERED | Spliterator.NONNULL
+                ),
+                false
+            ).filter(Xpath.unique());
+        }
+
+        @Override
+        public String toString() {
+            return this.branches.stream()
+                .map(Object::toString)
+                .collect(Collectors.joining(" | "));
+        }
+    }
+
+    /**
+     * Merge of several streams ordered by the document order.
+     * Among equal heads the earlier stream wins, so nodes that can't be
+     * ordered are returned stream by stream.
+     *
+     * @since 0.2
+     */
+    private static final class Merged implements Iterator<Xml> {
+
+        /**
+         * Streams to merge.
+         */
+        private final List<Iterator<Xml>> sources;
+
+        /**
+         * Current heads of the streams, null if a stream is over.
+         */
+        private final Xml[] heads;
+
+        /**
+         * Constructor.
+         *
+         * @param sources Streams to merge.
+         */
+        private Merged(final List<Iterator<Xml>> sources) {
+            this.sources = sources;
+            this.heads = new Xml[sources.size()];
+            for (int idx = 0; idx < this.heads.length; ++idx) {
+                this.advance(idx);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return Arrays.stream(this.heads).anyMatch(Objects::nonNull);
+        }
+
+        @Override
+        public Xml next() {
+            int min = -1;
+            for (int idx = 0; idx < this.heads.length; ++idx) {
+                if (this.heads[idx] != null
+                    && (min == -1 || Xpath.order(this.heads[idx], this.heads[min]) < 0)) {
+                    min = idx;
+                }
+            }
+            if (min == -1) {
+                throw new NoSuchElementException("There are no more nodes in the union");
+            }
+            final Xml result = this.heads[min];
+            this.advance(min);
+            return result;
+        }
+
+        /**
+         * Move to the next node of a stream.
+         *
+         * @param idx Stream index.
+         */
+        private void advance(final int idx) {
+            final Iterator<Xml> source = this.sources.get(idx);
+            if (source.hasNext()) {
+                this.heads[idx] = source.next();
+            } else {
+                this.heads[idx] = null;
+            }
+        }
     }
 
     /**
@@ -606,36 +1454,208 @@ final class Xpath {
 
         @Override
         public Stream<Xml> nodes(final Stream<Xml> xml) {
-            //@checkstyle MethodBodyCommentsCheck (30 lines)
-            // @todo #39:90min Travers Recursive Path in a More Efficient Way.
-            //  Currently we get all the possible nodes that match the path and then
-            //  we sort them by the order they appear in the document. This is not
-            //  efficient and we should find a better way to traverse the document.
-            final AtomicInteger integer = new AtomicInteger(0);
-            final Map<Xml, Integer> ordered = xml.flatMap(this::recursive).collect(
-                Collectors.toMap(x -> x, x -> integer.incrementAndGet(), (a, ignore) -> a)
-            );
-            return ordered.keySet().stream()
-                .flatMap(x -> this.subpath.nodes(Stream.of(x)))
-                .sorted(Comparator.comparingInt(ordered::get));
+            return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                    new Recursion(
+                        StreamSupport.stream(new Walk(xml.iterator()), false)
+                            .filter(Xpath.unique())
+                            .iterator(),
+                        this.subpath
+                    ),
+                    Spliterator.ORDERED | Spliterator.NONNULL
+                ),
+                false
+            ).filter(Xpath.unique());
+        }
+
+        @Override
+        public long count(final Stream<Xml> xml) {
+            final List<Xml> context = xml.collect(Collectors.toList());
+            final long result;
+            if (context.size() == 1 && context.get(0) instanceof CountedXml
+                && this.subpath instanceof Step && ((Step) this.subpath).plain) {
+                result = ((CountedXml) context.get(0)).descendants(
+                    ((Step) this.subpath).name
+                );
+            } else {
+                result = this.nodes(context.stream()).count();
+            }
+            return result;
         }
 
         @Override
         public String toString() {
             return String.format("rec://%s", this.subpath);
         }
+    }
+
+    /**
+     * Lazy pre-order walk over subtrees.
+     * Nodes are visited one at a time with an explicit stack of child
+     * iterators, so a consumer that stops early, like 'exists()', never
+     * walks further than the node it stopped at, and deep documents don't
+     * overflow the call stack.
+     *
+     * @since 0.2
+     */
+    private static final class Walk extends Spliterators.AbstractSpliterator<Xml> {
+
+        /**
+         * Iterators over the nodes to visit, the innermost on top.
+         */
+        private final Deque<Iterator<Xml>> stack;
 
         /**
-         * Recursive stream of Xml nodes.
+         * Constructor.
          *
-         * @param current Xml node.
-         * @return Flat stream of Xml nodes.
+         * @param roots Roots of the subtrees in the document order.
          */
-        private Stream<Xml> recursive(final Xml current) {
-            return Stream.concat(
-                Stream.of(current),
-                current.children().flatMap(this::recursive)
-            );
+        private Walk(final Iterator<Xml> roots) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.stack = new ArrayDeque<>(0);
+            this.stack.push(roots);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Xml> action) {
+            while (!this.stack.isEmpty() && !this.stack.peek().hasNext()) {
+                this.stack.pop();
+            }
+            final boolean result = !this.stack.isEmpty();
+            if (result) {
+                final Xml next = this.stack.peek().next();
+                this.stack.push(next.children().iterator());
+                action.accept(next);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Lazy evaluation of a subpath on every node of a walk.
+     * The walk goes in the document order. Found nodes wait in a queue
+     * ordered by the document order until the walk passes them, so they
+     * are returned in the document order too, while the walk goes only as
+     * far as the consumer asks for.
+     *
+     * @since 0.2
+     */
+    private static final class Recursion implements Iterator<Xml> {
+
+        /**
+         * Walk over context nodes.
+         */
+        private final Iterator<Xml> walk;
+
+        /**
+         * Subpath to evaluate on every context node.
+         */
+        private final XpathNode subpath;
+
+        /**
+         * Found nodes that aren't returned yet.
+         */
+        private final Queue<Found> pending;
+
+        /**
+         * Next context node, null if it isn't taken from the walk yet.
+         */
+        private Xml ahead;
+
+        /**
+         * Number of found nodes.
+         */
+        private long found;
+
+        /**
+         * Constructor.
+         *
+         * @param walk Walk over context nodes in the document order.
+         * @param subpath Subpath to evaluate on every context node.
+         */
+        private Recursion(final Iterator<Xml> walk, final XpathNode subpath) {
+            this.walk = walk;
+            this.subpath = subpath;
+            this.pending = new PriorityQueue<>(Found::compareTo);
+        }
+
+        @Override
+        public boolean hasNext() {
+            this.fill();
+            return !this.pending.isEmpty();
+        }
+
+        @Override
+        public Xml next() {
+            this.fill();
+            final Found next = this.pending.poll();
+            if (next == null) {
+                throw new NoSuchElementException("There are no more nodes in the recursive path");
+            }
+            return next.xml;
+        }
+
+        /**
+         * Walk until the first pending node goes before the next context node.
+         * Nodes that can't be ordered are returned only after the whole walk.
+         */
+        private void fill() {
+            while (this.ahead != null || this.walk.hasNext()) {
+                if (this.ahead == null) {
+                    this.ahead = this.walk.next();
+                }
+                if (!this.pending.isEmpty()
+                    && Xpath.order(this.pending.peek().xml, this.ahead) < 0) {
+                    break;
+                }
+                final Xml context = this.ahead;
+                this.ahead = null;
+                this.subpath.nodes(Stream.of(context)).forEach(
+                    xml -> {
+                        this.pending.add(new Found(xml, this.found));
+                        ++this.found;
+                    }
+                );
+            }
+        }
+
+        /**
+         * Found node.
+         * Nodes that can't be ordered keep the order they were found in.
+         *
+         * @since 0.2
+         */
+        private static final class Found implements Comparable<Found> {
+
+            /**
+             * Node.
+             */
+            private final Xml xml;
+
+            /**
+             * Sequence number.
+             */
+            private final long number;
+
+            /**
+             * Constructor.
+             *
+             * @param xml Node.
+             * @param number Sequence number.
+             */
+            private Found(final Xml xml, final long number) {
+                this.xml = xml;
+                this.number = number;
+            }
+
+            @Override
+            public int compareTo(final Found other) {
+                int result = Xpath.order(this.xml, other.xml);
+                if (result == 0) {
+                    result = Long.compare(this.number, other.number);
+                }
+                return result;
+            }
         }
     }
 
@@ -647,110 +1667,601 @@ final class Xpath {
     private static final class Predicated implements XpathNode {
 
         /**
-         * Original node.
+         * Original node.
+         */
+        private final XpathNode original;
+
+        /**
+         * Predicate to apply.
+         */
+        private final XpathFunction predicate;
+
+        /**
+         * Constructor.
+         *
+         * @param original Xpath node
+         * @param predicate Predicate to apply
+         */
+        private Predicated(final XpathNode original, final XpathFunction predicate) {
+            this.original = original;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public Stream<Xml> nodes(final Stream<Xml> xml) {
+            final AtomicInteger position = new AtomicInteger(0);
+            return this.original.nodes(xml).filter(
+                x -> Xpath.matches(this.predicate.execute(x), position.incrementAndGet())
+            );
+        }
+
+        @Override
+        public Optional<TokenChain> chain(final TokenChain next) {
+            return this.predicate.condition().flatMap(
+                condition -> this.original.chain(
+                    (doc, token, sink) -> !condition.test(doc, token)
+                        || next.visit(doc, token, sink)
+                )
+            );
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%s]", this.original, this.predicate);
+        }
+    }
+
+    /**
+     * Node evaluated for each context node separately.
+     * Positional predicates of a step count the nodes of one context node,
+     * not of all of them.
+     *
+     * @since 0.2
+     */
+    private static final class Scoped implements XpathNode {
+
+        /**
+         * Original node.
+         */
+        private final XpathNode original;
+
+        /**
+         * Constructor.
+         *
+         * @param original Original node.
+         */
+        private Scoped(final XpathNode original) {
+            this.original = original;
+        }
+
+        @Override
+        public Stream<Xml> nodes(final Stream<Xml> xml) {
+            return xml.flatMap(context -> this.original.nodes(Stream.of(context)));
+        }
+
+        @Override
+        public Optional<TokenChain> chain(final TokenChain next) {
+            return this.original.chain(next);
+        }
+
+        @Override
+        public String toString() {
+            return this.original.toString();
+        }
+    }
+
+    /**
+     * Node test.
+     * Wildcards and node types check the node kind, without names.
+     * A wildcard with an unbound prefix, like 'p:*', matches the names
+     * written with this prefix.
+     *
+     * @param label Node test as written in the XPath.
+     * @param principal Kind of nodes that '*' matches on the axis.
+     * @return Filter.
+     */
+    private static Filter test(final String label, final Kind principal) {
+        final Filter result;
+        if ("*".equals(label)) {
+            result = Xpath.kinds(EnumSet.of(principal));
+        } else if ("node()".equals(label)) {
+            result = Filter.all();
+        } else if ("text()".equals(label)) {
+            result = Xpath.kinds(EnumSet.of(Kind.TEXT, Kind.CDATA));
+        } else if ("comment()".equals(label)) {
+            result = Xpath.kinds(EnumSet.of(Kind.COMMENT));
+        } else if ("processing-instruction()".equals(label)) {
+            result = Xpath.kinds(EnumSet.of(Kind.INSTRUCTION));
+        } else if (label.endsWith("()")) {
+            throw new IllegalStateException(String.format("Unknown node test '%s'", label));
+        } else if (label.endsWith(":*")) {
+            final String prefix = label.substring(0, label.length() - 1);
+            result = Filter.all(
+                Xpath.kinds(EnumSet.of(principal)), xml -> xml.name().startsWith(prefix)
+            );
+        } else {
+            result = Filter.withName(label);
+        }
+        return result;
+    }
+
+    /**
+     * Filter by node kinds.
+     *
+     * @param kinds Kinds to accept.
+     * @return Filter.
+     */
+    private static Filter kinds(final Set<Kind> kinds) {
+        return xml -> kinds.contains(Kind.of(xml));
+    }
+
+    /**
+     * Compare nodes by the document order.
+     * Ordered nodes are compared by their positions, DOM nodes by their
+     * places in the document. Other nodes are considered equal.
+     *
+     * @param first First node.
+     * @param second Second node.
+     * @return Negative if the first node goes earlier.
+     */
+    private static int order(final Xml first, final Xml second) {
+        final int result;
+        if (first instanceof OrderedXml && second instanceof OrderedXml) {
+            result = Integer.compare(
+                ((OrderedXml) first).position(), ((OrderedXml) second).position()
+            );
+        } else if (first instanceof DomXml && second instanceof DomXml) {
+            result = ((DomXml) first).order((DomXml) second);
+        } else {
+            result = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Filter that passes every node only once.
+     * Ordered nodes are remembered by their positions in a bit set.
+     *
+     * @return Stateful filter.
+     */
+    private static Predicate<Xml> unique() {
+        final BitSet positions = new BitSet();
+        final Set<Object> others = new HashSet<>(0);
+        return xml -> {
+            final boolean result;
+            if (xml instanceof OrderedXml) {
+                final int position = ((OrderedXml) xml).position();
+                result = !positions.get(position);
+                positions.set(position);
+            } else {
+                result = others.add(Xpath.identity(xml));
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Node test for one evaluation.
+     * Namespace tests remember resolved prefixes until the evaluation ends.
+     *
+     * @param test Node test.
+     * @return Filter.
+     */
+    private static Filter scoped(final Filter test) {
+        final Filter result;
+        if (test instanceof NameTest) {
+            result = ((NameTest) test).scoped();
+        } else {
+            result = test;
+        }
+        return result;
+    }
+
+    /**
+     * Identity key of the node.
+     * Ordered nodes are identified by their position and DOM nodes by
+     * the node itself, since their equality is structural and equal
+     * subtrees must not be merged.
+     *
+     * @param xml Xml node.
+     * @return Key.
+     */
+    static Object identity(final Xml xml) {
+        final Object result;
+        if (xml instanceof OrderedXml) {
+            result = ((OrderedXml) xml).position();
+        } else if (xml instanceof DomXml) {
+            result = ((DomXml) xml).identity();
+        } else {
+            result = xml;
+        }
+        return result;
+    }
+
+    /**
+     * Convert an object to boolean.
+     * @param obj Object to convert.
+     * @return Boolean value.
+     */
+    private static boolean toBoolean(final Object obj) {
+        final boolean result;
+        if (obj instanceof String) {
+            result = !((String) obj).isEmpty();
+        } else if (obj instanceof Xml) {
+            result = !(obj instanceof Empty);
+        } else if (obj instanceof Boolean) {
+            result = (Boolean) obj;
+        } else if (obj instanceof Integer) {
+            result = (Integer) obj != 0;
+        } else {
+            throw new IllegalStateException(
+                String.format("Cannot convert %s to boolean", obj)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Check the value of a predicate.
+     * A number is a position test, like '[position() = n]', anything else
+     * is converted to boolean.
+     * @param obj Value of the predicate.
+     * @param position Position of the node, starting from 1.
+     * @return True if the node passes the predicate.
+     */
+    private static boolean matches(final Object obj, final int position) {
+        final boolean result;
+        if (obj instanceof Integer) {
+            result = (Integer) obj == position;
+        } else {
+            result = Xpath.toBoolean(obj);
+        }
+        return result;
+    }
+
+    /**
+     * Convert an object to a string.
+     * @param obj Object to convert.
+     * @return String value.
+     */
+    private static String toString(final Object obj) {
+        final String result;
+        if (obj instanceof String) {
+            result = (String) obj;
+        } else if (obj instanceof Xml) {
+            result = ((Xml) obj).text().orElse("");
+        } else {
+            throw new IllegalStateException(
+                String.format("Cannot convert %s to string", obj)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Step node.
+     * This is a step in the XPath.
+     *
+     * @since 0.1
+     */
+    private static final class Step implements XpathNode {
+
+        /**
+         * Node test as written in the XPath.
+         */
+        private final String name;
+
+        /**
+         * Node test.
+         */
+        private final Filter test;
+
+        /**
+         * Whether the node test is just an element name.
+         */
+        private final boolean plain;
+
+        /**
+         * Constructor.
+         * The step selects child elements with the name, like the compiled
+         * one, but not other nodes with the same name.
+         *
+         * @param name Step name.
+         */
+        private Step(final String name) {
+            this(name, xml -> Kind.of(xml) == Kind.ELEMENT && xml.name().equals(name), true);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param name Node test as written in the XPath.
+         * @param test Node test.
+         */
+        private Step(final String name, final Filter test) {
+            this(name, test, false);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param name Node test as written in the XPath.
+         * @param test Node test.
+         * @param plain Whether the node test is just an element name.
+         */
+        private Step(final String name, final Filter test, final boolean plain) {
+            this.name = name;
+            this.test = test;
+            this.plain = plain;
+        }
+
+        @Override
+        public Stream<Xml> nodes(final Stream<Xml> xml) {
+            return xml
+                .flatMap(Xml::children)
+                .filter(Xpath.scoped(this.test));
+        }
+
+        @Override
+        public Optional<TokenChain> chain(final TokenChain next) {
+            final Optional<TokenChain> result;
+            final String label = this.name;
+            if (this.plain) {
+                result = Optional.of(
+                    (doc, token, sink) -> {
+                        boolean more = true;
+                        for (int child = doc.first(token); more && child != -1;
+                            child = doc.next(child)) {
+                            if (doc.kind(child) == Kind.ELEMENT && doc.named(child, label)) {
+                                more = next.visit(doc, child, sink);
+                            }
+                        }
+                        return more;
+                    }
+                );
+            } else if (this.test instanceof TokenChain.Condition) {
+                final TokenChain.Condition named = (TokenChain.Condition) this.test;
+                result = Optional.of(
+                    (doc, token, sink) -> {
+                        boolean more = true;
+                        for (int child = doc.first(token); more && child != -1;
+                            child = doc.next(child)) {
+                            if (doc.kind(child) == Kind.ELEMENT && named.test(doc, child)) {
+                                more = next.visit(doc, child, sink);
+                            }
+                        }
+                        return more;
+                    }
+                );
+            } else if ("*".equals(label)) {
+                result = Optional.of(
+                    (doc, token, sink) -> {
+                        boolean more = true;
+                        for (int child = doc.first(token); more && child != -1;
+                            child = doc.next(child)) {
+                            if (doc.kind(child) == Kind.ELEMENT) {
+                                more = next.visit(doc, child, sink);
+                            }
+                        }
+                        return more;
+                    }
+                );
+            } else {
+                result = Optional.empty();
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("step:%s", this.name);
+        }
+    }
+
+    /**
+     * Step along an axis.
+     * Nodes of reverse axes are filtered in the axis order and returned
+     * in the document order.
+     * Nodes found from several context nodes are returned only once.
+     *
+     * @since 0.2
+     */
+    private static final class AxisStep implements XpathNode {
+
+        /**
+         * Axis.
+         */
+        private final Axis axis;
+
+        /**
+         * Node test as written in the XPath.
+         */
+        private final String label;
+
+        /**
+         * Node test.
+         */
+        private final Filter test;
+
+        /**
+         * Predicates applied to the nodes of each context node.
+         */
+        private final XpathNode predicates;
+
+        /**
+         * Constructor.
+         *
+         * @param axis Axis.
+         * @param label Node test as written in the XPath.
+         * @param test Node test.
+         * @param predicates Predicates.
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private AxisStep(final Axis axis, final String label, final Filter test,
+            final XpathNode predicates) {
+            this.axis = axis;
+            this.label = label;
+            this.test = test;
+            this.predicates = predicates;
+        }
+
+        @Override
+        public Stream<Xml> nodes(final Stream<Xml> xml) {
+            final Filter filter = Xpath.scoped(this.test);
+            return xml.flatMap(context -> this.select(context, filter)).filter(Xpath.unique());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s::%s", this.axis.label, this.label);
+        }
+
+        /**
+         * Select nodes of one context node.
+         *
+         * @param context Context node.
+         * @param filter Node test for this evaluation.
+         * @return Selected nodes in the document order.
+         */
+        private Stream<Xml> select(final Xml context, final Filter filter) {
+            final Stream<Xml> found = this.predicates.nodes(
+                this.axis.walk.apply(context).filter(filter)
+            );
+            final Stream<Xml> result;
+            if (this.axis.reverse) {
+                final List<Xml> all = found.collect(Collectors.toList());
+                Collections.reverse(all);
+                result = all.stream();
+            } else {
+                result = found;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * XPath axes.
+     * Each axis walks from the context node using only parent, sibling
+     * and children pointers of the node, so every move is cheap.
+     *
+     * @since 0.2
+     */
+    private enum Axis {
+
+        /**
+         * Children.
+         */
+        CHILD("child", false, Xml::children),
+
+        /**
+         * Attributes.
+         */
+        ATTRIBUTE("attribute", false, Xml::attributes),
+
+        /**
+         * Parent.
+         */
+        PARENT("parent", true, xml -> Axis.chain(xml.parent(), x -> new Empty())),
+
+        /**
+         * All ancestors, the nearest first.
+         */
+        ANCESTOR("ancestor", true, xml -> Axis.chain(xml.parent(), Xml::parent)),
+
+        /**
+         * The node itself and all its ancestors.
+         */
+        ANCESTORORSELF("ancestor-or-self", true, xml -> Axis.chain(xml, Xml::parent)),
+
+        /**
+         * All following siblings.
+         */
+        FOLLOWINGSIBLING("following-sibling", false, xml -> Axis.chain(xml.next(), Xml::next)),
+
+        /**
+         * All preceding siblings, the nearest first.
+         */
+        PRECEDINGSIBLING(
+            "preceding-sibling", true, xml -> Axis.chain(xml.previous(), Xml::previous)
+        ),
+
+        /**
+         * The node itself.
          */
-        private final XpathNode original;
+        SELF("self", false, Stream::of),
 
         /**
-         * Predicate to apply.
+         * All descendants.
          */
-        private final XpathFunction predicate;
+        DESCENDANT("descendant", false, xml -> Axis.subtree(xml).skip(1)),
 
         /**
-         * Constructor.
-         *
-         * @param original Xpath node
-         * @param predicate Predicate to apply
+         * The node itself and all its descendants.
          */
-        private Predicated(final XpathNode original, final XpathFunction predicate) {
-            this.original = original;
-            this.predicate = predicate;
-        }
-
-        @Override
-        public Stream<Xml> nodes(final Stream<Xml> xml) {
-            return this.original.nodes(xml).filter(x -> Xpath.toBoolean(this.predicate.execute(x)));
-        }
-
-        @Override
-        public String toString() {
-            return String.format("%s[%s]", this.original, this.predicate);
-        }
-    }
-
-    /**
-     * Convert an object to boolean.
-     * @param obj Object to convert.
-     * @return Boolean value.
-     */
-    private static boolean toBoolean(final Object obj) {
-        final boolean result;
-        if (obj instanceof String) {
-            result = !((String) obj).isEmpty();
-        } else if (obj instanceof Xml) {
-            result = !(obj instanceof Empty);
-        } else if (obj instanceof Boolean) {
-            result = (Boolean) obj;
-        } else {
-            throw new IllegalStateException(
-                String.format("Cannot convert %s to boolean", obj)
-            );
-        }
-        return result;
-    }
+        DESCENDANTORSELF("descendant-or-self", false, Axis::subtree);
 
-    /**
-     * Convert an object to a string.
-     * @param obj Object to convert.
-     * @return String value.
-     */
-    private static String toString(final Object obj) {
-        final String result;
-        if (obj instanceof String) {
-            result = (String) obj;
-        } else if (obj instanceof Xml) {
-            result = ((Xml) obj).text().orElse("");
-        } else {
-            throw new IllegalStateException(
-                String.format("Cannot convert %s to string", obj)
-            );
-        }
-        return result;
-    }
+        /**
+         * Axis name.
+         */
+        private final String label;
 
-    /**
-     * Step node.
-     * This is a step in the XPath.
-     *
-     * @since 0.1
-     */
-    @EqualsAndHashCode
-    private static final class Step implements XpathNode {
+        /**
+         * Whether the axis goes backwards in the document.
+         */
+        private final boolean reverse;
 
         /**
-         * Step name.
+         * Walk from the context node.
          */
-        private final String name;
+        private final Function<Xml, Stream<Xml>> walk;
 
         /**
          * Constructor.
          *
-         * @param name Step name.
+         * @param label Axis name.
+         * @param reverse Whether the axis goes backwards in the document.
+         * @param walk Walk from the context node.
          */
-        private Step(final String name) {
-            this.name = name;
+        Axis(final String label, final boolean reverse, final Function<Xml, Stream<Xml>> walk) {
+            this.label = label;
+            this.reverse = reverse;
+            this.walk = walk;
         }
 
-        @Override
-        public Stream<Xml> nodes(final Stream<Xml> xml) {
-            return xml
-                .flatMap(Xml::children)
-                .filter(Filter.withName(this.name));
+        /**
+         * Find the axis by its name.
+         *
+         * @param name Axis name.
+         * @return Axis.
+         */
+        static Axis of(final String name) {
+            return Arrays.stream(Axis.values())
+                .filter(axis -> axis.label.equals(name))
+                .findFirst()
+                .orElseThrow(
+                    () -> new IllegalStateException(String.format("Unknown axis '%s'", name))
+                );
         }
 
-        @Override
-        public String toString() {
-            return String.format("step:%s", this.name);
+        /**
+         * Chain of nodes linked by pointers.
+         *
+         * @param start First node.
+         * @param move Move to the next node.
+         * @return Nodes until the empty one.
+         */
+        private static Stream<Xml> chain(final Xml start, final UnaryOperator<Xml> move) {
+            return Stream.iterate(start, x -> !(x instanceof Empty), move);
+        }
+
+        /**
+         * The node with all its descendants in the document order.
+         *
+         * @param xml Node.
+         * @return Subtree nodes.
+         */
+        private static Stream<Xml> subtree(final Xml xml) {
+            return StreamSupport.stream(new Walk(List.of(xml).iterator()), false);
         }
     }
 
@@ -785,7 +2296,7 @@ final class Xpath {
 
         @Override
         public Stream<Xml> nodes(final Stream<Xml> xml) {
-            return this.original.nodes(xml).skip(this.index - 1).findFirst().stream();
+            return this.original.nodes(xml).skip(this.index - 1L).limit(1L);
         }
 
         @Override
@@ -799,7 +2310,6 @@ final class Xpath {
      *
      * @since 0.1
      */
-    @ToString
     @EqualsAndHashCode
     private static final class Attribute implements XpathNode {
 
@@ -823,6 +2333,22 @@ final class Xpath {
                 .filter(Optional::isPresent)
                 .map(Optional::get);
         }
+
+        @Override
+        public Optional<TokenChain> chain(final TokenChain next) {
+            final String label = this.name;
+            return Optional.of(
+                (doc, token, sink) -> {
+                    final int attr = doc.attribute(token, label);
+                    return attr == -1 || next.visit(doc, attr, sink);
+                }
+            );
+        }
+
+        @Override
+        public String toString() {
+            return String.format("@%s", this.name);
+        }
     }
 
     /**
@@ -851,6 +2377,12 @@ final class Xpath {
             return xml.attribute(this.name).orElse(new Empty());
         }
 
+        @Override
+        public Optional<TokenChain.Condition> condition() {
+            final String label = this.name;
+            return Optional.of((doc, token) -> doc.attribute(token, label) != -1);
+        }
+
         @Override
         public String toString() {
             return String.format("@%s", this.name);
@@ -858,103 +2390,47 @@ final class Xpath {
     }
 
     /**
-     * The traced step.
-     * This class is used for debugging purposes.
-     * It prints the steps that are being processed with initial and final results.
+     * The profiled step.
+     * It measures how many nodes go into the step and out of it, and how
+     * much time and memory the step itself takes. Time and memory spent by
+     * previous steps and by consumers of the step are excluded, work of
+     * predicates is included.
      *
-     * @since 0.1
+     * @since 0.2
      */
-    private static final class Traced implements XpathNode {
+    private static final class Profiled implements XpathNode {
 
         /**
-         * Tabs.
-         * Number of tabs to pretty print indentation.
-         */
-        private static final AtomicInteger TABS = new AtomicInteger(0);
-
-        /**
-         * Stack.
-         * Stack of the nodes is being processed.
+         * Original node.
          */
-        private static final Deque<String> STACK = new ArrayDeque<>(0);
+        private final XpathNode origin;
 
         /**
-         * Original node.
+         * Probe to collect measurements.
          */
-        private final XpathNode origin;
+        private final Probe probe;
 
         /**
          * Constructor.
          *
          * @param origin Original node.
+         * @param probe Probe to collect measurements.
          */
-        private Traced(final XpathNode origin) {
+        private Profiled(final XpathNode origin, final Probe probe) {
             this.origin = origin;
+            this.probe = probe;
         }
 
         @Override
         public Stream<Xml> nodes(final Stream<Xml> xml) {
-            Traced.print("{ '%s'", this.origin.toString());
-            final List<Xml> collect = xml.collect(Collectors.toList());
-            collect.stream().map(Objects::toString).map(Traced::clean).forEach(Traced::print);
-            this.inc();
-            final List<Xml> after = this.origin.nodes(collect.stream())
-                .collect(Collectors.toList());
-            Traced.dec();
-            if (!after.isEmpty()) {
-                Traced.print("______");
-            }
-            after.stream().map(Objects::toString).map(Traced::clean).forEach(Traced::print);
-            Traced.print("'%s' }", this.origin.toString());
-            return after.stream();
+            final Probe.Meter meter = this.probe.meter();
+            return meter.output(this.origin.nodes(meter.input(xml)));
         }
 
         @Override
         public String toString() {
             return this.origin.toString();
         }
-
-        /**
-         * Increment the tabs.
-         * This is used for pretty print.
-         */
-        private void inc() {
-            Traced.TABS.incrementAndGet();
-            Traced.STACK.push(this.origin.toString());
-        }
-
-        /**
-         * Decrement the tabs.
-         * This is used for pretty print.
-         */
-        private static void dec() {
-            Traced.TABS.decrementAndGet();
-            Traced.STACK.pop();
-        }
-
-        /**
-         * Print the message.
-         *
-         * @param str String to clean.
-         * @return Cleaned string.
-         */
-        private static String clean(final String str) {
-            return str.replaceAll("\n", "")
-                .replaceAll("\r", "")
-                .trim();
-        }
-
-        /**
-         * Print the message.
-         *
-         * @param message Message to print.
-         * @param args Arguments.
-         */
-        private static void print(final String message, final Object... args) {
-            Logger.getLogger(Traced.class.getSimpleName()).info(
-                String.format("%s%s", " ".repeat(Traced.TABS.get()), String.format(message, args))
-            );
-        }
     }
 
     /**
@@ -973,6 +2449,14 @@ final class Xpath {
          */
         Object execute(Xml xml);
 
+        /**
+         * Compile the function as a predicate for the token index.
+         *
+         * @return Predicate, or empty if the function can't be compiled.
+         */
+        default Optional<TokenChain.Condition> condition() {
+            return Optional.empty();
+        }
     }
 
     /**
@@ -1067,6 +2551,112 @@ final class Xpath {
         }
     }
 
+    /**
+     * Count function.
+     * Nodes are counted without collecting them.
+     *
+     * @since 0.2
+     */
+    private static final class Count implements XpathFunction {
+
+        /**
+         * Path to count.
+         */
+        private final XpathNode subpath;
+
+        /**
+         * Constructor.
+         *
+         * @param subpath Path to count.
+         */
+        private Count(final XpathNode subpath) {
+            this.subpath = subpath;
+        }
+
+        @Override
+        public Object execute(final Xml xml) {
+            return Math.toIntExact(this.subpath.count(Stream.of(xml)));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count(%s)", this.subpath);
+        }
+    }
+
+    /**
+     * Top-level count function.
+     * Its value is a number, so it can only be counted, and the count is
+     * the number of nodes of the path.
+     *
+     * @since 0.2
+     */
+    private static final class Total implements XpathNode {
+
+        /**
+         * Path to count.
+         */
+        private final XpathNode subpath;
+
+        /**
+         * Constructor.
+         *
+         * @param subpath Path to count.
+         */
+        private Total(final XpathNode subpath) {
+            this.subpath = subpath;
+        }
+
+        @Override
+        public Stream<Xml> nodes(final Stream<Xml> xml) {
+            throw new IllegalStateException(
+                String.format("'%s' gives a number, not nodes, count it instead", this)
+            );
+        }
+
+        @Override
+        public long count(final Stream<Xml> xml) {
+            return this.subpath.count(xml);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count(%s)", this.subpath);
+        }
+    }
+
+    /**
+     * Boolean function.
+     *
+     * @since 0.2
+     */
+    private static final class Bool implements XpathFunction {
+
+        /**
+         * Original function.
+         */
+        private final XpathFunction original;
+
+        /**
+         * Constructor.
+         *
+         * @param original Original function.
+         */
+        private Bool(final XpathFunction original) {
+            this.original = original;
+        }
+
+        @Override
+        public Object execute(final Xml xml) {
+            return Xpath.toBoolean(this.original.execute(xml));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("boolean(%s)", this.original);
+        }
+    }
+
     /**
      * String length function.
      *
@@ -1130,9 +2720,7 @@ final class Xpath {
 
         @Override
         public String execute(final Xml xml) {
-            return xml.text().orElseThrow(
-                () -> new IllegalStateException("Text not found")
-            );
+            return xml.text().orElse("");
         }
     }
 
@@ -1303,6 +2891,18 @@ final class Xpath {
                 .map(v -> v.equals(this.value))
                 .orElse(false);
         }
+
+        @Override
+        public Optional<TokenChain.Condition> condition() {
+            final String label = this.attribute;
+            final String expected = this.value;
+            return Optional.of(
+                (doc, token) -> {
+                    final int attr = doc.attribute(token, label);
+                    return attr != -1 && doc.valued(attr, expected);
+                }
+            );
+        }
     }
 
     /**
@@ -1338,6 +2938,21 @@ final class Xpath {
             final boolean first = Xpath.toBoolean(this.left.execute(xml));
             return first && Xpath.toBoolean(this.right.execute(xml));
         }
+
+        @Override
+        public Optional<TokenChain.Condition> condition() {
+            final Optional<TokenChain.Condition> first = this.left.condition();
+            final Optional<TokenChain.Condition> second = this.right.condition();
+            final Optional<TokenChain.Condition> result;
+            if (first.isPresent() && second.isPresent()) {
+                final TokenChain.Condition one = first.get();
+                final TokenChain.Condition two = second.get();
+                result = Optional.of((doc, token) -> one.test(doc, token) && two.test(doc, token));
+            } else {
+                result = Optional.empty();
+            }
+            return result;
+        }
     }
 
     /**
@@ -1372,6 +2987,21 @@ final class Xpath {
         public Object execute(final Xml xml) {
             return toBoolean(this.left.execute(xml)) || toBoolean(this.right.execute(xml));
         }
+
+        @Override
+        public Optional<TokenChain.Condition> condition() {
+            final Optional<TokenChain.Condition> first = this.left.condition();
+            final Optional<TokenChain.Condition> second = this.right.condition();
+            final Optional<TokenChain.Condition> result;
+            if (first.isPresent() && second.isPresent()) {
+                final TokenChain.Condition one = first.get();
+                final TokenChain.Condition two = second.get();
+                result = Optional.of((doc, token) -> one.test(doc, token) || two.test(doc, token));
+            } else {
+                result = Optional.empty();
+            }
+            return result;
+        }
     }
 
     /**
@@ -1518,6 +3148,21 @@ final class Xpath {
          */
         AT("@"),
 
+        /**
+         * Axis separator.
+         */
+        DCOLON("::"),
+
+        /**
+         * Parent node.
+         */
+        DDOT("\\.\\."),
+
+        /**
+         * Current node.
+         */
+        DOT("\\."),
+
         /**
          * Left parenthesis.
          */
@@ -1578,10 +3223,20 @@ final class Xpath {
          */
         COMMA(","),
 
+        /**
+         * Union.
+         */
+        PIPE("\\|"),
+
+        /**
+         * Wildcard.
+         */
+        STAR("\\*"),
+
         /**
          * Name.
          */
-        NAME("[a-zA-Z_][a-zA-Z0-9_-]*");
+        NAME("[a-zA-Z_][a-zA-Z0-9_-]*(?::(?:[a-zA-Z_][a-zA-Z0-9_-]*|\\*))?");
 
         /**
          * Token pattern.
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Benchmark suite.
+ * Runs {@link ParseBenchmark}, {@link NavigationBenchmark} and
+ * {@link QueryBenchmark} with 1, 2, 4 and so on threads up to the number of
+ * processors, with the GC profiler to report allocation rates.
+ * Results of each run are stored as JSON in 'target/jmh', so they can be
+ * compared between builds.
+ * The first argument, if any, overrides the directory.
+ * @since 0.2
+ * @checkstyle HideUtilityClassConstructorCheck (500 lines)
+ */
+@SuppressWarnings({"PMD.UseUtilityClass", "PMD.ProhibitPublicStaticMethods"})
+public class BenchmarkSuite {
+
+    /**
+     * Benchmark starting point.
+     * @param args Arguments.
+     * @throws RunnerException If something goes wrong.
+     * @throws IOException If the results directory can't be created.
+     */
+    public static void main(final String[] args) throws RunnerException, IOException {
+        final Path dir;
+        if (args.length > 0) {
+            dir = Paths.get(args[0]);
+        } else {
+            dir = Paths.get("target", "jmh");
+        }
+        Files.createDirectories(dir);
+        final int max = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= max; threads *= 2) {
+            new Runner(
+                new OptionsBuilder()
+                    .include(ParseBenchmark.class.getSimpleName())
+                    .include(NavigationBenchmark.class.getSimpleName())
+                    .include(QueryBenchmark.class.getSimpleName())
+                    .forks(1)
+                    .threads(threads)
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(2))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.seconds(3))
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(dir.resolve(String.format("xnav-%dt.json", threads)).toString())
+                    .build()
+            ).run();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compiled XPath expressions against the interpreter.
+ * The compilation threshold is set per fork, so one benchmark never
+ * compiles and the other compiles on the first evaluation.
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompiledXpathBenchmark {
+
+    /**
+     * XPath expression.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"/root/item/@id", "/root/item[@n='7']/@id", "/root/*[@n='7' and @id]"})
+    String query;
+
+    /**
+     * Document.
+     */
+    private Xnav xnav;
+
+    /**
+     * Parse the document.
+     */
+    @Setup(Level.Trial)
+    public void init() {
+        this.xnav = new XnavFactory().backend("token").xnav(Shape.WIDE.xml(10_000));
+    }
+
+    /**
+     * Evaluate the expression by the interpreter.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dxnav.xpath.compile=0")
+    public long interpreted() {
+        return this.xnav.path(this.query).count();
+    }
+
+    /**
+     * Evaluate the compiled expression.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dxnav.xpath.compile=1")
+    public long compiled() {
+        return this.xnav.path(this.query).count();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Throughput of querying a corpus of files, in files per second.
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(CorpusBenchmark.FILES)
+public class CorpusBenchmark {
+
+    /**
+     * Number of files in the corpus.
+     */
+    static final int FILES = 500;
+
+    /**
+     * Number of workers.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1", "4"})
+    int threads;
+
+    /**
+     * Size of a file in characters.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"4000", "64000"})
+    long size;
+
+    /**
+     * Directory with the corpus.
+     */
+    private Path dir;
+
+    /**
+     * Corpus.
+     */
+    private XnavCorpus corpus;
+
+    /**
+     * Generate the corpus.
+     * @throws IOException If fails.
+     */
+    @Setup(Level.Trial)
+    public void init() throws IOException {
+        this.dir = Files.createTempDirectory("corpus");
+        for (int idx = 0; idx < CorpusBenchmark.FILES; ++idx) {
+            Files.writeString(
+                this.dir.resolve(String.format("%d.xml", idx)),
+                new Synthetic().seed(idx).size(this.size).xml()
+            );
+        }
+        this.corpus = XnavCorpus.of(this.dir).threads(this.threads);
+    }
+
+    /**
+     * Remove the corpus.
+     * @throws IOException If fails.
+     */
+    @TearDown(Level.Trial)
+    public void clean() throws IOException {
+        try (Stream<Path> all = Files.walk(this.dir)) {
+            all.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Query every file of the corpus.
+     * @return Number of results.
+     */
+    @Benchmark
+    public long query() {
+        try (Stream<XnavCorpus.Result> results = this.corpus.query("/root/*/@a0", "//*/@a1")) {
+            return results.count();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Time to the first answer of a shallow query.
+ * Parsing is measured together with the query, since the lazy backend
+ * defers most of the parsing to the navigation.
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FirstAnswerBenchmark {
+
+    /**
+     * Backend.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"dom", "token", "lazy"})
+    String backend;
+
+    /**
+     * Document shape.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"WIDE", "DEEP"})
+    Shape shape;
+
+    /**
+     * Number of items in the document.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "100000"})
+    int nodes;
+
+    /**
+     * Document.
+     */
+    private String xml;
+
+    /**
+     * Factory with the backend.
+     */
+    private XnavFactory factory;
+
+    /**
+     * Generate the document.
+     */
+    @Setup(Level.Trial)
+    public void init() {
+        this.xml = this.shape.xml(this.nodes);
+        this.factory = new XnavFactory().backend(this.backend);
+    }
+
+    /**
+     * Parse the document and read the attribute of the first item.
+     * @return Attribute value.
+     */
+    @Benchmark
+    public String first() {
+        return this.factory.xnav(this.xml).element("root").element("item")
+            .attribute("id").text().orElseThrow();
+    }
+}
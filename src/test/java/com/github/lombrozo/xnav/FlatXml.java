@@ -106,6 +106,26 @@ final class FlatXml implements Xml {
         return "#document";
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return new Empty();
+    }
+
+    @Override
+    public Xml next() {
+        return new Empty();
+    }
+
+    @Override
+    public Xml previous() {
+        return new Empty();
+    }
+
     @Override
     public Xml copy() {
         return new FlatXml(this.doc);
@@ -79,6 +79,26 @@ public final class FlatXmlChardata implements Xml {
         return "";
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return this.xml.parent(this.identifier);
+    }
+
+    @Override
+    public Xml next() {
+        return this.xml.next(this.identifier);
+    }
+
+    @Override
+    public Xml previous() {
+        return this.xml.previous(this.identifier);
+    }
+
     @Override
     public Xml copy() {
         throw new UnsupportedOperationException("Not implemented");
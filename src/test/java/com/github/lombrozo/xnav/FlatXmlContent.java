@@ -101,6 +101,26 @@ final class FlatXmlContent implements Xml {
         throw new UnsupportedOperationException("Not implemented");
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return this.xml.parent(this.identifier);
+    }
+
+    @Override
+    public Xml next() {
+        return new Empty();
+    }
+
+    @Override
+    public Xml previous() {
+        return new Empty();
+    }
+
     @Override
     public Xml copy() {
         throw new UnsupportedOperationException("Not implemented");
@@ -98,6 +98,21 @@ public final class FlatXmlElement implements Xml {
         return this.xml.content(this.id);
     }
 
+    @Override
+    public Xml parent() {
+        return this.xml.parent(this.id);
+    }
+
+    @Override
+    public Xml next() {
+        return this.xml.next(this.id);
+    }
+
+    @Override
+    public Xml previous() {
+        return this.xml.previous(this.id);
+    }
+
     @Override
     public Xml copy() {
         throw new UnsupportedOperationException("Not implemented yet");
@@ -125,11 +140,8 @@ public final class FlatXmlElement implements Xml {
         );
     }
 
-    /**
-     * Attributes.
-     * @return Stream of attributes.
-     */
-    private Stream<Xml> attributes() {
+    @Override
+    public Stream<Xml> attributes() {
         return this.xml.children(this.id)
             .filter(FlatXmlAttribute.class::isInstance);
     }
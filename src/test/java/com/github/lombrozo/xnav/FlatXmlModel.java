@@ -54,6 +54,16 @@ public final class FlatXmlModel {
      */
     private final Map<Integer, Integer> sibling;
 
+    /**
+     * Previous sibling map.
+     */
+    private final Map<Integer, Integer> preceding;
+
+    /**
+     * Parent map.
+     */
+    private final Map<Integer, Integer> parents;
+
     /**
      * Attached text.
      */
@@ -75,6 +85,8 @@ public final class FlatXmlModel {
     FlatXmlModel() {
         this.first = new HashMap<>(0);
         this.sibling = new HashMap<>(0);
+        this.preceding = new HashMap<>(0);
+        this.parents = new HashMap<>(0);
         this.texts = new ArrayList<>(0);
         this.types = new ArrayList<>(0);
         this.pool = new StringPool();
@@ -131,6 +143,46 @@ public final class FlatXmlModel {
         return res;
     }
 
+    /**
+     * Get the parent of the node.
+     * Content nodes are skipped, so the parent of a child is its element.
+     * @param identifier Node id.
+     * @return Parent or empty node for the document.
+     */
+    public Xml parent(final int identifier) {
+        int parent = this.parents.getOrDefault(identifier, -1);
+        if (parent != -1 && this.types.get(parent) == Type.CONTENT) {
+            parent = this.parents.get(parent);
+        }
+        final Xml result;
+        if (parent == -1) {
+            result = new Empty();
+        } else if (this.types.get(parent) == Type.DOCUMENT) {
+            result = new FlatXml(this);
+        } else {
+            result = this.child(parent);
+        }
+        return result;
+    }
+
+    /**
+     * Get the next sibling of the node.
+     * @param identifier Node id.
+     * @return Next sibling or empty node, attributes have no siblings.
+     */
+    public Xml next(final int identifier) {
+        return this.sibling(identifier, this.sibling);
+    }
+
+    /**
+     * Get the previous sibling of the node.
+     * @param identifier Node id.
+     * @return Previous sibling or empty node, attributes have no siblings.
+     */
+    public Xml previous(final int identifier) {
+        return this.sibling(identifier, this.preceding);
+    }
+
     /**
      * Get text by id.
      * @param identifier Id
@@ -165,10 +217,31 @@ public final class FlatXmlModel {
                     next = this.sibling.get(next);
                 }
                 this.sibling.put(next, current);
+                this.preceding.put(current, next);
             }
+            this.parents.put(current, parent);
         }
     }
 
+    /**
+     * Get a sibling of the node.
+     * @param identifier Node id.
+     * @param links Sibling links to follow.
+     * @return Sibling or empty node.
+     */
+    private Xml sibling(final int identifier, final Map<Integer, Integer> links) {
+        final int other = links.getOrDefault(identifier, -1);
+        final Xml result;
+        if (other == -1 || this.types.get(identifier) == Type.ATTRIBUTE
+            || this.types.get(other) == Type.ATTRIBUTE
+            || this.types.get(other) == Type.CONTENT) {
+            result = new Empty();
+        } else {
+            result = this.child(other);
+        }
+        return result;
+    }
+
     /**
      * Node type.
      * @since 0.1
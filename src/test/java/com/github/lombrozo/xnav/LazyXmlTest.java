@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link LazyXml}.
+ *
+ * @since 0.2
+ */
+final class LazyXmlTest {
+
+    @Test
+    void neverTokenizesUnvisitedElements() {
+        final String xml = "<r a='1'><b><i x=broken/></b><c>ok</c></r>";
+        MatcherAssert.assertThat(
+            "We expect only visited elements to be tokenized",
+            new LazyXml(xml).child("r").child("c").text().orElseThrow(),
+            Matchers.equalTo("ok")
+        );
+    }
+
+    @Test
+    void tokenizesElementOnFirstEntry() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new LazyXml("<r><b><i x=broken/></b></r>").child("r").child("b").child("i")
+                .attributes()
+                .count(),
+            "We expect errors inside an element to be found when it is entered"
+        );
+    }
+
+    @Test
+    void navigatesBetweenLevels() {
+        final Xml root = new LazyXml("<r>a<b><i/></b>c<!--d--><e f='g'/></r>").child("r");
+        final Xml last = root.child("b").next().next().next();
+        MatcherAssert.assertThat(
+            "We expect siblings and parents to cross levels",
+            List.of(
+                root.child("b").next().text().orElseThrow(),
+                last.name(),
+                last.previous().previous().previous().name(),
+                last.attribute("f").orElseThrow().parent().name(),
+                root.child("b").child("i").parent().parent().name(),
+                root.children().map(Xml::name).collect(Collectors.joining(","))
+            ),
+            Matchers.contains("c", "e", "b", "e", "r", "#text,b,#text,#comment,e")
+        );
+    }
+
+    @Test
+    void queriesInDocumentOrder() {
+        MatcherAssert.assertThat(
+            "We expect XPath results to keep the document order",
+            new Xpath(new LazyXml("<r><a i='1'><b i='2'/></a><b i='3'/></r>"), "//b | //a")
+                .nodes()
+                .map(node -> node.attribute("i").flatMap(Xml::text).orElseThrow())
+                .collect(Collectors.toList()),
+            Matchers.contains("1", "2", "3")
+        );
+    }
+
+    @Test
+    void rejectsUnbalancedElements() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new LazyXml("<a><b></a>"),
+            "We expect the pre-scan to check element boundaries"
+        );
+    }
+
+    @Test
+    void reportsOnlyExcerptOfSourceOnFailure() {
+        final String xml = String.format("<a>%s<b></a>", "<c/>".repeat(10_000));
+        MatcherAssert.assertThat(
+            "We expect the pre-scan failure to show a short excerpt of the source",
+            Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new LazyXml(xml)
+            ).getMessage(),
+            Matchers.allOf(
+                Matchers.containsString("<c/><b></a>"),
+                Matchers.hasLength(Matchers.lessThan(200))
+            )
+        );
+    }
+}
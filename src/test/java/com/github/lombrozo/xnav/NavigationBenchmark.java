@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Navigation without XPath.
+ * Documents are parsed once per trial, so only navigation is measured.
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NavigationBenchmark {
+
+    /**
+     * Backend.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"dom", "token"})
+    String backend;
+
+    /**
+     * Number of items in the documents.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "100000"})
+    int nodes;
+
+    /**
+     * Deep document.
+     */
+    private Xnav deep;
+
+    /**
+     * Wide document.
+     */
+    private Xnav wide;
+
+    /**
+     * Parse the documents.
+     */
+    @Setup(Level.Trial)
+    public void init() {
+        final XnavFactory factory = new XnavFactory().backend(this.backend);
+        this.deep = factory.xnav(Shape.DEEP.xml(this.nodes));
+        this.wide = factory.xnav(Shape.WIDE.xml(this.nodes));
+    }
+
+    /**
+     * Go down a chain of elements.
+     * @return Text of the last element.
+     */
+    @Benchmark
+    public String chain() {
+        Xnav current = this.deep.element("root");
+        for (int level = 0; level < Shape.DEPTH; ++level) {
+            current = current.element("item");
+        }
+        return current.text().orElseThrow();
+    }
+
+    /**
+     * Go through all the children of an element.
+     * @return Number of children.
+     */
+    @Benchmark
+    public long siblings() {
+        return this.wide.element("root").elements(Filter.withName("item")).count();
+    }
+
+    /**
+     * Read an attribute of the first child.
+     * @return Attribute value.
+     */
+    @Benchmark
+    public String attribute() {
+        return this.wide.element("root").element("item").attribute("id").text().orElseThrow();
+    }
+}
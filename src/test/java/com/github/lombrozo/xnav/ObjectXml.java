@@ -95,6 +95,26 @@ public final class ObjectXml implements Xml {
         return this.doc.name();
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return this.doc.attributes();
+    }
+
+    @Override
+    public Xml parent() {
+        return this.doc.parent();
+    }
+
+    @Override
+    public Xml next() {
+        return this.doc.next();
+    }
+
+    @Override
+    public Xml previous() {
+        return this.doc.previous();
+    }
+
     @Override
     public Xml copy() {
         return this.doc.copy();
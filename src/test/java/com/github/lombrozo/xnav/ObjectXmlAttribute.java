@@ -24,6 +24,7 @@
 
 package com.github.lombrozo.xnav;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 import lombok.EqualsAndHashCode;
@@ -34,7 +35,7 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode
-final class ObjectXmlAttribute implements Xml {
+final class ObjectXmlAttribute implements ObjectXmlNode {
 
     /**
      * Attribute name.
@@ -46,6 +47,12 @@ final class ObjectXmlAttribute implements Xml {
      */
     private final String value;
 
+    /**
+     * Place of the node in the tree.
+     */
+    @EqualsAndHashCode.Exclude
+    private final ObjectXmlPlace place;
+
     /**
      * Constructor.
      * @param name Attribute name
@@ -54,6 +61,7 @@ final class ObjectXmlAttribute implements Xml {
     ObjectXmlAttribute(final String name, final String value) {
         this.attr = name;
         this.value = value;
+        this.place = new ObjectXmlPlace();
     }
 
     @Override
@@ -81,6 +89,31 @@ final class ObjectXmlAttribute implements Xml {
         return this.attr;
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return this.place.parent();
+    }
+
+    @Override
+    public Xml next() {
+        return this.place.next();
+    }
+
+    @Override
+    public Xml previous() {
+        return this.place.previous();
+    }
+
+    @Override
+    public void settle(final Xml parent, final List<Xml> siblings, final int index) {
+        this.place.settle(parent, siblings, index);
+    }
+
     @Override
     public Xml copy() {
         return new ObjectXmlAttribute(this.attr, this.value);
@@ -24,6 +24,7 @@
 
 package com.github.lombrozo.xnav;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 import lombok.EqualsAndHashCode;
@@ -34,19 +35,26 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode
-final class ObjectXmlChardata implements Xml {
+final class ObjectXmlChardata implements ObjectXmlNode {
 
     /**
      * Chardata.
      */
     private final String characters;
 
+    /**
+     * Place of the node in the tree.
+     */
+    @EqualsAndHashCode.Exclude
+    private final ObjectXmlPlace place;
+
     /**
      * Constructor.
      * @param chardata Text.
      */
     ObjectXmlChardata(final String chardata) {
         this.characters = chardata;
+        this.place = new ObjectXmlPlace();
     }
 
     @Override
@@ -74,6 +82,31 @@ final class ObjectXmlChardata implements Xml {
         return "";
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return this.place.parent();
+    }
+
+    @Override
+    public Xml next() {
+        return this.place.next();
+    }
+
+    @Override
+    public Xml previous() {
+        return this.place.previous();
+    }
+
+    @Override
+    public void settle(final Xml parent, final List<Xml> siblings, final int index) {
+        this.place.settle(parent, siblings, index);
+    }
+
     @Override
     public Xml copy() {
         return new ObjectXmlChardata(this.characters);
@@ -36,19 +36,26 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode
-final class ObjectXmlContent implements Xml {
+final class ObjectXmlContent implements ObjectXmlNode {
 
     /**
      * All elements.
      */
     private final List<Xml> all;
 
+    /**
+     * Place of the node in the tree.
+     */
+    @EqualsAndHashCode.Exclude
+    private final ObjectXmlPlace place;
+
     /**
      * Constructor.
      * @param all All elements
      */
     ObjectXmlContent(final List<Xml> all) {
         this.all = all;
+        this.place = new ObjectXmlPlace();
     }
 
     @Override
@@ -85,6 +92,41 @@ final class ObjectXmlContent implements Xml {
         throw new UnsupportedOperationException("XML content does not have a name.");
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return this.place.parent();
+    }
+
+    @Override
+    public Xml next() {
+        return new Empty();
+    }
+
+    @Override
+    public Xml previous() {
+        return new Empty();
+    }
+
+    /**
+     * Settle the content and its nodes in the tree.
+     * The parent of the nodes is the element of the content.
+     * @param parent Element of the content.
+     * @param siblings Ignored, the content has no siblings.
+     * @param index Ignored, the content has no siblings.
+     */
+    @Override
+    public void settle(final Xml parent, final List<Xml> siblings, final int index) {
+        this.place.settle(parent, List.of(), 0);
+        for (int idx = 0; idx < this.all.size(); ++idx) {
+            ((ObjectXmlNode) this.all.get(idx)).settle(parent, this.all, idx);
+        }
+    }
+
     @Override
     public Xml copy() {
         return new ObjectXmlContent(this.all.stream().map(Xml::copy).collect(Collectors.toList()));
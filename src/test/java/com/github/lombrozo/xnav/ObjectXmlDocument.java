@@ -24,6 +24,7 @@
 
 package com.github.lombrozo.xnav;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 import lombok.EqualsAndHashCode;
@@ -45,8 +46,10 @@ final class ObjectXmlDocument implements Xml {
      * Constructor.
      * @param element Root element.
      */
+    @SuppressWarnings("PMD.ConstructorOnlyInitializesOrCallOtherConstructors")
     ObjectXmlDocument(final Xml element) {
         this.root = element;
+        ((ObjectXmlNode) element).settle(this, List.of(element), 0);
     }
 
     @Override
@@ -80,6 +83,26 @@ final class ObjectXmlDocument implements Xml {
         return "#document";
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return new Empty();
+    }
+
+    @Override
+    public Xml next() {
+        return new Empty();
+    }
+
+    @Override
+    public Xml previous() {
+        return new Empty();
+    }
+
     @Override
     public Xml copy() {
         return new ObjectXmlDocument(this.root.copy());
@@ -36,7 +36,7 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode
-final class ObjectXmlElement implements Xml {
+final class ObjectXmlElement implements ObjectXmlNode {
 
     /**
      * Element name.
@@ -53,16 +53,28 @@ final class ObjectXmlElement implements Xml {
      */
     private final Xml content;
 
+    /**
+     * Place of the node in the tree.
+     */
+    @EqualsAndHashCode.Exclude
+    private final ObjectXmlPlace place;
+
     /**
      * Constructor.
      * @param name Element name
      * @param attrs Element attributes
      * @param content Element content
      */
+    @SuppressWarnings("PMD.ConstructorOnlyInitializesOrCallOtherConstructors")
     ObjectXmlElement(final String name, final List<Xml> attrs, final Xml content) {
         this.current = name;
         this.attributes = attrs;
         this.content = content;
+        this.place = new ObjectXmlPlace();
+        for (final Xml attr : attrs) {
+            ((ObjectXmlNode) attr).settle(this, List.of(), 0);
+        }
+        ((ObjectXmlNode) content).settle(this, List.of(), 0);
     }
 
     @Override
@@ -92,6 +104,31 @@ final class ObjectXmlElement implements Xml {
         return this.current;
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return this.attributes.stream();
+    }
+
+    @Override
+    public Xml parent() {
+        return this.place.parent();
+    }
+
+    @Override
+    public Xml next() {
+        return this.place.next();
+    }
+
+    @Override
+    public Xml previous() {
+        return this.place.previous();
+    }
+
+    @Override
+    public void settle(final Xml parent, final List<Xml> siblings, final int index) {
+        this.place.settle(parent, siblings, index);
+    }
+
     @Override
     public Xml copy() {
         return new ObjectXmlElement(
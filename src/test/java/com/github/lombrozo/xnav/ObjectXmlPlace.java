@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.List;
+
+/**
+ * Place of a node in the object tree.
+ * Empty until the parent of the node is built.
+ * @since 0.2
+ */
+@SuppressWarnings("PMD.AvoidUsingVolatile")
+final class ObjectXmlPlace {
+
+    /**
+     * Parent node.
+     */
+    private volatile Xml up;
+
+    /**
+     * All children of the parent.
+     */
+    private volatile List<Xml> siblings;
+
+    /**
+     * Index of the node among the siblings.
+     */
+    private volatile int index;
+
+    /**
+     * Constructor.
+     */
+    ObjectXmlPlace() {
+        this.up = new Empty();
+        this.siblings = List.of();
+        this.index = -1;
+    }
+
+    /**
+     * Settle the node in the tree.
+     * @param parent Parent node.
+     * @param all All children of the parent, the node included.
+     * @param position Index of the node among the siblings.
+     */
+    void settle(final Xml parent, final List<Xml> all, final int position) {
+        this.up = parent;
+        this.siblings = all;
+        this.index = position;
+    }
+
+    /**
+     * Parent node.
+     * @return Parent or empty node.
+     */
+    Xml parent() {
+        return this.up;
+    }
+
+    /**
+     * Next sibling.
+     * @return Next sibling or empty node.
+     */
+    Xml next() {
+        return this.sibling(this.index + 1);
+    }
+
+    /**
+     * Previous sibling.
+     * @return Previous sibling or empty node.
+     */
+    Xml previous() {
+        return this.sibling(this.index - 1);
+    }
+
+    /**
+     * Sibling by its index.
+     * @param position Index of the sibling.
+     * @return Sibling or empty node.
+     */
+    private Xml sibling(final int position) {
+        final List<Xml> all = this.siblings;
+        final Xml result;
+        if (position >= 0 && position < all.size()) {
+            result = all.get(position);
+        } else {
+            result = new Empty();
+        }
+        return result;
+    }
+}
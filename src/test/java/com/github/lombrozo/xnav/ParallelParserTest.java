@@ -0,0 +1,250 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test case for {@link ParallelParser}.
+ *
+ * @since 0.2
+ */
+final class ParallelParserTest {
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "<r><a>1</a><b x='2'/>text<!-- c --><![CDATA[d]]><?p i?><e><f/></e>tail</r>",
+            "<?xml version='1.0'?>\n<program name='p'><metas/><objects>\n<o name='a'><o/></o>\n<o name='b'>b</o>\n<o name='c'/>\n</objects></program>\n<!-- end -->",
+            "<r>\n  <a/>\n  <b/>\n  <c/>\n</r>",
+            "<r/>",
+            "<r><a/></r>"
+        }
+    )
+    void parsesLikeSerialParser(final String xml) {
+        MatcherAssert.assertThat(
+            "We expect the stitched document to be the same as the serial one",
+            TokenXmlTest.outline(
+                new TokenXml(new ParallelParser(xml, ForkJoinPool.commonPool(), 1).parse(), 0)
+            ),
+            Matchers.equalTo(TokenXmlTest.outline(new TokenXml(xml)))
+        );
+    }
+
+    @Test
+    void parsesSyntheticDocumentLikeSerialParser() {
+        final String xml = new Synthetic().size(64 * 1024).depth(5).fanout(8).xml();
+        MatcherAssert.assertThat(
+            "We expect a generated document to be stitched from chunks without a trace",
+            TokenXmlTest.outline(
+                new TokenXml(new ParallelParser(xml, new ForkJoinPool(4), 512).parse(), 0)
+            ),
+            Matchers.equalTo(TokenXmlTest.outline(new TokenXml(xml)))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "<p><objects><o a='1'/><o b='2'><o c='3'/></o></objects><meta a='4' b='5'/></p>",
+            "<p x='0'><objects><o/><o/></objects><meta a='1'/><tail t='2'/></p>",
+            "<r><a k='1'>t</a><b/><c d='e' f='g'><h i='j'/></c></r>"
+        }
+    )
+    void buildsSameArraysAsSerialParser(final String xml) {
+        MatcherAssert.assertThat(
+            "We expect the stitched arrays to be equal to the serial ones token by token",
+            ParallelParserTest.arrays(
+                new ParallelParser(xml, ForkJoinPool.commonPool(), 1).parse()
+            ),
+            Matchers.equalTo(ParallelParserTest.arrays(new TokenParser(xml).parse()))
+        );
+    }
+
+    @Test
+    void buildsSameArraysForSyntheticDocuments() {
+        for (int seed = 0; seed < 50; ++seed) {
+            final String xml = new Synthetic().seed(seed).size(8 * 1024).depth(4).fanout(6)
+                .xml();
+            MatcherAssert.assertThat(
+                String.format("We expect document #%d to be stitched without a trace", seed),
+                ParallelParserTest.arrays(
+                    new ParallelParser(xml, ForkJoinPool.commonPool(), 64).parse()
+                ),
+                Matchers.equalTo(ParallelParserTest.arrays(new TokenParser(xml).parse()))
+            );
+        }
+    }
+
+    @Test
+    void buildsSameArraysWhenAttributesFollowSplitElement() {
+        final String xml = ParallelParserTest.objects();
+        MatcherAssert.assertThat(
+            "We expect attributes after the split element to point to their own ends",
+            ParallelParserTest.arrays(
+                new ParallelParser(xml, ForkJoinPool.commonPool(), 64).parse()
+            ),
+            Matchers.equalTo(ParallelParserTest.arrays(new TokenParser(xml).parse()))
+        );
+    }
+
+    @Test
+    void splitsContentIntoChunksByPoolSize() {
+        MatcherAssert.assertThat(
+            "We expect the bulk element to be split into four chunks per thread",
+            new ParallelParser(ParallelParserTest.objects(), new ForkJoinPool(2), 64).chunks(),
+            Matchers.equalTo(8)
+        );
+    }
+
+    @Test
+    void doesNotSplitSmallDocuments() {
+        MatcherAssert.assertThat(
+            "We expect a document smaller than a chunk to be parsed in one piece",
+            new ParallelParser("<r><a/><b/></r>", new ForkJoinPool(2), 64).chunks(),
+            Matchers.equalTo(1)
+        );
+    }
+
+    @Test
+    void linksNodesAcrossChunkBoundaries() {
+        final ParallelParser parser = new ParallelParser(
+            String.format(
+                "<p><objects>%s</objects></p>",
+                IntStream.range(0, 200)
+                    .mapToObj(idx -> String.format("<o n='%03d'/>", idx))
+                    .collect(Collectors.joining())
+            ),
+            new ForkJoinPool(2),
+            64
+        );
+        MatcherAssert.assertThat(
+            "We expect nodes at chunk boundaries to be linked to their parent and previous sibling",
+            new TokenXml(parser.parse(), 0).child("p").child("objects").children()
+                .map(
+                    node -> String.format(
+                        "%s %s %s",
+                        node.parent().name(),
+                        node.previous().attribute("n").flatMap(Xml::text).orElse("-"),
+                        node.attribute("n").flatMap(Xml::text).orElseThrow()
+                    )
+                )
+                .collect(Collectors.toList()),
+            Matchers.equalTo(
+                IntStream.range(0, 200)
+                    .mapToObj(
+                        idx -> String.format(
+                            "objects %s %03d",
+                            idx == 0 ? "-" : String.format("%03d", idx - 1),
+                            idx
+                        )
+                    )
+                    .collect(Collectors.toList())
+            )
+        );
+        MatcherAssert.assertThat(
+            "We expect the document to be parsed in eight chunks of 25 nodes",
+            parser.chunks(),
+            Matchers.equalTo(8)
+        );
+    }
+
+    @Test
+    void removesAttributeOfStitchedDocument() {
+        final String xml = ParallelParserTest.objects();
+        MatcherAssert.assertThat(
+            "We expect an edit of a stitched document to be the same as of a serial one",
+            new Xnav(
+                new TokenXml(new ParallelParser(xml, ForkJoinPool.commonPool(), 1).parse(), 0)
+            ).remove("/p/meta/@a").strings("/p/meta/@*"),
+            Matchers.contains("2")
+        );
+    }
+
+    @Test
+    void answersQueriesOnStitchedDocument() {
+        final String xml = "<p><objects><o name='a'/><o name='b'><o name='c'/></o></objects></p>";
+        MatcherAssert.assertThat(
+            "We expect the name index to see nodes of all chunks",
+            new Xnav(new TokenXml(new ParallelParser(xml, ForkJoinPool.commonPool(), 1).parse(), 0))
+                .count("//o"),
+            Matchers.equalTo(3L)
+        );
+    }
+
+    @Test
+    void rejectsBrokenChunk() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new ParallelParser(
+                "<r><a></a><b><c></b><d/></r>", ForkJoinPool.commonPool(), 1
+            ).parse(),
+            "We expect malformed content of a chunk to be reported"
+        );
+    }
+
+    /**
+     * Document where most of the size is in one element, followed by an
+     * element with attributes.
+     * @return XML.
+     */
+    private static String objects() {
+        return String.format(
+            "<p><objects>%s</objects><meta a='1' b='2'/></p>",
+            "<o name='x'/>".repeat(200)
+        );
+    }
+
+    /**
+     * All arrays of the token index, as text.
+     * @param doc Token index.
+     * @return Arrays by their names.
+     */
+    private static Map<String, String> arrays(final TokenDoc doc) {
+        final Map<String, String> result = new TreeMap<>();
+        for (final Field field : TokenDoc.class.getDeclaredFields()) {
+            if (field.getType().isArray()) {
+                field.setAccessible(true);
+                try {
+                    result.put(field.getName(), Arrays.deepToString(new Object[]{field.get(doc)}));
+                } catch (final IllegalAccessException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        }
+        return result;
+    }
+}
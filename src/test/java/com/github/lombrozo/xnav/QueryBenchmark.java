@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * XPath evaluation per expression class.
+ * Documents are parsed once per trial and every expression is
+ * evaluated to the end, so only the evaluation is measured.
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+
+    /**
+     * Backend.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"dom", "token"})
+    String backend;
+
+    /**
+     * Document shape.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"WIDE", "DEEP"})
+    Shape shape;
+
+    /**
+     * Number of items in the document.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1000", "100000"})
+    int nodes;
+
+    /**
+     * Parsed document.
+     */
+    private Xml xml;
+
+    /**
+     * Parse the document.
+     */
+    @Setup(Level.Trial)
+    public void init() {
+        this.xml = new XnavFactory().backend(this.backend).xml(this.shape.xml(this.nodes));
+    }
+
+    /**
+     * Child steps only.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    public long child() {
+        return new Xpath(this.xml, "/root/item/@id").nodes().count();
+    }
+
+    /**
+     * Descendant search.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    public long descendant() {
+        return new Xpath(this.xml, "//item").nodes().count();
+    }
+
+    /**
+     * Descendant search with a predicate.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    public long predicate() {
+        return new Xpath(this.xml, "//item[@n='7']").nodes().count();
+    }
+
+    /**
+     * Positional predicate.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    public long positional() {
+        return new Xpath(this.xml, "/root/item[3]/@id").nodes().count();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Scaling of backends with the document size and shape.
+ * Documents are generated by {@link Synthetic} into a temporary file once
+ * per trial. Sweep larger sizes, up to 1024 MB, with '-p megabytes=...'
+ * and look for the size where the time per megabyte stops being constant.
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScalingBenchmark {
+
+    /**
+     * Backend.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"dom", "token"})
+    String backend;
+
+    /**
+     * Document size in megabytes.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"1", "16", "128"})
+    int megabytes;
+
+    /**
+     * Maximum depth of elements.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"4", "32"})
+    int depth;
+
+    /**
+     * Document file.
+     */
+    private Path file;
+
+    /**
+     * Parsed document.
+     */
+    private Xml xml;
+
+    /**
+     * Factory with the backend.
+     */
+    private XnavFactory factory;
+
+    /**
+     * Generate and parse the document.
+     * @throws IOException If the document can't be written.
+     */
+    @Setup(Level.Trial)
+    public void init() throws IOException {
+        this.file = new Synthetic()
+            .size(this.megabytes * (1L << 20))
+            .depth(this.depth)
+            .save(Files.createTempFile("xnav-scaling", ".xml"));
+        this.factory = new XnavFactory().backend(this.backend);
+        this.xml = this.factory.xml(this.file);
+    }
+
+    /**
+     * Remove the document.
+     * @throws IOException If the file can't be removed.
+     */
+    @TearDown(Level.Trial)
+    public void clean() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * Read and parse the document.
+     * @return Parsed document.
+     */
+    @Benchmark
+    public Xml parse() {
+        return this.factory.xml(this.file);
+    }
+
+    /**
+     * Search the whole document.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    public long query() {
+        return new Xpath(this.xml, "//n1[@a0]").nodes().count();
+    }
+}
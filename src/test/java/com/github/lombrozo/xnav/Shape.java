@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+/**
+ * Shape of a synthetic document for benchmarks.
+ * Every element is named 'item' and has a unique 'id' attribute,
+ * so the same queries work for all the shapes.
+ * @since 0.2
+ */
+public enum Shape {
+
+    /**
+     * All items are children of the root.
+     */
+    WIDE {
+        @Override
+        String xml(final int nodes) {
+            final StringBuilder xml = new StringBuilder(nodes * 32).append("<root>");
+            for (int idx = 0; idx < nodes; ++idx) {
+                Shape.open(xml, idx);
+                xml.append("text</item>");
+            }
+            return xml.append("</root>").toString();
+        }
+    },
+
+    /**
+     * Items are nested into chains of {@link #DEPTH} levels.
+     */
+    DEEP {
+        @Override
+        String xml(final int nodes) {
+            final StringBuilder xml = new StringBuilder(nodes * 32).append("<root>");
+            int idx = 0;
+            while (idx < nodes) {
+                final int depth = Math.min(Shape.DEPTH, nodes - idx);
+                for (int level = 0; level < depth; ++level) {
+                    Shape.open(xml, idx + level);
+                }
+                xml.append("text");
+                for (int level = 0; level < depth; ++level) {
+                    xml.append("</item>");
+                }
+                idx += depth;
+            }
+            return xml.append("</root>").toString();
+        }
+    };
+
+    /**
+     * Depth of chains in deep documents.
+     */
+    static final int DEPTH = 100;
+
+    /**
+     * Generate the document.
+     * @param nodes Number of items.
+     * @return XML document.
+     */
+    abstract String xml(int nodes);
+
+    /**
+     * Append the start tag of an item.
+     * @param xml Where to append.
+     * @param idx Item number.
+     */
+    private static void open(final StringBuilder xml, final int idx) {
+        xml.append("<item id='").append(idx).append("' n='").append(idx % 10).append("'>");
+    }
+}
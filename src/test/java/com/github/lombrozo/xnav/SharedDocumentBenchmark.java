@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Throughput of queries over one document from all cores.
+ * Every benchmark thread queries the same document, so the score grows
+ * with the number of cores only if the threads never contend.
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(Threads.MAX)
+public class SharedDocumentBenchmark {
+
+    /**
+     * Query.
+     */
+    private static final String QUERY = "/root/item[@n='7']/@id";
+
+    /**
+     * Shared document.
+     */
+    private XnavDocument shared;
+
+    /**
+     * Navigator over DOM, for comparison.
+     */
+    private Xnav dom;
+
+    /**
+     * Parse the document.
+     */
+    @Setup(Level.Trial)
+    public void init() {
+        final String xml = Shape.WIDE.xml(10_000);
+        this.shared = new XnavDocument(xml);
+        this.dom = new XnavFactory().backend("dom").xnav(xml);
+    }
+
+    /**
+     * Query the shared document through a new view.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    public long shared() {
+        return this.shared.xnav().count(SharedDocumentBenchmark.QUERY);
+    }
+
+    /**
+     * Query the DOM navigator.
+     * @return Number of found nodes.
+     */
+    @Benchmark
+    public long dom() {
+        return this.dom.count(SharedDocumentBenchmark.QUERY);
+    }
+}
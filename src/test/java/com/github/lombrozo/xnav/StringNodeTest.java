@@ -24,8 +24,12 @@
 
 package com.github.lombrozo.xnav;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -42,4 +46,55 @@ final class StringNodeTest {
             Matchers.equalTo("root")
         );
     }
+
+    @Test
+    void parsesNamespaces() {
+        MatcherAssert.assertThat(
+            "We expect the parsed nodes to know their namespaces",
+            new StringNode("<x:root xmlns:x='urn:x'/>").toNode().getFirstChild().getNamespaceURI(),
+            Matchers.equalTo("urn:x")
+        );
+    }
+
+    @Test
+    void parsesUndeclaredPrefixes() {
+        MatcherAssert.assertThat(
+            "We expect a document with an undeclared prefix to be parsed as before",
+            new StringNode("<x:root><x:a/></x:root>").toNode().getFirstChild().getNodeName(),
+            Matchers.equalTo("x:root")
+        );
+    }
+
+    @Test
+    void writesNothingToConsole() {
+        final PrintStream original = System.err;
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+        try {
+            new StringNode("<y:root><y:a/></y:root>").toNode();
+            Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new StringNode("<root><a></root>").toNode()
+            );
+        } finally {
+            System.setErr(original);
+        }
+        MatcherAssert.assertThat(
+            "We expect the parser to report nothing to the standard error",
+            err.toString(StandardCharsets.UTF_8),
+            Matchers.emptyString()
+        );
+    }
+
+    @Test
+    void reportsReasonOfFailure() {
+        MatcherAssert.assertThat(
+            "We expect the failure to tell why the document is malformed",
+            Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new StringNode("<root><a></root>").toNode()
+            ).getMessage(),
+            Matchers.containsString("must be terminated by the matching end-tag")
+        );
+    }
 }
@@ -0,0 +1,340 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic XML document.
+ * The same seed and settings always give the same document, so benchmarks
+ * of different builds and backends see exactly the same input.
+ * The root gets new subtrees until the document reaches the size, while
+ * every other element has up to 'fanout' children and nesting stops at
+ * the depth. Leaves get random texts. The document is written as it's
+ * generated, so it can be much larger than the memory.
+ * This class is immutable and thread-safe.
+ * @since 0.2
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class Synthetic {
+
+    /**
+     * Characters of random values.
+     */
+    private static final String ALPHABET =
+        "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+
+    /**
+     * Seed of the random generator.
+     */
+    private final long seed;
+
+    /**
+     * Approximate document size in characters.
+     */
+    private final long size;
+
+    /**
+     * Maximum depth of elements under the root.
+     */
+    private final int depth;
+
+    /**
+     * Maximum number of children of an element.
+     */
+    private final int fanout;
+
+    /**
+     * Number of attributes of an element.
+     */
+    private final int attributes;
+
+    /**
+     * Length of a text.
+     */
+    private final int text;
+
+    /**
+     * Number of distinct element names.
+     */
+    private final int names;
+
+    /**
+     * Ctor.
+     * A document of 1 MB with default shape.
+     */
+    public Synthetic() {
+        this(42L, 1L << 20, 8, 4, 2, 16, 10);
+    }
+
+    /**
+     * Ctor.
+     * @param seed Seed of the random generator.
+     * @param size Approximate document size in characters.
+     * @param depth Maximum depth of elements under the root.
+     * @param fanout Maximum number of children of an element.
+     * @param attributes Number of attributes of an element.
+     * @param text Length of a text.
+     * @param names Number of distinct element names.
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    private Synthetic(final long seed, final long size, final int depth, final int fanout,
+        final int attributes, final int text, final int names) {
+        this.seed = seed;
+        this.size = size;
+        this.depth = depth;
+        this.fanout = fanout;
+        this.attributes = attributes;
+        this.text = text;
+        this.names = names;
+    }
+
+    /**
+     * With another seed.
+     * @param value Seed.
+     * @return New generator.
+     */
+    public Synthetic seed(final long value) {
+        return new Synthetic(
+            value, this.size, this.depth, this.fanout, this.attributes, this.text, this.names
+        );
+    }
+
+    /**
+     * With another size.
+     * @param chars Approximate document size in characters.
+     * @return New generator.
+     */
+    public Synthetic size(final long chars) {
+        return new Synthetic(
+            this.seed, chars, this.depth, this.fanout, this.attributes, this.text, this.names
+        );
+    }
+
+    /**
+     * With another depth.
+     * @param levels Maximum depth of elements under the root, at least one.
+     * @return New generator.
+     */
+    public Synthetic depth(final int levels) {
+        return new Synthetic(
+            this.seed, this.size, levels, this.fanout, this.attributes, this.text, this.names
+        );
+    }
+
+    /**
+     * With another fan-out.
+     * @param children Maximum number of children of an element.
+     * @return New generator.
+     */
+    public Synthetic fanout(final int children) {
+        return new Synthetic(
+            this.seed, this.size, this.depth, children, this.attributes, this.text, this.names
+        );
+    }
+
+    /**
+     * With another number of attributes.
+     * @param count Number of attributes of an element.
+     * @return New generator.
+     */
+    public Synthetic attributes(final int count) {
+        return new Synthetic(
+            this.seed, this.size, this.depth, this.fanout, count, this.text, this.names
+        );
+    }
+
+    /**
+     * With another text length.
+     * @param chars Length of a text.
+     * @return New generator.
+     */
+    public Synthetic text(final int chars) {
+        return new Synthetic(
+            this.seed, this.size, this.depth, this.fanout, this.attributes, chars, this.names
+        );
+    }
+
+    /**
+     * With another name cardinality.
+     * @param count Number of distinct element names.
+     * @return New generator.
+     */
+    public Synthetic names(final int count) {
+        return new Synthetic(
+            this.seed, this.size, this.depth, this.fanout, this.attributes, this.text, count
+        );
+    }
+
+    /**
+     * Generate the document as a string.
+     * @return XML document.
+     */
+    public String xml() {
+        final StringBuilder out = new StringBuilder((int) Math.min(this.size + 1024L, 1L << 30));
+        try {
+            this.write(out);
+        } catch (final IOException exception) {
+            throw new IllegalStateException("Can't generate XML into a string", exception);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Generate the document into a file in UTF-8.
+     * @param file File to write.
+     * @return The same file.
+     * @throws IOException If the file can't be written.
+     */
+    public Path save(final Path file) throws IOException {
+        try (Writer writer = new BufferedWriter(
+            Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16
+        )) {
+            this.write(writer);
+        }
+        return file;
+    }
+
+    /**
+     * Generate the document.
+     * @param out Where to write.
+     * @throws IOException If it can't be written.
+     */
+    public void write(final Appendable out) throws IOException {
+        final Random random = new Random(this.seed);
+        final Deque<Open> stack = new ArrayDeque<>(this.depth + 1);
+        long written = 0L;
+        written += Synthetic.append(out, "<root>");
+        while (written < this.size) {
+            if (stack.isEmpty() || stack.peek().left > 0 && stack.size() < this.depth) {
+                if (!stack.isEmpty()) {
+                    stack.peek().left -= 1;
+                }
+                final String name = String.format("n%d", random.nextInt(this.names));
+                written += this.open(out, name, random);
+                stack.push(new Open(name, random.nextInt(this.fanout + 1)));
+            } else {
+                final Open done = stack.pop();
+                if (done.leaf) {
+                    written += Synthetic.append(out, this.value(random, this.text));
+                }
+                written += Synthetic.append(out, String.format("</%s>", done.name));
+                if (!stack.isEmpty()) {
+                    stack.peek().leaf = false;
+                }
+            }
+        }
+        while (!stack.isEmpty()) {
+            Synthetic.append(out, String.format("</%s>", stack.pop().name));
+        }
+        out.append("</root>");
+    }
+
+    /**
+     * Write the start tag with attributes.
+     * @param out Where to write.
+     * @param name Element name.
+     * @param random Random generator.
+     * @return Number of written characters.
+     * @throws IOException If it can't be written.
+     */
+    private long open(final Appendable out, final String name, final Random random)
+        throws IOException {
+        long result = Synthetic.append(out, "<") + Synthetic.append(out, name);
+        for (int attr = 0; attr < this.attributes; ++attr) {
+            result += Synthetic.append(
+                out, String.format(" a%d='%s'", attr, this.value(random, 8))
+            );
+        }
+        return result + Synthetic.append(out, ">");
+    }
+
+    /**
+     * Random value.
+     * @param random Random generator.
+     * @param length Length of the value.
+     * @return Value.
+     */
+    private String value(final Random random, final int length) {
+        final char[] chars = new char[length];
+        for (int idx = 0; idx < length; ++idx) {
+            chars[idx] = Synthetic.ALPHABET.charAt(random.nextInt(Synthetic.ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Append a string.
+     * @param out Where to write.
+     * @param str String.
+     * @return Number of written characters.
+     * @throws IOException If it can't be written.
+     */
+    private static long append(final Appendable out, final String str) throws IOException {
+        out.append(str);
+        return str.length();
+    }
+
+    /**
+     * Open element.
+     * @since 0.2
+     */
+    private static final class Open {
+
+        /**
+         * Element name.
+         */
+        private final String name;
+
+        /**
+         * How many children are left to generate.
+         */
+        private int left;
+
+        /**
+         * Whether the element has no children yet.
+         */
+        private boolean leaf;
+
+        /**
+         * Ctor.
+         * @param name Element name.
+         * @param children How many children to generate.
+         */
+        Open(final String name, final int children) {
+            this.name = name;
+            this.left = children;
+            this.leaf = true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test cases for {@link Synthetic}.
+ * @since 0.2
+ */
+final class SyntheticTest {
+
+    @Test
+    void generatesTheSameDocumentForTheSameSeed() {
+        MatcherAssert.assertThat(
+            "We expect the generator to be deterministic",
+            new Synthetic().size(10_000L).seed(7L).xml(),
+            Matchers.equalTo(new Synthetic().size(10_000L).seed(7L).xml())
+        );
+    }
+
+    @Test
+    void generatesDifferentDocumentsForDifferentSeeds() {
+        MatcherAssert.assertThat(
+            "We expect different seeds to give different documents",
+            new Synthetic().size(10_000L).seed(1L).xml(),
+            Matchers.not(Matchers.equalTo(new Synthetic().size(10_000L).seed(2L).xml()))
+        );
+    }
+
+    @Test
+    void keepsShapeLimits() {
+        final Xnav xnav = new Xnav(
+            new Synthetic().size(50_000L).depth(3).fanout(2).attributes(1).names(2).xml()
+        );
+        MatcherAssert.assertThat(
+            "We expect no elements deeper than the depth and no extra names",
+            List.of(
+                xnav.count("/root/*/*/*/*"),
+                xnav.count("//*[not(@a0)]"),
+                xnav.count("//n2")
+            ),
+            Matchers.contains(0L, 1L, 0L)
+        );
+    }
+
+    @Test
+    void streamsLargeDocumentToFile(@TempDir final Path dir) throws IOException {
+        final Path file = new Synthetic().size(1L << 20).save(dir.resolve("large.xml"));
+        MatcherAssert.assertThat(
+            "We expect the file to have about the requested size and be well-formed",
+            List.of(
+                Files.size(file) >= 1L << 20 && Files.size(file) < (1L << 20) + 1024L,
+                new XnavFactory().backend("token").xnav(file).count("/root/*") > 0L
+            ),
+            Matchers.contains(true, true)
+        );
+    }
+}
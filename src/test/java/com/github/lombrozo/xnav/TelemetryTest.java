@@ -0,0 +1,172 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test cases for {@link Telemetry}.
+ * @since 0.2
+ */
+final class TelemetryTest {
+
+    @Test
+    void reportsParsingToMetrics() {
+        final Queue<String> reports = new ConcurrentLinkedQueue<>();
+        new Telemetry(List.of(new TelemetryTest.Recorded(reports)))
+            .parse(new TokenBackend(), "<a><b/></a>");
+        MatcherAssert.assertThat(
+            "We expect parsing to be reported with the backend and the size",
+            reports,
+            Matchers.contains("parsed token 11")
+        );
+    }
+
+    @Test
+    void reportsQueriesWhenTheyAreConsumed() {
+        final Queue<String> reports = new ConcurrentLinkedQueue<>();
+        final Telemetry telemetry = new Telemetry(List.of(new TelemetryTest.Recorded(reports)));
+        final Xml xml = new TokenXml("<a><b/><b/></a>");
+        final Stream<Xml> nodes = telemetry.nodes("/a/b", xml, xml.child("a").children());
+        MatcherAssert.assertThat(
+            "We expect nothing to be reported before the nodes are consumed",
+            reports,
+            Matchers.empty()
+        );
+        nodes.forEach(node -> { });
+        telemetry.count("/a", xml, () -> 1L);
+        MatcherAssert.assertThat(
+            "We expect queries to be reported with the number of found nodes",
+            reports,
+            Matchers.contains("queried /a/b 2", "queried /a 1")
+        );
+    }
+
+    @Test
+    void emitsFlightRecorderEvents(@TempDir final Path dir) throws IOException {
+        final Path dump = dir.resolve("xnav.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(XnavParse.class);
+            recording.enable(XnavQuery.class);
+            recording.start();
+            final Telemetry telemetry = new Telemetry(List.of());
+            final Xml xml = telemetry.parse(new DomBackend(), "<a><b/></a>");
+            telemetry.nodes("//b", xml, xml.child("a").children()).count();
+            recording.stop();
+            recording.dump(dump);
+        }
+        MatcherAssert.assertThat(
+            "We expect parse and query events to be recorded",
+            RecordingFile.readAllEvents(dump).stream()
+                .map(RecordedEvent::getEventType)
+                .map(EventType::getName)
+                .collect(Collectors.toList()),
+            Matchers.containsInAnyOrder(
+                "com.github.lombrozo.xnav.XnavParse",
+                "com.github.lombrozo.xnav.XnavQuery"
+            )
+        );
+    }
+
+    @Test
+    void recordsBackendAndSizesInEvents(@TempDir final Path dir) throws IOException {
+        final Path dump = dir.resolve("fields.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(XnavParse.class);
+            recording.enable(XnavQuery.class);
+            recording.start();
+            final Telemetry telemetry = new Telemetry(List.of());
+            final Xml xml = telemetry.parse(new TokenBackend(), "<a><b/><b/></a>");
+            telemetry.count("/a/b", xml, () -> 2L);
+            recording.stop();
+            recording.dump(dump);
+        }
+        MatcherAssert.assertThat(
+            "We expect events to carry the backend, the size in characters and the found nodes",
+            RecordingFile.readAllEvents(dump).stream()
+                .map(
+                    event -> String.format(
+                        "%s %d",
+                        event.getString("backend"),
+                        event.hasField("size") ? event.getLong("size") : event.getLong("found")
+                    )
+                )
+                .collect(Collectors.toList()),
+            Matchers.containsInAnyOrder("token 15", "token 2")
+        );
+    }
+
+    @Test
+    void doesNotReportCharactersAsBytes() {
+        MatcherAssert.assertThat(
+            "We expect the document size not to be a data amount, since it's in characters",
+            EventType.getEventType(XnavParse.class).getField("size").getContentType(),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * Metrics that record reports as strings.
+     * @since 0.2
+     */
+    private static final class Recorded implements Metrics {
+
+        /**
+         * Reports.
+         */
+        private final Queue<String> reports;
+
+        /**
+         * Ctor.
+         * @param reports Where to record reports.
+         */
+        Recorded(final Queue<String> reports) {
+            this.reports = reports;
+        }
+
+        @Override
+        public void parsed(final String backend, final long size, final long nanos) {
+            this.reports.add(String.format("parsed %s %d", backend, size));
+        }
+
+        @Override
+        public void queried(final String expression, final long found, final long nanos) {
+            this.reports.add(String.format("queried %s %d", expression, found));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link TokenSelection}.
+ *
+ * @since 0.2
+ */
+final class TokenSelectionTest {
+
+    @Test
+    void stopsWalkOnFirstToken() {
+        final AtomicInteger visited = new AtomicInteger(0);
+        MatcherAssert.assertThat(
+            "We expect the first token to be found without walking the whole chain",
+            String.format(
+                "%d %d",
+                StreamSupport.intStream(
+                    new TokenSelection(null, 0, TokenSelectionTest.walk(1000, visited)), false
+                ).findFirst().orElseThrow(),
+                visited.get()
+            ),
+            Matchers.equalTo("0 1")
+        );
+    }
+
+    @Test
+    void givesAllTokensOneByOne() {
+        final AtomicInteger visited = new AtomicInteger(0);
+        final TokenSelection selection = new TokenSelection(
+            null, 0, TokenSelectionTest.walk(1000, visited)
+        );
+        final List<Integer> found = new ArrayList<>(0);
+        boolean more = true;
+        while (more) {
+            more = selection.tryAdvance((int tok) -> found.add(tok));
+        }
+        MatcherAssert.assertThat(
+            "We expect every token once, in order, in a few walks",
+            String.format(
+                "%b %b",
+                found.equals(IntStream.range(0, 1000).boxed().collect(Collectors.toList())),
+                visited.get() < 20_000
+            ),
+            Matchers.equalTo("true true")
+        );
+    }
+
+    /**
+     * Chain that gives tokens from zero and counts them.
+     * @param total Number of tokens.
+     * @param visited Counter of the given tokens.
+     * @return Chain.
+     */
+    private static TokenChain walk(final int total, final AtomicInteger visited) {
+        return (doc, token, sink) -> {
+            boolean more = true;
+            for (int tok = 0; more && tok < total; ++tok) {
+                visited.incrementAndGet();
+                more = sink.test(tok);
+            }
+            return more;
+        };
+    }
+}
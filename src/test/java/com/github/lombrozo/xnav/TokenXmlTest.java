@@ -0,0 +1,386 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test case for {@link TokenXml}.
+ *
+ * @since 0.2
+ */
+final class TokenXmlTest {
+
+    @Test
+    void decodesEntitiesInText() {
+        MatcherAssert.assertThat(
+            "We expect entities to be decoded in texts",
+            new TokenXml("<a>x &lt; y &#65;&#x42;</a>").child("a").text().orElseThrow(),
+            Matchers.equalTo("x < y AB")
+        );
+    }
+
+    @Test
+    void decodesEntitiesInAttributes() {
+        MatcherAssert.assertThat(
+            "We expect entities to be decoded in attributes",
+            new TokenXml("<a b='1 &amp; 2'/>").child("a").attribute("b")
+                .flatMap(Xml::text)
+                .orElseThrow(),
+            Matchers.equalTo("1 & 2")
+        );
+    }
+
+    @Test
+    void retrievesSpecialChildren() {
+        MatcherAssert.assertThat(
+            "We expect comments, CDATA and instructions to be children",
+            new TokenXml("<?xml version='1.0'?><doc>t<![CDATA[<c>]]><!--m--><?p d?><e/></doc>")
+                .child("doc")
+                .children()
+                .map(Xml::name)
+                .collect(Collectors.toList()),
+            Matchers.contains("#text", "#cdata-section", "#comment", "p", "e")
+        );
+    }
+
+    @Test
+    void retrievesTextWithCdata() {
+        MatcherAssert.assertThat(
+            "We expect CDATA to be a part of the element text",
+            new TokenXml("<doc>a<![CDATA[<b>]]><!--skip-->c</doc>").child("doc").text()
+                .orElseThrow(),
+            Matchers.equalTo("a<b>c")
+        );
+    }
+
+    @Test
+    void printsOriginalSlice() {
+        final String element = "<e  a = 'v'>&amp;<!--c--></e>";
+        MatcherAssert.assertThat(
+            "We expect the element to be printed as the original source slice",
+            new TokenXml(String.format("<doc>%s</doc>", element)).child("doc").child("e")
+                .toString(),
+            Matchers.equalTo(element)
+        );
+    }
+
+    @Test
+    void readsTextsAsViews() {
+        final TokenXml xml = new TokenXml("<r a='x&lt;y'><b>plain</b><c>1&amp;2</c><d/></r>");
+        MatcherAssert.assertThat(
+            "We expect texts to be read as views and decoded only when needed",
+            Stream.of(
+                xml.child("r").child("b"),
+                xml.child("r").child("c"),
+                xml.child("r").child("d"),
+                xml.child("r").attribute("a").orElseThrow()
+            ).map(node -> ((TextualXml) node).chars().toString()).collect(Collectors.toList()),
+            Matchers.contains("plain", "1&2", "", "x<y")
+        );
+    }
+
+    @Test
+    void countsDescendantsByIndex() {
+        final TokenXml xml = new TokenXml("<r><a><a/><b/></a><b><a/></b><?a?><a/></r>");
+        MatcherAssert.assertThat(
+            "We expect to count only descendant elements with the name",
+            List.of(
+                xml.descendants("a"),
+                ((CountedXml) xml.child("r").child("a")).descendants("a"),
+                ((CountedXml) xml.child("r").child("b")).descendants("a"),
+                xml.descendants("c")
+            ),
+            Matchers.contains(4L, 1L, 1L, 0L)
+        );
+    }
+
+    @Test
+    void keepsDocumentOrderPositions() {
+        MatcherAssert.assertThat(
+            "We expect positions to follow the document order",
+            new TokenXml("<a x='1'><b/><c/></a>").child("a").children()
+                .map(OrderedXml.class::cast)
+                .map(OrderedXml::position)
+                .collect(Collectors.toList()),
+            Matchers.contains(3, 4)
+        );
+    }
+
+    @Test
+    void sharesStructureOnCopy() {
+        final Xml xml = new TokenXml("<a><b/></a>");
+        MatcherAssert.assertThat(
+            "We expect the immutable document to be copied without cloning",
+            xml.copy(),
+            Matchers.sameInstance(xml)
+        );
+    }
+
+    @Test
+    void failsOnMismatchedTags() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new TokenXml("<a><b></a></b>"),
+            "We expect mismatched tags to be rejected"
+        );
+    }
+
+    @Test
+    void failsOnUnclosedElement() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new TokenXml("<a><b/>"),
+            "We expect unclosed elements to be rejected"
+        );
+    }
+
+    @Test
+    void failsOnSecondRoot() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new TokenXml("<a/><b/>"),
+            "We expect the second root element to be rejected"
+        );
+    }
+
+    @Test
+    void reportsOnlyExcerptOfSourceOnFailure() {
+        final String xml = String.format("<a>%s<b></a>", "<c/>".repeat(10_000));
+        MatcherAssert.assertThat(
+            "We expect the failure to show the position and a short excerpt of the source",
+            Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new TokenXml(xml)
+            ).getMessage(),
+            Matchers.allOf(
+                Matchers.containsString(String.format("position %d", xml.length() - 1)),
+                Matchers.containsString("<c/><b></a>"),
+                Matchers.hasLength(Matchers.lessThan(200))
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "<r>&e;</r>",
+            "<r a='&e;'/>",
+            "<r>a & b</r>",
+            "<r>&#x41</r>",
+            "<r a='1' b='2' a='3'/>",
+            "<r><?xml version='1.0'?></r>",
+            "<r/><?XML x?>"
+        }
+    )
+    void rejectsWhatDomRejects(final String xml) {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new DomXml(xml),
+            "We expect DOM to reject the document"
+        );
+        MatcherAssert.assertThat(
+            "We expect the token, lazy and parallel backends to reject the document too",
+            Stream.<Runnable>of(
+                () -> new TokenXml(xml),
+                () -> new LazyXml(xml).toString(),
+                () -> new ParallelParser(xml).parse()
+            ).map(
+                parse -> Assertions.assertThrows(IllegalArgumentException.class, parse::run)
+            ).collect(Collectors.toList()),
+            Matchers.hasSize(3)
+        );
+    }
+
+    @Test
+    void rejectsEntityDeclarations() {
+        final String xml = "<!DOCTYPE r [<!ENTITY e 'x'>]><r>&e;</r>";
+        MatcherAssert.assertThat(
+            "We expect declared entities to be rejected instead of being left unexpanded",
+            Stream.<Runnable>of(
+                () -> new TokenXml(xml),
+                () -> new LazyXml(xml).toString(),
+                () -> new ParallelParser(xml).parse()
+            ).map(
+                parse -> Assertions.assertThrows(IllegalArgumentException.class, parse::run)
+                    .getMessage()
+            ).collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.containsString("entity declarations are not supported"))
+        );
+    }
+
+    @Test
+    void readsStylesheetInstructionAndByteOrderMark() {
+        final String xml = "\uFEFF<?xml-stylesheet href='a.xsl'?><r>&#65;&amp;</r>";
+        MatcherAssert.assertThat(
+            "We expect a leading instruction that isn't the declaration and a BOM to be read",
+            new TokenXml(xml).children()
+                .map(node -> String.format("%s:%s", node.name(), node.text().orElse("")))
+                .collect(Collectors.toList()),
+            Matchers.equalTo(
+                new DomXml(xml).children()
+                    .map(node -> String.format("%s:%s", node.name(), node.text().orElse("")))
+                    .collect(Collectors.toList())
+            )
+        );
+    }
+
+    @Test
+    void convertsAttributeToDomNode() {
+        MatcherAssert.assertThat(
+            "We expect the attribute to be converted to a DOM node",
+            new TokenXml("<a><b key='value'/></a>").child("a").child("b")
+                .attribute("key")
+                .orElseThrow()
+                .node()
+                .getNodeValue(),
+            Matchers.equalTo("value")
+        );
+    }
+
+    @Test
+    void editsDocumentAsIfItWasParsedAgain() {
+        final Xml edited = ((EditableXml) ((EditableXml) ((EditableXml) ((EditableXml)
+            ((EditableXml) new TokenXml(
+                "<r><a x='1'>t</a><b/><!--c--><c><d/>e</c><a/></r>"
+            ).child("r").child("b")).append("<e>1</e><?p q?><e/>")
+            .child("r").child("a")).put("y", "2 & \"3\"")
+            .child("r").child("c").child("d")).replace("<f z='0'/>x<![CDATA[<y>]]>")
+            .child("r").child("a").attribute("x").orElseThrow()).remove()
+            .child("r").child("c")).put("w", "v");
+        final String expected = String.join(
+            "",
+            "<r><a y=\"2 &amp; &quot;3&quot;\">t</a><b><e>1</e><?p q?><e/></b><!--c-->",
+            "<c w=\"v\"><f z='0'/>x<![CDATA[<y>]]>e</c><a/></r>"
+        );
+        MatcherAssert.assertThat(
+            "We expect positions, links, texts and hashes to be the same as after parsing",
+            TokenXmlTest.outline(edited),
+            Matchers.equalTo(TokenXmlTest.outline(new TokenXml(expected)))
+        );
+    }
+
+    @Test
+    void keepsIndexAfterEdits() {
+        final TokenXml xml = new TokenXml("<r><a/><b><a/></b></r>");
+        final Xml edited = ((EditableXml) ((EditableXml) xml.child("r").child("b"))
+            .replace("<a/><a><a/></a>").child("r").child("a")).remove();
+        MatcherAssert.assertThat(
+            "We expect the name index to follow the edits",
+            List.of(xml.descendants("a"), ((CountedXml) edited).descendants("a")),
+            Matchers.contains(2L, 3L)
+        );
+    }
+
+    @Test
+    void rejectsBrokenEdits() {
+        final TokenXml xml = new TokenXml("<r a='1'><b/></r>");
+        Assertions.assertAll(
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> ((EditableXml) xml.child("r")).remove(),
+                "We expect the root element to stay"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> ((EditableXml) xml.child("r")).replace("<a/><b/>"),
+                "We expect the document to keep one root element"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> ((EditableXml) xml.child("r").child("b")).append("<c>"),
+                "We expect a broken fragment to be rejected"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> ((EditableXml) xml.child("r")).put("x='1' y", "2"),
+                "We expect an invalid attribute name to be rejected"
+            )
+        );
+    }
+
+    /**
+     * Every node of the document with its position and neighbours.
+     * @param xml Document.
+     * @return Nodes in the document order.
+     */
+    static List<String> outline(final Xml xml) {
+        final List<String> result = new ArrayList<>(0);
+        final List<Xml> stack = new ArrayList<>(List.of(xml));
+        while (!stack.isEmpty()) {
+            final Xml node = stack.remove(stack.size() - 1);
+            final Kind kind = ((KindedXml) node).kind();
+            String around = "";
+            if (kind != Kind.DOCUMENT && kind != Kind.ATTRIBUTE) {
+                around = String.format(
+                    "%d:%d:%d",
+                    TokenXmlTest.position(node.parent()),
+                    TokenXmlTest.position(node.previous()),
+                    TokenXmlTest.position(node.next())
+                );
+            }
+            result.add(
+                String.format(
+                    "%d:%s:%s:%s:%s:%d:%s",
+                    TokenXmlTest.position(node), kind, node.name(), around,
+                    ((TextualXml) node).chars(), node.hashCode(), node
+                )
+            );
+            if (kind == Kind.ELEMENT || kind == Kind.DOCUMENT) {
+                final List<Xml> next = new ArrayList<>(0);
+                node.attributes().forEach(next::add);
+                node.children().forEach(next::add);
+                for (int idx = next.size() - 1; idx >= 0; --idx) {
+                    stack.add(next.get(idx));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Position of the node.
+     * @param xml Node.
+     * @return Position or -1 for empty nodes.
+     */
+    private static int position(final Xml xml) {
+        final int result;
+        if (xml instanceof OrderedXml) {
+            result = ((OrderedXml) xml).position();
+        } else {
+            result = -1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Parallel queries of one document from thousands of virtual threads.
+ * Pinning of carrier threads is recorded by JFR during the whole trial and
+ * the trial fails if there was any.
+ * On JDK before 21, where there are neither virtual threads nor the
+ * pinning event, platform threads are used and the check passes trivially.
+ * @since 0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualThreadBenchmark {
+
+    /**
+     * JFR event of a pinned virtual thread.
+     */
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    /**
+     * Number of queries per invocation, one per thread.
+     */
+    private static final int TASKS = 1000;
+
+    /**
+     * Queries.
+     */
+    private static final String[] QUERIES = {
+        "/root/item[@id='500']/@n",
+        "/root/item[@n='7']",
+        "//item",
+        "/root/item/@id",
+    };
+
+    /**
+     * Backend.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Param({"dom", "token"})
+    String backend;
+
+    /**
+     * Document.
+     */
+    private Xnav xnav;
+
+    /**
+     * Executor.
+     */
+    private ExecutorService pool;
+
+    /**
+     * Recording of pinning events.
+     */
+    private Recording recording;
+
+    /**
+     * Parse the document and start recording.
+     */
+    @Setup(Level.Trial)
+    public void init() {
+        this.xnav = new XnavFactory().backend(this.backend).xnav(Shape.WIDE.xml(1000));
+        this.pool = VirtualThreadBenchmark.executor();
+        this.recording = new Recording();
+        this.recording.enable(VirtualThreadBenchmark.PINNED)
+            .withThreshold(Duration.ZERO)
+            .withStackTrace();
+        this.recording.start();
+    }
+
+    /**
+     * Stop recording and check that there was no pinning.
+     * @throws IOException If the recording can't be read.
+     */
+    @TearDown(Level.Trial)
+    public void check() throws IOException {
+        this.pool.shutdownNow();
+        this.recording.stop();
+        final Path dump = Files.createTempFile("pinning", ".jfr");
+        try {
+            this.recording.dump(dump);
+            final List<RecordedEvent> pinned = RecordingFile.readAllEvents(dump).stream()
+                .filter(
+                    event -> VirtualThreadBenchmark.PINNED.equals(event.getEventType().getName())
+                )
+                .collect(Collectors.toList());
+            if (!pinned.isEmpty()) {
+                throw new IllegalStateException(
+                    String.format(
+                        "Carrier threads were pinned %d times, the first time at %s",
+                        pinned.size(),
+                        pinned.get(0).getStackTrace()
+                    )
+                );
+            }
+        } finally {
+            this.recording.close();
+            Files.delete(dump);
+        }
+    }
+
+    /**
+     * Run every query in its own thread.
+     * @return Number of found nodes.
+     * @throws InterruptedException If interrupted.
+     * @throws ExecutionException If a query fails.
+     */
+    @Benchmark
+    public long parallelQueries() throws InterruptedException, ExecutionException {
+        final List<Future<Long>> futures = new ArrayList<>(VirtualThreadBenchmark.TASKS);
+        for (int idx = 0; idx < VirtualThreadBenchmark.TASKS; ++idx) {
+            final String query = VirtualThreadBenchmark.QUERIES[
+                idx % VirtualThreadBenchmark.QUERIES.length
+            ];
+            futures.add(this.pool.submit(() -> this.xnav.count(query)));
+        }
+        long total = 0L;
+        for (final Future<Long> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+
+    /**
+     * Executor with a virtual thread per task, if the JDK has them.
+     * The project is compiled for JDK 11, so the factory is looked up
+     * reflectively.
+     * @return Executor.
+     */
+    private static ExecutorService executor() {
+        ExecutorService result;
+        try {
+            result = (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+        } catch (final ReflectiveOperationException exception) {
+            result = Executors.newCachedThreadPool();
+        }
+        return result;
+    }
+}
@@ -97,6 +97,26 @@ final class VtdAttr implements Xml {
         return this.attr;
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        return new VtdElem(this.start());
+    }
+
+    @Override
+    public Xml next() {
+        return new Empty();
+    }
+
+    @Override
+    public Xml previous() {
+        return new Empty();
+    }
+
     @Override
     public Xml copy() {
         return new VtdAttr(this.attr, this.navigator);
@@ -28,6 +28,7 @@ import com.ximpleware.AutoPilot;
 import com.ximpleware.NavException;
 import com.ximpleware.VTDNav;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -74,7 +75,7 @@ final class VtdElem implements OrderedXml {
      * @param index Element order.
      */
     @SuppressWarnings("PMD.ConstructorOnlyInitializesOrCallOtherConstructors")
-    private VtdElem(final VTDNav nav, final int index) {
+    VtdElem(final VTDNav nav, final int index) {
         try {
             this.navigator = nav.cloneNav();
             this.navigator.recoverNode(index);
@@ -168,6 +169,56 @@ final class VtdElem implements OrderedXml {
         }
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        try {
+            final VTDNav nav = this.start();
+            final AutoPilot pilot = new AutoPilot(nav);
+            pilot.selectAttr("*");
+            final Stream.Builder<Xml> builder = Stream.builder();
+            int identifier = pilot.iterateAttr();
+            while (identifier != -1) {
+                builder.add(new VtdAttr(nav.toString(identifier), nav));
+                identifier = pilot.iterateAttr();
+            }
+            return builder.build();
+        } catch (final NavException exception) {
+            throw new IllegalStateException(
+                String.format("Error getting list of attributes in '%s'", this),
+                exception
+            );
+        }
+    }
+
+    @Override
+    public Xml parent() {
+        try {
+            final VTDNav nav = this.start();
+            final Xml result;
+            if (nav.getCurrentDepth() > 0 && nav.toElement(VTDNav.PARENT)) {
+                result = new VtdElem(nav);
+            } else {
+                result = new VtdDoc(nav);
+            }
+            return result;
+        } catch (final NavException exception) {
+            throw new IllegalStateException(
+                String.format("Error getting parent of '%s'", this),
+                exception
+            );
+        }
+    }
+
+    @Override
+    public Xml next() {
+        return VtdElem.sibling(this.parent(), this.order, 1);
+    }
+
+    @Override
+    public Xml previous() {
+        return VtdElem.sibling(this.parent(), this.order, -1);
+    }
+
     @Override
     public Xml copy() {
         return new VtdElem(this.navigator);
@@ -201,32 +252,37 @@ final class VtdElem implements OrderedXml {
      * @return List of attributes.
      */
     private String attrs() {
-        try {
-            final VTDNav nav = this.start();
-            final AutoPilot pilot = new AutoPilot(nav);
-            pilot.selectAttr("*");
-            final Stream.Builder<Xml> builder = Stream.builder();
-            int identifier = pilot.iterateAttr();
-            while (identifier != -1) {
-                builder.add(new VtdAttr(nav.toString(identifier), nav));
-                identifier = pilot.iterateAttr();
-            }
-            final String all = builder.build()
-                .map(Xml::toString)
-                .collect(Collectors.joining(" "));
-            final String res;
-            if (all.isEmpty()) {
-                res = "";
-            } else {
-                res = String.format(" %s", all);
+        final String all = this.attributes()
+            .map(Xml::toString)
+            .collect(Collectors.joining(" "));
+        final String res;
+        if (all.isEmpty()) {
+            res = "";
+        } else {
+            res = String.format(" %s", all);
+        }
+        return res;
+    }
+
+    /**
+     * Sibling of a node among the children of its parent.
+     * @param parent Parent.
+     * @param position Position of the node.
+     * @param step One for the next sibling, minus one for the previous one.
+     * @return Sibling or empty node.
+     */
+    static Xml sibling(final Xml parent, final int position, final int step) {
+        final List<Xml> all = parent.children().collect(Collectors.toList());
+        Xml result = new Empty();
+        for (int idx = 0; idx < all.size(); ++idx) {
+            if (((OrderedXml) all.get(idx)).position() == position) {
+                if (idx + step >= 0 && idx + step < all.size()) {
+                    result = all.get(idx + step);
+                }
+                break;
             }
-            return res;
-        } catch (final NavException exception) {
-            throw new IllegalStateException(
-                String.format("Error getting list of attributes in '%s'", this),
-                exception
-            );
         }
+        return result;
     }
 
     /**
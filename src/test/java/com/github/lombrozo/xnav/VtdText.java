@@ -99,6 +99,32 @@ final class VtdText implements OrderedXml {
         return "";
     }
 
+    @Override
+    public Stream<Xml> attributes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Xml parent() {
+        final int depth = this.navigator.getTokenDepth(this.index);
+        int start = this.index - 1;
+        while (this.navigator.getTokenType(start) != VTDNav.TOKEN_STARTING_TAG
+            || this.navigator.getTokenDepth(start) != depth) {
+            start -= 1;
+        }
+        return new VtdElem(this.navigator, start);
+    }
+
+    @Override
+    public Xml next() {
+        return VtdElem.sibling(this.parent(), this.index, 1);
+    }
+
+    @Override
+    public Xml previous() {
+        return VtdElem.sibling(this.parent(), this.index, -1);
+    }
+
     @Override
     public Xml copy() {
         return new VtdText(this.navigator.cloneNav(), this.index);
@@ -79,6 +79,14 @@ public class XmlBenchmark {
      */
     private static final String VTD = "vtd-xml";
 
+    /**
+     * Token implementation tag.
+     * This implementation scans XML once into flat token arrays and
+     * navigates over them without creating any intermediate objects.
+     * See {@link TokenXml} for more info.
+     */
+    private static final String TOKEN = "token-xml";
+
     /**
      * ANTLR implementation tag.
      * This implementation uses ANTLR to parse XML files and then
@@ -290,6 +298,7 @@ public class XmlBenchmark {
         @Param({
             XmlBenchmark.DOM,
             XmlBenchmark.VTD,
+            XmlBenchmark.TOKEN,
             XmlBenchmark.ANTLR_OBJECT,
             XmlBenchmark.FLAT_DOM,
             XmlBenchmark.FLAT_ANTLR,
@@ -396,6 +405,9 @@ public class XmlBenchmark {
                 case XmlBenchmark.VTD:
                     result = new VtdXml(this.xml);
                     break;
+                case XmlBenchmark.TOKEN:
+                    result = new TokenXml(this.xml);
+                    break;
                 case XmlBenchmark.ANTLR_OBJECT:
                     result = new ObjectXml(this.xml);
                     break;
@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Test case for {@link XmlPrinter}.
+ *
+ * @since 0.2
+ */
+final class XmlPrinterTest {
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("printable")
+    void printsDocument(final Function<String, Xml> impl, final String label) {
+        MatcherAssert.assertThat(
+            String.format("We expect the document to be printed by '%s'", label),
+            new XmlPrinter().print(impl.apply("<a x=\"1\"><b>text</b><!--c--><c/></a>")),
+            Matchers.equalTo(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?><a x=\"1\"><b>text</b><!--c--><c/></a>"
+            )
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("printable")
+    void printsSubtree(final Function<String, Xml> impl, final String label) {
+        MatcherAssert.assertThat(
+            String.format("We expect the subtree to be printed by '%s'", label),
+            new XmlPrinter().print(
+                impl.apply("<a><b y=\"2\"><c>1</c></b><d/></a>").child("a").child("b")
+            ),
+            Matchers.equalTo("<b y=\"2\"><c>1</c></b>")
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("printable")
+    void escapesDecodedValues(final Function<String, Xml> impl, final String label) {
+        MatcherAssert.assertThat(
+            String.format("We expect texts and attributes to be escaped by '%s'", label),
+            new XmlPrinter(2).print(
+                impl.apply("<a v='&quot;&lt;&amp;'>x &lt; y &amp;&amp; z &gt; w</a>").child("a")
+            ),
+            Matchers.equalTo("<a v=\"&quot;&lt;&amp;\">x &lt; y &amp;&amp; z &gt; w</a>")
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("printable")
+    void printsWithIndentation(final Function<String, Xml> impl, final String label) {
+        MatcherAssert.assertThat(
+            String.format("We expect the document to be indented by '%s'", label),
+            new XmlPrinter(2).print(
+                impl.apply("<a>\n<b><c>text</c><d/></b>\n<e>mixed <f/> text</e></a>")
+            ),
+            Matchers.equalTo(
+                String.join(
+                    "\n",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                    "<a>",
+                    "  <b>",
+                    "    <c>text</c>",
+                    "    <d/>",
+                    "  </b>",
+                    "  <e>mixed <f/> text</e>",
+                    "</a>"
+                )
+            )
+        );
+    }
+
+    @Test
+    void printsOriginalSliceOfTokens() {
+        final String xml = "<a  x='1' ><b>&#65;</b ></a >";
+        MatcherAssert.assertThat(
+            "We expect the token index to print the original slice",
+            new XmlPrinter().print(new TokenXml(xml).child("a")),
+            Matchers.equalTo(xml)
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("printable")
+    void writesUtfEightBytes(final Function<String, Xml> impl, final String label) {
+        final String text = IntStream.range(0, 5000)
+            .mapToObj(idx -> "π😀")
+            .collect(Collectors.joining());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XmlPrinter().print(
+            impl.apply(String.format("<a>%s</a>", text)).child("a"),
+            out
+        );
+        MatcherAssert.assertThat(
+            String.format("We expect long UTF-8 output to be written by '%s'", label),
+            new String(out.toByteArray(), StandardCharsets.UTF_8),
+            Matchers.equalTo(String.format("<a>%s</a>", text))
+        );
+    }
+
+    @Test
+    void writesToChannel() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Xnav("<a><b>Ж</b></a>").element("a").print(
+            new XmlPrinter(),
+            Channels.newChannel(out)
+        );
+        MatcherAssert.assertThat(
+            "We expect the navigator to be printed into a byte channel",
+            new String(out.toByteArray(), StandardCharsets.UTF_8),
+            Matchers.equalTo("<a><b>Ж</b></a>")
+        );
+    }
+
+    @Test
+    void printsOtherImplementationsAsStrings() {
+        final Xml xml = new ObjectXml("<a><b/></a>").child("a");
+        MatcherAssert.assertThat(
+            "We expect other implementations to be printed by their toString()",
+            new XmlPrinter().print(xml),
+            Matchers.equalTo(xml.toString())
+        );
+    }
+
+    @Test
+    void rejectsNegativeIndent() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new XmlPrinter(-1),
+            "We expect the negative indent to be rejected"
+        );
+    }
+
+    /**
+     * Implementations that print themselves.
+     * @return Arguments.
+     */
+    private static Stream<Arguments> printable() {
+        return Stream.of(
+            Arguments.of((Function<String, Xml>) DomXml::new, "dom-xml"),
+            Arguments.of((Function<String, Xml>) TokenXml::new, "token-xml"),
+            Arguments.of((Function<String, Xml>) LazyXml::new, "lazy-xml")
+        );
+    }
+}
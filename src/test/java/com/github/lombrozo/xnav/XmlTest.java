@@ -33,9 +33,11 @@ import java.util.stream.Stream;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.w3c.dom.Element;
 
 /**
  * Test cases for different XML implementations.
@@ -412,6 +414,138 @@ final class XmlTest {
         );
     }
 
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("structural")
+    void hashesEqualSubtreesEqually(final Function<String, Xml> impl, final String label) {
+        final List<Xml> all = impl.apply(
+            "<r><a x='1' y='2'>t<b/></a><a y='2' x='1'>t<b/></a><a x='1'>t</a></r>"
+        ).child("r").children().collect(Collectors.toList());
+        MatcherAssert.assertThat(
+            String.format("We expect equal subtrees to have equal hashes in '%s'", label),
+            all.get(0).hashCode(),
+            Matchers.equalTo(all.get(1).hashCode())
+        );
+        MatcherAssert.assertThat(
+            String.format("We expect equal subtrees to be equal in '%s'", label),
+            all.get(0),
+            Matchers.allOf(Matchers.equalTo(all.get(1)), Matchers.not(all.get(2)))
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("structural")
+    void dedupesSubtreesByStructure(final Function<String, Xml> impl, final String label) {
+        MatcherAssert.assertThat(
+            String.format("We expect equal subtrees to be deduplicated in '%s'", label),
+            impl.apply("<r><a>1</a><b/><a>1</a><a>2</a><b/></r>")
+                .child("r")
+                .children()
+                .collect(Collectors.toSet()),
+            Matchers.hasSize(3)
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("structural")
+    void comparesDeeplyNestedSubtrees(final Function<String, Xml> impl, final String label) {
+        final int depth = 10_000;
+        final List<Xml> all = impl.apply(
+            String.format(
+                "<r>%1$s<x/>%2$s%1$s<x/>%2$s%1$s<y/>%2$s</r>",
+                "<a>".repeat(depth), "</a>".repeat(depth)
+            )
+        ).child("r").children().collect(Collectors.toList());
+        MatcherAssert.assertThat(
+            String.format("We expect deep subtrees to be hashed and compared in '%s'", label),
+            List.of(
+                all.get(0).hashCode() == all.get(1).hashCode(),
+                all.get(0).equals(all.get(1)),
+                all.get(0).equals(all.get(2))
+            ),
+            Matchers.contains(true, true, false)
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("structural")
+    void keepsEqualSubtreesInRecursiveSearch(
+        final Function<String, Xml> impl, final String label
+    ) {
+        MatcherAssert.assertThat(
+            String.format("We expect equal subtrees not to be merged by '%s'", label),
+            new Xpath(impl.apply("<r><a><b/></a><c><a><b/></a></c></r>"), "//a").nodes()
+                .count(),
+            Matchers.equalTo(2L)
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("structural")
+    void navigatesToParentAndSiblings(final Function<String, Xml> impl, final String label) {
+        final Xml doc = impl.apply("<r><a x='1'/>t<b/></r>");
+        final Xml text = doc.child("r").child("a").next();
+        MatcherAssert.assertThat(
+            String.format("We expect to move between siblings in '%s'", label),
+            List.of(
+                text.text().orElse(""),
+                text.next().name(),
+                text.previous().name(),
+                text.next().next().name(),
+                doc.child("r").child("a").previous().name()
+            ),
+            Matchers.contains("t", "b", "a", "", "")
+        );
+        MatcherAssert.assertThat(
+            String.format("We expect to move up to the parents in '%s'", label),
+            List.of(
+                text.parent().name(),
+                doc.child("r").child("a").attribute("x").orElseThrow().parent().name(),
+                doc.child("r").parent().name(),
+                doc.parent().name()
+            ),
+            Matchers.contains("r", "a", "#document", "")
+        );
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("all")
+    void navigatesBetweenElements(final Function<String, Xml> impl, final String label) {
+        final Xml root = impl.apply("<r><a x='1' y='2'/>t<b/></r>").child("r");
+        final Xml first = root.child("a");
+        MatcherAssert.assertThat(
+            String.format("We expect to move between elements in '%s'", label),
+            List.of(
+                first.next().next().name(),
+                first.next().next().previous().previous().name(),
+                first.next().parent().name(),
+                first.previous().name(),
+                first.parent().name(),
+                first.attribute("y").orElseThrow().parent().name(),
+                first.attribute("x").orElseThrow().next().name(),
+                root.parent().name(),
+                root.parent().parent().name()
+            ),
+            Matchers.contains("b", "a", "r", "", "r", "a", "", "#document", "")
+        );
+        MatcherAssert.assertThat(
+            String.format("We expect to list attributes in '%s'", label),
+            first.attributes().map(Xml::name).collect(Collectors.toList()),
+            Matchers.contains("x", "y")
+        );
+    }
+
+    @Test
+    void recomputesDomHashAfterChange() {
+        final Xml xml = new DomXml("<r><a>1</a></r>");
+        final int before = xml.hashCode();
+        ((Element) xml.child("r").node()).setAttribute("x", "y");
+        MatcherAssert.assertThat(
+            "We expect the hash to follow changes of the exposed DOM node",
+            xml.hashCode(),
+            Matchers.not(Matchers.equalTo(before))
+        );
+    }
+
     /**
      * All implementations.
      * @return All XML implementations as arguments.
@@ -420,6 +554,8 @@ final class XmlTest {
         return Stream.of(
             Arguments.of((Function<String, Xml>) VtdXml::new, "vtd-xml"),
             Arguments.of((Function<String, Xml>) DomXml::new, "dom-xml"),
+            Arguments.of((Function<String, Xml>) TokenXml::new, "token-xml"),
+            Arguments.of((Function<String, Xml>) LazyXml::new, "lazy-xml"),
             Arguments.of((Function<String, Xml>) ObjectXml::new, "antlr-object-xml"),
             Arguments.of(
                 (Function<String, Xml>) xml -> new FlatXml(xml, new FlatDom()),
@@ -440,7 +576,21 @@ final class XmlTest {
     private static Stream<Arguments> mightBeConvertedToDom() {
         return Stream.of(
             Arguments.of((Function<String, Xml>) VtdXml::new, "vtd-xml"),
-            Arguments.of((Function<String, Xml>) DomXml::new, "dom-xml")
+            Arguments.of((Function<String, Xml>) DomXml::new, "dom-xml"),
+            Arguments.of((Function<String, Xml>) TokenXml::new, "token-xml"),
+            Arguments.of((Function<String, Xml>) LazyXml::new, "lazy-xml")
+        );
+    }
+
+    /**
+     * Implementations with structural equality.
+     * @return Arguments.
+     */
+    private static Stream<Arguments> structural() {
+        return Stream.of(
+            Arguments.of((Function<String, Xml>) DomXml::new, "dom-xml"),
+            Arguments.of((Function<String, Xml>) TokenXml::new, "token-xml"),
+            Arguments.of((Function<String, Xml>) LazyXml::new, "lazy-xml")
         );
     }
 }
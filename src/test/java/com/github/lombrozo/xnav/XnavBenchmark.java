@@ -29,8 +29,12 @@ import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
@@ -65,8 +69,8 @@ public class XnavBenchmark {
     @Benchmark
     @BenchmarkMode(Mode.AverageTime)
     @OutputTimeUnit(TimeUnit.MICROSECONDS)
-    public static void xpath() {
-        final String acutal = new Xnav("<root><a><b><c>text</c></b></a></root>")
+    public static void xpath(final Documents docs) {
+        final String acutal = docs.text
             .path("/root/a/b/c")
             .findFirst()
             .orElseThrow()
@@ -82,8 +86,8 @@ public class XnavBenchmark {
     @Benchmark
     @BenchmarkMode(Mode.AverageTime)
     @OutputTimeUnit(TimeUnit.MICROSECONDS)
-    public static void element() {
-        final String acutal = new Xnav("<root><a><b><c>deep</c></b></a></root>")
+    public static void element(final Documents docs) {
+        final String acutal = docs.deep
             .element("root")
             .element("a")
             .element("b")
@@ -96,4 +100,33 @@ public class XnavBenchmark {
             Matchers.equalTo("deep")
         );
     }
+
+    /**
+     * Parsed documents.
+     * They are parsed once per trial, so the benchmarks measure navigation,
+     * not the creation of document builders.
+     * @since 0.2
+     */
+    @State(Scope.Benchmark)
+    public static class Documents {
+
+        /**
+         * Document for XPath.
+         */
+        private Xnav text;
+
+        /**
+         * Document for elements.
+         */
+        private Xnav deep;
+
+        /**
+         * Parse the documents.
+         */
+        @Setup(Level.Trial)
+        public void init() {
+            this.text = new Xnav("<root><a><b><c>text</c></b></a></root>");
+            this.deep = new Xnav("<root><a><b><c>deep</c></b></a></root>");
+        }
+    }
 }
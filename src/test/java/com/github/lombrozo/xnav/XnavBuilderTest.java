@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link XnavBuilder}.
+ *
+ * @since 0.2
+ */
+final class XnavBuilderTest {
+
+    @Test
+    void buildsTheSameDocumentAsParser() {
+        final XnavBuilder builder = new XnavBuilder()
+            .comment(" head ")
+            .open("order").attribute("id", "1 & \"2\"")
+            .open("item").attribute("n", "a").text("x < y").text(" & z").close()
+            .open("empty").close()
+            .cdata("<raw>")
+            .instruction("pi", "data")
+            .close();
+        MatcherAssert.assertThat(
+            "We expect the built document to be the same as the parsed one",
+            builder.xnav(),
+            Matchers.equalTo(
+                new XnavFactory().backend("token").xnav(
+                    String.join(
+                        "",
+                        "<!-- head --><order id='1 &amp; &quot;2&quot;'>",
+                        "<item n='a'>x &lt; y &amp; z</item><empty/>",
+                        "<![CDATA[<raw>]]><?pi data?></order>"
+                    )
+                )
+            )
+        );
+    }
+
+    @Test
+    void writesXmlAlong() {
+        MatcherAssert.assertThat(
+            "We expect the builder to write the XML text without DOM",
+            new XnavBuilder().open("a").attribute("b", "1").open("c").text("t").close()
+                .open("d").close().close().toString(),
+            Matchers.equalTo("<a b=\"1\"><c>t</c><d/></a>")
+        );
+    }
+
+    @Test
+    void queriesDocumentWhileBuilding() {
+        final XnavBuilder builder = new XnavBuilder().open("r");
+        for (int idx = 0; idx < 1000; ++idx) {
+            builder.open("i").attribute("v", String.valueOf(idx)).close();
+        }
+        final Xnav before = builder.open("last").xnav();
+        builder.close().open("i").close();
+        MatcherAssert.assertThat(
+            "We expect open elements to be closed in snapshots only",
+            List.of(
+                before.count("//i"),
+                before.path("/r/last").count(),
+                (long) before.ints("/r/i/@v")[999],
+                builder.xnav().count("/r/i"),
+                builder.xnav().count("//last")
+            ),
+            Matchers.contains(1000L, 1L, 999L, 1001L, 1L)
+        );
+    }
+
+    @Test
+    void rejectsMalformedDocuments() {
+        Assertions.assertAll(
+            () -> Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> new XnavBuilder().open("a").text("t").attribute("b", "1"),
+                "We expect attributes to follow the start tag"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> new XnavBuilder().open("a").close().open("b"),
+                "We expect only one root element"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> new XnavBuilder().close(),
+                "We expect nothing to close in an empty document"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> new XnavBuilder().comment("c").xnav(),
+                "We expect the root element to be required"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new XnavBuilder().open("a b"),
+                "We expect names to be checked"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new XnavBuilder().open("a").comment("x--y"),
+                "We expect comments to be checked"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new XnavBuilder().open("a").attribute("b", "1").attribute("b", "2"),
+                "We expect attributes to be unique"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new XnavBuilder().open("a").comment("x-"),
+                "We expect comments not to end with a dash"
+            ),
+            () -> Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> new XnavBuilder().instruction("XmL", "v"),
+                "We expect the 'xml' target to be reserved"
+            )
+        );
+    }
+
+    @Test
+    void acceptsDistinctAttributesAndTargets() {
+        MatcherAssert.assertThat(
+            "We expect similar but valid attributes and targets to be accepted",
+            new XnavBuilder()
+                .instruction("xml-stylesheet", "href='a'")
+                .open("a")
+                .attribute("b", "1")
+                .attribute("bb", "2")
+                .open("b")
+                .attribute("b", "3")
+                .close()
+                .close()
+                .toString(),
+            Matchers.equalTo("<?xml-stylesheet href='a'?><a b=\"1\" bb=\"2\"><b b=\"3\"/></a>")
+        );
+    }
+}
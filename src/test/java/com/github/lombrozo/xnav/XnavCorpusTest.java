@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test case for {@link XnavCorpus}.
+ *
+ * @since 0.2
+ */
+final class XnavCorpusTest {
+
+    @Test
+    void queriesEveryFileOfDirectory(@TempDir final Path dir) throws IOException {
+        Files.writeString(dir.resolve("a.xml"), "<p name='a'><o>1</o><o>2</o></p>");
+        Files.createDirectory(dir.resolve("sub"));
+        Files.writeString(dir.resolve("sub/b.xml"), "<p name='b'><o>3</o></p>");
+        Files.writeString(dir.resolve("readme.txt"), "not an xml");
+        try (Stream<XnavCorpus.Result> results = XnavCorpus.of(dir).threads(2)
+            .query("/p/@name", "//o")) {
+            MatcherAssert.assertThat(
+                "We expect results of every expression over every XML file",
+                results.map(
+                    res -> String.format(
+                        "%s %s %s", dir.relativize(res.file()), res.xpath(), res.values()
+                    )
+                ).collect(Collectors.toList()),
+                Matchers.containsInAnyOrder(
+                    "a.xml /p/@name [a]",
+                    "a.xml //o [1, 2]",
+                    String.format("%s /p/@name [b]", Path.of("sub", "b.xml")),
+                    String.format("%s //o [3]", Path.of("sub", "b.xml"))
+                )
+            );
+        }
+    }
+
+    @Test
+    void waitsForSlowConsumer(@TempDir final Path dir) throws IOException {
+        for (int idx = 0; idx < 100; ++idx) {
+            Files.writeString(dir.resolve(String.format("%d.xml", idx)), "<a>x</a>");
+        }
+        try (Stream<XnavCorpus.Result> results = XnavCorpus.of(dir).window(1).query("/a")) {
+            MatcherAssert.assertThat(
+                "We expect to take a few results and leave the rest of the corpus",
+                results.limit(3).count(),
+                Matchers.equalTo(3L)
+            );
+        }
+    }
+
+    @Test
+    void reportsBrokenFile(@TempDir final Path dir) throws IOException {
+        Files.writeString(dir.resolve("good.xml"), "<a/>");
+        Files.writeString(dir.resolve("bad.xml"), "<a><b></a>");
+        final List<Path> files = List.of(dir.resolve("good.xml"), dir.resolve("bad.xml"));
+        final IllegalStateException error = Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> {
+                try (Stream<XnavCorpus.Result> results = new XnavCorpus(files).query("/a")) {
+                    results.count();
+                }
+            },
+            "We expect a broken file to stop the evaluation"
+        );
+        MatcherAssert.assertThat(
+            "We expect the broken file to be named",
+            error.getMessage(),
+            Matchers.containsString("bad.xml")
+        );
+    }
+
+    @Test
+    void reportsUnexpectedFailure(@TempDir final Path dir) throws IOException {
+        final List<Path> files = new ArrayList<>(0);
+        for (final String name : List.of("a.xml", "b.xml", "c.xml")) {
+            Files.writeString(dir.resolve(name), "<r>t</r>");
+            files.add(dir.resolve(name));
+        }
+        final IllegalStateException error = Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> {
+                try (Stream<XnavCorpus.Result> results = new XnavCorpus(files).threads(1)
+                    .query("/r/@a", "/r[text() > 1]")) {
+                    results.count();
+                }
+            },
+            "We expect any failure of a worker to reach the consumer"
+        );
+        MatcherAssert.assertThat(
+            "We expect the original failure to be the cause",
+            error.getCause(),
+            Matchers.instanceOf(ClassCastException.class)
+        );
+    }
+
+    @Test
+    void rejectsBrokenExpressionBeforeReadingFiles() {
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> new XnavCorpus(List.of(Path.of("absent.xml"))).query("/a[@b @c]"),
+            "We expect an expression to be parsed before files are read"
+        );
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.lombrozo.xnav;
+
+import com.yegor256.Together;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test case for {@link XnavDocument}.
+ *
+ * @since 0.2
+ */
+final class XnavDocumentTest {
+
+    @Test
+    void givesIndependentViews() {
+        final XnavDocument doc = new XnavDocument("<r><a>1</a><b>2</b></r>");
+        final Xnav first = doc.xnav().element("r").element("a");
+        MatcherAssert.assertThat(
+            "We expect navigation of one view to leave others at the document node",
+            String.format(
+                "%s %s",
+                first.text().orElseThrow(),
+                doc.xnav().element("r").element("b").text().orElseThrow()
+            ),
+            Matchers.equalTo("1 2")
+        );
+    }
+
+    @Test
+    void queriesFromManyThreads() {
+        final XnavDocument doc = new XnavDocument(Shape.WIDE.xml(500));
+        final List<String> results = new Together<>(
+            16,
+            idx -> String.format(
+                "%d %s",
+                doc.xnav().count("//item"),
+                doc.xnav().one(String.format("/root/item[@id='%d']", idx)).attribute("id")
+                    .text().orElseThrow()
+            )
+        ).asList();
+        MatcherAssert.assertThat(
+            "We expect every thread to see the whole document",
+            results.stream().map(res -> res.split(" ")[0]).collect(Collectors.toSet()),
+            Matchers.contains("500")
+        );
+    }
+
+    @Test
+    void readsFile(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("doc.xml");
+        Files.writeString(file, "<program name='main'/>");
+        MatcherAssert.assertThat(
+            "We expect the document to be read from the file",
+            new XnavDocument(file).xnav().element("program").attribute("name").text()
+                .orElseThrow(),
+            Matchers.equalTo("main")
+        );
+    }
+
+    @Test
+    void answersRepeatedQueriesFromCache() {
+        final XnavDocument doc = new XnavDocument("<r><a id='1'/><a id='2'/></r>").cached(8);
+        final List<String> first = doc.xnav().strings("/r/a/@id");
+        final List<String> second = doc.xnav().strings("/r/a/@id");
+        MatcherAssert.assertThat(
+            "We expect the second query to hit the cache and find the same nodes",
+            String.format("%s %s %d %d", first, second, doc.hits(), doc.misses()),
+            Matchers.equalTo("[1, 2] [1, 2] 1 1")
+        );
+    }
+
+    @Test
+    void cachesByContextNode() {
+        final XnavDocument doc = new XnavDocument("<r><a><b/></a><c><b/><b/></c></r>").cached(8);
+        MatcherAssert.assertThat(
+            "We expect the same expression from different nodes to be cached separately",
+            String.format(
+                "%d %d %d",
+                doc.xnav().element("r").element("a").count("b"),
+                doc.xnav().element("r").element("c").count("b"),
+                doc.misses()
+            ),
+            Matchers.equalTo("1 2 2")
+        );
+    }
+
+    @Test
+    void startsEditedDocumentsWithEmptyCache() {
+        final XnavDocument doc = new XnavDocument("<r><a/></r>").cached(8);
+        final Xnav xnav = doc.xnav();
+        MatcherAssert.assertThat(
+            "We expect the edited document not to see the results cached for the original",
+            String.format(
+                "%d %d %d",
+                xnav.count("/r/a"),
+                xnav.insert("/r", "<a/>").count("/r/a"),
+                xnav.count("/r/a")
+            ),
+            Matchers.equalTo("1 2 1")
+        );
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedResults() {
+        final XnavDocument doc = new XnavDocument("<r><a/><b/><c/></r>").cached(2);
+        final Xnav xnav = doc.xnav();
+        xnav.strings("/r/a");
+        xnav.strings("/r/b");
+        xnav.strings("/r/a");
+        xnav.strings("/r/c");
+        xnav.strings("/r/a");
+        xnav.strings("/r/b");
+        MatcherAssert.assertThat(
+            "We expect the least recently used result to be evicted",
+            String.format("%d %d", doc.hits(), doc.misses()),
+            Matchers.equalTo("2 4")
+        );
+    }
+
+    @Test
+    void keepsOnlyLatestResultsWhenFull() {
+        final XnavDocument doc = new XnavDocument("<r><a/><a/><a/></r>").cached(3);
+        final Xnav xnav = doc.xnav();
+        for (int idx = 0; idx < 100; ++idx) {
+            xnav.strings(String.format("/r/a[%d]", idx % 50 + 1));
+        }
+        xnav.strings("/r/a[48]");
+        xnav.strings("/r/a[49]");
+        xnav.strings("/r/a[50]");
+        MatcherAssert.assertThat(
+            "We expect a full cache to evict older results and keep the latest ones",
+            String.format("%d %d", doc.hits(), doc.misses()),
+            Matchers.equalTo("3 100")
+        );
+    }
+
+    @Test
+    void countsWithoutCachingOnMiss() {
+        final XnavDocument doc = new XnavDocument("<r><a/><a/></r>").cached(8);
+        final Xnav xnav = doc.xnav();
+        MatcherAssert.assertThat(
+            "We expect counting and checking to use cached results, but not to cache them",
+            String.format(
+                "%d %b %d %d %b %d %d",
+                xnav.count("/r/a"),
+                xnav.exists("/r/a"),
+                doc.misses(),
+                xnav.strings("/r/a").size(),
+                xnav.exists("/r/a"),
+                xnav.count("/r/a"),
+                doc.hits()
+            ),
+            Matchers.equalTo("2 true 2 2 true 2 2")
+        );
+    }
+
+    @Test
+    void doesNotCacheByDefault() {
+        final XnavDocument doc = new XnavDocument("<r><a/></r>");
+        doc.xnav().count("/r/a");
+        doc.xnav().count("/r/a");
+        MatcherAssert.assertThat(
+            "We expect documents without a cache to count neither hits nor misses",
+            String.format("%d %d", doc.hits(), doc.misses()),
+            Matchers.equalTo("0 0")
+        );
+    }
+}
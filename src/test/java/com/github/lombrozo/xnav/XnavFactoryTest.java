@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Volodya Lombrozo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.lombrozo.xnav;
+
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link XnavFactory}.
+ *
+ * @since 0.2
+ */
+final class XnavFactoryTest {
+
+    @Test
+    void choosesDomForSmallDocuments() {
+        MatcherAssert.assertThat(
+            "We expect small documents to be parsed into DOM",
+            new XnavFactory().choice(100),
+            Matchers.equalTo("dom")
+        );
+    }
+
+    @Test
+    void keepsDomForAnySizeByDefault() {
+        MatcherAssert.assertThat(
+            "We expect documents of any size to be parsed into DOM unless a threshold is set",
+            new XnavFactory().choice(1L << 40),
+            Matchers.equalTo("dom")
+        );
+    }
+
+    @Test
+    void choosesTokensForLargeDocuments() {
+        MatcherAssert.assertThat(
+            "We expect large documents to be parsed into the token index",
+            new XnavFactory().threshold(10).choice(100),
+            Matchers.equalTo("token")
+        );
+    }
+
+    @Test
+    void choosesLazyParsingForShallowQueries() {
+        MatcherAssert.assertThat(
+            "We expect shallow queries to tokenize only visited elements",
+            new XnavFactory().queries(Workload.Queries.SHALLOW).threshold(10).choice(100),
+            Matchers.equalTo("lazy")
+        );
+    }
+
+    @Test
+    void choosesDomWhenInteropIsRequired() {
+        MatcherAssert.assertThat(
+            "We expect DOM interop to win regardless of the size",
+            new XnavFactory().threshold(10).dom(true).choice(100),
+            Matchers.equalTo("dom")
+        );
+    }
+
+    @Test
+    void choosesTokensForConcurrentQueries() {
+        MatcherAssert.assertThat(
+            "We expect concurrent workloads to avoid DOM locks",
+            new XnavFactory().threads(8).choice(100),
+            Matchers.equalTo("token")
+        );
+    }
+
+    @Test
+    void choosesTokensForRecursiveQueries() {
+        MatcherAssert.assertThat(
+            "We expect recursive queries to use the token index",
+            new XnavFactory().queries(Workload.Queries.RECURSIVE).choice(100),
+            Matchers.equalTo("token")
+        );
+    }
+
+    @Test
+    void usesPluggedBackend() {
+        MatcherAssert.assertThat(
+            "We expect the backend from ServiceLoader to be available by name",
+            new XnavFactory().backend("plugged").choice(100),
+            Matchers.equalTo("plugged")
+        );
+    }
+
+    @Test
+    void failsOnUnknownBackend() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new XnavFactory().backend("unknown").xnav("<a/>"),
+            "We expect unknown backend names to be rejected"
+        );
+    }
+
+    @Test
+    void failsWhenNoBackendSuits() {
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> new XnavFactory(List.of(new PluggedBackend())).xnav("<a/>"),
+            "We expect an error when no backend suits the workload"
+        );
+    }
+
+    @Test
+    void navigatesLargeDocument() {
+        MatcherAssert.assertThat(
+            "We expect the navigator to work the same with the chosen backend",
+            new XnavFactory().threshold(1)
+                .xnav("<program name='app'><objects><o base='x'/></objects></program>")
+                .path("/program/objects/o/@base")
+                .findFirst()
+                .orElseThrow()
+                .text()
+                .orElseThrow(),
+            Matchers.equalTo("x")
+        );
+    }
+}
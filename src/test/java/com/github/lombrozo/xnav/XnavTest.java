@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -40,6 +41,9 @@ import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 /**
  * Test case for {@link Xnav}.
@@ -49,6 +53,26 @@ import org.junit.jupiter.params.provider.MethodSource;
 @SuppressWarnings("PMD.TooManyMethods")
 final class XnavTest {
 
+    @Test
+    void parsesLargeDocumentsIntoDom() {
+        final Xnav xnav = new Xnav(
+            String.format(
+                "<!DOCTYPE r [<!ENTITY e 'expanded'>]><r><a>&e;</a>%s</r>",
+                "<b/>".repeat(50_000)
+            )
+        );
+        ((Element) xnav.element("r").node()).setAttribute("k", "v");
+        MatcherAssert.assertThat(
+            "We expect a large document to be parsed into live DOM with expanded entities",
+            String.format(
+                "%s %s",
+                xnav.element("r").element("a").text().orElseThrow(),
+                xnav.element("r").attribute("k").text().orElseThrow()
+            ),
+            Matchers.equalTo("expanded v")
+        );
+    }
+
     @Test
     void createsXnavFromPath(@TempDir final Path temp) throws IOException {
         final Path file = temp.resolve("path.xml");
@@ -134,6 +158,101 @@ final class XnavTest {
         );
     }
 
+    @Test
+    void keepsCopyIsolatedFromOriginalChanges() {
+        final Xnav original = new Xnav("<root><a>1</a></root>");
+        final Xnav copy = original.copy();
+        original.element("root").element("a").node().setTextContent("2");
+        MatcherAssert.assertThat(
+            "We expect the copy not to see changes made to the original after copying",
+            copy.element("root").element("a").text().orElseThrow(),
+            Matchers.equalTo("1")
+        );
+    }
+
+    @Test
+    void keepsOriginalIsolatedFromCopyChanges() {
+        final Xnav original = new Xnav("<root><b>1</b></root>");
+        original.copy().element("root").element("b").node().setTextContent("2");
+        MatcherAssert.assertThat(
+            "We expect the original not to see changes made to the copy",
+            original.element("root").element("b").text().orElseThrow(),
+            Matchers.equalTo("1")
+        );
+    }
+
+    @Test
+    void keepsCopyIsolatedFromChangesOfExposedNode() {
+        final Xnav original = new Xnav("<root><d>1</d></root>");
+        final Node node = original.element("root").element("d").node();
+        final Xnav copy = original.copy();
+        node.setTextContent("2");
+        MatcherAssert.assertThat(
+            "We expect the copy not to see changes made through the node taken before copying",
+            copy.element("root").element("d").text().orElseThrow(),
+            Matchers.equalTo("1")
+        );
+    }
+
+    @Test
+    void keepsCopyIsolatedFromChangesOfOwnedNode() {
+        final Node node = new StringNode("<root><e>1</e></root>").toNode();
+        final Xnav copy = new Xnav(node).copy();
+        node.getFirstChild().getFirstChild().setTextContent("2");
+        MatcherAssert.assertThat(
+            "We expect the copy not to see changes made to the node the caller owns",
+            copy.element("root").element("e").text().orElseThrow(),
+            Matchers.equalTo("1")
+        );
+    }
+
+    @Test
+    void copiesCopyOfChangedDocument() {
+        final Xnav original = new Xnav("<root><c>1</c></root>");
+        final Xnav first = original.copy();
+        final Xnav second = first.copy();
+        first.element("root").element("c").node().setTextContent("2");
+        original.element("root").element("c").node().setTextContent("3");
+        MatcherAssert.assertThat(
+            "We expect the copy of a copy to keep the state of the moment it was copied",
+            second.element("root").element("c").text().orElseThrow(),
+            Matchers.equalTo("1")
+        );
+    }
+
+    @Test
+    void readsCopyWithoutCloning() {
+        final DomXml copy = new DomXml("<root><f a='1'>2</f></root>").copy();
+        copy.child("root").child("f").attribute("a").flatMap(Xml::text).orElseThrow();
+        copy.child("root").children().forEach(Xml::text);
+        copy.hashCode();
+        copy.toString();
+        MatcherAssert.assertThat(
+            "We expect the copy to share nodes with the original while it's only read",
+            copy.shared(),
+            Matchers.is(true)
+        );
+    }
+
+    @Test
+    void movesNodesOfCopyToCloneBeforeChanges() {
+        final DomXml original = new DomXml("<root><g>1</g></root>");
+        final DomXml copy = original.copy();
+        final Xml read = copy.child("root").child("g");
+        ((DomXml) original.child("root").child("g")).node().setTextContent("2");
+        ((DomXml) read).node().setTextContent("3");
+        MatcherAssert.assertThat(
+            "We expect nodes read from the copy before cloning to belong to the clone",
+            Arrays.asList(
+                String.valueOf(copy.shared()),
+                read.text().orElseThrow(),
+                copy.child("root").child("g").text().orElseThrow(),
+                original.child("root").child("g").text().orElseThrow()
+            ),
+            Matchers.contains("false", "3", "3", "2")
+        );
+    }
+
     @Test
     void retrievesNode() {
         final Xnav navigator = new Xnav("<root><a>1</a><b>2</b><c>3</c></root>");
@@ -366,6 +485,181 @@ final class XnavTest {
         );
     }
 
+    @Test
+    void reportsRealNumberOfExtraNodes() {
+        MatcherAssert.assertThat(
+            "We expect the error to tell how many nodes there are",
+            Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> new Xnav("<r><a/><a/><a/><a/></r>").strict("/r/a", 2),
+                "We expect an exception when there are more nodes than expected"
+            ).getMessage(),
+            Matchers.equalTo("Expected 2 child nodes, but found 4")
+        );
+    }
+
+    @Test
+    void checksThatNodeExistsByXPath() {
+        final Xnav xnav = new Xnav("<r><a/><b><a/></b></r>");
+        MatcherAssert.assertThat(
+            "We expect to find existing nodes and not to find missing ones",
+            List.of(xnav.exists("//a"), xnav.exists("/r/b/a"), xnav.exists("/r/c")),
+            Matchers.contains(true, true, false)
+        );
+    }
+
+    @Test
+    void countsNodesByXPathUpToLimit() {
+        final Xnav xnav = new Xnav("<r><a/><a/><b><a/></b><a/></r>");
+        MatcherAssert.assertThat(
+            "We expect to count nodes, but not more than the limit",
+            List.of(xnav.count("//a", 10L), xnav.count("//a", 2L), xnav.count("/r/c", 5L)),
+            Matchers.contains(4L, 2L, 0L)
+        );
+    }
+
+    @Test
+    void countsNodesByXPath() {
+        final Xnav xnav = new Xnav("<r><a/><a/><b><a/></b><a/></r>");
+        MatcherAssert.assertThat(
+            "We expect to count all the nodes by XPath",
+            List.of(xnav.count("//a"), xnav.count("/r/a"), xnav.count("/r/c")),
+            Matchers.contains(4L, 3L, 0L)
+        );
+    }
+
+    @Test
+    void evaluatesTopLevelCount() {
+        final Xnav xnav = new Xnav("<r><a/><a/><b><a/></b></r>");
+        MatcherAssert.assertThat(
+            "We expect a top-level count() to be evaluated",
+            List.of(xnav.count("count(//a)"), xnav.exists("count(//a)"), xnav.exists("count(//c)")),
+            Matchers.contains(3L, true, false)
+        );
+    }
+
+    @Test
+    void convertsDoublesLikeXpathNumber() {
+        MatcherAssert.assertThat(
+            "We expect only XPath numbers to be converted, and NaN for anything else",
+            Arrays.stream(
+                new Xnav(
+                    String.join(
+                        "",
+                        "<r><n>.5</n><n>-2.</n><n> 7 </n><n>NaN</n><n>Infinity</n>",
+                        "<n>1e3</n><n>0x1p3</n><n>+1</n><n>1d</n><n>-</n><n>.</n><n/></r>"
+                    )
+                ).doubles("/r/n")
+            ).boxed().collect(Collectors.toList()),
+            Matchers.contains(
+                Matchers.equalTo(0.5),
+                Matchers.equalTo(-2.0),
+                Matchers.equalTo(7.0),
+                Matchers.notANumber(),
+                Matchers.notANumber(),
+                Matchers.notANumber(),
+                Matchers.notANumber(),
+                Matchers.notANumber(),
+                Matchers.notANumber(),
+                Matchers.notANumber(),
+                Matchers.notANumber(),
+                Matchers.notANumber()
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dom", "token"})
+    void extractsValuesInBulk(final String backend) {
+        final Xnav xnav = new XnavFactory().backend(backend).xnav(
+            "<r><o base='1' w=' 2.5'>a&amp;b</o><o base='22' w='-3'/><o base=' 333 '>c</o></r>"
+        );
+        MatcherAssert.assertThat(
+            "We expect to extract strings and numbers without navigators",
+            List.of(
+                xnav.strings("/r/o"),
+                xnav.texts("//o/@base").map(CharSequence::toString).collect(Collectors.toList()),
+                Arrays.stream(xnav.ints("//o/@base")).boxed().collect(Collectors.toList()),
+                Arrays.stream(xnav.longs("//o/@base")).boxed().collect(Collectors.toList()),
+                Arrays.stream(xnav.doubles("//o/@w")).boxed().collect(Collectors.toList())
+            ),
+            Matchers.contains(
+                List.of("a&b", "", "c"),
+                List.of("1", "22", " 333 "),
+                List.of(1, 22, 333),
+                List.of(1L, 22L, 333L),
+                List.of(2.5, -3.0)
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dom", "token"})
+    void editsDocumentByXPath(final String backend) {
+        final Xnav xnav = new XnavFactory().backend(backend).xnav(
+            "<r><a x='1'>t</a><b/><c><d/></c></r>"
+        );
+        final Xnav edited = xnav.insert("/r/b", "<e>1</e><e>2</e>")
+            .set("/r/a", "y", "<2>")
+            .set("/r/a", "x", "3")
+            .replace("/r/c/d", "<f/>g")
+            .remove("//e[1]");
+        MatcherAssert.assertThat(
+            "We expect the edits to give the same document as parsing it from scratch",
+            List.of(edited, xnav),
+            Matchers.contains(
+                new XnavFactory().backend(backend).xnav(
+                    "<r><a x='3' y='&lt;2>'>t</a><b><e>2</e></b><c><f/>g</c></r>"
+                ),
+                new XnavFactory().backend(backend).xnav("<r><a x='1'>t</a><b/><c><d/></c></r>")
+            )
+        );
+    }
+
+    @Test
+    void countsNodesAfterEdit() {
+        MatcherAssert.assertThat(
+            "We expect queries to see the edited document",
+            new Xnav("<r><a/><a/></r>").remove("/r/a[1]").insert("/r", "<a/><a/>").count("//a"),
+            Matchers.equalTo(3L)
+        );
+    }
+
+    @Test
+    void failsToExtractNonNumbers() {
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> new Xnav("<r><o>x</o></r>").ints("/r/o"),
+            "We expect an exception when a text is not a number"
+        );
+    }
+
+    @Test
+    void profilesEveryStepOfQuery() {
+        final QueryProfile profile = new Xnav(
+            "<r><a><b/><c/></a><a><c/><c/></a></r>"
+        ).profile("/r/a[b]/c");
+        MatcherAssert.assertThat(
+            "We expect to see how many nodes went into and out of every step",
+            profile.steps().stream()
+                .map(step -> String.format("%s:%d:%d", step.name(), step.visited(), step.emitted()))
+                .collect(Collectors.toList()),
+            Matchers.contains(
+                "step:r:1:1", "step:b:2:1", "step:a[step:b]:1:1", "step:c:1:1"
+            )
+        );
+    }
+
+    @Test
+    void profilesConcurrently() {
+        final Xnav xnav = new Xnav("<r><a/><a/><b><a/></b></r>");
+        MatcherAssert.assertThat(
+            "We expect profiles to be collected independently in many threads",
+            new Together<>(10, thread -> xnav.profile("//a").found()),
+            Matchers.everyItem(Matchers.equalTo(3L))
+        );
+    }
+
     /**
      * This test was added after a bug was found in attribute retrieval.
      * https://github.com/volodya-lombrozo/xnav/issues/144
@@ -417,6 +711,74 @@ final class XnavTest {
         );
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"dom", "token", "lazy"})
+    void keepsNamespaceBindings(final String backend) {
+        MatcherAssert.assertThat(
+            "We expect the bound prefix to be used by navigators made from the bound one",
+            new XnavFactory().backend(backend)
+                .xnav("<x:a xmlns:x='urn:a'><x:b>1</x:b><b>2</b><y:b xmlns:y='urn:a'>3</y:b></x:a>")
+                .bind("n", "urn:a")
+                .element("x:a")
+                .strings("n:b"),
+            Matchers.contains("1", "3")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dom", "token"})
+    void insertsFragmentWithPrefixOfParent(final String backend) {
+        MatcherAssert.assertThat(
+            "We expect a fragment to use the prefixes declared by its new ancestors",
+            new XnavFactory().backend(backend).xnav("<r xmlns:p='urn:p'><b/></r>")
+                .insert("/r/b", "<p:a>1</p:a>")
+                .bind("n", "urn:p")
+                .strings("/r/b/n:a"),
+            Matchers.contains("1")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dom", "token"})
+    void readsDocumentWithUndeclaredPrefix(final String backend) {
+        MatcherAssert.assertThat(
+            "We expect undeclared prefixes to be kept in names, also in DOM nodes",
+            new XnavFactory().backend(backend).xnav("<x:root><x:a>t</x:a></x:root>")
+                .element("x:root").node().getFirstChild().getNodeName(),
+            Matchers.equalTo("x:a")
+        );
+    }
+
+    @Test
+    void rejectsInvalidPrefixes() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Xnav("<a/>").bind("n:m", "urn:a"),
+            "We expect a prefix with a colon to be rejected"
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dom", "token", "lazy"})
+    void filtersByNamespace(final String backend) {
+        MatcherAssert.assertThat(
+            "We expect elements to be filtered by namespaces and local names, not by prefixes",
+            new XnavFactory().backend(backend)
+                .xnav(
+                    String.join(
+                        "",
+                        "<r xmlns:x='urn:a' xmlns:y='urn:b'>",
+                        "<x:b>1</x:b><y:b>2</y:b><b xmlns='urn:a'>3</b><b>4</b></r>"
+                    )
+                )
+                .element("r")
+                .elements(Filter.withName("urn:a", "b"))
+                .map(nav -> nav.text().orElseThrow())
+                .collect(Collectors.toList()),
+            Matchers.contains("1", "3")
+        );
+    }
+
     @ParameterizedTest(name = "{0}")
     @MethodSource("filters")
     void filtersSuccessfully(final String title, final Filter filter, final List<String> expected) {
@@ -25,15 +25,22 @@
 package com.github.lombrozo.xnav;
 
 import com.yegor256.Together;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.w3c.dom.Node;
 
 /**
  * Tests for {@link Xpath}.
@@ -389,6 +396,31 @@ final class XpathTest {
         );
     }
 
+    @Test
+    void selectsTopFirstFromTokenXml() {
+        final List<Xnav> all = new Xnav(
+            new TokenXml(
+                String.join(
+                    "\n",
+                    "<o base='bytes'>",
+                    "  <o base='bytes'>same</o>",
+                    "  <o base='bytes'>same</o>",
+                    "</o>"
+                )
+            )
+        ).path("//o[@base='bytes']").collect(Collectors.toList());
+        MatcherAssert.assertThat(
+            "We expect structurally equal nodes not to be merged",
+            all,
+            Matchers.hasSize(3)
+        );
+        MatcherAssert.assertThat(
+            "We expect to find the correct first text",
+            all.get(0).text().get(),
+            Matchers.equalTo("\n  same\n  same\n")
+        );
+    }
+
     @Test
     void findsCorrectTextFromNestedPredicate() {
         final String xml = String.join(
@@ -546,6 +578,150 @@ final class XpathTest {
         );
     }
 
+    @Test
+    void mergesUnionInDocumentOrder() {
+        final String xml = "<r><a>1</a><b>2</b><c><a>3</a></c><b>4</b><a>5</a></r>";
+        MatcherAssert.assertThat(
+            "We expect the union to be merged by document order without duplicates",
+            Stream.of(new DomXml(xml), new TokenXml(xml))
+                .map(
+                    doc -> new Xpath(doc, "/r/b | /r/a | /r/*[2] | /r/c/a").nodes()
+                        .map(Xml::text)
+                        .map(Optional::get)
+                        .collect(Collectors.joining())
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.equalTo("12345"))
+        );
+    }
+
+    @Test
+    void keepsRecursiveAttributesInDocumentOrder() {
+        final String xml = "<o base='1'><o base='2'><o base='3'/></o><o base='4'/></o>";
+        MatcherAssert.assertThat(
+            "We expect recursive search to return attributes lazily in document order",
+            Stream.of(new DomXml(xml), new TokenXml(xml))
+                .map(
+                    doc -> new Xpath(doc, "//o/@base").nodes()
+                        .map(Xml::text)
+                        .map(Optional::get)
+                        .collect(Collectors.joining())
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.equalTo("1234"))
+        );
+    }
+
+    @Test
+    void takesFirstNodesOfRecursiveSearch() {
+        final String xml = "<r><o>1</o><p><o>2</o></p><o>3</o></r>";
+        MatcherAssert.assertThat(
+            "We expect a limited recursive search to return the first nodes in document order",
+            Stream.of(new DomXml(xml), new TokenXml(xml))
+                .map(
+                    doc -> new Xpath(doc, "//o").nodes()
+                        .limit(2L)
+                        .map(Xml::text)
+                        .map(Optional::get)
+                        .collect(Collectors.joining())
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.equalTo("12"))
+        );
+    }
+
+    @Test
+    void filtersByCountAndBoolean() {
+        final String xml = "<r><a><b/><b/></a><a><b/></a><a x='1'/></r>";
+        MatcherAssert.assertThat(
+            "We expect count() and boolean() to work in predicates",
+            Stream.of(new DomXml(xml), new TokenXml(xml))
+                .map(
+                    doc -> Stream.of(
+                        "/r/a[count(b) > 1]", "/r/a[count(b)=1]", "/r/a[count(.//b) < 1]",
+                        "/r/a[boolean(@x)]", "/r/a[not(boolean(b))]", "/r[count(//b)=3]",
+                        "/r/a[count(b | @x)]"
+                    )
+                        .map(path -> new Xpath(doc, path).nodes().count())
+                        .collect(Collectors.toList())
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.contains(1L, 1L, 1L, 1L, 1L, 1L, 0L))
+        );
+    }
+
+    @Test
+    void treatsNumericPredicateAsPosition() {
+        final String xml = "<r><a>1</a><a><b/><b/>2</a><a><b/>3</a><a><b/><b/><b/><b/>4</a></r>";
+        MatcherAssert.assertThat(
+            "We expect a number in a predicate to be compared with the position",
+            Stream.of(new DomXml(xml), new TokenXml(xml))
+                .map(
+                    doc -> new Xpath(doc, "/r/a[count(b)]").nodes()
+                        .map(Xml::text)
+                        .map(Optional::orElseThrow)
+                        .collect(Collectors.toList())
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.contains("2", "4"))
+        );
+    }
+
+    @Test
+    void countsByTopLevelCount() {
+        final Xml xml = new TokenXml("<r><a/><b><a/></b><a/></r>");
+        MatcherAssert.assertThat(
+            "We expect a top-level count() to give the number of nodes",
+            List.of(
+                new Xpath(xml, "count(//a)").count(),
+                new Xpath(xml, "count(/r/b | /r/a)").count(),
+                new Xpath(xml, "count(//c)").count()
+            ),
+            Matchers.contains(3L, 3L, 0L)
+        );
+    }
+
+    @Test
+    void rejectsNodesOfTopLevelCount() {
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> new Xpath(new DomXml("<r/>"), "count(/r)").nodes().count(),
+            "We expect a top-level count() not to give nodes"
+        );
+    }
+
+    @Test
+    void countsNodesWithoutCollecting() {
+        final String xml = "<r><a><a/><b><a/></b></a><c><a/></c><a/></r>";
+        MatcherAssert.assertThat(
+            "We expect the same counts from the index and from the walk",
+            Stream.of(new DomXml(xml), new TokenXml(xml))
+                .map(
+                    doc -> Stream.of("//a", "/r//a", "/r/a//a", "//a//a", "//b/a", "//*", "//d")
+                        .map(path -> new Xpath(doc, path).count())
+                        .collect(Collectors.toList())
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.contains(5L, 5L, 2L, 2L, 1L, 8L, 0L))
+        );
+    }
+
+    @Test
+    void selectsAllNodesByKind() {
+        final String xml = "<a><b x='1' y='2'/>t<!--c--><?p d?><![CDATA[e]]></a>";
+        MatcherAssert.assertThat(
+            "We expect node tests to select nodes by their kinds",
+            Stream.of(new DomXml(xml), new TokenXml(xml))
+                .map(
+                    doc -> Stream.of("/a/node()", "/a/*", "/a/text()", "/a/b/@*", "/a/b/@node()")
+                        .map(path -> new Xpath(doc, path).nodes().count())
+                        .collect(Collectors.toList())
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.contains(5L, 1L, 2L, 2L, 2L))
+        );
+    }
+
     @ParameterizedTest
     @MethodSource({
         "xpaths",
@@ -561,7 +737,10 @@ final class XpathTest {
         "textEquality",
         "complexXpaths",
         "startsWithTests",
-        "complexStartsWithTests"
+        "complexStartsWithTests",
+        "axes",
+        "nodeTests",
+        "unions"
     })
     void checksManyXpaths(final String xpath, final Xml xml, final String expected) {
         MatcherAssert.assertThat(
@@ -575,6 +754,341 @@ final class XpathTest {
         );
     }
 
+    @ParameterizedTest
+    @MethodSource({
+        "xpaths",
+        "attributeFilters",
+        "binaryOperators",
+        "inversion",
+        "stringLength",
+        "normalizeSpace",
+        "parentheses",
+        "predicatesOverResults",
+        "recursivePaths",
+        "subpathExpressions",
+        "textEquality",
+        "complexXpaths",
+        "startsWithTests",
+        "complexStartsWithTests",
+        "axes",
+        "nodeTests",
+        "unions"
+    })
+    void checksManyXpathsOnTokenXml(final String xpath, final Xml xml, final String expected) {
+        MatcherAssert.assertThat(
+            "We expect to retrieve the xpath text correctly from the token implementation",
+            new Xpath(new TokenXml(xml.toString()), xpath).nodes().findFirst()
+                .map(Xml::text)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .orElse(""),
+            Matchers.equalTo(expected)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "/r/i[@n='x']/@id",
+            "/r/*/@id",
+            "/r/i[@n='y & z']",
+            "/r/*[@n]",
+            "/r/i[@n='x' and @id='4']/@id",
+            "/r/i[@id='2' or @id='1']/text()",
+            "/r/i[text()='a']"
+        }
+    )
+    void compilesHotExpressions(final String path) {
+        final String xml = String.join(
+            "",
+            "<r><i id=\"1\" n=\"x\">a</i><i id=\"2\" n=\"y &amp; z\"/>",
+            "<j id=\"3\"/><i id=\"4\" n=\"x\"/></r>"
+        );
+        final Xml token = new TokenXml(xml);
+        for (int idx = 0; idx < 200; ++idx) {
+            new Xpath(token, path).count();
+        }
+        MatcherAssert.assertThat(
+            "We expect a hot expression to give the same nodes as the interpreter",
+            new Xpath(token, path).nodes().map(Object::toString).collect(Collectors.toList()),
+            Matchers.equalTo(
+                new Xpath(new DomXml(xml), path).nodes().map(Object::toString)
+                    .collect(Collectors.toList())
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("namespaces")
+    void matchesNamesByNamespaces(final String xpath, final String expected) {
+        final String xml = String.join(
+            "",
+            "<r xmlns=\"urn:d\" xmlns:a=\"urn:p\"><a:i a:id=\"1\">x</a:i><i id=\"2\">y</i>",
+            "<b:i xmlns:b=\"urn:p\" b:id=\"3\">z</b:i><c:k xmlns:c=\"urn:q\">w</c:k></r>"
+        );
+        final Map<String, String> prefixes = Map.of("p", "urn:p", "q", "urn:q");
+        MatcherAssert.assertThat(
+            "We expect bound prefixes to match by namespaces in both DOM and token backends",
+            Stream.of(new DomXml(xml), new TokenXml(xml))
+                .map(
+                    doc -> new Xpath(doc, xpath, prefixes).nodes().findFirst()
+                        .flatMap(Xml::text)
+                        .orElse("")
+                )
+                .collect(Collectors.toList()),
+            Matchers.contains(expected, expected)
+        );
+    }
+
+    @Test
+    void compilesNamespacedSteps() {
+        final Xml token = new TokenXml(
+            "<r xmlns:a=\"urn:p\"><a:i id=\"1\"/><i id=\"2\"/><b:i xmlns:b=\"urn:p\" id=\"3\"/></r>"
+        );
+        final Map<String, String> prefixes = Map.of("p", "urn:p");
+        for (int idx = 0; idx < 200; ++idx) {
+            new Xpath(token, "/r/p:i/@id", prefixes).count();
+        }
+        MatcherAssert.assertThat(
+            "We expect a hot namespaced expression to be compiled and to find the same nodes",
+            String.format(
+                "%s %s",
+                new Xpath(token, "/r/p:i/@id", prefixes).compiled(),
+                new Xpath(token, "/r/p:i/@id", prefixes).nodes()
+                    .map(node -> node.text().orElseThrow())
+                    .collect(Collectors.toList())
+            ),
+            Matchers.equalTo("true [1, 3]")
+        );
+    }
+
+    @Test
+    void parsesSamePathWithOtherPrefixesSeparately() {
+        final Xml xml = new TokenXml("<r xmlns:a=\"urn:a\" xmlns:b=\"urn:b\"><a:i/><b:i/></r>");
+        MatcherAssert.assertThat(
+            "We expect the same path to be resolved by its own bindings",
+            Stream.of("urn:a", "urn:b", "urn:c")
+                .map(uri -> new Xpath(xml, "/r/n:i", Map.of("n", uri)).nodes().findFirst())
+                .map(node -> node.map(Xml::name).orElse(""))
+                .collect(Collectors.toList()),
+            Matchers.contains("a:i", "b:i", "")
+        );
+    }
+
+    @Test
+    void matchesUnboundWildcardByWrittenPrefix() {
+        final String xml = "<r><p:a x='1'/><q:b/><p:c p:y='2' z='3'/></r>";
+        MatcherAssert.assertThat(
+            "We expect a wildcard with an unbound prefix to match names written with it",
+            Stream.of(new DomXml(xml), new TokenXml(xml), new LazyXml(xml))
+                .map(
+                    doc -> Stream.of("/r/p:*", "//@p:*", "/r/*[@p:*]")
+                        .map(
+                            path -> new Xpath(doc, path).nodes()
+                                .map(Xml::name)
+                                .collect(Collectors.joining(","))
+                        )
+                        .collect(Collectors.joining(" "))
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.equalTo("p:a,p:c p:y p:c"))
+        );
+    }
+
+    @Test
+    void resolvesRedeclaredPrefixesInOneEvaluation() {
+        final String xml = String.join(
+            "",
+            "<r xmlns:p='urn:a'><p:i>1</p:i><s xmlns:p='urn:b'><p:i>2</p:i>",
+            "<t><p:i>3</p:i></t></s><p:i>4</p:i></r>"
+        );
+        MatcherAssert.assertThat(
+            "We expect every node to be resolved by its own nearest declaration",
+            Stream.of(new DomXml(xml), new TokenXml(xml), new LazyXml(xml))
+                .map(
+                    doc -> Stream.of("urn:a", "urn:b")
+                        .map(
+                            uri -> new Xpath(doc, "//n:i", Map.of("n", uri)).nodes()
+                                .map(node -> node.text().orElseThrow())
+                                .collect(Collectors.joining(","))
+                        )
+                        .collect(Collectors.joining(" "))
+                )
+                .collect(Collectors.toList()),
+            Matchers.everyItem(Matchers.equalTo("1,4 2,3"))
+        );
+    }
+
+    @Test
+    void keepsResultsAfterCompilation() {
+        final String xml = "<a><?b data?><b/><c><b/></c><b/></a>";
+        final Xml token = new TokenXml(xml);
+        final List<String> results = new ArrayList<>(0);
+        for (int idx = 0; idx < 200; ++idx) {
+            results.add(
+                String.format(
+                    "%d %s",
+                    new Xpath(token, "/a/b").count(),
+                    new Xpath(token, "/a/b").nodes().findFirst().map(Xml::name).orElse("")
+                )
+            );
+        }
+        MatcherAssert.assertThat(
+            "We expect the same results before and after the expression is compiled",
+            String.format(
+                "%s %s %s",
+                new Xpath(token, "/a/b").compiled(),
+                new HashSet<>(results),
+                new Xpath(new DomXml(xml), "/a/b").count()
+            ),
+            Matchers.equalTo("true [2 b] 2")
+        );
+    }
+
+    @Test
+    void compilesOnlySupportedSteps() {
+        final Xml token = new TokenXml("<r><i id='1'>a</i></r>");
+        for (int idx = 0; idx < 200; ++idx) {
+            new Xpath(token, "/r/i/@id").count();
+            new Xpath(token, "/r/i[1]/@id").count();
+        }
+        MatcherAssert.assertThat(
+            "We expect only child and attribute steps with attribute predicates to be compiled",
+            List.of(
+                new Xpath(token, "/r/i/@id").compiled(),
+                new Xpath(token, "/r/i[1]/@id").compiled()
+            ),
+            Matchers.contains(true, false)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/lib/shelf/book[1]", "/lib/shelf/child::book[1]", "//book[1]"})
+    void appliesPositionToChildrenOfEachParent(final String path) {
+        MatcherAssert.assertThat(
+            "We expect the position to count the children of each parent separately",
+            new Xpath(
+                new TokenXml(
+                    "<lib><shelf><book>A</book><book>B</book></shelf><shelf><book>D</book></shelf></lib>"
+                ),
+                path
+            ).nodes().map(Xml::text).map(Optional::orElseThrow).collect(Collectors.toList()),
+            Matchers.contains("A", "D")
+        );
+    }
+
+    @Test
+    void walksRecursivePathLazily() {
+        final AtomicInteger calls = new AtomicInteger(0);
+        MatcherAssert.assertThat(
+            "We expect the recursive path to stop walking at the first found node",
+            new Xpath(
+                new Counted(
+                    new TokenXml(
+                        Stream.generate(() -> "<o><i/></o>")
+                            .limit(1000L)
+                            .collect(Collectors.joining("", "<r>", "</r>"))
+                    ),
+                    calls
+                ),
+                "//o"
+            ).nodes().findFirst().map(Xml::name).orElseThrow(),
+            Matchers.equalTo("o")
+        );
+        MatcherAssert.assertThat(
+            "We expect only a few nodes to be expanded",
+            calls.get(),
+            Matchers.lessThan(10)
+        );
+    }
+
+    /**
+     * Arguments for the union tests.
+     *
+     * @return Arguments for the test.
+     */
+    private static Object[][] unions() {
+        final Xml xml = XpathTest.xml(
+            "<r><a>1</a><b>2</b><c><a>3</a></c><b>4</b></r>"
+        );
+        return new Object[][]{
+            {"/r/b | /r/a", xml, "1"},
+            {"/r/c | /r/b", xml, "2"},
+            {"(/r/b | /r/c/a)[2]", xml, "3"},
+            {"//b | //a", xml, "1"},
+            {"/r/c/a | /r/b[2]", xml, "3"},
+            {"/r/*[b | c]", xml, ""},
+            {"/r/c[a | b]/a", xml, "3"},
+            {"/r/x | /r/y", xml, ""},
+        };
+    }
+
+    /**
+     * Arguments for the node tests.
+     *
+     * @return Arguments for the test.
+     */
+    private static Object[][] nodeTests() {
+        final Xml xml = XpathTest.xml(
+            "<program><objects><o name='a'>x</o><!--c--><o name='b'/><p name='c'>y<![CDATA[z]]></p></objects></program>"
+        );
+        final String first = "a";
+        return new Object[][]{
+            {"/program/objects/*/@name", xml, first},
+            {"/program/objects/*[3]/@name", xml, "c"},
+            {"/program/objects/*[@name='b']/@name", xml, "b"},
+            {"/program/*/o[2]/@name", xml, "b"},
+            {"/*/objects/p/@name", xml, "c"},
+            {"/program/objects/o[1]/@*", xml, first},
+            {"/program/objects/o[1]/attribute::*", xml, first},
+            {"/program/objects/o[1]/@node()", xml, first},
+            {"/program/objects/p/text()", xml, "y"},
+            {"/program/objects/p/child::text()[2]", xml, "z"},
+            {"/program/objects/comment()", xml, "c"},
+            {"/program/objects/*[not(text())]/@name", xml, "b"},
+            {"/program/objects/*[node()]/@name", xml, first},
+            {"/program/objects/*[*]/@name", xml, ""},
+            {"/program/objects/o[1]/text()/../@name", xml, first},
+        };
+    }
+
+    /**
+     * Arguments for the axes tests.
+     *
+     * @return Arguments for the test.
+     */
+    private static Object[][] axes() {
+        final Xml xml = XpathTest.xml(
+            "<lib><shelf n='1'><book id='a'>A</book><book id='b'>B</book><book id='c'>C</book></shelf><shelf n='2'><book id='d'>D</book></shelf></lib>"
+        );
+        final String second = "B";
+        return new Object[][]{
+            {"/lib/shelf/book[@id='b']/parent::shelf/@n", xml, "1"},
+            {"/lib/shelf/book[@id='d']/../@n", xml, "2"},
+            {"/lib/shelf/book[@id='b']/@id/..", xml, second},
+            {"/lib/shelf/book[@id='b']/following-sibling::book", xml, "C"},
+            {"/lib/shelf/book[@id='c']/preceding-sibling::book", xml, "A"},
+            {"/lib/shelf/book[@id='c']/preceding-sibling::book[1]", xml, second},
+            {"/lib/shelf/book[@id='d']/ancestor::lib/shelf/@n", xml, "1"},
+            {"/lib/shelf/book[@id='a']/ancestor-or-self::book", xml, "A"},
+            {"/lib/shelf/book[@id='a']/ancestor::shelf[1]/@n", xml, "1"},
+            {"/lib/shelf[2]/self::shelf/@n", xml, "2"},
+            {"/lib/shelf[2]/self::book", xml, ""},
+            {"/lib/descendant::book[3]", xml, "C"},
+            {"/lib/descendant-or-self::lib/shelf/book", xml, "A"},
+            {"/lib/shelf/book[following-sibling::book]", xml, "A"},
+            {"/lib/shelf/book[not(preceding-sibling::book)][2]", xml, ""},
+            {"/lib/shelf/book[1]/@id", xml, "a"},
+            {"/lib/shelf/book[1][@id='d']", xml, "D"},
+            {"(/lib/shelf/book)[4]", xml, "D"},
+            {"/lib/shelf/book[@id='a']/./@id", xml, "a"},
+            {"/lib/shelf[@n='2']/book/ancestor::shelf/preceding-sibling::shelf/book[2]", xml, second},
+            {"/lib/child::shelf[2]/child::book", xml, "D"},
+            {"/lib/shelf/book[@id='b']/attribute::id", xml, "b"},
+            {"/lib/shelf/book[parent::shelf[@n='2']]", xml, "D"},
+        };
+    }
+
     /**
      * Arguments for the starts-with() function tests.
      *
@@ -684,6 +1198,11 @@ final class XpathTest {
             {
                 "/program/metas/meta[head='unlint' and (tail='lname' or starts-with(tail, 'lname:'))]/tail[2]",
                 xml,
+                "",
+            },
+            {
+                "(/program/metas/meta[head='unlint' and (tail='lname' or starts-with(tail, 'lname:'))]/tail)[2]",
+                xml,
                 "lname:extra",
             },
             {
@@ -694,6 +1213,11 @@ final class XpathTest {
             {
                 "/program/metas/meta[starts-with(tail, 'lm') or starts-with(tail, 'ln')]/tail[2]",
                 xml,
+                "",
+            },
+            {
+                "(/program/metas/meta[starts-with(tail, 'lm') or starts-with(tail, 'ln')]/tail)[2]",
+                xml,
                 "lname:extra",
             },
             {
@@ -704,6 +1228,11 @@ final class XpathTest {
             {
                 "/program/metas/meta[starts-with(head, 'un') and (starts-with(tail, 'lname') or starts-with(tail, 'something'))]/head[2]",
                 xml,
+                "",
+            },
+            {
+                "(/program/metas/meta[starts-with(head, 'un') and (starts-with(tail, 'lname') or starts-with(tail, 'something'))]/head)[2]",
+                xml,
                 "unlint",
             },
             {
@@ -1071,6 +1600,33 @@ final class XpathTest {
         };
     }
 
+    /**
+     * Arguments for the namespace tests.
+     * Prefix 'p' is bound to 'urn:p', 'q' to 'urn:q'.
+     * @return Arguments.
+     */
+    private static Object[][] namespaces() {
+        final String first = "x";
+        final String last = "w";
+        return new Object[][]{
+            {"/r/p:i", first},
+            {"/r/p:i[2]", "z"},
+            {"/r/p:i[@p:id='3']", "z"},
+            {"/r/p:i/@p:id", "1"},
+            {"/r/p:i[2]/attribute::p:id", "3"},
+            {"/r/q:*", last},
+            {"/r/p:*[2]", "z"},
+            {"//p:i[@p:id]", first},
+            {"/r/*[local-name()='k']", last},
+            {"/r/*[namespace-uri()='urn:d']", "y"},
+            {"/r/*[namespace-uri()='urn:q']", last},
+            {"/r/p:i[local-name(@p:id)='id']", first},
+            {"/r/i[@id='2']", "y"},
+            {"/r/a:i", first},
+            {"/r/x:i", ""},
+        };
+    }
+
     /**
      * Creates an XML from the lines.
      * @param lines Lines of XML.
@@ -1080,4 +1636,100 @@ final class XpathTest {
         return new DomXml(String.join("\n", lines));
     }
 
+    /**
+     * XML that counts how many times children are listed.
+     * @since 0.2
+     */
+    private static final class Counted implements OrderedXml {
+
+        /**
+         * Origin.
+         */
+        private final Xml origin;
+
+        /**
+         * Number of 'children()' calls.
+         */
+        private final AtomicInteger calls;
+
+        /**
+         * Constructor.
+         * @param origin Origin.
+         * @param calls Number of 'children()' calls.
+         */
+        Counted(final Xml origin, final AtomicInteger calls) {
+            this.origin = origin;
+            this.calls = calls;
+        }
+
+        @Override
+        public Xml child(final String element) {
+            return this.wrap(this.origin.child(element));
+        }
+
+        @Override
+        public Optional<Xml> attribute(final String name) {
+            return this.origin.attribute(name).map(this::wrap);
+        }
+
+        @Override
+        public Optional<String> text() {
+            return this.origin.text();
+        }
+
+        @Override
+        public Stream<Xml> children() {
+            this.calls.incrementAndGet();
+            return this.origin.children().map(this::wrap);
+        }
+
+        @Override
+        public String name() {
+            return this.origin.name();
+        }
+
+        @Override
+        public Stream<Xml> attributes() {
+            return this.origin.attributes().map(this::wrap);
+        }
+
+        @Override
+        public Xml parent() {
+            return this.wrap(this.origin.parent());
+        }
+
+        @Override
+        public Xml next() {
+            return this.wrap(this.origin.next());
+        }
+
+        @Override
+        public Xml previous() {
+            return this.wrap(this.origin.previous());
+        }
+
+        @Override
+        public Xml copy() {
+            return this.wrap(this.origin.copy());
+        }
+
+        @Override
+        public Node node() {
+            return this.origin.node();
+        }
+
+        @Override
+        public int position() {
+            return ((OrderedXml) this.origin).position();
+        }
+
+        /**
+         * Wrap a node with the same counter.
+         * @param xml Node.
+         * @return Counted node.
+         */
+        private Xml wrap(final Xml xml) {
+            return new Counted(xml, this.calls);
+        }
+    }
 }